@@ -0,0 +1,626 @@
+import java.util.*;
+
+/**
+ * AstLower
+ *
+ * Translation of a checked program into the intermediate representation.
+ * Each function becomes an IrFunction in which every formal and local is
+ * a virtual register; only globals are declared as storage.
+ *
+ * Walking an expression appends IR computing it to the current function
+ * and pushes its value on myValues (null for a call of a void function),
+ * for a later step of its parent to pop (see AstWalker).  Expressions
+ * used as conditions are lowered by cond, and those assigned to by store.
+ * Placing a block, or jumping to one, between the kids of a node is
+ * scheduled with place and jump.
+ */
+class AstLower extends AstWalker {
+    // steps that any node may be walked with, for the work between kids
+    private static final int COND = -1;     // lower as a condition
+    private static final int BRANCH = -2;   // branch on the value popped
+    private static final int PLACE = -3;    // place a block
+    private static final int JUMP = -4;     // jump to a block
+
+    /**
+     * Translate the program root.
+     */
+    public IrProgram lower(ProgramNode root) {
+        myProgram = new IrProgram();
+        myValues = new ArrayList<IrValue>();
+        walkTree(root);
+        return myProgram;
+    }
+
+    /**
+     * Do the steps that are not those of a visit method; the data of
+     * COND and BRANCH are the targets if true and if false, and that of
+     * PLACE and JUMP the block.
+     */
+    protected void dispatch(ASTnode node) {
+        switch (step()) {
+        case COND:
+            IrBlock[] targets = (IrBlock[])data();
+            branch((ExpNode)node, targets[0], targets[1]);
+            break;
+        case BRANCH:
+            targets = (IrBlock[])data();
+            myBuilder.branch(pop(), targets[0], targets[1]);
+            break;
+        case PLACE:
+            myBuilder.place((IrBlock)data());
+            break;
+        case JUMP:
+            myBuilder.jump((IrBlock)data());
+            break;
+        default:
+            node.accept(this);
+        }
+    }
+
+    // schedule placing blk, or jumping to it, after the work scheduled so far
+    private void place(IrBlock blk) {
+        resume(PLACE, blk);
+    }
+
+    private void jump(IrBlock blk) {
+        resume(JUMP, blk);
+    }
+
+    /**
+     * At step 0, walk exps and resume the current node at step 1; return
+     * whether their values have been pushed, as they have from step 1 on.
+     */
+    private boolean lowered(ExpNode... exps) {
+        if (step() > 0) {
+            return true;
+        }
+        for (ExpNode exp : exps) {
+            walk(exp);
+        }
+        resume(1);
+        return false;
+    }
+
+    private void push(IrValue val) {
+        myValues.add(val);
+    }
+
+    private IrValue pop() {
+        return myValues.remove(myValues.size() - 1);
+    }
+
+    // pop the values of the last n expressions, in the order they were pushed
+    private IrValue[] pop(int n) {
+        IrValue[] vals = new IrValue[n];
+        for (int k = n - 1; k >= 0; k--) {
+            vals[k] = pop();
+        }
+        return vals;
+    }
+
+    // **********************************************************************
+    // lists and other internal nodes
+    // **********************************************************************
+    public Void visit(ProgramNode node) {
+        walk(node.declList());
+        return null;
+    }
+
+    public Void visit(DeclListNode node) {
+        for (DeclNode decl : node.decls()) {
+            walk(decl);
+        }
+        return null;
+    }
+
+    /**
+     * Gives each formal a register, in order, as a parameter of the
+     * current function.
+     */
+    public Void visit(FormalsListNode node) {
+        for (FormalDeclNode formal : node.formals()) {
+            myBuilder.function().params().add(myBuilder.var(formal.getTSym()));
+        }
+        return null;
+    }
+
+    public Void visit(FnBodyNode node) {
+        walk(node.stmtList());
+        return null;
+    }
+
+    public Void visit(StmtListNode node) {
+        for (StmtNode stmt : node.stmts()) {
+            walk(stmt);
+        }
+        return null;
+    }
+
+    /**
+     * The args of a call are walked by the call itself.
+     */
+    public Void visit(ExpListNode node) {
+        return null;
+    }
+
+    // **********************************************************************
+    // declarations
+    // **********************************************************************
+
+    /**
+     * Only globals need to be declared; locals live in registers.
+     */
+    public Void visit(VarDeclNode node) {
+        IdNode id = node.id();
+        if (id.sym().isGlobal()) {
+            myProgram.addGlobal(id.name(), StructDefSym.sizeOf(id.sym()));
+        }
+        return null;
+    }
+
+    public Void visit(FnDeclNode node) {
+        if (step() == 0) {
+            IdNode id = node.id();
+            myBuilder = new IrBuilder(new IrFunction(id.name(), id.isMain()));
+            walkTree(node.formalsList());
+            walk(node.body());
+            resume(1);
+        } else {
+            myProgram.functions().add(myBuilder.finish());
+            myBuilder = null;
+        }
+        return null;
+    }
+
+    public Void visit(FormalDeclNode node) {
+        return null;
+    }
+
+    public Void visit(StructDeclNode node) {
+        return null;
+    }
+
+    public Void visit(IntNode node) {
+        return null;
+    }
+
+    public Void visit(BoolNode node) {
+        return null;
+    }
+
+    public Void visit(VoidNode node) {
+        return null;
+    }
+
+    public Void visit(StructNode node) {
+        return null;
+    }
+
+    // **********************************************************************
+    // statements: each leaves myValues as it found it
+    // **********************************************************************
+    public Void visit(AssignStmtNode node) {
+        if (lowered(node.assign())) {
+            pop();
+        }
+        return null;
+    }
+
+    public Void visit(PostIncStmtNode node) {
+        ExpNode exp = node.exp();
+        if (lowered(exp)) {
+            store(exp, myBuilder.emit(IrOp.ADD, pop(), new IrConst(1)));
+        }
+        return null;
+    }
+
+    public Void visit(PostDecStmtNode node) {
+        ExpNode exp = node.exp();
+        if (lowered(exp)) {
+            store(exp, myBuilder.emit(IrOp.SUB, pop(), new IrConst(1)));
+        }
+        return null;
+    }
+
+    public Void visit(ReadStmtNode node) {
+        store(node.exp(), myBuilder.emit(IrOp.READ));
+        return null;
+    }
+
+    public Void visit(WriteStmtNode node) {
+        ExpNode exp = node.exp();
+        if (lowered(exp)) {
+            IrOp op = exp.type().isStringType() ? IrOp.WRITESTR : IrOp.WRITEINT;
+            myBuilder.emit(new IrInstr(op, null, pop()));
+        }
+        return null;
+    }
+
+    public Void visit(IfStmtNode node) {
+        IrBuilder b = myBuilder;
+        IrBlock thenBlk = b.newBlock();
+        IrBlock doneBlk = b.newBlock();
+        cond(node.exp(), thenBlk, doneBlk);
+        place(thenBlk);
+        walk(node.stmtList());
+        place(doneBlk);
+        return null;
+    }
+
+    public Void visit(IfElseStmtNode node) {
+        IrBuilder b = myBuilder;
+        IrBlock thenBlk = b.newBlock();
+        IrBlock elseBlk = b.newBlock();
+        IrBlock doneBlk = b.newBlock();
+        cond(node.exp(), thenBlk, elseBlk);
+        place(thenBlk);
+        walk(node.thenStmtList());
+        jump(doneBlk);
+        place(elseBlk);
+        walk(node.elseStmtList());
+        place(doneBlk);
+        return null;
+    }
+
+    public Void visit(WhileStmtNode node) {
+        IrBuilder b = myBuilder;
+        IrBlock condBlk = b.newBlock();
+        IrBlock bodyBlk = b.newBlock();
+        IrBlock doneBlk = b.newBlock();
+        b.place(condBlk);
+        cond(node.exp(), bodyBlk, doneBlk);
+        place(bodyBlk);
+        walk(node.stmtList());
+        jump(condBlk);
+        place(doneBlk);
+        return null;
+    }
+
+    /**
+     * Executes the body the number of times given by the expression,
+     * which is evaluated once.  A small constant count is unrolled (see
+     * RepeatStmtNode.unrollCount).  Otherwise the count is tested once
+     * before the loop, and each iteration ends by decrementing it and
+     * branching back while it is positive, with no other jump.
+     */
+    public Void visit(RepeatStmtNode node) {
+        IrBuilder b = myBuilder;
+        switch (step()) {
+        case 0:
+            int n = node.unrollCount();
+            if (n >= 0) {
+                for (int k = 0; k < n; k++) {
+                    walk(node.stmtList());
+                }
+                return null;
+            }
+            IrReg count = b.newReg();
+            walk(node.exp());
+            resume(1, new Loop(count));
+            break;
+
+        case 1:
+            Loop loop = (Loop)data();
+            b.copy(loop.count, pop());
+            loop.bodyBlk = b.newBlock();
+            loop.doneBlk = b.newBlock();
+            b.branch(b.emit(IrOp.GT, loop.count, new IrConst(0)),
+                     loop.bodyBlk, loop.doneBlk);
+            b.place(loop.bodyBlk);
+            walk(node.stmtList());
+            resume(2, loop);
+            break;
+
+        default:
+            loop = (Loop)data();
+            b.copy(loop.count, b.emit(IrOp.SUB, loop.count, new IrConst(1)));
+            b.branch(b.emit(IrOp.GT, loop.count, new IrConst(0)),
+                     loop.bodyBlk, loop.doneBlk);
+            b.place(loop.doneBlk);
+        }
+        return null;
+    }
+
+    // the count register and blocks of a repeat loop, for its later steps
+    private static class Loop {
+        public Loop(IrReg count) {
+            this.count = count;
+        }
+
+        public final IrReg count;
+        public IrBlock bodyBlk;
+        public IrBlock doneBlk;
+    }
+
+    public Void visit(CallStmtNode node) {
+        if (lowered(node.call())) {
+            pop();
+        }
+        return null;
+    }
+
+    public Void visit(ReturnStmtNode node) {
+        if (node.exp() == null) {
+            myBuilder.emit(new IrInstr(IrOp.RETURN, null));
+        } else if (lowered(node.exp())) {
+            myBuilder.emit(new IrInstr(IrOp.RETURN, null, pop()));
+        }
+        return null;
+    }
+
+    // **********************************************************************
+    // expressions
+    // **********************************************************************
+    public Void visit(IntLitNode node) {
+        push(new IrConst(node.value()));
+        return null;
+    }
+
+    public Void visit(StringLitNode node) {
+        push(new IrStr(node.str()));
+        return null;
+    }
+
+    public Void visit(TrueNode node) {
+        push(new IrConst(1));
+        return null;
+    }
+
+    public Void visit(FalseNode node) {
+        push(new IrConst(0));
+        return null;
+    }
+
+    /**
+     * Globals are loaded from memory; locals and formals are registers.
+     */
+    public Void visit(IdNode node) {
+        TSym sym = node.sym();
+        if (sym.isGlobal()) {
+            IrReg dst = myBuilder.newReg();
+            IrInstr load = new IrInstr(IrOp.LOADG, dst);
+            load.setName(node.name());
+            myBuilder.emit(load);
+            push(dst);
+        } else {
+            push(myBuilder.var(sym));
+        }
+        return null;
+    }
+
+    /**
+     * The field is at a constant offset in the variable at the root of
+     * the chain: a word of a global, loaded directly, or a register of
+     * its own for a local (see IrBuilder.field).
+     */
+    public Void visit(DotAccessExpNode node) {
+        IdNode base = node.base();
+        if (base.sym().isGlobal()) {
+            IrReg dst = myBuilder.newReg();
+            IrInstr load = new IrInstr(IrOp.LOADG, dst);
+            load.setName(base.name());
+            load.setOffset(node.offset());
+            myBuilder.emit(load);
+            push(dst);
+        } else {
+            push(myBuilder.field(base.sym(), node.offset()));
+        }
+        return null;
+    }
+
+    public Void visit(AssignNode node) {
+        if (lowered(node.exp())) {
+            IrValue val = pop();
+            store(node.lhs(), val);
+            push(val);
+        }
+        return null;
+    }
+
+    /**
+     * Pushes the register holding the result, or null for a void
+     * function; the args are evaluated from left to right.
+     */
+    public Void visit(CallExpNode node) {
+        IdNode id = node.id();
+        FnSym fnSym = (FnSym)(id.sym());
+        if (step() == 0) {
+            IrReg dst = null;
+            if (!fnSym.getReturnType().isVoidType()) {
+                dst = myBuilder.newReg();
+            }
+            for (ExpNode exp : node.args().exps()) {
+                walk(exp);
+            }
+            resume(1, dst);
+            return null;
+        }
+        IrReg dst = (IrReg)data();
+        IrInstr call = new IrInstr(IrOp.CALL, dst, pop(node.args().size()));
+        call.setName(id.name());
+        myBuilder.emit(call);
+        push(dst);
+        return null;
+    }
+
+    public Void visit(UnaryMinusNode node) {
+        if (lowered(node.exp())) {
+            push(myBuilder.emit(IrOp.NEG, pop()));
+        }
+        return null;
+    }
+
+    public Void visit(NotNode node) {
+        if (lowered(node.exp())) {
+            push(myBuilder.emit(IrOp.NOT, pop()));
+        }
+        return null;
+    }
+
+    public Void visit(PlusNode node) {
+        return binary(node, IrOp.ADD);
+    }
+
+    public Void visit(MinusNode node) {
+        return binary(node, IrOp.SUB);
+    }
+
+    public Void visit(TimesNode node) {
+        return binary(node, IrOp.MUL);
+    }
+
+    public Void visit(DivideNode node) {
+        return binary(node, IrOp.DIV);
+    }
+
+    public Void visit(AndNode node) {
+        return logical(node);
+    }
+
+    public Void visit(OrNode node) {
+        return logical(node);
+    }
+
+    public Void visit(EqualsNode node) {
+        return binary(node, IrOp.EQ);
+    }
+
+    public Void visit(NotEqualsNode node) {
+        return binary(node, IrOp.NE);
+    }
+
+    public Void visit(LessNode node) {
+        return binary(node, IrOp.LT);
+    }
+
+    public Void visit(GreaterNode node) {
+        return binary(node, IrOp.GT);
+    }
+
+    public Void visit(LessEqNode node) {
+        return binary(node, IrOp.LE);
+    }
+
+    public Void visit(GreaterEqNode node) {
+        return binary(node, IrOp.GE);
+    }
+
+    /**
+     * Evaluates both operands, left first, and combines them with op.
+     */
+    private Void binary(BinaryExpNode node, IrOp op) {
+        if (lowered(node.exp1(), node.exp2())) {
+            IrValue val2 = pop();
+            IrValue val1 = pop();
+            push(myBuilder.emit(op, val1, val2));
+        }
+        return null;
+    }
+
+    /**
+     * Materializes the short-circuit evaluation of cond as 1 or 0.
+     */
+    private Void logical(LogicalExpNode node) {
+        IrBuilder b = myBuilder;
+        switch (step()) {
+        case 0:
+            IrReg dst = b.newReg();
+            IrBlock trueBlk = b.newBlock();
+            IrBlock falseBlk = b.newBlock();
+            IrBlock doneBlk = b.newBlock();
+            cond(node, trueBlk, falseBlk);
+            place(trueBlk);
+            resume(1, dst);
+            jump(doneBlk);
+            place(falseBlk);
+            resume(2, dst);
+            place(doneBlk);
+            resume(3, dst);
+            break;
+        case 1:
+            b.copy((IrReg)data(), new IrConst(1));
+            break;
+        case 2:
+            b.copy((IrReg)data(), new IrConst(0));
+            break;
+        default:
+            push((IrReg)data());
+        }
+        return null;
+    }
+
+    /**
+     * Schedule IR that jumps to ifTrue if exp is true and to ifFalse
+     * otherwise (see branch).
+     */
+    private void cond(ExpNode exp, IrBlock ifTrue, IrBlock ifFalse) {
+        walk(exp, COND, new IrBlock[] { ifTrue, ifFalse });
+    }
+
+    /**
+     * Step COND of exp.  Constants jump straight to their target, ! swaps
+     * the targets, and the right operand of && and || is only evaluated if
+     * the left one does not decide the condition.
+     */
+    private void branch(ExpNode exp, IrBlock ifTrue, IrBlock ifFalse) {
+        IrBuilder b = myBuilder;
+        if (exp instanceof TrueNode) {
+            b.jump(ifTrue);
+        } else if (exp instanceof FalseNode) {
+            b.jump(ifFalse);
+        } else if (exp instanceof NotNode) {
+            cond(((NotNode)exp).exp(), ifFalse, ifTrue);
+        } else if (exp instanceof AndNode) {
+            AndNode and = (AndNode)exp;
+            IrBlock rightBlk = b.newBlock();
+            cond(and.exp1(), rightBlk, ifFalse);
+            walk(and, PLACE, rightBlk);
+            cond(and.exp2(), ifTrue, ifFalse);
+        } else if (exp instanceof OrNode) {
+            OrNode or = (OrNode)exp;
+            IrBlock rightBlk = b.newBlock();
+            cond(or.exp1(), ifTrue, rightBlk);
+            walk(or, PLACE, rightBlk);
+            cond(or.exp2(), ifTrue, ifFalse);
+        } else {
+            walk(exp);
+            walk(exp, BRANCH, new IrBlock[] { ifTrue, ifFalse });
+        }
+    }
+
+    /**
+     * Append IR assigning val to exp, which must be a location (an ID or
+     * a dot-access).
+     */
+    private void store(ExpNode exp, IrValue val) {
+        IrBuilder b = myBuilder;
+        if (exp instanceof IdNode) {
+            IdNode id = (IdNode)exp;
+            if (id.sym().isGlobal()) {
+                IrInstr store = new IrInstr(IrOp.STOREG, null, val);
+                store.setName(id.name());
+                b.emit(store);
+            } else {
+                b.copy(b.var(id.sym()), val);
+            }
+        } else if (exp instanceof DotAccessExpNode) {
+            DotAccessExpNode dot = (DotAccessExpNode)exp;
+            IdNode base = dot.base();
+            if (base.sym().isGlobal()) {
+                IrInstr store = new IrInstr(IrOp.STOREG, null, val);
+                store.setName(base.name());
+                store.setOffset(dot.offset());
+                b.emit(store);
+            } else {
+                b.copy(b.field(base.sym(), dot.offset()), val);
+            }
+        } else {
+            System.err.println("Unexpected store to a non-location in AstLower.store");
+            System.exit(-1);
+        }
+    }
+
+    private IrProgram myProgram;    // the program being built
+    private IrBuilder myBuilder;    // for the current function
+    private List<IrValue> myValues; // of the expressions walked
+}
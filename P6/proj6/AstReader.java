@@ -0,0 +1,490 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * AstReader
+ *
+ * Reads a checked AST written by AstWriter, rebuilding the tree, the
+ * symbols it is linked to (one TSym per symbol, shared by all its uses),
+ * the symbol tables of the structs and the types of the expressions.
+ * The result is ready to be lowered.
+ */
+class AstReader {
+    // the kinds of kids of a Frame
+    private static final char EXP_KID = 'E';
+    private static final char DECL_LIST_KID = 'D';
+    private static final char STMT_LIST_KID = 'S';
+    private static final char EXP_LIST_KID = 'X';
+    private static final char STMT_KID = 's';
+
+    // the tags of the Frames of lists
+    private static final byte STMT_LIST = -1;
+    private static final byte EXP_LIST = -2;
+
+    // returned by start for a node whose Frame has been pushed
+    private static final Object PENDING = new Object();
+
+    /**
+     * Read the checked program in the file path.
+     */
+    public static ProgramNode load(String path) throws IOException {
+        try (InputStream is = new BufferedInputStream(
+                 new FileInputStream(path))) {
+            AstReader in = new AstReader(is);
+            if (in.myIn.readInt() != AstWriter.MAGIC) {
+                throw new IOException("not a checked AST");
+            }
+            return new ProgramNode(in.readDeclList());
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private AstReader(InputStream is) {
+        myIn = new DataInputStream(is);
+        myStrings = new ArrayList<String>();
+        mySyms = new ArrayList<TSym>();
+    }
+
+    // **********************************************************************
+    // values
+    // **********************************************************************
+    public byte readTag() {
+        try {
+            return myIn.readByte();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public int readInt() {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readTag();
+            v |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public String readString() {
+        int k = readInt();
+        if (k >= 0) {
+            return myStrings.get(k);
+        }
+        try {
+            String s = myIn.readUTF();
+            myStrings.add(s);
+            return s;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public TSym readSym() {
+        byte kind = readTag();
+        TSym sym;
+        switch (kind) {
+        case AstWriter.S_NULL:
+            return null;
+
+        case AstWriter.S_REF:
+            return mySyms.get(readInt());
+
+        case AstWriter.S_FN:
+            int k = mySyms.size();
+            mySyms.add(null);       // numbered before its fields
+            FnSym fnSym = new FnSym(readType(), readInt());
+            int numTypes = readInt();
+            if (numTypes >= 0) {
+                List<Type> params = new ArrayList<Type>(numTypes);
+                for (int j = 0; j < numTypes; j++) {
+                    params.add(readType());
+                }
+                fnSym.addFormals(params);
+            }
+            fnSym.setParamSize(readInt());
+            fnSym.setLocalSize(readInt());
+            mySyms.set(k, fnSym);
+            sym = fnSym;
+            break;
+
+        case AstWriter.S_STRUCT_VAR:
+            IdNode structId = new IdNode(readInt(), readInt(), readString());
+            structId.link(readSym());
+            sym = new StructSym(structId);
+            mySyms.add(sym);
+            break;
+
+        case AstWriter.S_STRUCT_DEF:
+            k = mySyms.size();
+            mySyms.add(null);
+            sym = new StructDefSym(new SymTable(), readString());
+            mySyms.set(k, sym);
+            break;
+
+        case AstWriter.S_VAR:
+            sym = new TSym(readType());
+            mySyms.add(sym);
+            break;
+
+        default:
+            throw corrupt("symbol kind " + kind);
+        }
+        sym.setOffset(readInt());
+        return sym;
+    }
+
+    public Type readType() {
+        byte tag = readTag();
+        switch (tag) {
+        case AstWriter.T_NONE:       return null;
+        case AstWriter.T_ERROR:      return Type.ERROR;
+        case AstWriter.T_INT:        return Type.INT;
+        case AstWriter.T_BOOL:       return Type.BOOL;
+        case AstWriter.T_VOID:       return Type.VOID;
+        case AstWriter.T_STRING:     return Type.STRING;
+        case AstWriter.T_FN:         return Type.FN;
+        case AstWriter.T_STRUCT_DEF: return Type.STRUCT_DEF;
+        case AstWriter.T_STRUCT:
+            TSym def = readSym();
+            if (!(def instanceof StructDefSym)) {
+                throw corrupt("struct type");
+            }
+            return ((StructDefSym)def).getStructType();
+        default:
+            throw corrupt("type " + tag);
+        }
+    }
+
+    // **********************************************************************
+    // nodes, in the order of the visit methods of AstWriter
+    // **********************************************************************
+    public DeclListNode readDeclList() {
+        return new DeclListNode(readDecls(null));
+    }
+
+    // read a list of decls; fields, if not null, is the symbol table of a
+    // struct, to which its field decls are added
+    private List<DeclNode> readDecls(SymTable fields) {
+        int n = readInt();
+        List<DeclNode> decls = new ArrayList<DeclNode>(n);
+        for (int k = 0; k < n; k++) {
+            decls.add(readDecl(fields));
+        }
+        return decls;
+    }
+
+    private DeclNode readDecl(SymTable fields) {
+        byte tag = readTag();
+        IdNode id;
+        switch (tag) {
+        case AstWriter.VAR_DECL:
+            int size = readInt();
+            TypeNode type = readTypeNode();
+            id = (IdNode)readExp();
+            if (fields != null && id.sym() != null) {
+                try {
+                    fields.addDecl(id.name(), id.sym());
+                } catch (DuplicateSymException | EmptySymTableException ex) {
+                    throw corrupt("field " + id.name());
+                }
+            }
+            return new VarDeclNode(type, id, size);
+
+        case AstWriter.FN_DECL:
+            return new FnDeclNode(readTypeNode(), (IdNode)readExp(),
+                                  readFormalsList(), readFnBody());
+
+        case AstWriter.STRUCT_DECL:
+            id = (IdNode)readExp();
+            SymTable structFields = null;
+            if (id.sym() instanceof StructDefSym) {
+                structFields = ((StructDefSym)id.sym()).getSymTable();
+            }
+            DeclListNode fieldDecls = new DeclListNode(readDecls(structFields));
+            if (structFields != null) {
+                fieldDecls.layout((StructDefSym)id.sym());
+            }
+            return new StructDeclNode(id, fieldDecls);
+
+        default:
+            throw corrupt("declaration " + tag);
+        }
+    }
+
+    private FormalsListNode readFormalsList() {
+        int n = readInt();
+        List<FormalDeclNode> formals = new ArrayList<FormalDeclNode>(n);
+        for (int k = 0; k < n; k++) {
+            formals.add(new FormalDeclNode(readTypeNode(), (IdNode)readExp()));
+        }
+        return new FormalsListNode(formals);
+    }
+
+    private FnBodyNode readFnBody() {
+        return new FnBodyNode(readDeclList(), readStmtList());
+    }
+
+    private TypeNode readTypeNode() {
+        byte tag = readTag();
+        switch (tag) {
+        case AstWriter.INT:    return new IntNode();
+        case AstWriter.BOOL:   return new BoolNode();
+        case AstWriter.VOID:   return new VoidNode();
+        case AstWriter.STRUCT: return new StructNode((IdNode)readExp());
+        default:
+            throw corrupt("type node " + tag);
+        }
+    }
+
+    private StmtListNode readStmtList() {
+        return (StmtListNode)readNode(STMT_LIST_KID);
+    }
+
+    /**
+     * Read an expression (possibly null) and its type.
+     */
+    public ExpNode readExp() {
+        return (ExpNode)readNode(EXP_KID);
+    }
+
+    // **********************************************************************
+    // Statements and expressions are read with a stack of their own instead
+    // of recursively, so that the depth of the Java stack does not grow
+    // with their nesting.  A node whose kids are being read is a Frame on
+    // myFrames, with the kids read so far; each kid is either complete
+    // once it is started (a leaf, or a list of decls) or a Frame above it.
+    // **********************************************************************
+    private static class Frame {
+        public Frame(byte tag, Type type, String kinds, int n) {
+            this.tag = tag;
+            this.type = type;
+            this.kinds = kinds;
+            this.n = n;
+            this.kids = new ArrayList<Object>(n);
+        }
+
+        // the kind of kid k: a list has n kids of the one kind in kinds
+        public char kind(int k) {
+            return kinds.charAt(Math.min(k, kinds.length() - 1));
+        }
+
+        public final byte tag;
+        public final Type type;     // of an expression
+        public TSym sym;            // of a dot-access
+        public final String kinds;
+        public final int n;
+        public final List<Object> kids;
+    }
+
+    // read a node of kind, with everything under it
+    private Object readNode(char kind) {
+        int base = myFrames.size();
+        Object node = start(kind);
+        while (myFrames.size() > base) {
+            Frame f = myFrames.get(myFrames.size() - 1);
+            if (f.kids.size() < f.n) {
+                Object kid = start(f.kind(f.kids.size()));
+                if (kid != PENDING) {
+                    f.kids.add(kid);
+                }
+            } else {
+                myFrames.remove(myFrames.size() - 1);
+                node = finish(f);
+                if (myFrames.size() > base) {
+                    myFrames.get(myFrames.size() - 1).kids.add(node);
+                }
+            }
+        }
+        return node;
+    }
+
+    // start reading a node of kind: return it if it is complete, or push
+    // its Frame and return PENDING
+    private Object start(char kind) {
+        switch (kind) {
+        case DECL_LIST_KID:
+            return readDeclList();
+        case STMT_LIST_KID:
+            return push(new Frame(STMT_LIST, null, "s", readInt()));
+        case EXP_LIST_KID:
+            return push(new Frame(EXP_LIST, null, "E", readInt()));
+        case STMT_KID:
+            byte tag = readTag();
+            String kinds = stmtKids(tag);
+            return push(new Frame(tag, null, kinds, kinds.length()));
+        default:
+            return startExp();
+        }
+    }
+
+    // the kinds of the kids of statement tag
+    private String stmtKids(byte tag) {
+        switch (tag) {
+        case AstWriter.ASSIGN_STMT:
+        case AstWriter.POST_INC:
+        case AstWriter.POST_DEC:
+        case AstWriter.READ:
+        case AstWriter.WRITE:
+        case AstWriter.CALL_STMT:
+        case AstWriter.RETURN:
+            return "E";
+        case AstWriter.IF:
+        case AstWriter.WHILE:
+        case AstWriter.REPEAT:
+            return "EDS";
+        case AstWriter.IF_ELSE:
+            return "EDSDS";
+        default:
+            throw corrupt("statement " + tag);
+        }
+    }
+
+    private Object startExp() {
+        byte tag = readTag();
+        if (tag == AstWriter.NULL) {
+            return null;
+        }
+        Type type = readType();
+        ExpNode e;
+        switch (tag) {
+        case AstWriter.INT_LIT:
+            e = new IntLitNode(readInt(), readInt(), readInt());
+            break;
+        case AstWriter.STR_LIT:
+            e = new StringLitNode(readInt(), readInt(), readString());
+            break;
+        case AstWriter.TRUE:
+            e = new TrueNode(readInt(), readInt());
+            break;
+        case AstWriter.FALSE:
+            e = new FalseNode(readInt(), readInt());
+            break;
+        case AstWriter.ID:
+            IdNode id = new IdNode(readInt(), readInt(), readString());
+            TSym sym = readSym();
+            if (sym != null) {
+                id.link(sym);
+            }
+            e = id;
+            break;
+        case AstWriter.DOT:
+            Frame f = new Frame(tag, type, "EE", 2);
+            f.sym = readSym();
+            return push(f);
+        case AstWriter.CALL:
+            return push(new Frame(tag, type, "EX", 2));
+        case AstWriter.NEG:
+        case AstWriter.NOT:
+            return push(new Frame(tag, type, "E", 1));
+        default:
+            if (tag < AstWriter.ASSIGN || tag > AstWriter.OR) {
+                throw corrupt("expression " + tag);
+            }
+            return push(new Frame(tag, type, "EE", 2));
+        }
+        e.setType(type);
+        return e;
+    }
+
+    private Object push(Frame f) {
+        myFrames.add(f);
+        return PENDING;
+    }
+
+    // the node of f, once its kids are read
+    private Object finish(Frame f) {
+        List<Object> kids = f.kids;
+        switch (f.tag) {
+        case STMT_LIST:
+            List<StmtNode> stmts = new ArrayList<StmtNode>(kids.size());
+            for (Object kid : kids) {
+                stmts.add((StmtNode)kid);
+            }
+            return new StmtListNode(stmts);
+        case EXP_LIST:
+            List<ExpNode> exps = new ArrayList<ExpNode>(kids.size());
+            for (Object kid : kids) {
+                exps.add((ExpNode)kid);
+            }
+            return new ExpListNode(exps);
+
+        case AstWriter.ASSIGN_STMT:
+            return new AssignStmtNode((AssignNode)kids.get(0));
+        case AstWriter.POST_INC:
+            return new PostIncStmtNode(exp(kids, 0));
+        case AstWriter.POST_DEC:
+            return new PostDecStmtNode(exp(kids, 0));
+        case AstWriter.READ:
+            return new ReadStmtNode(exp(kids, 0));
+        case AstWriter.WRITE:
+            return new WriteStmtNode(exp(kids, 0));
+        case AstWriter.IF:
+            return new IfStmtNode(exp(kids, 0), (DeclListNode)kids.get(1),
+                                  (StmtListNode)kids.get(2));
+        case AstWriter.IF_ELSE:
+            return new IfElseStmtNode(exp(kids, 0),
+                                      (DeclListNode)kids.get(1), (StmtListNode)kids.get(2),
+                                      (DeclListNode)kids.get(3), (StmtListNode)kids.get(4));
+        case AstWriter.WHILE:
+            return new WhileStmtNode(exp(kids, 0), (DeclListNode)kids.get(1),
+                                     (StmtListNode)kids.get(2));
+        case AstWriter.REPEAT:
+            return new RepeatStmtNode(exp(kids, 0), (DeclListNode)kids.get(1),
+                                      (StmtListNode)kids.get(2));
+        case AstWriter.CALL_STMT:
+            return new CallStmtNode((CallExpNode)kids.get(0));
+        case AstWriter.RETURN:
+            return new ReturnStmtNode(exp(kids, 0));
+        }
+
+        ExpNode e;
+        switch (f.tag) {
+        case AstWriter.DOT:
+            DotAccessExpNode dot =
+                new DotAccessExpNode(exp(kids, 0), (IdNode)kids.get(1));
+            dot.link(f.sym);
+            e = dot;
+            break;
+        case AstWriter.ASSIGN:
+            e = new AssignNode(exp(kids, 0), exp(kids, 1));
+            break;
+        case AstWriter.CALL:
+            e = new CallExpNode((IdNode)kids.get(0), (ExpListNode)kids.get(1));
+            break;
+        case AstWriter.NEG:        e = new UnaryMinusNode(exp(kids, 0)); break;
+        case AstWriter.NOT:        e = new NotNode(exp(kids, 0)); break;
+        case AstWriter.PLUS:       e = new PlusNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.MINUS:      e = new MinusNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.TIMES:      e = new TimesNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.DIVIDE:     e = new DivideNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.EQUALS:     e = new EqualsNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.NOT_EQUALS: e = new NotEqualsNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.LESS:       e = new LessNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.GREATER:    e = new GreaterNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.LESS_EQ:    e = new LessEqNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.GREATER_EQ: e = new GreaterEqNode(exp(kids, 0), exp(kids, 1)); break;
+        case AstWriter.AND:        e = new AndNode(exp(kids, 0), exp(kids, 1)); break;
+        default:                   e = new OrNode(exp(kids, 0), exp(kids, 1)); break;
+        }
+        e.setType(f.type);
+        return e;
+    }
+
+    private static ExpNode exp(List<Object> kids, int k) {
+        return (ExpNode)kids.get(k);
+    }
+
+    private UncheckedIOException corrupt(String what) {
+        return new UncheckedIOException(
+            new IOException("bad " + what + " in checked AST"));
+    }
+
+    private DataInputStream myIn;
+    private List<String> myStrings;
+    private List<TSym> mySyms;
+    private List<Frame> myFrames = new ArrayList<Frame>();
+}
@@ -0,0 +1,291 @@
+import java.util.*;
+
+/**
+ * AstTraversal
+ *
+ * A walk of a whole tree in source order, for passes that look at each
+ * node in turn.  traverse calls the visit method of each node before
+ * those of its kids (whose visit methods here do nothing, for subclasses
+ * to override the ones they need) and leave after them.  It is an
+ * AstWalker, so its depth is not limited by the Java stack however
+ * deeply the program nests.
+ */
+abstract class AstTraversal extends AstWalker {
+    // the step of a node whose kids have been visited
+    private static final int LEAVE = 1;
+
+    /**
+     * Visit every node of the tree root, in source order.
+     */
+    public void traverse(ASTnode root) {
+        walkTree(root);
+    }
+
+    protected void dispatch(ASTnode node) {
+        if (step() == LEAVE) {
+            leave(node);
+            return;
+        }
+        node.accept(this);
+        for (ASTnode kid : node.accept(AstKids.INSTANCE)) {
+            walk(kid);
+        }
+        resume(LEAVE);
+    }
+
+    /**
+     * Called once the kids of node have been visited.
+     */
+    protected void leave(ASTnode node) { }
+
+    public Void visit(ProgramNode node) { return null; }
+    public Void visit(DeclListNode node) { return null; }
+    public Void visit(FormalsListNode node) { return null; }
+    public Void visit(FnBodyNode node) { return null; }
+    public Void visit(StmtListNode node) { return null; }
+    public Void visit(ExpListNode node) { return null; }
+    public Void visit(VarDeclNode node) { return null; }
+    public Void visit(FnDeclNode node) { return null; }
+    public Void visit(FormalDeclNode node) { return null; }
+    public Void visit(StructDeclNode node) { return null; }
+    public Void visit(IntNode node) { return null; }
+    public Void visit(BoolNode node) { return null; }
+    public Void visit(VoidNode node) { return null; }
+    public Void visit(StructNode node) { return null; }
+    public Void visit(AssignStmtNode node) { return null; }
+    public Void visit(PostIncStmtNode node) { return null; }
+    public Void visit(PostDecStmtNode node) { return null; }
+    public Void visit(ReadStmtNode node) { return null; }
+    public Void visit(WriteStmtNode node) { return null; }
+    public Void visit(IfStmtNode node) { return null; }
+    public Void visit(IfElseStmtNode node) { return null; }
+    public Void visit(WhileStmtNode node) { return null; }
+    public Void visit(RepeatStmtNode node) { return null; }
+    public Void visit(CallStmtNode node) { return null; }
+    public Void visit(ReturnStmtNode node) { return null; }
+    public Void visit(IntLitNode node) { return null; }
+    public Void visit(StringLitNode node) { return null; }
+    public Void visit(TrueNode node) { return null; }
+    public Void visit(FalseNode node) { return null; }
+    public Void visit(IdNode node) { return null; }
+    public Void visit(DotAccessExpNode node) { return null; }
+    public Void visit(AssignNode node) { return null; }
+    public Void visit(CallExpNode node) { return null; }
+    public Void visit(UnaryMinusNode node) { return null; }
+    public Void visit(NotNode node) { return null; }
+    public Void visit(PlusNode node) { return null; }
+    public Void visit(MinusNode node) { return null; }
+    public Void visit(TimesNode node) { return null; }
+    public Void visit(DivideNode node) { return null; }
+    public Void visit(AndNode node) { return null; }
+    public Void visit(OrNode node) { return null; }
+    public Void visit(EqualsNode node) { return null; }
+    public Void visit(NotEqualsNode node) { return null; }
+    public Void visit(LessNode node) { return null; }
+    public Void visit(GreaterNode node) { return null; }
+    public Void visit(LessEqNode node) { return null; }
+    public Void visit(GreaterEqNode node) { return null; }
+}
+
+/**
+ * AstKids
+ *
+ * Returns the kids of a node in source order (null for a missing one,
+ * e.g., the value of a return with none), as AstTraversal walks them.
+ */
+class AstKids implements AstVisitor<List<ASTnode>> {
+    public static final AstKids INSTANCE = new AstKids();
+
+    private static List<ASTnode> kids(ASTnode... kids) {
+        return Arrays.asList(kids);
+    }
+
+    public List<ASTnode> visit(ProgramNode node) {
+        return kids(node.declList());
+    }
+
+    public List<ASTnode> visit(DeclListNode node) {
+        return new ArrayList<ASTnode>(node.decls());
+    }
+
+    public List<ASTnode> visit(FormalsListNode node) {
+        return new ArrayList<ASTnode>(node.formals());
+    }
+
+    public List<ASTnode> visit(FnBodyNode node) {
+        return kids(node.declList(), node.stmtList());
+    }
+
+    public List<ASTnode> visit(StmtListNode node) {
+        return new ArrayList<ASTnode>(node.stmts());
+    }
+
+    public List<ASTnode> visit(ExpListNode node) {
+        return new ArrayList<ASTnode>(node.exps());
+    }
+
+    public List<ASTnode> visit(VarDeclNode node) {
+        return kids(node.typeNode(), node.id());
+    }
+
+    public List<ASTnode> visit(FnDeclNode node) {
+        return kids(node.typeNode(), node.id(), node.formalsList(), node.body());
+    }
+
+    public List<ASTnode> visit(FormalDeclNode node) {
+        return kids(node.typeNode(), node.id());
+    }
+
+    public List<ASTnode> visit(StructDeclNode node) {
+        return kids(node.id(), node.declList());
+    }
+
+    public List<ASTnode> visit(IntNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(BoolNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(VoidNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(StructNode node) {
+        return kids(node.idNode());
+    }
+
+    public List<ASTnode> visit(AssignStmtNode node) {
+        return kids(node.assign());
+    }
+
+    public List<ASTnode> visit(PostIncStmtNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(PostDecStmtNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(ReadStmtNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(WriteStmtNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(IfStmtNode node) {
+        return kids(node.exp(), node.declList(), node.stmtList());
+    }
+
+    public List<ASTnode> visit(IfElseStmtNode node) {
+        return kids(node.exp(), node.thenDeclList(), node.thenStmtList(),
+                    node.elseDeclList(), node.elseStmtList());
+    }
+
+    public List<ASTnode> visit(WhileStmtNode node) {
+        return kids(node.exp(), node.declList(), node.stmtList());
+    }
+
+    public List<ASTnode> visit(RepeatStmtNode node) {
+        return kids(node.exp(), node.declList(), node.stmtList());
+    }
+
+    public List<ASTnode> visit(CallStmtNode node) {
+        return kids(node.call());
+    }
+
+    public List<ASTnode> visit(ReturnStmtNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(IntLitNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(StringLitNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(TrueNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(FalseNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(IdNode node) {
+        return kids();
+    }
+
+    public List<ASTnode> visit(DotAccessExpNode node) {
+        return kids(node.loc(), node.id());
+    }
+
+    public List<ASTnode> visit(AssignNode node) {
+        return kids(node.lhs(), node.exp());
+    }
+
+    public List<ASTnode> visit(CallExpNode node) {
+        return kids(node.id(), node.args());
+    }
+
+    public List<ASTnode> visit(UnaryMinusNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(NotNode node) {
+        return kids(node.exp());
+    }
+
+    public List<ASTnode> visit(PlusNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(MinusNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(TimesNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(DivideNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(AndNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(OrNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(EqualsNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(NotEqualsNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(LessNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(GreaterNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(LessEqNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+
+    public List<ASTnode> visit(GreaterEqNode node) {
+        return kids(node.exp1(), node.exp2());
+    }
+}
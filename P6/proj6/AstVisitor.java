@@ -0,0 +1,68 @@
+/**
+ * AstVisitor
+ *
+ * A pass over the AST as a class of its own rather than a method in each
+ * node class: node.accept(v) calls the visit method of v for the class of
+ * node, and returns what it returns.  A visit method does not visit the
+ * kids of its node unless it calls accept on them itself (each node has
+ * accessors for its kids); see AstWalker for a walk that does not recurse,
+ * and AstTraversal for a walk of a whole tree.
+ */
+interface AstVisitor<R> {
+    // lists and other internal nodes
+    R visit(ProgramNode node);
+    R visit(DeclListNode node);
+    R visit(FormalsListNode node);
+    R visit(FnBodyNode node);
+    R visit(StmtListNode node);
+    R visit(ExpListNode node);
+
+    // declarations
+    R visit(VarDeclNode node);
+    R visit(FnDeclNode node);
+    R visit(FormalDeclNode node);
+    R visit(StructDeclNode node);
+
+    // types
+    R visit(IntNode node);
+    R visit(BoolNode node);
+    R visit(VoidNode node);
+    R visit(StructNode node);
+
+    // statements
+    R visit(AssignStmtNode node);
+    R visit(PostIncStmtNode node);
+    R visit(PostDecStmtNode node);
+    R visit(ReadStmtNode node);
+    R visit(WriteStmtNode node);
+    R visit(IfStmtNode node);
+    R visit(IfElseStmtNode node);
+    R visit(WhileStmtNode node);
+    R visit(RepeatStmtNode node);
+    R visit(CallStmtNode node);
+    R visit(ReturnStmtNode node);
+
+    // expressions
+    R visit(IntLitNode node);
+    R visit(StringLitNode node);
+    R visit(TrueNode node);
+    R visit(FalseNode node);
+    R visit(IdNode node);
+    R visit(DotAccessExpNode node);
+    R visit(AssignNode node);
+    R visit(CallExpNode node);
+    R visit(UnaryMinusNode node);
+    R visit(NotNode node);
+    R visit(PlusNode node);
+    R visit(MinusNode node);
+    R visit(TimesNode node);
+    R visit(DivideNode node);
+    R visit(AndNode node);
+    R visit(OrNode node);
+    R visit(EqualsNode node);
+    R visit(NotEqualsNode node);
+    R visit(LessNode node);
+    R visit(GreaterNode node);
+    R visit(LessEqNode node);
+    R visit(GreaterEqNode node);
+}
@@ -0,0 +1,110 @@
+import java.util.*;
+
+/**
+ * AstWalker
+ *
+ * A visitor that walks the tree with a stack of its own instead of the
+ * Java stack, so that its depth is not limited however deeply the program
+ * nests.  A visit method does not call accept on the kids of its node;
+ * it schedules them with walk, and schedules what it has left to do
+ * after them as a later step of its node with resume.  The work scheduled
+ * by one visit is done in the order it was scheduled, and all of it
+ * before the work scheduled earlier; so
+ *     walk(node.exp1()); walk(node.exp2()); resume(1);
+ * visits exp1 and everything under it, then exp2, then node again, with
+ * step() returning 1.  A step may carry data of its own (see data).
+ *
+ * Results are passed on through the tree (see ExpNode.type) or through a
+ * stack of the subclass (see AstLower), as visit methods return nothing.
+ */
+abstract class AstWalker implements AstVisitor<Void> {
+    /**
+     * Walk from root until all of the work it schedules is done.  It may
+     * be called from a visit method, to finish a subtree at once.
+     */
+    public void walkTree(ASTnode root) {
+        int base = myStack.size();
+        List<Frame> pending = myPending;
+        Frame current = myFrame;
+        myPending = new ArrayList<Frame>();
+        myStack.add(new Frame(root, 0, null));
+        while (myStack.size() > base) {
+            myFrame = myStack.remove(myStack.size() - 1);
+            dispatch(myFrame.node);
+            for (int k = myPending.size() - 1; k >= 0; k--) {
+                myStack.add(myPending.get(k));
+            }
+            myPending.clear();
+        }
+        myPending = pending;
+        myFrame = current;
+    }
+
+    /**
+     * Do the current step of node; by default, call its visit method.
+     */
+    protected void dispatch(ASTnode node) {
+        node.accept(this);
+    }
+
+    /**
+     * Schedule a visit of node (with step 0), if it is not null.
+     */
+    protected void walk(ASTnode node) {
+        walk(node, 0, null);
+    }
+
+    /**
+     * Schedule step of node, with data.
+     */
+    protected void walk(ASTnode node, int step, Object data) {
+        if (node != null) {
+            myPending.add(new Frame(node, step, data));
+        }
+    }
+
+    /**
+     * Schedule step of the node being visited.
+     */
+    protected void resume(int step) {
+        resume(step, null);
+    }
+
+    /**
+     * Schedule step of the node being visited, with data.
+     */
+    protected void resume(int step, Object data) {
+        walk(myFrame.node, step, data);
+    }
+
+    /**
+     * The step of the current visit: 0 for the first.
+     */
+    protected int step() {
+        return myFrame.step;
+    }
+
+    /**
+     * The data scheduled with the current step.
+     */
+    protected Object data() {
+        return myFrame.data;
+    }
+
+    // one step of the walk
+    private static class Frame {
+        public Frame(ASTnode node, int step, Object data) {
+            this.node = node;
+            this.step = step;
+            this.data = data;
+        }
+
+        public final ASTnode node;
+        public final int step;
+        public final Object data;
+    }
+
+    private List<Frame> myStack = new ArrayList<Frame>();
+    private List<Frame> myPending = new ArrayList<Frame>();
+    private Frame myFrame;
+}
@@ -0,0 +1,426 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * AstWriter
+ *
+ * Writes a checked AST (after name analysis and type checking), with its
+ * symbols and the types of its expressions, in a compact binary form
+ * that AstReader turns back into the same tree without lexing, parsing
+ * or checking (see P6 -save and -load).
+ *
+ * The file starts with MAGIC.  The tree is written in source order (see
+ * AstTraversal), each node as a tag telling the kind of node where there
+ * is a choice, then its other fields, then its kids: a list writes its
+ * length and an expression its type after its tag.  Ints are written in
+ * a variable-length form (7 bits a byte), and each string and each symbol
+ * is written in full the first time and by its number after that, so
+ * that uses of a name share one TSym as in the checked tree.
+ */
+class AstWriter extends AstTraversal {
+    public static final int MAGIC = 0x47415332;     // "GAS2"
+
+    // declarations and their types
+    public static final byte VAR_DECL = 1;
+    public static final byte FN_DECL = 2;
+    public static final byte STRUCT_DECL = 3;
+    public static final byte INT = 4;
+    public static final byte BOOL = 5;
+    public static final byte VOID = 6;
+    public static final byte STRUCT = 7;
+
+    // statements
+    public static final byte ASSIGN_STMT = 10;
+    public static final byte POST_INC = 11;
+    public static final byte POST_DEC = 12;
+    public static final byte READ = 13;
+    public static final byte WRITE = 14;
+    public static final byte IF = 15;
+    public static final byte IF_ELSE = 16;
+    public static final byte WHILE = 17;
+    public static final byte REPEAT = 18;
+    public static final byte CALL_STMT = 19;
+    public static final byte RETURN = 20;
+
+    // expressions; NULL stands for a missing one
+    public static final byte NULL = 29;
+    public static final byte INT_LIT = 30;
+    public static final byte STR_LIT = 31;
+    public static final byte TRUE = 32;
+    public static final byte FALSE = 33;
+    public static final byte ID = 34;
+    public static final byte DOT = 35;
+    public static final byte ASSIGN = 36;
+    public static final byte CALL = 37;
+    public static final byte NEG = 38;
+    public static final byte NOT = 39;
+    public static final byte PLUS = 40;
+    public static final byte MINUS = 41;
+    public static final byte TIMES = 42;
+    public static final byte DIVIDE = 43;
+    public static final byte EQUALS = 44;
+    public static final byte NOT_EQUALS = 45;
+    public static final byte LESS = 46;
+    public static final byte GREATER = 47;
+    public static final byte LESS_EQ = 48;
+    public static final byte GREATER_EQ = 49;
+    public static final byte AND = 50;
+    public static final byte OR = 51;
+
+    // types of expressions (and of symbols); a StructType is written as
+    // T_STRUCT followed by the StructDefSym of its struct
+    public static final byte T_NONE = 0;
+    public static final byte T_ERROR = 1;
+    public static final byte T_INT = 2;
+    public static final byte T_BOOL = 3;
+    public static final byte T_VOID = 4;
+    public static final byte T_STRING = 5;
+    public static final byte T_FN = 6;
+    public static final byte T_STRUCT_DEF = 7;
+    public static final byte T_STRUCT = 8;
+
+    // symbols: S_NULL for none, S_REF and a number for one written before,
+    // or the kind of a new one followed by its fields
+    public static final byte S_NULL = 0;
+    public static final byte S_REF = 1;
+    public static final byte S_VAR = 2;
+    public static final byte S_FN = 3;
+    public static final byte S_STRUCT_VAR = 4;
+    public static final byte S_STRUCT_DEF = 5;
+
+    /**
+     * Write the checked program root to the file path.
+     */
+    public static void save(ProgramNode root, String path) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(
+                 new FileOutputStream(path))) {
+            AstWriter out = new AstWriter(os);
+            out.myOut.writeInt(MAGIC);
+            out.traverse(root);
+            if (out.myError != null) {
+                throw out.myError;
+            }
+        }
+    }
+
+    private AstWriter(OutputStream os) {
+        myOut = new DataOutputStream(os);
+        myStrings = new HashMap<String, Integer>();
+        mySyms = new IdentityHashMap<TSym, Integer>();
+        myStructDefs = new IdentityHashMap<Type, TSym>();
+    }
+
+    public void writeTag(byte tag) {
+        try {
+            myOut.writeByte(tag);
+        } catch (IOException ex) {
+            myError = ex;
+        }
+    }
+
+    public void writeInt(int n) {
+        try {
+            // zigzag, so that small negative ints are short too
+            int v = (n << 1) ^ (n >> 31);
+            while ((v & ~0x7f) != 0) {
+                myOut.writeByte((v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+            myOut.writeByte(v);
+        } catch (IOException ex) {
+            myError = ex;
+        }
+    }
+
+    public void writeString(String s) {
+        Integer k = myStrings.get(s);
+        if (k != null) {
+            writeInt(k);
+            return;
+        }
+        writeInt(-1);
+        try {
+            myOut.writeUTF(s);
+        } catch (IOException ex) {
+            myError = ex;
+        }
+        myStrings.put(s, myStrings.size());
+    }
+
+    // the tag of expression e, then its type
+    private void writeExp(byte tag, ExpNode e) {
+        writeTag(tag);
+        writeType(e.type());
+    }
+
+    public void writeSym(TSym sym) {
+        if (sym == null) {
+            writeTag(S_NULL);
+            return;
+        }
+        Integer k = mySyms.get(sym);
+        if (k != null) {
+            writeTag(S_REF);
+            writeInt(k);
+            return;
+        }
+
+        if (sym instanceof FnSym) {
+            FnSym fnSym = (FnSym)sym;
+            writeTag(S_FN);
+            mySyms.put(sym, mySyms.size());
+            writeType(fnSym.getReturnType());
+            writeInt(fnSym.getNumParams());
+            List<Type> params = fnSym.getParamTypes();
+            writeInt(params == null ? -1 : params.size());
+            if (params != null) {
+                for (Type t : params) {
+                    writeType(t);
+                }
+            }
+            writeInt(fnSym.getParamSize());
+            writeInt(fnSym.getLocalSize());
+        } else if (sym instanceof StructSym) {
+            IdNode structId = ((StructSym)sym).getStructType();
+            writeTag(S_STRUCT_VAR);
+            writeInt(structId.lineNum());
+            writeInt(structId.charNum());
+            writeString(structId.name());
+            writeSym(structId.sym());
+            mySyms.put(sym, mySyms.size());
+        } else if (sym instanceof StructDefSym) {
+            StructType type = ((StructDefSym)sym).getStructType();
+            writeTag(S_STRUCT_DEF);
+            mySyms.put(sym, mySyms.size());
+            myStructDefs.put(type, sym);
+            writeString(type.toString());
+        } else {
+            writeTag(S_VAR);
+            writeType(sym.getType());
+            mySyms.put(sym, mySyms.size());
+        }
+        writeInt(sym.getOffset());
+    }
+
+    public void writeType(Type type) {
+        if (type == null) {
+            writeTag(T_NONE);
+        } else if (type == Type.ERROR) {
+            writeTag(T_ERROR);
+        } else if (type == Type.INT) {
+            writeTag(T_INT);
+        } else if (type == Type.BOOL) {
+            writeTag(T_BOOL);
+        } else if (type == Type.VOID) {
+            writeTag(T_VOID);
+        } else if (type == Type.STRING) {
+            writeTag(T_STRING);
+        } else if (type == Type.FN) {
+            writeTag(T_FN);
+        } else if (type == Type.STRUCT_DEF) {
+            writeTag(T_STRUCT_DEF);
+        } else {
+            TSym def = myStructDefs.get(type);
+            if (def == null) {
+                System.err.println("struct type " + type +
+                                   " before its definition in AstWriter.writeType");
+                System.exit(-1);
+            }
+            writeTag(T_STRUCT);
+            writeSym(def);
+        }
+    }
+
+    // **********************************************************************
+    // nodes; their kids follow (see AstTraversal)
+    // **********************************************************************
+    public Void visit(DeclListNode node) {
+        writeInt(node.decls().size());
+        return null;
+    }
+
+    public Void visit(FormalsListNode node) {
+        writeInt(node.formals().size());
+        return null;
+    }
+
+    public Void visit(StmtListNode node) {
+        writeInt(node.stmts().size());
+        return null;
+    }
+
+    public Void visit(ExpListNode node) {
+        writeInt(node.exps().size());
+        return null;
+    }
+
+    public Void visit(VarDeclNode node) {
+        writeTag(VAR_DECL);
+        writeInt(node.size());
+        return null;
+    }
+
+    public Void visit(FnDeclNode node) {
+        writeTag(FN_DECL);
+        return null;
+    }
+
+    public Void visit(StructDeclNode node) {
+        writeTag(STRUCT_DECL);
+        return null;
+    }
+
+    public Void visit(IntNode node) {
+        writeTag(INT);
+        return null;
+    }
+
+    public Void visit(BoolNode node) {
+        writeTag(BOOL);
+        return null;
+    }
+
+    public Void visit(VoidNode node) {
+        writeTag(VOID);
+        return null;
+    }
+
+    public Void visit(StructNode node) {
+        writeTag(STRUCT);
+        return null;
+    }
+
+    public Void visit(AssignStmtNode node) {
+        writeTag(ASSIGN_STMT);
+        return null;
+    }
+
+    public Void visit(PostIncStmtNode node) {
+        writeTag(POST_INC);
+        return null;
+    }
+
+    public Void visit(PostDecStmtNode node) {
+        writeTag(POST_DEC);
+        return null;
+    }
+
+    public Void visit(ReadStmtNode node) {
+        writeTag(READ);
+        return null;
+    }
+
+    public Void visit(WriteStmtNode node) {
+        writeTag(WRITE);
+        return null;
+    }
+
+    public Void visit(IfStmtNode node) {
+        writeTag(IF);
+        return null;
+    }
+
+    public Void visit(IfElseStmtNode node) {
+        writeTag(IF_ELSE);
+        return null;
+    }
+
+    public Void visit(WhileStmtNode node) {
+        writeTag(WHILE);
+        return null;
+    }
+
+    public Void visit(RepeatStmtNode node) {
+        writeTag(REPEAT);
+        return null;
+    }
+
+    public Void visit(CallStmtNode node) {
+        writeTag(CALL_STMT);
+        return null;
+    }
+
+    public Void visit(ReturnStmtNode node) {
+        writeTag(RETURN);
+        if (node.exp() == null) {
+            writeTag(NULL);
+        }
+        return null;
+    }
+
+    public Void visit(IntLitNode node) {
+        writeExp(INT_LIT, node);
+        writeInt(node.lineNum());
+        writeInt(node.charNum());
+        writeInt(node.value());
+        return null;
+    }
+
+    public Void visit(StringLitNode node) {
+        writeExp(STR_LIT, node);
+        writeInt(node.lineNum());
+        writeInt(node.charNum());
+        writeString(node.str());
+        return null;
+    }
+
+    public Void visit(TrueNode node) {
+        writeExp(TRUE, node);
+        writeInt(node.lineNum());
+        writeInt(node.charNum());
+        return null;
+    }
+
+    public Void visit(FalseNode node) {
+        writeExp(FALSE, node);
+        writeInt(node.lineNum());
+        writeInt(node.charNum());
+        return null;
+    }
+
+    public Void visit(IdNode node) {
+        writeExp(ID, node);
+        writeInt(node.lineNum());
+        writeInt(node.charNum());
+        writeString(node.name());
+        writeSym(node.sym());
+        return null;
+    }
+
+    public Void visit(DotAccessExpNode node) {
+        writeExp(DOT, node);
+        writeSym(node.sym());
+        return null;
+    }
+
+    public Void visit(AssignNode node) {
+        writeExp(ASSIGN, node);
+        return null;
+    }
+
+    public Void visit(CallExpNode node) {
+        writeExp(CALL, node);
+        return null;
+    }
+
+    public Void visit(UnaryMinusNode node) { writeExp(NEG, node); return null; }
+    public Void visit(NotNode node) { writeExp(NOT, node); return null; }
+    public Void visit(PlusNode node) { writeExp(PLUS, node); return null; }
+    public Void visit(MinusNode node) { writeExp(MINUS, node); return null; }
+    public Void visit(TimesNode node) { writeExp(TIMES, node); return null; }
+    public Void visit(DivideNode node) { writeExp(DIVIDE, node); return null; }
+    public Void visit(AndNode node) { writeExp(AND, node); return null; }
+    public Void visit(OrNode node) { writeExp(OR, node); return null; }
+    public Void visit(EqualsNode node) { writeExp(EQUALS, node); return null; }
+    public Void visit(NotEqualsNode node) { writeExp(NOT_EQUALS, node); return null; }
+    public Void visit(LessNode node) { writeExp(LESS, node); return null; }
+    public Void visit(GreaterNode node) { writeExp(GREATER, node); return null; }
+    public Void visit(LessEqNode node) { writeExp(LESS_EQ, node); return null; }
+    public Void visit(GreaterEqNode node) { writeExp(GREATER_EQ, node); return null; }
+
+    private DataOutputStream myOut;
+    private IOException myError;            // first error, if any
+    private Map<String, Integer> myStrings;
+    private Map<TSym, Integer> mySyms;
+    private Map<Type, TSym> myStructDefs;   // StructDefSym of each StructType
+}
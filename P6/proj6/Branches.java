@@ -0,0 +1,132 @@
+import java.util.*;
+
+/**
+ * Branch simplification on an IrFunction that is not in SSA form, until
+ * nothing changes:
+ *
+ *   - a branch on a constant, or with both targets the same, becomes a
+ *     jump;
+ *   - a jump or branch to a block that only jumps is retargeted to where
+ *     that block jumps (jump threading);
+ *   - a jump to a block that only returns is replaced by the return;
+ *   - a block that is jumped to from one block only, other than the
+ *     entry, is merged into that block.
+ *
+ * Blocks left unreachable are dropped.  The backends then leave out
+ * jumps to the block laid out next, and branch on the inverted condition
+ * when the true target is next (see IrFunction.jumpTargets).
+ */
+class Branches {
+    public static void run(IrFunction fn) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Map<IrBlock, IrBlock> threaded = new HashMap<IrBlock, IrBlock>();
+            for (IrBlock b : fn.blocks()) {
+                changed |= simplify(b, threaded);
+            }
+            fn.computeCfg();
+            if (merge(fn)) {
+                fn.computeCfg();
+                changed = true;
+            }
+        }
+    }
+
+    /**
+     * Simplify the terminator of b; return whether it changed.  threaded
+     * maps the blocks that only jump to where a jump to them ends up.
+     */
+    private static boolean simplify(IrBlock b,
+                                    Map<IrBlock, IrBlock> threaded) {
+        boolean changed = false;
+        IrInstr term = b.terminator();
+        if (term.op() == IrOp.BRANCH) {
+            IrValue cond = term.src(0);
+            IrBlock target = null;
+            if (term.target(0) == term.target(1)) {
+                target = term.target(0);
+            } else if (cond.isConst()) {
+                target = term.target(((IrConst)cond).value() != 0 ? 0 : 1);
+            }
+            if (target != null) {
+                term = new IrInstr(IrOp.JUMP, null);
+                term.setTargets(target);
+                setTerminator(b, term);
+                changed = true;
+            }
+        }
+
+        for (int k = 0; k < term.numTargets(); k++) {
+            IrBlock target = thread(term.target(k), threaded);
+            if (target != term.target(k)) {
+                term.setTarget(k, target);
+                changed = true;
+            }
+        }
+
+        if (term.op() == IrOp.JUMP) {
+            List<IrInstr> instrs = term.target(0).instrs();
+            IrInstr ret = instrs.get(0);
+            if (instrs.size() == 1 && ret.op() == IrOp.RETURN) {
+                IrValue[] srcs = new IrValue[ret.numSrcs()];
+                for (int k = 0; k < srcs.length; k++) {
+                    srcs[k] = ret.src(k);
+                }
+                setTerminator(b, new IrInstr(IrOp.RETURN, null, srcs));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Return the block that a jump to b ends up in, following blocks that
+     * only jump (but not around a loop of them).  The blocks passed are
+     * recorded in threaded, so that a chain of them is followed once.
+     */
+    private static IrBlock thread(IrBlock b, Map<IrBlock, IrBlock> threaded) {
+        Set<IrBlock> path = new LinkedHashSet<IrBlock>();
+        while (!threaded.containsKey(b) && b.instrs().size() == 1
+               && b.terminator().op() == IrOp.JUMP && path.add(b)) {
+            b = b.terminator().target(0);
+        }
+        if (threaded.containsKey(b)) {
+            b = threaded.get(b);
+        }
+        for (IrBlock p : path) {
+            threaded.put(p, b);
+        }
+        return b;
+    }
+
+    /**
+     * Merge each block into its only predecessor when that one jumps to
+     * it; return whether any block was merged.
+     */
+    private static boolean merge(IrFunction fn) {
+        Set<IrBlock> merged = new HashSet<IrBlock>();
+        for (IrBlock b : fn.blocks()) {
+            if (merged.contains(b)) {
+                continue;
+            }
+            IrInstr term = b.terminator();
+            while (term.op() == IrOp.JUMP) {
+                IrBlock s = term.target(0);
+                if (s == b || s == fn.entry() || s.preds().size() != 1) {
+                    break;
+                }
+                b.instrs().remove(b.instrs().size() - 1);
+                b.instrs().addAll(s.instrs());
+                merged.add(s);
+                term = b.terminator();
+            }
+        }
+        fn.blocks().removeAll(merged);
+        return !merged.isEmpty();
+    }
+
+    private static void setTerminator(IrBlock b, IrInstr term) {
+        b.instrs().set(b.instrs().size() - 1, term);
+    }
+}
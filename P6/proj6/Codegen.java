@@ -19,11 +19,19 @@ import java.io.*;
 //     genLabel
 // and a method nextLabel to create and return a new label.
 //
+// Each Codegen writes to its own PrintWriter and numbers its own labels
+// after a prefix, so that functions can be generated into separate
+// buffers, concurrently.
 // **********************************************************************
 
 public class Codegen {
+    public Codegen(PrintWriter p, String labelPrefix) {
+        this.p = p;
+        this.labelPrefix = labelPrefix;
+    }
+
     // file into which generated code is written
-    public static PrintWriter p = null;
+    public PrintWriter p;
 
     // values of true and false
     public static final String TRUE = "1";
@@ -45,7 +53,8 @@ public class Codegen {
 
 
     // for generating labels
-    private static int currLabel = 0;
+    private String labelPrefix;
+    private int currLabel = 0;
 
 
     // **********************************************************************
@@ -59,7 +68,7 @@ public class Codegen {
     //    given:  op code, comment, and 0 to 3 string args
     //    do:     write nicely formatted code (ending with new line)
     // **********************************************************************
-    public static void generateWithComment(String opcode, String comment,
+    public void generateWithComment(String opcode, String comment,
                                         String arg1, String arg2, String arg3) {
         int space = MAXLEN - opcode.length() + 2;
 
@@ -79,17 +88,17 @@ public class Codegen {
         p.println();
     }
 
-    public static void generateWithComment(String opcode, String comment,
+    public void generateWithComment(String opcode, String comment,
                                            String arg1, String arg2) {
         generateWithComment(opcode, comment, arg1, arg2, "");
     }
 
-    public static void generateWithComment(String opcode, String comment,
+    public void generateWithComment(String opcode, String comment,
                                            String arg1) {
         generateWithComment(opcode, comment, arg1, "", "");
     }
 
-    public static void generateWithComment(String opcode, String comment) {
+    public void generateWithComment(String opcode, String comment) {
         generateWithComment(opcode, comment, "", "", "");
     }
 
@@ -98,7 +107,7 @@ public class Codegen {
     //    given:  op code, and 0 to 3 string args
     //    do:     write nicely formatted code (ending with new line)
     // **********************************************************************
-    public static void generate(String opcode, String arg1, String arg2,
+    public void generate(String opcode, String arg1, String arg2,
                                 String arg3) {
         int space = MAXLEN - opcode.length() + 2;
 
@@ -116,15 +125,15 @@ public class Codegen {
         p.println();
     }
 
-    public static void generate(String opcode, String arg1, String arg2) {
+    public void generate(String opcode, String arg1, String arg2) {
         generate(opcode, arg1, arg2, "");
     }
 
-    public static void generate(String opcode, String arg1) {
+    public void generate(String opcode, String arg1) {
         generate(opcode, arg1, "", "");
     }
 
-    public static void generate(String opcode) {
+    public void generate(String opcode) {
         generate(opcode, "", "", "");
     }
 
@@ -133,7 +142,7 @@ public class Codegen {
     //    given:  op code and args
     //    do:     write nicely formatted code (ending with new line)
     // **********************************************************************
-    public static void generate(String opcode, String arg1, String arg2,
+    public void generate(String opcode, String arg1, String arg2,
                                 int arg3) {
         int space = MAXLEN - opcode.length() + 2;
 
@@ -148,7 +157,7 @@ public class Codegen {
     //    given:  op code and args
     //    do:     write nicely formatted code (ending with new line)
     // **********************************************************************
-    public static void generate(String opcode, String arg1, int arg2) {
+    public void generate(String opcode, String arg1, int arg2) {
         int space = MAXLEN - opcode.length() + 2;
 
         p.print("\t" + opcode);
@@ -164,7 +173,7 @@ public class Codegen {
     //    do:     write nicely formatted code (ending with new line):
     //                 op T1, xx(T2) #comment
     // **********************************************************************
-    public static void generateIndexed(String opcode, String arg1, String arg2,
+    public void generateIndexed(String opcode, String arg1, String arg2,
                                        int arg3, String comment) {
         int space = MAXLEN - opcode.length() + 2;
 
@@ -177,7 +186,7 @@ public class Codegen {
         p.println();
     }
 
-    public static void generateIndexed(String opcode, String arg1, String arg2,
+    public void generateIndexed(String opcode, String arg1, String arg2,
                                        int arg3) {
         generateIndexed(opcode, arg1, arg2, arg3, "");
     }
@@ -187,7 +196,7 @@ public class Codegen {
     //    given:  label, op code, comment, and arg
     //    do:     write nicely formatted code (ending with new line)
     // **********************************************************************
-    public static void generateLabeled(String label, String opcode,
+    public void generateLabeled(String label, String opcode,
                                        String comment, String arg1) {
         int space = MAXLEN - opcode.length() + 2;
 
@@ -203,7 +212,7 @@ public class Codegen {
         p.println();
     }
 
-    public static void generateLabeled(String label, String opcode,
+    public void generateLabeled(String label, String opcode,
                                        String comment) {
         generateLabeled(label, opcode, comment, "");
     }
@@ -212,7 +221,7 @@ public class Codegen {
     // genPush
     //    generate code to push the given value onto the stack
     // **********************************************************************
-    public static void genPush(String s) {
+    public void genPush(String s) {
         generateIndexed("sw", s, SP, 0, "PUSH");
         generate("subu", SP, SP, 4);
     }
@@ -221,7 +230,7 @@ public class Codegen {
     // genPop
     //    generate code to pop into the given register
     // **********************************************************************
-    public static void genPop(String s) {
+    public void genPop(String s) {
         generateIndexed("lw", s, SP, 4, "POP");
         generate("addu", SP, SP, 4);
     }
@@ -231,24 +240,24 @@ public class Codegen {
     //   given:    label L and comment (comment may be empty)
     //   generate: L:    # comment
     // **********************************************************************
-    public static void genLabel(String label, String comment) {
+    public void genLabel(String label, String comment) {
         p.print(label + ":");
         if (comment != "")
             p.print("\t\t" + "# " + comment);
         p.println();
     }
 
-    public static void genLabel(String label) {
+    public void genLabel(String label) {
         genLabel(label, "");
     }
 
     // **********************************************************************
     // Return a different label each time:
-    //        L0 L1 L2, etc.
+    //        <prefix>0 <prefix>1 <prefix>2, etc.
     // **********************************************************************
-    public static String nextLabel() {
+    public String nextLabel() {
         Integer k = new Integer(currLabel++);
-        String tmp = ".L" + k;
+        String tmp = labelPrefix + k;
         return(tmp);
     }
 }
@@ -0,0 +1,206 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+/**
+ * CompileCache
+ *
+ * A directory of the results of earlier compilations (see P6 -cache),
+ * each in a file named by its key: the SHA-256 hash of the compiler
+ * version, the options that change the output, and the source bytes.
+ * An entry holds the result code, the diagnostics and the output text.
+ *
+ * Entries are written to a temporary file which is then renamed, so a
+ * reader never sees a partial entry, even with several compilers sharing
+ * the directory.  The last-modified time of an entry is its last use;
+ * when the directory grows past maxBytes, the least recently used entries
+ * are removed.  The cache is only an optimization, so I/O errors make it
+ * miss rather than fail the compilation.
+ */
+class CompileCache {
+    private static final int MAGIC = 0x47434331;    // "GCC1"
+
+    /**
+     * One cached compilation.
+     */
+    public static class Entry {
+        public Entry(int result, List<Diagnostics.Entry> diags, String output) {
+            myResult = result;
+            myDiags = diags;
+            myOutput = output;
+        }
+
+        public int result() {
+            return myResult;
+        }
+
+        public List<Diagnostics.Entry> diagnostics() {
+            return myDiags;
+        }
+
+        public String output() {
+            return myOutput;
+        }
+
+        private int myResult;
+        private List<Diagnostics.Entry> myDiags;
+        private String myOutput;
+    }
+
+    public CompileCache(File dir, long maxBytes) {
+        myDir = dir;
+        myMaxBytes = maxBytes;
+    }
+
+    /**
+     * Return the key of the compilation of source with the given options.
+     */
+    public static String key(byte[] source, String options) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((P6.VERSION + "\0" + options + "\0")
+                      .getBytes(StandardCharsets.UTF_8));
+            md.update(source);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : md.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            System.err.println("SHA-256 is not available in CompileCache.key");
+            System.exit(-1);
+            return null;
+        }
+    }
+
+    /**
+     * Return the entry for key, or null if there is none.
+     */
+    public Entry get(String key) {
+        File file = new File(myDir, key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int result = in.readInt();
+            int n = in.readInt();
+            List<Diagnostics.Entry> diags = new ArrayList<Diagnostics.Entry>(n);
+            for (int k = 0; k < n; k++) {
+                int lineNum = in.readInt();
+                int charNum = in.readInt();
+                Diagnostics.Severity severity =
+                    Diagnostics.Severity.values()[in.readByte()];
+                diags.add(new Diagnostics.Entry(lineNum, charNum, severity,
+                                                in.readUTF()));
+            }
+            byte[] output = new byte[in.readInt()];
+            in.readFully(output);
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(result, diags,
+                             new String(output, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException ex) {
+            return null;    // unreadable or truncated: treat as a miss
+        }
+    }
+
+    /**
+     * Store e as the entry for key, then evict entries if the cache is
+     * too large.
+     */
+    public void put(String key, Entry e) {
+        if (write(key, e)) {
+            evict();
+        }
+    }
+
+    /**
+     * Store the given entries, then evict entries if the cache is too
+     * large.
+     */
+    public void putAll(Map<String, Entry> entries) {
+        boolean written = false;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            written |= write(e.getKey(), e.getValue());
+        }
+        if (written) {
+            evict();
+        }
+    }
+
+    // store e as the entry for key; return false if it could not be
+    private boolean write(String key, Entry e) {
+        File tmp = null;
+        try {
+            Files.createDirectories(myDir.toPath());
+            tmp = File.createTempFile("entry", ".tmp", myDir);
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(e.result());
+                out.writeInt(e.diagnostics().size());
+                for (Diagnostics.Entry d : e.diagnostics()) {
+                    out.writeInt(d.lineNum());
+                    out.writeInt(d.charNum());
+                    out.writeByte(d.severity().ordinal());
+                    out.writeUTF(d.msg());
+                }
+                byte[] output = e.output().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(output.length);
+                out.write(output);
+            }
+            Files.move(tmp.toPath(), new File(myDir, key).toPath(),
+                       StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            return true;
+        } catch (IOException ex) {
+            return false;   // leave the cache as it was
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    // remove the least recently used entries until the cache fits
+    private void evict() {
+        File[] files = myDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<File>();
+        long size = 0;
+        for (File f : files) {
+            if (f.isFile() && !f.getName().endsWith(".tmp")) {
+                entries.add(f);
+                size += f.length();
+            }
+        }
+        if (size <= myMaxBytes) {
+            return;
+        }
+        final Map<File, Long> used = new HashMap<File, Long>();
+        for (File f : entries) {
+            used.put(f, f.lastModified());
+        }
+        entries.sort((f1, f2) -> Long.compare(used.get(f1), used.get(f2)));
+        for (File f : entries) {
+            if (size <= myMaxBytes) {
+                break;
+            }
+            long len = f.length();
+            if (f.delete()) {
+                size -= len;
+            }
+        }
+    }
+
+    private File myDir;
+    private long myMaxBytes;
+}
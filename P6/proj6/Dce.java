@@ -0,0 +1,37 @@
+import java.util.*;
+
+/**
+ * Dead code elimination: removes pure instructions (and PHIs) whose
+ * result is never used, until no more can be removed.
+ */
+class Dce {
+    public static void run(IrFunction fn) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Liveness live = new Liveness(fn);
+            for (IrBlock b : fn.blocks()) {
+                BitSet alive = (BitSet)live.liveOut(b).clone();
+                List<IrInstr> instrs = b.instrs();
+                for (int k = instrs.size() - 1; k >= 0; k--) {
+                    IrInstr instr = instrs.get(k);
+                    IrReg dst = instr.dst();
+                    if (dst != null && !alive.get(dst.num())
+                        && (instr.op().isPure() || instr.op() == IrOp.PHI)) {
+                        instrs.remove(k);
+                        changed = true;
+                        continue;
+                    }
+                    if (dst != null) {
+                        alive.clear(dst.num());
+                    }
+                    if (instr.op() != IrOp.PHI) {
+                        for (IrReg r : instr.uses()) {
+                            alive.set(r.num());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
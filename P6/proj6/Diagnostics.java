@@ -0,0 +1,140 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Diagnostics
+ *
+ * The warnings and errors of one compilation, kept in the order they were
+ * reported and printed together by flush, in the format
+ *     line:char ***ERROR*** message
+ *
+ * At most maxErrors errors are kept: reporting the one that reaches the
+ * limit throws a TooManyErrorsException, which stops the current phase.
+ * A limit of 0 means no limit.  All methods are synchronized, so a
+ * Diagnostics can be shared by several threads; to keep the order of the
+ * messages of concurrent tasks deterministic, give each task a child and
+ * merge the children in order instead (see TypeChecker).
+ */
+class Diagnostics {
+    public enum Severity { ERROR, WARNING }
+
+    /**
+     * One message.
+     */
+    public static class Entry {
+        public Entry(int lineNum, int charNum, Severity severity, String msg) {
+            myLineNum = lineNum;
+            myCharNum = charNum;
+            mySeverity = severity;
+            myMsg = msg;
+        }
+
+        public int lineNum() {
+            return myLineNum;
+        }
+
+        public int charNum() {
+            return myCharNum;
+        }
+
+        public Severity severity() {
+            return mySeverity;
+        }
+
+        public String msg() {
+            return myMsg;
+        }
+
+        public String toString() {
+            return myLineNum + ":" + myCharNum + " ***" + mySeverity + "*** "
+                   + myMsg;
+        }
+
+        private int myLineNum;
+        private int myCharNum;
+        private Severity mySeverity;
+        private String myMsg;
+    }
+
+    public Diagnostics(int maxErrors) {
+        myMaxErrors = maxErrors;
+        myEntries = new ArrayList<Entry>();
+    }
+
+    /**
+     * Return a new Diagnostics that may hold as many errors as this one
+     * still can.
+     */
+    public synchronized Diagnostics child() {
+        if (myMaxErrors == 0) {
+            return new Diagnostics(0);
+        }
+        return new Diagnostics(Math.max(myMaxErrors - myNumErrors, 1));
+    }
+
+    public void fatal(int lineNum, int charNum, String msg) {
+        add(new Entry(lineNum, charNum, Severity.ERROR, msg));
+    }
+
+    public void warn(int lineNum, int charNum, String msg) {
+        add(new Entry(lineNum, charNum, Severity.WARNING, msg));
+    }
+
+    /**
+     * Append the messages of d to this one, as if they had been reported
+     * here.
+     */
+    public void merge(Diagnostics d) {
+        for (Entry e : d.entries()) {
+            add(e);
+        }
+    }
+
+    public synchronized void add(Entry e) {
+        if (isFull()) {
+            throw new TooManyErrorsException();
+        }
+        if (e.severity() == Severity.ERROR) {
+            myNumErrors++;
+        } else if (myMaxErrors > 0 && myEntries.size() >= 2 * myMaxErrors) {
+            return;         // keep the buffer bounded
+        }
+        myEntries.add(e);
+        if (isFull()) {
+            throw new TooManyErrorsException();
+        }
+    }
+
+    public synchronized boolean hasErrors() {
+        return myNumErrors > 0;
+    }
+
+    public synchronized boolean isFull() {
+        return myMaxErrors > 0 && myNumErrors >= myMaxErrors;
+    }
+
+    public synchronized List<Entry> entries() {
+        return new ArrayList<Entry>(myEntries);
+    }
+
+    /**
+     * Print the messages reported since the last flush to out.
+     */
+    public synchronized void flush(PrintStream out) {
+        StringBuilder buf = new StringBuilder();
+        for (Entry e : myEntries.subList(myFlushed, myEntries.size())) {
+            buf.append(e).append('\n');
+        }
+        if (isFull() && myFlushed < myEntries.size()) {
+            buf.append("too many errors\n");
+        }
+        out.print(buf);
+        out.flush();
+        myFlushed = myEntries.size();
+    }
+
+    private int myMaxErrors;
+    private int myNumErrors;
+    private int myFlushed;
+    private List<Entry> myEntries;
+}
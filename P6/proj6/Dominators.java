@@ -0,0 +1,168 @@
+import java.util.*;
+
+/**
+ * Dominator tree and dominance frontiers of an IrFunction's CFG, computed
+ * with the iterative algorithm of Cooper, Harvey and Kennedy ("A Simple,
+ * Fast Dominance Algorithm").  The CFG must be up to date
+ * (IrFunction.computeCfg).
+ */
+class Dominators {
+    public Dominators(IrFunction fn) {
+        myRpo = reversePostorder(fn);
+        myIndex = new HashMap<IrBlock, Integer>();
+        for (int k = 0; k < myRpo.size(); k++) {
+            myIndex.put(myRpo.get(k), k);
+        }
+
+        int n = myRpo.size();
+        myIdom = new int[n];
+        Arrays.fill(myIdom, -1);
+        myIdom[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = 1; k < n; k++) {
+                int idom = -1;
+                for (IrBlock p : myRpo.get(k).preds()) {
+                    int j = myIndex.get(p);
+                    if (myIdom[j] < 0) {
+                        continue;
+                    }
+                    idom = idom < 0 ? j : intersect(idom, j);
+                }
+                if (myIdom[k] != idom) {
+                    myIdom[k] = idom;
+                    changed = true;
+                }
+            }
+        }
+
+        // dominator tree, numbered in preorder to answer dominates()
+        myChildren = new ArrayList<List<IrBlock>>(n);
+        for (int k = 0; k < n; k++) {
+            myChildren.add(new ArrayList<IrBlock>());
+        }
+        for (int k = 1; k < n; k++) {
+            myChildren.get(myIdom[k]).add(myRpo.get(k));
+        }
+        myPre = new int[n];
+        myPost = new int[n];
+        int clock = 0;
+        Deque<int[]> stack = new ArrayDeque<int[]>();
+        stack.push(new int[] { 0, 0 });
+        myPre[0] = clock++;
+        while (!stack.isEmpty()) {
+            int[] top = stack.peek();
+            List<IrBlock> kids = myChildren.get(top[0]);
+            if (top[1] < kids.size()) {
+                int c = myIndex.get(kids.get(top[1]++));
+                myPre[c] = clock++;
+                stack.push(new int[] { c, 0 });
+            } else {
+                myPost[top[0]] = clock++;
+                stack.pop();
+            }
+        }
+    }
+
+    /**
+     * Return the reachable blocks of fn in reverse postorder.
+     */
+    public static List<IrBlock> reversePostorder(IrFunction fn) {
+        List<IrBlock> post = new ArrayList<IrBlock>();
+        Set<IrBlock> seen = new HashSet<IrBlock>();
+        Deque<IrBlock> stack = new ArrayDeque<IrBlock>();
+        Deque<Integer> next = new ArrayDeque<Integer>();
+        stack.push(fn.entry());
+        next.push(0);
+        seen.add(fn.entry());
+        while (!stack.isEmpty()) {
+            IrBlock b = stack.peek();
+            int k = next.pop();
+            if (k < b.succs().size()) {
+                next.push(k + 1);
+                IrBlock s = b.succs().get(k);
+                if (seen.add(s)) {
+                    stack.push(s);
+                    next.push(0);
+                }
+            } else {
+                post.add(stack.pop());
+            }
+        }
+        Collections.reverse(post);
+        return post;
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (a > b) {
+                a = myIdom[a];
+            }
+            while (b > a) {
+                b = myIdom[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Return the reachable blocks in reverse postorder (the entry first).
+     */
+    public List<IrBlock> rpo() {
+        return myRpo;
+    }
+
+    /**
+     * Return the immediate dominator of b (null for the entry block).
+     */
+    public IrBlock idom(IrBlock b) {
+        int k = myIndex.get(b);
+        return k == 0 ? null : myRpo.get(myIdom[k]);
+    }
+
+    /**
+     * Return the blocks immediately dominated by b.
+     */
+    public List<IrBlock> children(IrBlock b) {
+        return myChildren.get(myIndex.get(b));
+    }
+
+    /**
+     * Return whether a dominates b (every block dominates itself).
+     */
+    public boolean dominates(IrBlock a, IrBlock b) {
+        int i = myIndex.get(a);
+        int j = myIndex.get(b);
+        return myPre[i] <= myPre[j] && myPost[j] <= myPost[i];
+    }
+
+    /**
+     * Return the dominance frontier of every block.
+     */
+    public Map<IrBlock, Set<IrBlock>> frontiers() {
+        Map<IrBlock, Set<IrBlock>> df = new HashMap<IrBlock, Set<IrBlock>>();
+        for (IrBlock b : myRpo) {
+            df.put(b, new LinkedHashSet<IrBlock>());
+        }
+        for (IrBlock b : myRpo) {
+            if (b.preds().size() < 2) {
+                continue;
+            }
+            IrBlock idom = idom(b);
+            for (IrBlock p : b.preds()) {
+                for (IrBlock runner = p; runner != idom; runner = idom(runner)) {
+                    df.get(runner).add(b);
+                }
+            }
+        }
+        return df;
+    }
+
+    private List<IrBlock> myRpo;
+    private Map<IrBlock, Integer> myIndex;
+    private int[] myIdom;        // by rpo index
+    private List<List<IrBlock>> myChildren;
+    private int[] myPre;         // dominator tree preorder numbers
+    private int[] myPost;        // dominator tree postorder numbers
+}
@@ -2,9 +2,13 @@
  * ErrMsg
  *
  * This class is used to generate warning and fatal error messages.
+ * Messages are reported to the Diagnostics of the current compilation,
+ * set for the current thread by setDiagnostics; without one, they are
+ * printed to System.err.
  */
 class ErrMsg {
-	private static boolean err = false;
+	private static final ThreadLocal<Diagnostics> diagnostics =
+		new ThreadLocal<Diagnostics>();
 
 	/**
 	 * Generates a fatal error message.
@@ -13,8 +17,12 @@ class ErrMsg {
 	 * @param msg associated message for error
 	 */
 	static void fatal(int lineNum, int charNum, String msg) {
-		err = true;
-		System.err.println(lineNum + ":" + charNum + " ***ERROR*** " + msg);
+		Diagnostics d = diagnostics.get();
+		if (d == null) {
+			System.err.println(lineNum + ":" + charNum + " ***ERROR*** " + msg);
+		} else {
+			d.fatal(lineNum, charNum, msg);
+		}
 	}
 
 	/**
@@ -24,14 +32,31 @@ class ErrMsg {
 	 * @param msg associated message for warning
 	 */
 	static void warn(int lineNum, int charNum, String msg) {
-		System.err.println(lineNum + ":" + charNum + " ***WARNING*** " + msg);
+		Diagnostics d = diagnostics.get();
+		if (d == null) {
+			System.err.println(lineNum + ":" + charNum + " ***WARNING*** " + msg);
+		} else {
+			d.warn(lineNum, charNum, msg);
+		}
 	}
 
 	/**
-	 * Returns the err flag.
+	 * Returns the Diagnostics of the current thread, or null.
 	 */
-	static boolean getErr() {
-		return err;
+	static Diagnostics getDiagnostics() {
+		return diagnostics.get();
+	}
+
+	/**
+	 * Sets the Diagnostics that the messages of the current thread go to.
+	 * @param d diagnostics of the current compilation, or null
+	 */
+	static void setDiagnostics(Diagnostics d) {
+		if (d == null) {
+			diagnostics.remove();
+		} else {
+			diagnostics.set(d);
+		}
 	}
 
 }
@@ -0,0 +1,256 @@
+import java.util.*;
+
+// **********************************************************************
+// The FlatAst class is a compact encoding of the abstract-syntax tree of
+// a Gibberish program, for very large inputs (see P6 -flat).  Instead of
+// one object per node, the nodes are indices into parallel arrays (a
+// struct of arrays):
+//
+//     kind   the kind of node (one of the constants below)
+//     a,b,c  children (node indices), lists, or values, by kind
+//     pos    line and char of the token, packed as line << 32 | char
+//
+// Names and string literals are interned: a node refers to them by their
+// index in the string table.  A list is a run [n, item1, ..., itemn] in
+// the lists array, and a node refers to it by the index of n.  Types are
+// not nodes but one of the TYPE_ codes; declarations, which have no
+// position of their own, keep their type in pos.
+//
+// Here are the kinds of nodes and the meaning of their fields:
+//
+//     Kind           a            b             c
+//     ----           -            -             -
+//     PROGRAM        decl list
+//     VAR_DECL       id           struct id/-1              (pos: type)
+//     FN_DECL        id           formal list   body        (pos: type)
+//     FORMAL_DECL    id                                     (pos: type)
+//     STRUCT_DECL    id           field list
+//     BLOCK          decl list    stmt list
+//
+//     ASSIGN_STMT    assign
+//     POST_INC, POST_DEC, READ, WRITE, CALL_STMT
+//                    exp
+//     IF, WHILE, REPEAT
+//                    condition    block
+//     IF_ELSE        condition    then block    else block
+//     RETURN         exp/-1
+//
+//     INT_LIT        value
+//     STR_LIT        string
+//     TRUE, FALSE
+//     ID             name         symbol/-1 (set by FlatChecker)
+//     DOT            loc          id
+//     ASSIGN         loc          exp
+//     CALL           id           arg list
+//     NEG, NOT       exp
+//     PLUS ... OR    exp1         exp2
+//
+// Nodes are appended by the parser (FlatParser); the passes (FlatChecker,
+// FlatLower) visit them by index, switching on the kind.
+// **********************************************************************
+
+class FlatAst {
+    // declarations
+    public static final byte PROGRAM = 0;
+    public static final byte VAR_DECL = 1;
+    public static final byte FN_DECL = 2;
+    public static final byte FORMAL_DECL = 3;
+    public static final byte STRUCT_DECL = 4;
+    public static final byte BLOCK = 5;
+
+    // statements
+    public static final byte ASSIGN_STMT = 10;
+    public static final byte POST_INC = 11;
+    public static final byte POST_DEC = 12;
+    public static final byte READ = 13;
+    public static final byte WRITE = 14;
+    public static final byte IF = 15;
+    public static final byte IF_ELSE = 16;
+    public static final byte WHILE = 17;
+    public static final byte REPEAT = 18;
+    public static final byte CALL_STMT = 19;
+    public static final byte RETURN = 20;
+
+    // expressions
+    public static final byte INT_LIT = 30;
+    public static final byte STR_LIT = 31;
+    public static final byte TRUE = 32;
+    public static final byte FALSE = 33;
+    public static final byte ID = 34;
+    public static final byte DOT = 35;
+    public static final byte ASSIGN = 36;
+    public static final byte CALL = 37;
+    public static final byte NEG = 38;
+    public static final byte NOT = 39;
+    public static final byte PLUS = 40;
+    public static final byte MINUS = 41;
+    public static final byte TIMES = 42;
+    public static final byte DIVIDE = 43;
+    public static final byte EQUALS = 44;
+    public static final byte NOT_EQUALS = 45;
+    public static final byte LESS = 46;
+    public static final byte GREATER = 47;
+    public static final byte LESS_EQ = 48;
+    public static final byte GREATER_EQ = 49;
+    public static final byte AND = 50;
+    public static final byte OR = 51;
+
+    // types of declarations
+    public static final int TYPE_INT = 0;
+    public static final int TYPE_BOOL = 1;
+    public static final int TYPE_VOID = 2;
+    public static final int TYPE_STRUCT = 3;
+
+    public static final int NONE = -1;
+
+    public FlatAst() {
+        myKind = new byte[1024];
+        myA = new int[1024];
+        myB = new int[1024];
+        myC = new int[1024];
+        myPos = new long[1024];
+        myLists = new int[1024];
+        myStrings = new ArrayList<String>();
+        myStringIds = new HashMap<String, Integer>();
+    }
+
+    // **********************************************************************
+    // building
+    // **********************************************************************
+
+    /**
+     * Append a node and return its index.
+     */
+    public int add(byte kind, int a, int b, int c, long pos) {
+        if (mySize == myKind.length) {
+            int cap = 2 * mySize;
+            myKind = Arrays.copyOf(myKind, cap);
+            myA = Arrays.copyOf(myA, cap);
+            myB = Arrays.copyOf(myB, cap);
+            myC = Arrays.copyOf(myC, cap);
+            myPos = Arrays.copyOf(myPos, cap);
+        }
+        myKind[mySize] = kind;
+        myA[mySize] = a;
+        myB[mySize] = b;
+        myC[mySize] = c;
+        myPos[mySize] = pos;
+        return mySize++;
+    }
+
+    /**
+     * Append the list items[from], ..., items[from + n - 1] and return its
+     * index.
+     */
+    public int addList(int[] items, int from, int n) {
+        while (myListsSize + n + 1 > myLists.length) {
+            myLists = Arrays.copyOf(myLists, 2 * myLists.length);
+        }
+        int list = myListsSize;
+        myLists[myListsSize++] = n;
+        System.arraycopy(items, from, myLists, myListsSize, n);
+        myListsSize += n;
+        return list;
+    }
+
+    /**
+     * Return the index of s in the string table, adding it if needed.
+     */
+    public int intern(String s) {
+        Integer k = myStringIds.get(s);
+        if (k == null) {
+            k = myStrings.size();
+            myStrings.add(s);
+            myStringIds.put(s, k);
+        }
+        return k;
+    }
+
+    public static long pos(int lineNum, int charNum) {
+        return (long)lineNum << 32 | charNum;
+    }
+
+    public void setB(int n, int b) {
+        myB[n] = b;
+    }
+
+    /**
+     * Release the unused capacity, once the tree is complete.
+     */
+    public void trim() {
+        myKind = Arrays.copyOf(myKind, mySize);
+        myA = Arrays.copyOf(myA, mySize);
+        myB = Arrays.copyOf(myB, mySize);
+        myC = Arrays.copyOf(myC, mySize);
+        myPos = Arrays.copyOf(myPos, mySize);
+        myLists = Arrays.copyOf(myLists, myListsSize);
+        myStringIds = null;
+    }
+
+    // **********************************************************************
+    // access
+    // **********************************************************************
+    public int size() {
+        return mySize;
+    }
+
+    public int root() {
+        return mySize - 1;      // the program node is built last
+    }
+
+    public byte kind(int n) {
+        return myKind[n];
+    }
+
+    public int a(int n) {
+        return myA[n];
+    }
+
+    public int b(int n) {
+        return myB[n];
+    }
+
+    public int c(int n) {
+        return myC[n];
+    }
+
+    public int type(int n) {
+        return (int)myPos[n];
+    }
+
+    public int lineNum(int n) {
+        return (int)(myPos[n] >>> 32);
+    }
+
+    public int charNum(int n) {
+        return (int)myPos[n];
+    }
+
+    public String string(int k) {
+        return myStrings.get(k);
+    }
+
+    // name of an ID node
+    public String name(int id) {
+        return myStrings.get(myA[id]);
+    }
+
+    public int listSize(int list) {
+        return myLists[list];
+    }
+
+    public int listItem(int list, int k) {
+        return myLists[list + 1 + k];
+    }
+
+    private int mySize;
+    private byte[] myKind;
+    private int[] myA;
+    private int[] myB;
+    private int[] myC;
+    private long[] myPos;
+    private int[] myLists;
+    private int myListsSize;
+    private List<String> myStrings;
+    private Map<String, Integer> myStringIds;
+}
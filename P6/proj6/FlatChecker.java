@@ -0,0 +1,793 @@
+import java.util.*;
+
+// **********************************************************************
+// The FlatChecker class does name analysis and type checking of a
+// FlatAst, with the same rules and messages as NameAnalyzer and
+// TypeChecker.
+//
+// Name analysis links each ID node to a TSym: field b of the node is the
+// index of the TSym in a table kept here (see sym).  Struct types are
+// still described by an IdNode (see StructSym), made for the struct name
+// of each struct variable.
+//
+// The statements of a function are walked with a stack of their own (see
+// the Names and Types walkers), so that the depth of the Java stack does
+// not grow with the nesting of the program.
+// **********************************************************************
+
+class FlatChecker {
+    public FlatChecker(FlatAst ast) {
+        myAst = ast;
+        mySyms = new ArrayList<TSym>();
+    }
+
+    /**
+     * Return the symbol linked to ID node id, or null.
+     */
+    public TSym sym(int id) {
+        int k = myAst.b(id);
+        return k == FlatAst.NONE ? null : mySyms.get(k);
+    }
+
+    private void link(int id, TSym sym) {
+        myAst.setB(id, mySyms.size());
+        mySyms.add(sym);
+    }
+
+    // **********************************************************************
+    // name analysis
+    // **********************************************************************
+    public void nameAnalysis() {
+        SymTable symTab = new SymTable();
+        boolean noMain = true;
+        int decls = myAst.a(myAst.root());
+        for (int k = 0; k < myAst.listSize(decls); k++) {
+            int d = myAst.listItem(decls, k);
+            switch (myAst.kind(d)) {
+            case FlatAst.VAR_DECL:
+                TSym sym = varDecl(d, symTab, symTab);
+                if (sym != null) {
+                    sym.setOffset(1);   // global
+                }
+                break;
+            case FlatAst.FN_DECL:
+                if (fnDecl(d, symTab)) {
+                    noMain = false;
+                }
+                break;
+            case FlatAst.STRUCT_DECL:
+                structDecl(d, symTab);
+                break;
+            }
+        }
+        if (noMain) {
+            ErrMsg.fatal(0, 0, "No main function");
+        }
+    }
+
+    // process the variable declarations of list decls, adding them to
+    // symTab; struct types are looked up in globalTab
+    private void varDecls(int decls, SymTable symTab, SymTable globalTab) {
+        for (int k = 0; k < myAst.listSize(decls); k++) {
+            TSym sym = varDecl(myAst.listItem(decls, k), symTab, globalTab);
+            if (sym != null) {
+                sym.setOffset(myOffset);
+                myOffset -= 4 * StructDefSym.sizeOf(sym);
+            }
+        }
+    }
+
+    private TSym varDecl(int d, SymTable symTab, SymTable globalTab) {
+        int id = myAst.a(d);
+        String name = myAst.name(id);
+        boolean badDecl = false;
+        TSym sym = null;
+        IdNode structId = null;
+
+        if (myAst.type(d) == FlatAst.TYPE_VOID) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Non-function declared void");
+            badDecl = true;
+        } else if (myAst.type(d) == FlatAst.TYPE_STRUCT) {
+            int t = myAst.b(d);
+            structId = new IdNode(myAst.lineNum(t), myAst.charNum(t),
+                                  myAst.name(t));
+            sym = lookupGlobal(globalTab, structId.name());
+            if (sym == null || !(sym instanceof StructDefSym)) {
+                ErrMsg.fatal(structId.lineNum(), structId.charNum(),
+                             "Invalid name of struct type");
+                badDecl = true;
+            } else {
+                structId.link(sym);
+            }
+        }
+
+        if (lookupLocal(symTab, name) != null) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Multiply declared identifier");
+            badDecl = true;
+        }
+        if (badDecl) {
+            return null;
+        }
+
+        if (structId != null) {
+            sym = new StructSym(structId);
+        } else {
+            sym = new TSym(type(myAst.type(d)));
+        }
+        addDecl(symTab, name, sym);
+        link(id, sym);
+        return sym;
+    }
+
+    // return true if d declares main
+    private boolean fnDecl(int d, SymTable symTab) {
+        int id = myAst.a(d);
+        String name = myAst.name(id);
+        int formals = myAst.b(d);
+        int body = myAst.c(d);
+        FnSym sym = null;
+        boolean isMain = false;
+
+        if (lookupLocal(symTab, name) != null) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Multiply declared identifier");
+        } else {
+            isMain = name.equals("main");
+            sym = new FnSym(type(myAst.type(d)), myAst.listSize(formals));
+            addDecl(symTab, name, sym);
+            link(id, sym);
+        }
+
+        symTab.addScope();  // for locals and params
+        List<Type> typeList = new ArrayList<Type>(myAst.listSize(formals));
+        int offset = 0;
+        for (int k = 0; k < myAst.listSize(formals); k++) {
+            TSym formal = formalDecl(myAst.listItem(formals, k), symTab);
+            if (formal != null) {
+                typeList.add(formal.getType());
+                formal.setOffset(offset);
+                offset -= 4;
+            }
+        }
+        if (sym != null) {
+            sym.addFormals(typeList);
+        }
+
+        myOffset = -8;
+        varDecls(myAst.a(body), symTab, symTab);
+        new Names(symTab).walkTreeList(myAst.b(body));
+        removeScope(symTab);
+        return isMain;
+    }
+
+    private TSym formalDecl(int d, SymTable symTab) {
+        int id = myAst.a(d);
+        String name = myAst.name(id);
+        boolean badDecl = false;
+
+        if (myAst.type(d) == FlatAst.TYPE_VOID) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Non-function declared void");
+            badDecl = true;
+        }
+        if (lookupLocal(symTab, name) != null) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Multiply declared identifier");
+            badDecl = true;
+        }
+        if (badDecl) {
+            return null;
+        }
+
+        TSym sym = new TSym(type(myAst.type(d)));
+        addDecl(symTab, name, sym);
+        link(id, sym);
+        return sym;
+    }
+
+    private void structDecl(int d, SymTable symTab) {
+        int id = myAst.a(d);
+        String name = myAst.name(id);
+
+        if (lookupLocal(symTab, name) != null) {
+            ErrMsg.fatal(myAst.lineNum(id), myAst.charNum(id),
+                         "Multiply declared identifier");
+            return;
+        }
+        SymTable structSymTab = new SymTable();
+        varDecls(myAst.b(d), structSymTab, symTab);
+        StructDefSym sym = new StructDefSym(structSymTab, name);
+        int fields = myAst.b(d);
+        for (int k = 0; k < myAst.listSize(fields); k++) {
+            int field = myAst.a(myAst.listItem(fields, k));
+            if (sym(field) != null) {       // not a bad decl
+                sym.addField(myAst.name(field), StructDefSym.sizeOf(sym(field)));
+            }
+        }
+        addDecl(symTab, name, sym);
+        link(id, sym);
+    }
+
+    // **********************************************************************
+    // The Names walker does the name analysis of the statements of a
+    // function, with a stack of its own (see FlatWalker).
+    // **********************************************************************
+    private class Names extends FlatWalker {
+        public Names(SymTable symTab) {
+            super(FlatChecker.this.myAst);
+            mySymTab = symTab;
+        }
+
+        protected void visit(int n) {
+            switch (myAst.kind(n)) {
+            case FlatAst.IF:
+            case FlatAst.WHILE:
+            case FlatAst.REPEAT:
+                switch (step()) {
+                case 0:
+                    walk(myAst.a(n));
+                    resume(1);
+                    break;
+                case 1:
+                    block(myAst.b(n));
+                    break;
+                default:
+                    removeScope(mySymTab);
+                }
+                break;
+            case FlatAst.IF_ELSE:
+                switch (step()) {
+                case 0:
+                    walk(myAst.a(n));
+                    resume(1);
+                    break;
+                case 1:
+                    block(myAst.b(n));
+                    break;
+                case 2:
+                    removeScope(mySymTab);
+                    block(myAst.c(n));
+                    break;
+                default:
+                    removeScope(mySymTab);
+                }
+                break;
+            case FlatAst.INT_LIT:
+            case FlatAst.STR_LIT:
+            case FlatAst.TRUE:
+            case FlatAst.FALSE:
+                break;
+            case FlatAst.ID:
+                id(n);
+                break;
+            case FlatAst.DOT:
+                dot(n);
+                break;
+            case FlatAst.CALL:
+                walk(myAst.a(n));
+                walkList(myAst.b(n));
+                break;
+            case FlatAst.NEG:
+            case FlatAst.NOT:
+                walk(myAst.a(n));
+                break;
+            default:
+                if (myAst.kind(n) < FlatAst.INT_LIT) {  // other stmt
+                    walk(myAst.a(n));
+                } else {    // assignment or binary operator
+                    walk(myAst.a(n));
+                    walk(myAst.b(n));
+                }
+            }
+        }
+
+        // process the decls and stmts of block in a new scope, which the
+        // next step removes
+        private void block(int block) {
+            mySymTab.addScope();
+            varDecls(myAst.a(block), mySymTab, mySymTab);
+            walkList(myAst.b(block));
+            resume(step() + 1);
+        }
+
+        private void id(int e) {
+            TSym sym = lookupGlobal(mySymTab, myAst.name(e));
+            if (sym == null) {
+                ErrMsg.fatal(myAst.lineNum(e), myAst.charNum(e),
+                             "Undeclared identifier");
+            } else {
+                link(e, sym);
+            }
+        }
+
+        /**
+         * Process dot-access e, from the ID at the bottom of its chain of
+         * locs up; an error ends it (to prevent cascading errors).
+         */
+        private void dot(int e) {
+            List<Integer> dots = new ArrayList<Integer>();
+            int loc = e;
+            while (myAst.kind(loc) == FlatAst.DOT) {
+                dots.add(loc);
+                loc = myAst.a(loc);
+            }
+
+            id(loc);
+            TSym sym = sym(loc);
+            if (sym == null) {      // undeclared
+                return;
+            }
+            // the StructDefSym of loc, or null if it is not a struct
+            TSym def = sym instanceof StructSym
+                       ? ((StructSym)sym).getStructType().sym() : null;
+            for (int k = dots.size() - 1; k >= 0; k--) {
+                loc = myAst.a(dots.get(k));
+                int field = myAst.b(dots.get(k));
+                if (def == null) {
+                    ErrMsg.fatal(myAst.lineNum(loc), myAst.charNum(loc),
+                                 "Dot-access of non-struct type");
+                    return;
+                }
+                SymTable structSymTab = ((StructDefSym)def).getSymTable();
+                sym = lookupGlobal(structSymTab, myAst.name(field));
+                if (sym == null) {
+                    ErrMsg.fatal(myAst.lineNum(field), myAst.charNum(field),
+                                 "Invalid struct field name");
+                    return;
+                }
+                link(field, sym);
+                def = sym instanceof StructSym
+                      ? ((StructSym)sym).getStructType().sym() : null;
+            }
+        }
+
+        private SymTable mySymTab;
+    }
+
+    // **********************************************************************
+    // type checking
+    // **********************************************************************
+    public void typeCheck() {
+        int decls = myAst.a(myAst.root());
+        for (int k = 0; k < myAst.listSize(decls); k++) {
+            int d = myAst.listItem(decls, k);
+            if (myAst.kind(d) == FlatAst.FN_DECL) {
+                new Types(type(myAst.type(d))).walkTreeList(myAst.b(myAst.c(d)));
+            }
+        }
+    }
+
+    // **********************************************************************
+    // The Types walker type checks the statements of a function, with a
+    // stack of its own (see FlatWalker).  Each expression pushes its type
+    // on a stack of types for the step of its parent that checks it.
+    // **********************************************************************
+    private class Types extends FlatWalker {
+        // step of a call that checks its argument k (the data)
+        private static final int ARG = 2;
+
+        public Types(Type retType) {
+            super(FlatChecker.this.myAst);
+            myRetType = retType;
+            myTypes = new ArrayList<Type>();
+        }
+
+        protected void visit(int n) {
+            int e = myAst.a(n);
+            Type type;
+            switch (myAst.kind(n)) {
+            case FlatAst.ASSIGN_STMT:
+            case FlatAst.CALL_STMT:
+                if (checked(e)) {
+                    pop();
+                }
+                break;
+
+            case FlatAst.POST_INC:
+            case FlatAst.POST_DEC:
+                if (checked(e)) {
+                    type = pop();
+                    if (!type.isErrorType() && !type.isIntType()) {
+                        error(e, "Arithmetic operator applied to non-numeric operand");
+                    }
+                }
+                break;
+
+            case FlatAst.READ:
+                if (checked(e)) {
+                    type = pop();
+                    if (type.isFnType()) {
+                        error(e, "Attempt to read a function");
+                    }
+                    if (type.isStructDefType()) {
+                        error(e, "Attempt to read a struct name");
+                    }
+                    if (type.isStructType()) {
+                        error(e, "Attempt to read a struct variable");
+                    }
+                }
+                break;
+
+            case FlatAst.WRITE:
+                if (checked(e)) {
+                    type = pop();
+                    if (type.isFnType()) {
+                        error(e, "Attempt to write a function");
+                    }
+                    if (type.isStructDefType()) {
+                        error(e, "Attempt to write a struct name");
+                    }
+                    if (type.isStructType()) {
+                        error(e, "Attempt to write a struct variable");
+                    }
+                    if (type.isVoidType()) {
+                        error(e, "Attempt to write void");
+                    }
+                }
+                break;
+
+            case FlatAst.IF:
+            case FlatAst.IF_ELSE:
+                if (checked(e)) {
+                    type = pop();
+                    if (!type.isErrorType() && !type.isBoolType()) {
+                        error(e, "Non-bool expression used as an if condition");
+                    }
+                    walkList(myAst.b(myAst.b(n)));
+                    if (myAst.kind(n) == FlatAst.IF_ELSE) {
+                        walkList(myAst.b(myAst.c(n)));
+                    }
+                }
+                break;
+
+            case FlatAst.WHILE:
+                if (checked(e)) {
+                    type = pop();
+                    if (!type.isErrorType() && !type.isBoolType()) {
+                        error(e, "Non-bool expression used as a while condition");
+                    }
+                    walkList(myAst.b(myAst.b(n)));
+                }
+                break;
+
+            case FlatAst.REPEAT:
+                if (checked(e)) {
+                    type = pop();
+                    if (!type.isErrorType() && !type.isIntType()) {
+                        error(e, "Non-integer expression used as a repeat clause");
+                    }
+                    walkList(myAst.b(myAst.b(n)));
+                }
+                break;
+
+            case FlatAst.RETURN:
+                if (e != FlatAst.NONE) {
+                    if (checked(e)) {
+                        type = pop();
+                        if (myRetType.isVoidType()) {
+                            error(e, "Return with a value in a void function");
+                        } else if (!myRetType.isErrorType()
+                                   && !type.isErrorType()
+                                   && myRetType != type) {
+                            error(e, "Bad return value");
+                        }
+                    }
+                } else if (!myRetType.isVoidType()) {
+                    ErrMsg.fatal(0, 0, "Missing return value");
+                }
+                break;
+
+            default:
+                exp(n);
+            }
+        }
+
+        // check the current step of expression e; it pushes the type of e
+        // once its operands are checked
+        private void exp(int e) {
+            Type type1;
+            Type type2;
+            switch (myAst.kind(e)) {
+            case FlatAst.INT_LIT:
+                push(Type.INT);
+                break;
+
+            case FlatAst.STR_LIT:
+                push(Type.STRING);
+                break;
+
+            case FlatAst.TRUE:
+            case FlatAst.FALSE:
+                push(Type.BOOL);
+                break;
+
+            case FlatAst.ID:
+                push(id(e));
+                break;
+
+            case FlatAst.DOT:
+                push(id(myAst.b(e)));
+                break;
+
+            case FlatAst.ASSIGN:
+                if (checked(myAst.a(e), myAst.b(e))) {
+                    type2 = pop();
+                    type1 = pop();
+                    push(assign(e, type1, type2));
+                }
+                break;
+
+            case FlatAst.CALL:
+                call(e);
+                break;
+
+            case FlatAst.NEG:
+            case FlatAst.NOT:
+                if (checked(myAst.a(e))) {
+                    push(unary(e, pop()));
+                }
+                break;
+
+            case FlatAst.EQUALS:
+            case FlatAst.NOT_EQUALS:
+                if (checked(myAst.a(e), myAst.b(e))) {
+                    type2 = pop();
+                    type1 = pop();
+                    push(equality(e, type1, type2));
+                }
+                break;
+
+            case FlatAst.AND:
+            case FlatAst.OR:
+                if (checked(myAst.a(e), myAst.b(e))) {
+                    type2 = pop();
+                    type1 = pop();
+                    push(operands(e, type1, type2, false, Type.BOOL,
+                                  "Logical operator applied to non-bool operand"));
+                }
+                break;
+
+            case FlatAst.LESS:
+            case FlatAst.GREATER:
+            case FlatAst.LESS_EQ:
+            case FlatAst.GREATER_EQ:
+                if (checked(myAst.a(e), myAst.b(e))) {
+                    type2 = pop();
+                    type1 = pop();
+                    push(operands(e, type1, type2, true, Type.BOOL,
+                                  "Relational operator applied to non-numeric operand"));
+                }
+                break;
+
+            default:            // arithmetic operator
+                if (checked(myAst.a(e), myAst.b(e))) {
+                    type2 = pop();
+                    type1 = pop();
+                    push(operands(e, type1, type2, true, Type.INT,
+                                  "Arithmetic operator applied to non-numeric operand"));
+                }
+            }
+        }
+
+        // the type of call e is pushed before its args are checked, each
+        // in a step of its own
+        private void call(int e) {
+            int id = myAst.a(e);
+            int args = myAst.b(e);
+            if (step() == 0) {
+                walk(id);
+                resume(1);
+            } else if (step() == ARG) {
+                int k = (Integer)data();
+                int arg = myAst.listItem(args, k);
+                Type actualType = pop();
+                Type formalType = ((FnSym)sym(id)).getParamTypes().get(k);
+                if (!actualType.isErrorType() && formalType != actualType) {
+                    error(arg, "Type of actual does not match type of formal");
+                }
+            } else if (!pop().isFnType()) {
+                error(id, "Attempt to call a non-function");
+                push(Type.ERROR);
+            } else {
+                FnSym fnSym = (FnSym)sym(id);
+                push(fnSym.getReturnType());
+                if (myAst.listSize(args) != fnSym.getNumParams()) {
+                    error(id, "Function call with wrong number of args");
+                    return;
+                }
+                for (int k = 0; k < myAst.listSize(args); k++) {
+                    walk(myAst.listItem(args, k));
+                    resume(ARG, k);
+                }
+            }
+        }
+
+        // at step 0, schedule exps and return false; at the next step,
+        // when their types are on the stack, return true
+        private boolean checked(int... exps) {
+            if (step() > 0) {
+                return true;
+            }
+            for (int e : exps) {
+                walk(e);
+            }
+            resume(1);
+            return false;
+        }
+
+        private void push(Type type) {
+            myTypes.add(type);
+        }
+
+        private Type pop() {
+            return myTypes.remove(myTypes.size() - 1);
+        }
+
+        private Type myRetType;
+        private List<Type> myTypes;     // types of the checked expressions
+    }
+
+    private Type id(int e) {
+        if (sym(e) == null) {
+            System.err.println("ID with null sym field in FlatChecker.typeCheck");
+            System.exit(-1);
+        }
+        return sym(e).getType();
+    }
+
+    private Type assign(int e, Type type1, Type type2) {
+        Type retType = type1;
+        if (type1.isFnType() && type2.isFnType()) {
+            error(e, "Function assignment");
+            retType = Type.ERROR;
+        }
+        if (type1.isStructDefType() && type2.isStructDefType()) {
+            error(e, "Struct name assignment");
+            retType = Type.ERROR;
+        }
+        if (type1.isStructType() && type2.isStructType()) {
+            error(e, "Struct variable assignment");
+            return Type.ERROR;
+        }
+        if (type1 != type2 && !type1.isErrorType()
+            && !type2.isErrorType()) {
+            error(e, "Type mismatch");
+            retType = Type.ERROR;
+        }
+        if (type1.isErrorType() || type2.isErrorType()) {
+            retType = Type.ERROR;
+        }
+        return retType;
+    }
+
+    private Type unary(int e, Type type1) {
+        boolean isNeg = myAst.kind(e) == FlatAst.NEG;
+        Type retType = isNeg ? Type.INT : Type.BOOL;
+        if (!type1.isErrorType()
+            && !(isNeg ? type1.isIntType() : type1.isBoolType())) {
+            error(e, isNeg
+                  ? "Arithmetic operator applied to non-numeric operand"
+                  : "Logical operator applied to non-bool operand");
+            retType = Type.ERROR;
+        }
+        if (type1.isErrorType()) {
+            retType = Type.ERROR;
+        }
+        return retType;
+    }
+
+    private Type equality(int e, Type type1, Type type2) {
+        Type retType = Type.BOOL;
+        if (type1.isVoidType() && type2.isVoidType()) {
+            error(e, "Equality operator applied to void functions");
+            retType = Type.ERROR;
+        }
+        if (type1.isFnType() && type2.isFnType()) {
+            error(e, "Equality operator applied to functions");
+            retType = Type.ERROR;
+        }
+        if (type1.isStructDefType() && type2.isStructDefType()) {
+            error(e, "Equality operator applied to struct names");
+            retType = Type.ERROR;
+        }
+        if (type1.isStructType() && type2.isStructType()) {
+            error(e, "Equality operator applied to struct variables");
+            return Type.ERROR;
+        }
+        if (type1 != type2 && !type1.isErrorType()
+            && !type2.isErrorType()) {
+            error(e, "Type mismatch");
+            retType = Type.ERROR;
+        }
+        if (type1.isErrorType() || type2.isErrorType()) {
+            retType = Type.ERROR;
+        }
+        return retType;
+    }
+
+    // type check a binary operator whose operands must be ints (or bools)
+    private Type operands(int e, Type type1, Type type2, boolean ints,
+                          Type retType, String msg) {
+        if (!type1.isErrorType()
+            && !(ints ? type1.isIntType() : type1.isBoolType())) {
+            error(myAst.a(e), msg);
+            retType = Type.ERROR;
+        }
+        if (!type2.isErrorType()
+            && !(ints ? type2.isIntType() : type2.isBoolType())) {
+            error(myAst.b(e), msg);
+            retType = Type.ERROR;
+        }
+        if (type1.isErrorType() || type2.isErrorType()) {
+            retType = Type.ERROR;
+        }
+        return retType;
+    }
+
+    private void error(int n, String msg) {
+        ErrMsg.fatal(myAst.lineNum(n), myAst.charNum(n), msg);
+    }
+
+    // **********************************************************************
+    // types and symbol tables
+    // **********************************************************************
+    private static Type type(int code) {
+        switch (code) {
+        case FlatAst.TYPE_INT:  return Type.INT;
+        case FlatAst.TYPE_BOOL: return Type.BOOL;
+        default:                return Type.VOID;
+        }
+    }
+
+    private static TSym lookupLocal(SymTable symTab, String name) {
+        try {
+            return symTab.lookupLocal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in FlatChecker.lookupLocal");
+            System.exit(-1);
+            return null;
+        }
+    }
+
+    private static TSym lookupGlobal(SymTable symTab, String name) {
+        try {
+            return symTab.lookupGlobal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in FlatChecker.lookupGlobal");
+            System.exit(-1);
+            return null;
+        }
+    }
+
+    private static void addDecl(SymTable symTab, String name, TSym sym) {
+        try {
+            symTab.addDecl(name, sym);
+        } catch (DuplicateSymException ex) {
+            System.err.println("Unexpected DuplicateSymException " +
+                               " in FlatChecker.addDecl");
+            System.exit(-1);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in FlatChecker.addDecl");
+            System.exit(-1);
+        }
+    }
+
+    private static void removeScope(SymTable symTab) {
+        try {
+            symTab.removeScope();
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in FlatChecker.removeScope");
+            System.exit(-1);
+        }
+    }
+
+    private FlatAst myAst;
+    private List<TSym> mySyms;      // symbols linked to ID nodes
+    private int myOffset;           // offset of the next local
+}
@@ -0,0 +1,541 @@
+import java.util.*;
+
+// **********************************************************************
+// The FlatLower class translates a checked FlatAst into the intermediate
+// representation, exactly as AstLower translates the corresponding tree,
+// and walks it the same way: with a stack of its own (see FlatWalker),
+// each expression pushing its value on a stack of values for a later
+// step of its parent to pop.
+// **********************************************************************
+
+class FlatLower extends FlatWalker {
+    // steps that any node may be walked with, for the work between kids
+    // (see AstLower)
+    private static final int COND = -1;     // lower as a condition
+    private static final int BRANCH = -2;   // branch on the value popped
+    private static final int PLACE = -3;    // place a block
+    private static final int JUMP = -4;     // jump to a block
+
+    public FlatLower(FlatAst ast, FlatChecker checker) {
+        super(ast);
+        myChecker = checker;
+    }
+
+    public IrProgram lower() {
+        sizes();
+        myValues = new ArrayList<IrValue>();
+        IrProgram prog = new IrProgram();
+        int decls = myAst.a(myAst.root());
+        for (int k = 0; k < myAst.listSize(decls); k++) {
+            int d = myAst.listItem(decls, k);
+            if (myAst.kind(d) == FlatAst.VAR_DECL) {
+                // only globals need to be declared; locals live in registers
+                int id = myAst.a(d);
+                TSym sym = myChecker.sym(id);
+                if (sym.isGlobal()) {
+                    prog.addGlobal(myAst.name(id), StructDefSym.sizeOf(sym));
+                }
+            } else if (myAst.kind(d) == FlatAst.FN_DECL) {
+                prog.functions().add(lowerFn(d));
+            }
+        }
+        return prog;
+    }
+
+    // every formal and local of fn is a virtual register
+    private IrFunction lowerFn(int fn) {
+        String name = myAst.name(myAst.a(fn));
+        myBuilder = new IrBuilder(new IrFunction(name, name.equals("main")));
+        int formals = myAst.b(fn);
+        for (int k = 0; k < myAst.listSize(formals); k++) {
+            int id = myAst.a(myAst.listItem(formals, k));
+            myBuilder.function().params().add(myBuilder.var(myChecker.sym(id)));
+        }
+        walkTreeList(myAst.b(myAst.c(fn)));
+        IrFunction f = myBuilder.finish();
+        myBuilder = null;
+        return f;
+    }
+
+    /**
+     * Do the current step of node n; the data of COND and BRANCH are the
+     * targets if true and if false, and that of PLACE and JUMP the block.
+     */
+    protected void visit(int n) {
+        switch (step()) {
+        case COND:
+            IrBlock[] targets = (IrBlock[])data();
+            branch(n, targets[0], targets[1]);
+            break;
+        case BRANCH:
+            targets = (IrBlock[])data();
+            myBuilder.branch(pop(), targets[0], targets[1]);
+            break;
+        case PLACE:
+            myBuilder.place((IrBlock)data());
+            break;
+        case JUMP:
+            myBuilder.jump((IrBlock)data());
+            break;
+        default:
+            if (myAst.kind(n) < FlatAst.INT_LIT) {
+                lowerStmt(n);
+            } else {
+                lower(n);
+            }
+        }
+    }
+
+    // schedule placing blk, or jumping to it, after the work scheduled so far
+    private void place(IrBlock blk) {
+        resume(PLACE, blk);
+    }
+
+    private void jump(IrBlock blk) {
+        resume(JUMP, blk);
+    }
+
+    // at step 0, walk exps and resume the current node at step 1; return
+    // whether their values have been pushed, as they have from step 1 on
+    private boolean lowered(int... exps) {
+        if (step() > 0) {
+            return true;
+        }
+        for (int e : exps) {
+            walk(e);
+        }
+        resume(1);
+        return false;
+    }
+
+    private void push(IrValue val) {
+        myValues.add(val);
+    }
+
+    private IrValue pop() {
+        return myValues.remove(myValues.size() - 1);
+    }
+
+    // pop the values of the last n expressions, in the order they were pushed
+    private IrValue[] pop(int n) {
+        IrValue[] vals = new IrValue[n];
+        for (int k = n - 1; k >= 0; k--) {
+            vals[k] = pop();
+        }
+        return vals;
+    }
+
+    // each statement leaves myValues as it found it
+    private void lowerStmt(int s) {
+        IrBuilder b = myBuilder;
+        int e = myAst.a(s);
+        IrBlock condBlk;
+        IrBlock thenBlk;
+        IrBlock elseBlk;
+        IrBlock doneBlk;
+        switch (myAst.kind(s)) {
+        case FlatAst.ASSIGN_STMT:
+        case FlatAst.CALL_STMT:
+            if (lowered(e)) {
+                pop();
+            }
+            break;
+
+        case FlatAst.POST_INC:
+            if (lowered(e)) {
+                lowerStore(e, b.emit(IrOp.ADD, pop(), new IrConst(1)));
+            }
+            break;
+
+        case FlatAst.POST_DEC:
+            if (lowered(e)) {
+                lowerStore(e, b.emit(IrOp.SUB, pop(), new IrConst(1)));
+            }
+            break;
+
+        case FlatAst.READ:
+            lowerStore(e, b.emit(IrOp.READ));
+            break;
+
+        case FlatAst.WRITE:
+            if (lowered(e)) {
+                // only string literals are of type string
+                IrOp op = myAst.kind(e) == FlatAst.STR_LIT ? IrOp.WRITESTR
+                                                           : IrOp.WRITEINT;
+                b.emit(new IrInstr(op, null, pop()));
+            }
+            break;
+
+        case FlatAst.IF:
+            thenBlk = b.newBlock();
+            doneBlk = b.newBlock();
+            cond(e, thenBlk, doneBlk);
+            place(thenBlk);
+            walkList(myAst.b(myAst.b(s)));
+            place(doneBlk);
+            break;
+
+        case FlatAst.IF_ELSE:
+            thenBlk = b.newBlock();
+            elseBlk = b.newBlock();
+            doneBlk = b.newBlock();
+            cond(e, thenBlk, elseBlk);
+            place(thenBlk);
+            walkList(myAst.b(myAst.b(s)));
+            jump(doneBlk);
+            place(elseBlk);
+            walkList(myAst.b(myAst.c(s)));
+            place(doneBlk);
+            break;
+
+        case FlatAst.WHILE:
+            condBlk = b.newBlock();
+            thenBlk = b.newBlock();
+            doneBlk = b.newBlock();
+            b.place(condBlk);
+            cond(e, thenBlk, doneBlk);
+            place(thenBlk);
+            walkList(myAst.b(myAst.b(s)));
+            jump(condBlk);
+            place(doneBlk);
+            break;
+
+        case FlatAst.REPEAT:
+            lowerRepeat(s);
+            break;
+
+        case FlatAst.RETURN:
+            if (e == FlatAst.NONE) {
+                b.emit(new IrInstr(IrOp.RETURN, null));
+            } else if (lowered(e)) {
+                b.emit(new IrInstr(IrOp.RETURN, null, pop()));
+            }
+            break;
+        }
+    }
+
+    // the count is evaluated once; a small constant count is unrolled,
+    // otherwise the count is tested before the loop and at the end of
+    // each iteration
+    private void lowerRepeat(int s) {
+        IrBuilder b = myBuilder;
+        int body = myAst.b(myAst.b(s));
+        switch (step()) {
+        case 0:
+            int n = unrollCount(s);
+            if (n >= 0) {
+                for (int k = 0; k < n; k++) {
+                    walkList(body);
+                }
+                return;
+            }
+            IrReg count = b.newReg();
+            walk(myAst.a(s));
+            resume(1, new Loop(count));
+            break;
+
+        case 1:
+            Loop loop = (Loop)data();
+            b.copy(loop.count, pop());
+            loop.bodyBlk = b.newBlock();
+            loop.doneBlk = b.newBlock();
+            b.branch(b.emit(IrOp.GT, loop.count, new IrConst(0)),
+                     loop.bodyBlk, loop.doneBlk);
+            b.place(loop.bodyBlk);
+            walkList(body);
+            resume(2, loop);
+            break;
+
+        default:
+            loop = (Loop)data();
+            b.copy(loop.count, b.emit(IrOp.SUB, loop.count, new IrConst(1)));
+            b.branch(b.emit(IrOp.GT, loop.count, new IrConst(0)),
+                     loop.bodyBlk, loop.doneBlk);
+            b.place(loop.doneBlk);
+        }
+    }
+
+    // the count register and blocks of a repeat loop, for its later steps
+    private static class Loop {
+        public Loop(IrReg count) {
+            this.count = count;
+        }
+
+        public final IrReg count;
+        public IrBlock bodyBlk;
+        public IrBlock doneBlk;
+    }
+
+    // return the number of times repeat statement s is unrolled, or -1
+    // (see RepeatStmtNode.unrollCount)
+    private int unrollCount(int s) {
+        int e = myAst.a(s);
+        if (myAst.kind(e) != FlatAst.INT_LIT) {
+            return -1;
+        }
+        return RepeatStmtNode.unrollCount(myAst.a(e), size(myAst.b(myAst.b(s))));
+    }
+
+    // compute the size of each statement (see StmtNode.size), in index
+    // order: the statements nested in a statement come before it
+    private void sizes() {
+        mySizes = new int[myAst.size()];
+        for (int s = 0; s < myAst.size(); s++) {
+            switch (myAst.kind(s)) {
+            case FlatAst.IF:
+            case FlatAst.WHILE:
+                mySizes[s] = 1 + size(myAst.b(myAst.b(s)));
+                break;
+            case FlatAst.IF_ELSE:
+                mySizes[s] = 1 + size(myAst.b(myAst.b(s)))
+                             + size(myAst.b(myAst.c(s)));
+                break;
+            case FlatAst.REPEAT:
+                int body = size(myAst.b(myAst.b(s)));
+                int n = unrollCount(s);
+                mySizes[s] = n >= 0 ? n * body : 1 + body;
+                break;
+            default:
+                mySizes[s] = 1;
+            }
+        }
+    }
+
+    // return the number of statements lowered for the statements of list
+    private int size(int list) {
+        int size = 0;
+        for (int k = 0; k < myAst.listSize(list); k++) {
+            size += mySizes[myAst.listItem(list, k)];
+        }
+        return size;
+    }
+
+    // push the value of e, or null for a call of a void function
+    private void lower(int e) {
+        IrBuilder b = myBuilder;
+        switch (myAst.kind(e)) {
+        case FlatAst.INT_LIT:
+            push(new IrConst(myAst.a(e)));
+            break;
+
+        case FlatAst.STR_LIT:
+            push(new IrStr(myAst.string(myAst.a(e))));
+            break;
+
+        case FlatAst.TRUE:
+            push(new IrConst(1));
+            break;
+
+        case FlatAst.FALSE:
+            push(new IrConst(0));
+            break;
+
+        case FlatAst.ID:
+        case FlatAst.DOT:
+            // globals are loaded from memory; locals and formals are
+            // registers, and so is each word of a local struct
+            int base = base(e);
+            TSym sym = myChecker.sym(base);
+            if (sym.isGlobal()) {
+                IrReg dst = b.newReg();
+                IrInstr load = new IrInstr(IrOp.LOADG, dst);
+                load.setName(myAst.name(base));
+                load.setOffset(offset(e));
+                b.emit(load);
+                push(dst);
+            } else if (base != e) {
+                push(b.field(sym, offset(e)));
+            } else {
+                push(b.var(sym));
+            }
+            break;
+
+        case FlatAst.ASSIGN:
+            if (lowered(myAst.b(e))) {
+                IrValue val = pop();
+                lowerStore(myAst.a(e), val);
+                push(val);
+            }
+            break;
+
+        case FlatAst.CALL:
+            lowerCall(e);
+            break;
+
+        case FlatAst.NEG:
+            if (lowered(myAst.a(e))) {
+                push(b.emit(IrOp.NEG, pop()));
+            }
+            break;
+
+        case FlatAst.NOT:
+            if (lowered(myAst.a(e))) {
+                push(b.emit(IrOp.NOT, pop()));
+            }
+            break;
+
+        case FlatAst.AND:
+        case FlatAst.OR:
+            // materialize the short-circuit evaluation as 1 or 0
+            switch (step()) {
+            case 0:
+                IrReg dst = b.newReg();
+                IrBlock trueBlk = b.newBlock();
+                IrBlock falseBlk = b.newBlock();
+                IrBlock doneBlk = b.newBlock();
+                cond(e, trueBlk, falseBlk);
+                place(trueBlk);
+                resume(1, dst);
+                jump(doneBlk);
+                place(falseBlk);
+                resume(2, dst);
+                place(doneBlk);
+                resume(3, dst);
+                break;
+            case 1:
+                b.copy((IrReg)data(), new IrConst(1));
+                break;
+            case 2:
+                b.copy((IrReg)data(), new IrConst(0));
+                break;
+            default:
+                push((IrReg)data());
+            }
+            break;
+
+        default:
+            if (lowered(myAst.a(e), myAst.b(e))) {
+                IrValue val2 = pop();
+                IrValue val1 = pop();
+                push(b.emit(binaryOp(myAst.kind(e)), val1, val2));
+            }
+        }
+    }
+
+    // the args are evaluated from left to right, after the register for
+    // the result is allocated
+    private void lowerCall(int e) {
+        int id = myAst.a(e);
+        int args = myAst.b(e);
+        if (step() == 0) {
+            FnSym fnSym = (FnSym)myChecker.sym(id);
+            IrReg dst = null;
+            if (!fnSym.getReturnType().isVoidType()) {
+                dst = myBuilder.newReg();
+            }
+            walkList(args);
+            resume(1, dst);
+            return;
+        }
+        IrReg dst = (IrReg)data();
+        IrInstr call = new IrInstr(IrOp.CALL, dst, pop(myAst.listSize(args)));
+        call.setName(myAst.name(id));
+        myBuilder.emit(call);
+        push(dst);
+    }
+
+    // append IR assigning val to loc (an ID or a dot-access)
+    private void lowerStore(int loc, IrValue val) {
+        IrBuilder b = myBuilder;
+        int base = base(loc);
+        TSym sym = myChecker.sym(base);
+        if (sym.isGlobal()) {
+            IrInstr store = new IrInstr(IrOp.STOREG, null, val);
+            store.setName(myAst.name(base));
+            store.setOffset(offset(loc));
+            b.emit(store);
+        } else if (base != loc) {
+            b.copy(b.field(sym, offset(loc)), val);
+        } else {
+            b.copy(b.var(sym), val);
+        }
+    }
+
+    // return the ID at the root of loc, a chain of dot-accesses or an ID
+    private int base(int loc) {
+        while (myAst.kind(loc) == FlatAst.DOT) {
+            loc = myAst.a(loc);
+        }
+        return loc;
+    }
+
+    // return the offset in words of loc in the variable at its root, as
+    // DotAccessExpNode.offset does
+    private int offset(int loc) {
+        int offset = 0;
+        while (myAst.kind(loc) == FlatAst.DOT) {
+            // the struct of the field is that of the ID or field to its left
+            int inner = myAst.a(loc);
+            int id = myAst.kind(inner) == FlatAst.DOT ? myAst.b(inner) : inner;
+            StructSym sym = (StructSym)myChecker.sym(id);
+            StructDefSym def = (StructDefSym)sym.getStructType().sym();
+            offset += def.getFieldOffset(myAst.name(myAst.b(loc)));
+            loc = inner;
+        }
+        return offset;
+    }
+
+    // schedule IR that jumps to ifTrue if e is true and to ifFalse
+    // otherwise (see branch)
+    private void cond(int e, IrBlock ifTrue, IrBlock ifFalse) {
+        walk(e, COND, new IrBlock[] { ifTrue, ifFalse });
+    }
+
+    // step COND of e
+    private void branch(int e, IrBlock ifTrue, IrBlock ifFalse) {
+        IrBlock rightBlk;
+        switch (myAst.kind(e)) {
+        case FlatAst.TRUE:
+            myBuilder.jump(ifTrue);
+            break;
+
+        case FlatAst.FALSE:
+            myBuilder.jump(ifFalse);
+            break;
+
+        case FlatAst.NOT:
+            cond(myAst.a(e), ifFalse, ifTrue);
+            break;
+
+        case FlatAst.AND:
+            // the right operand is evaluated only if the left one is true
+            rightBlk = myBuilder.newBlock();
+            cond(myAst.a(e), rightBlk, ifFalse);
+            walk(e, PLACE, rightBlk);
+            cond(myAst.b(e), ifTrue, ifFalse);
+            break;
+
+        case FlatAst.OR:
+            // the right operand is evaluated only if the left one is false
+            rightBlk = myBuilder.newBlock();
+            cond(myAst.a(e), ifTrue, rightBlk);
+            walk(e, PLACE, rightBlk);
+            cond(myAst.b(e), ifTrue, ifFalse);
+            break;
+
+        default:
+            walk(e);
+            walk(e, BRANCH, new IrBlock[] { ifTrue, ifFalse });
+        }
+    }
+
+    private static IrOp binaryOp(byte kind) {
+        switch (kind) {
+        case FlatAst.PLUS:       return IrOp.ADD;
+        case FlatAst.MINUS:      return IrOp.SUB;
+        case FlatAst.TIMES:      return IrOp.MUL;
+        case FlatAst.DIVIDE:     return IrOp.DIV;
+        case FlatAst.EQUALS:     return IrOp.EQ;
+        case FlatAst.NOT_EQUALS: return IrOp.NE;
+        case FlatAst.LESS:       return IrOp.LT;
+        case FlatAst.GREATER:    return IrOp.GT;
+        case FlatAst.LESS_EQ:    return IrOp.LE;
+        default:                 return IrOp.GE;
+        }
+    }
+
+    private FlatChecker myChecker;
+    private IrBuilder myBuilder;        // for the current function
+    private List<IrValue> myValues;     // of the expressions walked
+    private int[] mySizes;              // of the statement nodes
+}
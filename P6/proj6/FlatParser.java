@@ -0,0 +1,705 @@
+import java.util.*;
+
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * FlatParser
+ *
+ * The parser of RdParser, building a FlatAst instead of ASTnode objects.
+ * The grammar, precedences, error messages and error recovery are those
+ * of RdParser, and so is its use of stacks of its own for the nesting of
+ * blocks and expressions.
+ *
+ * The items of the list being parsed are kept on a stack of node indices
+ * (nested lists above enclosing ones) and copied to the FlatAst when the
+ * list is complete.
+ */
+class FlatParser {
+    private static final int ASSIGN_PREC = 0;
+    private static final int CMP_PREC = 3;
+    private static final int NOT_PREC = 6;
+    private static final int ERROR_SYNC_SIZE = 3;
+
+    // the kind of the block of a function body (see Block)
+    private static final int FN_BODY = -1;
+
+    // continuations of the expression parser (see RdParser.exp)
+    private static final int LOOP = 0;          // the loop of exp(minPrec)
+    private static final int RIGHT = 1;         // right operand of an operator
+    private static final int NOT_OPERAND = 2;
+    private static final int NEG_OPERAND = 3;
+    private static final int ASSIGN_RIGHT = 4;  // right side of an =
+    private static final int PAREN = 5;         // expression in ( )
+    private static final int ARG = 6;           // arg of a call
+
+    /**
+     * Thrown to unwind to the enclosing statement or declaration after a
+     * syntax error has been reported.
+     */
+    private static class SyntaxError extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public FlatParser(Scanner scanner) {
+        myScanner = scanner;
+        myAst = new FlatAst();
+        myStack = new int[256];
+    }
+
+    /**
+     * Parse the whole input and return its AST.
+     */
+    public FlatAst parse() throws Exception {
+        advance();
+        if (!isType(myTok.sym) && myTok.sym != sym.STRUCT
+            && myTok.sym != sym.EOF) {
+            throw error();      // see RdParser.parse
+        }
+        int mark = myTop;
+        while (myTok.sym != sym.EOF) {
+            int d = decl();
+            if (d != FlatAst.NONE) {
+                push(d);
+            }
+        }
+        myAst.add(FlatAst.PROGRAM, list(mark), 0, 0, 0);
+        myAst.trim();
+        return myAst;
+    }
+
+    // **********************************************************************
+    // declarations
+    // **********************************************************************
+    private int decl() throws Exception {
+        int mark = myTop;
+        try {
+            if (myTok.sym == sym.STRUCT) {
+                advance();
+                int name = id();
+                if (myTok.sym == sym.LCURLY) {
+                    advance();
+                    int fields = myTop;
+                    do {
+                        push(varDecl());
+                    } while (myTok.sym != sym.RCURLY);
+                    advance();
+                    expect(sym.SEMICOLON);
+                    return myAst.add(FlatAst.STRUCT_DECL, name, list(fields), 0, 0);
+                }
+                int i = id();
+                expect(sym.SEMICOLON);
+                return myAst.add(FlatAst.VAR_DECL, i, name, 0, FlatAst.TYPE_STRUCT);
+            }
+
+            int t = type();
+            int i = id();
+            if (myTok.sym == sym.SEMICOLON) {
+                advance();
+                return myAst.add(FlatAst.VAR_DECL, i, FlatAst.NONE, 0, t);
+            }
+            int formals = formals();
+            int body = fnBody();
+            return myAst.add(FlatAst.FN_DECL, i, formals, body, t);
+        } catch (SyntaxError ex) {
+            myTop = mark;
+            skipPast(sym.SEMICOLON, sym.RCURLY);
+            return FlatAst.NONE;
+        }
+    }
+
+    private int varDecl() throws Exception {
+        if (myTok.sym == sym.STRUCT) {
+            advance();
+            int t = id();
+            int i = id();
+            expect(sym.SEMICOLON);
+            return myAst.add(FlatAst.VAR_DECL, i, t, 0, FlatAst.TYPE_STRUCT);
+        }
+        int t = type();
+        int i = id();
+        expect(sym.SEMICOLON);
+        return myAst.add(FlatAst.VAR_DECL, i, FlatAst.NONE, 0, t);
+    }
+
+    private int varDeclList() throws Exception {
+        int mark = myTop;
+        while (isType(myTok.sym) || myTok.sym == sym.STRUCT) {
+            push(varDecl());
+        }
+        return list(mark);
+    }
+
+    private int formals() throws Exception {
+        expect(sym.LPAREN);
+        int mark = myTop;
+        if (myTok.sym != sym.RPAREN) {
+            push(formalDecl());
+            while (myTok.sym == sym.COMMA) {
+                advance();
+                push(formalDecl());
+            }
+        }
+        expect(sym.RPAREN);
+        return list(mark);
+    }
+
+    private int formalDecl() throws Exception {
+        int t = type();
+        return myAst.add(FlatAst.FORMAL_DECL, id(), 0, 0, t);
+    }
+
+    private static boolean isType(int kind) {
+        return kind == sym.INT || kind == sym.BOOL || kind == sym.VOID;
+    }
+
+    private static boolean isStmtStart(int kind) {
+        return kind == sym.CIN || kind == sym.COUT || kind == sym.IF
+            || kind == sym.WHILE || kind == sym.REPEAT || kind == sym.RETURN
+            || kind == sym.ID;
+    }
+
+    private int type() throws Exception {
+        switch (myTok.sym) {
+        case sym.INT:   advance(); return FlatAst.TYPE_INT;
+        case sym.BOOL:  advance(); return FlatAst.TYPE_BOOL;
+        case sym.VOID:  advance(); return FlatAst.TYPE_VOID;
+        default:        throw error();
+        }
+    }
+
+    // **********************************************************************
+    // statements
+    // **********************************************************************
+
+    /**
+     * Parse the body of a function, from its '{', as RdParser.fnBody
+     * does, and return its BLOCK.  The statements of the blocks being
+     * parsed are on the list stack, above those of the enclosing blocks.
+     */
+    private int fnBody() throws Exception {
+        myBlocks.clear();
+        myBlocks.add(open(FN_BODY, FlatAst.NONE));
+        while (true) {
+            Block b = myBlocks.get(myBlocks.size() - 1);
+            int mark = myTop;
+            try {
+                if (myTok.sym != sym.RCURLY) {
+                    stmt();
+                    continue;
+                }
+                advance();
+                if (!follows(b)) {
+                    throw error();
+                }
+                if (b.kind == sym.IF && myTok.sym == sym.ELSE) {
+                    // see RdParser.fnBody
+                    advance();
+                    Block e = open(sym.ELSE, b.exp);
+                    e.thenBlk = block(b);
+                    e.mark = myTop;
+                    myBlocks.set(myBlocks.size() - 1, e);
+                    continue;
+                }
+                myBlocks.remove(myBlocks.size() - 1);
+                if (b.kind == FN_BODY) {
+                    return block(b);
+                } else {
+                    push(close(b));
+                }
+            } catch (SyntaxError ex) {
+                myTop = mark;
+                recover();
+            }
+        }
+    }
+
+    // a block being parsed: the body of a function or of a statement,
+    // whose statements are on the list stack from mark up
+    private static class Block {
+        public Block(int kind, int exp, int decls, int mark) {
+            this.kind = kind;
+            this.exp = exp;
+            this.decls = decls;
+            this.mark = mark;
+        }
+
+        public final int kind;      // FN_BODY, or IF, ELSE, WHILE or REPEAT
+        public final int exp;       // the condition
+        public final int decls;
+        public int mark;
+        public int thenBlk;         // of an if with an else
+    }
+
+    // { varDeclList, which opens a block of kind with condition exp (see
+    // RdParser.open)
+    private Block open(int kind, int exp) throws Exception {
+        expect(sym.LCURLY);
+        Block b = new Block(kind, exp, varDeclList(), myTop);
+        if (!isStmtStart(myTok.sym) && myTok.sym != sym.RCURLY) {
+            throw error();
+        }
+        return b;
+    }
+
+    // whether the token after the '}' of block b may follow it (see
+    // RdParser.follows)
+    private boolean follows(Block b) {
+        int kind = myTok.sym;
+        if (b.kind == FN_BODY) {
+            return isType(kind) || kind == sym.STRUCT || kind == sym.EOF;
+        }
+        return isStmtStart(kind) || kind == sym.RCURLY
+            || (b.kind == sym.IF && kind == sym.ELSE);
+    }
+
+    // the BLOCK of b, once it is complete
+    private int block(Block b) {
+        return myAst.add(FlatAst.BLOCK, b.decls, list(b.mark), 0, 0);
+    }
+
+    // the statement of b, once it is complete
+    private int close(Block b) {
+        int blk = block(b);
+        switch (b.kind) {
+        case sym.IF:
+            return myAst.add(FlatAst.IF, b.exp, blk, 0, 0);
+        case sym.ELSE:
+            return myAst.add(FlatAst.IF_ELSE, b.exp, b.thenBlk, blk, 0);
+        case sym.WHILE:
+            return myAst.add(FlatAst.WHILE, b.exp, blk, 0, 0);
+        default:
+            return myAst.add(FlatAst.REPEAT, b.exp, blk, 0, 0);
+        }
+    }
+
+    // recover from a syntax error in a statement of the innermost block
+    // (see RdParser.recover)
+    private void recover() throws Exception {
+        skipPast(sym.SEMICOLON, sym.SEMICOLON);
+        if (myTok.sym == sym.EOF) {
+            throw new SyntaxError();
+        }
+    }
+
+    // parse a statement of the innermost block: a simple statement is
+    // pushed on the list stack, and a compound one opens a block
+    private void stmt() throws Exception {
+        int e;
+        int s;
+        switch (myTok.sym) {
+        case sym.CIN:
+            advance();
+            expect(sym.READ);
+            s = myAst.add(FlatAst.READ, loc(id()), 0, 0, 0);
+            break;
+
+        case sym.COUT:
+            advance();
+            expect(sym.WRITE);
+            s = myAst.add(FlatAst.WRITE, exp(), 0, 0, 0);
+            break;
+
+        case sym.IF:
+        case sym.WHILE:
+        case sym.REPEAT:
+            int kind = myTok.sym;
+            advance();
+            e = condition();
+            myBlocks.add(open(kind, e));
+            return;
+
+        case sym.RETURN:
+            advance();
+            e = FlatAst.NONE;
+            if (myTok.sym != sym.SEMICOLON) {
+                e = exp();
+            }
+            s = myAst.add(FlatAst.RETURN, e, 0, 0, 0);
+            break;
+
+        case sym.ID: {
+            int i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                s = myAst.add(FlatAst.CALL_STMT, exp(i), 0, 0, 0);
+                break;
+            }
+            int lc = loc(i);
+            if (myTok.sym == sym.PLUSPLUS) {
+                advance();
+                s = myAst.add(FlatAst.POST_INC, lc, 0, 0, 0);
+            } else if (myTok.sym == sym.MINUSMINUS) {
+                advance();
+                s = myAst.add(FlatAst.POST_DEC, lc, 0, 0, 0);
+            } else {
+                expect(sym.ASSIGN);
+                e = exp();
+                s = myAst.add(FlatAst.ASSIGN_STMT,
+                              myAst.add(FlatAst.ASSIGN, lc, e, 0, posOf(lc)),
+                              0, 0, 0);
+            }
+            break;
+        }
+
+        default:
+            throw error();
+        }
+        expect(sym.SEMICOLON);
+        push(s);
+    }
+
+    // ( exp )
+    private int condition() throws Exception {
+        expect(sym.LPAREN);
+        int e = exp();
+        expect(sym.RPAREN);
+        return e;
+    }
+
+    // **********************************************************************
+    // expressions
+    // **********************************************************************
+
+    /**
+     * Parse an expression as RdParser.exp does, with the operands waiting
+     * for their operator on the int stack myValues.
+     */
+    private int exp() throws Exception {
+        return exp(FlatAst.NONE);
+    }
+
+    // the expression, or the call of fn if it is not NONE (after its '(')
+    private int exp(int fn) throws Exception {
+        myContTop = 0;
+        myValueTop = 0;
+        int e;
+        if (fn == FlatAst.NONE) {
+            pushCont(LOOP, ASSIGN_PREC, 0);
+            e = prefix();
+        } else {
+            e = args(fn);
+        }
+        while (true) {
+            if (e == FlatAst.NONE) {
+                e = prefix();
+                continue;
+            }
+            if (myContTop == 0) {
+                return e;
+            }
+            myContTop -= 3;
+            int arg1 = myConts[myContTop + 1];
+            int arg2 = myConts[myContTop + 2];
+            switch (myConts[myContTop]) {
+            case LOOP:              // exp(arg1), with compared = arg2 == 1
+                int kind = myTok.sym;
+                int prec = precedence(kind);
+                if (prec < 0 || prec < arg1) {
+                    break;
+                }
+                if (prec == CMP_PREC && arg2 == 1) {
+                    throw error();  // comparisons are nonassociative
+                }
+                advance();
+                pushValue(e);
+                pushCont(RIGHT, kind, arg1);
+                pushCont(LOOP, prec + 1, 0);
+                e = FlatAst.NONE;
+                break;
+
+            case RIGHT:             // of operator arg1 in exp(arg2)
+                int left = popValue();
+                e = myAst.add(binary(arg1), left, e, 0, posOf(left));
+                pushCont(LOOP, arg2, precedence(arg1) == CMP_PREC ? 1 : 0);
+                break;
+
+            case NOT_OPERAND:
+                e = myAst.add(FlatAst.NOT, e, 0, 0, posOf(e));
+                break;
+
+            case NEG_OPERAND:
+                e = myAst.add(FlatAst.NEG, e, 0, 0, posOf(e));
+                break;
+
+            case ASSIGN_RIGHT:
+                int lc = popValue();
+                e = myAst.add(FlatAst.ASSIGN, lc, e, 0, posOf(lc));
+                break;
+
+            case PAREN:
+                expect(sym.RPAREN);
+                break;
+
+            case ARG:               // arg arg1 of the call
+                pushValue(e);
+                e = FlatAst.NONE;
+                if (myTok.sym == sym.COMMA) {
+                    advance();
+                    pushCont(ARG, arg1 + 1, 0);
+                    pushCont(LOOP, ASSIGN_PREC, 0);
+                    break;
+                }
+                expect(sym.RPAREN);
+                myValueTop -= arg1 + 1;
+                int args = myAst.addList(myValues, myValueTop, arg1 + 1);
+                int i = popValue();
+                e = myAst.add(FlatAst.CALL, i, args, 0, posOf(i));
+                break;
+            }
+        }
+    }
+
+    // an operand of a binary operator: a term, possibly with a unary
+    // operator, or an assignment
+    private int prefix() throws Exception {
+        switch (myTok.sym) {
+        case sym.NOT:
+            advance();
+            pushCont(NOT_OPERAND, 0, 0);
+            pushCont(LOOP, NOT_PREC, 0);
+            return FlatAst.NONE;
+
+        case sym.MINUS:
+            advance();
+            pushCont(NEG_OPERAND, 0, 0);
+            return term();
+
+        case sym.ID: {
+            int i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                return args(i);
+            }
+            int lc = loc(i);
+            if (myTok.sym == sym.ASSIGN) {
+                advance();
+                pushValue(lc);
+                pushCont(ASSIGN_RIGHT, 0, 0);
+                pushCont(LOOP, ASSIGN_PREC, 0);
+                return FlatAst.NONE;
+            }
+            return lc;
+        }
+
+        default:
+            return term();
+        }
+    }
+
+    private int term() throws Exception {
+        Symbol tok = myTok;
+        switch (tok.sym) {
+        case sym.INTLITERAL: {
+            advance();
+            IntLitTokenVal v = (IntLitTokenVal)tok.value;
+            return myAst.add(FlatAst.INT_LIT, v.intVal, 0, 0,
+                             FlatAst.pos(v.linenum, v.charnum));
+        }
+
+        case sym.STRINGLITERAL: {
+            advance();
+            StrLitTokenVal v = (StrLitTokenVal)tok.value;
+            return myAst.add(FlatAst.STR_LIT, myAst.intern(v.strVal), 0, 0,
+                             FlatAst.pos(v.linenum, v.charnum));
+        }
+
+        case sym.TRUE:
+        case sym.FALSE: {
+            advance();
+            TokenVal v = (TokenVal)tok.value;
+            byte kind = tok.sym == sym.TRUE ? FlatAst.TRUE : FlatAst.FALSE;
+            return myAst.add(kind, 0, 0, 0, FlatAst.pos(v.linenum, v.charnum));
+        }
+
+        case sym.LPAREN:
+            advance();
+            pushCont(PAREN, 0, 0);
+            pushCont(LOOP, ASSIGN_PREC, 0);
+            return FlatAst.NONE;
+
+        case sym.ID: {
+            int i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                return args(i);
+            }
+            return loc(i);
+        }
+
+        default:
+            throw error();
+        }
+    }
+
+    // the args of a call of i, after the '('
+    private int args(int i) throws Exception {
+        if (myTok.sym == sym.RPAREN) {
+            advance();
+            return myAst.add(FlatAst.CALL, i, myAst.addList(myValues, 0, 0),
+                             0, posOf(i));
+        }
+        pushValue(i);
+        pushCont(ARG, 0, 0);
+        pushCont(LOOP, ASSIGN_PREC, 0);
+        return FlatAst.NONE;
+    }
+
+    private void pushCont(int cont, int arg1, int arg2) {
+        if (myContTop + 3 > myConts.length) {
+            myConts = Arrays.copyOf(myConts, 2 * myConts.length);
+        }
+        myConts[myContTop++] = cont;
+        myConts[myContTop++] = arg1;
+        myConts[myContTop++] = arg2;
+    }
+
+    private void pushValue(int n) {
+        if (myValueTop == myValues.length) {
+            myValues = Arrays.copyOf(myValues, 2 * myValueTop);
+        }
+        myValues[myValueTop++] = n;
+    }
+
+    private int popValue() {
+        return myValues[--myValueTop];
+    }
+
+    // the location starting with i
+    private int loc(int i) throws Exception {
+        int lc = i;
+        while (myTok.sym == sym.DOT) {
+            advance();
+            int field = id();
+            lc = myAst.add(FlatAst.DOT, lc, field, 0, posOf(field));
+        }
+        return lc;
+    }
+
+    private int id() throws Exception {
+        Symbol tok = expect(sym.ID);
+        IdTokenVal v = (IdTokenVal)tok.value;
+        return myAst.add(FlatAst.ID, myAst.intern(v.idVal), FlatAst.NONE, 0,
+                         FlatAst.pos(v.linenum, v.charnum));
+    }
+
+    // the packed position of node n
+    private long posOf(int n) {
+        return FlatAst.pos(myAst.lineNum(n), myAst.charNum(n));
+    }
+
+    // precedence of a binary operator, or -1
+    private static int precedence(int kind) {
+        switch (kind) {
+        case sym.OR:            return 1;
+        case sym.AND:           return 2;
+        case sym.EQUALS:
+        case sym.NOTEQUALS:
+        case sym.LESS:
+        case sym.GREATER:
+        case sym.LESSEQ:
+        case sym.GREATEREQ:     return CMP_PREC;
+        case sym.PLUS:
+        case sym.MINUS:         return 4;
+        case sym.TIMES:
+        case sym.DIVIDE:        return 5;
+        default:                return -1;
+        }
+    }
+
+    private static byte binary(int kind) {
+        switch (kind) {
+        case sym.OR:            return FlatAst.OR;
+        case sym.AND:           return FlatAst.AND;
+        case sym.EQUALS:        return FlatAst.EQUALS;
+        case sym.NOTEQUALS:     return FlatAst.NOT_EQUALS;
+        case sym.LESS:          return FlatAst.LESS;
+        case sym.GREATER:       return FlatAst.GREATER;
+        case sym.LESSEQ:        return FlatAst.LESS_EQ;
+        case sym.GREATEREQ:     return FlatAst.GREATER_EQ;
+        case sym.PLUS:          return FlatAst.PLUS;
+        case sym.MINUS:         return FlatAst.MINUS;
+        case sym.TIMES:         return FlatAst.TIMES;
+        case sym.DIVIDE:        return FlatAst.DIVIDE;
+        default:
+            System.err.println("unexpected operator in FlatParser.binary");
+            System.exit(-1);
+            return 0;
+        }
+    }
+
+    // **********************************************************************
+    // list stack
+    // **********************************************************************
+    private void push(int n) {
+        if (myTop == myStack.length) {
+            myStack = Arrays.copyOf(myStack, 2 * myTop);
+        }
+        myStack[myTop++] = n;
+    }
+
+    // pop the items pushed since mark into a list of the FlatAst
+    private int list(int mark) {
+        int list = myAst.addList(myStack, mark, myTop - mark);
+        myTop = mark;
+        return list;
+    }
+
+    // **********************************************************************
+    // tokens and errors
+    // **********************************************************************
+    private void advance() throws Exception {
+        myTok = myScanner.next_token();
+        if (myQuiet > 0) {
+            myQuiet--;
+        }
+    }
+
+    private Symbol expect(int kind) throws Exception {
+        if (myTok.sym != kind) {
+            throw error();
+        }
+        Symbol tok = myTok;
+        advance();
+        return tok;
+    }
+
+    // report a syntax error at the current token
+    private SyntaxError error() {
+        if (myQuiet == 0) {
+            if (myTok.value == null) {
+                ErrMsg.fatal(0,0, "Syntax error at end of file");
+            } else {
+                ErrMsg.fatal(((TokenVal)myTok.value).linenum,
+                             ((TokenVal)myTok.value).charnum,
+                             "Syntax error");
+            }
+        }
+        return new SyntaxError();
+    }
+
+    // skip the tokens up to and including the next one of kind end1 or
+    // end2 (or up to the end of the file)
+    private void skipPast(int end1, int end2) throws Exception {
+        while (myTok.sym != end1 && myTok.sym != end2
+               && myTok.sym != sym.EOF) {
+            advance();
+        }
+        if (myTok.sym != sym.EOF) {
+            advance();
+        }
+        myQuiet = ERROR_SYNC_SIZE - 1;  // with the token skipped past
+    }
+
+    private Scanner myScanner;
+    private Symbol myTok;       // current token
+    private int myQuiet;        // tokens to read before reporting errors
+    private FlatAst myAst;
+    private int[] myStack;      // items of the lists being parsed
+    private int myTop;
+    private ArrayList<Block> myBlocks = new ArrayList<Block>();
+    private int[] myConts = new int[48];    // continuations and their args
+    private int myContTop;
+    private int[] myValues = new int[16];   // operands of the expression
+    private int myValueTop;
+}
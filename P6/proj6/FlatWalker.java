@@ -0,0 +1,138 @@
+import java.util.*;
+
+/**
+ * FlatWalker
+ *
+ * The FlatAst counterpart of AstWalker: a walk of the nodes of a FlatAst
+ * with a stack of its own instead of the Java stack.  visit(n) does the
+ * current step of node n; it schedules the kids of n with walk and what
+ * it has left to do after them with resume, and all of the work it
+ * schedules is done, in the order it was scheduled, before the work
+ * scheduled earlier.
+ */
+abstract class FlatWalker {
+    public FlatWalker(FlatAst ast) {
+        myAst = ast;
+    }
+
+    /**
+     * Walk from node root until all of the work it schedules is done.
+     * It is not to be called from visit.
+     */
+    public void walkTree(int root) {
+        walk(root);
+        while (myTop > 0) {
+            myTop--;
+            myNode = myNodes[myTop];
+            myStep = mySteps[myTop];
+            myData = myDatas[myTop];
+            myDatas[myTop] = null;
+            int base = myTop;
+            visit(myNode);
+            reverse(base);
+        }
+    }
+
+    /**
+     * Walk the items of list, in order, until all of their work is done.
+     */
+    public void walkTreeList(int list) {
+        for (int k = 0; k < myAst.listSize(list); k++) {
+            walkTree(myAst.listItem(list, k));
+        }
+    }
+
+    /**
+     * Do the current step of node n.
+     */
+    protected abstract void visit(int n);
+
+    /**
+     * Schedule a visit of node n (with step 0), unless it is NONE.
+     */
+    protected void walk(int n) {
+        walk(n, 0, null);
+    }
+
+    /**
+     * Schedule step of node n, with data.
+     */
+    protected void walk(int n, int step, Object data) {
+        if (n == FlatAst.NONE) {
+            return;
+        }
+        if (myTop == myNodes.length) {
+            myNodes = Arrays.copyOf(myNodes, 2 * myTop);
+            mySteps = Arrays.copyOf(mySteps, 2 * myTop);
+            myDatas = Arrays.copyOf(myDatas, 2 * myTop);
+        }
+        myNodes[myTop] = n;
+        mySteps[myTop] = step;
+        myDatas[myTop] = data;
+        myTop++;
+    }
+
+    /**
+     * Schedule a visit of each item of list, in order.
+     */
+    protected void walkList(int list) {
+        for (int k = 0; k < myAst.listSize(list); k++) {
+            walk(myAst.listItem(list, k));
+        }
+    }
+
+    /**
+     * Schedule step of the node being visited.
+     */
+    protected void resume(int step) {
+        walk(myNode, step, null);
+    }
+
+    /**
+     * Schedule step of the node being visited, with data.
+     */
+    protected void resume(int step, Object data) {
+        walk(myNode, step, data);
+    }
+
+    /**
+     * The step of the current visit: 0 for the first.
+     */
+    protected int step() {
+        return myStep;
+    }
+
+    /**
+     * The data scheduled with the current step.
+     */
+    protected Object data() {
+        return myData;
+    }
+
+    // reverse the work scheduled above base by the last visit, so that
+    // the first is on top
+    private void reverse(int base) {
+        for (int i = base, j = myTop - 1; i < j; i++, j--) {
+            int n = myNodes[i];
+            myNodes[i] = myNodes[j];
+            myNodes[j] = n;
+            int step = mySteps[i];
+            mySteps[i] = mySteps[j];
+            mySteps[j] = step;
+            Object data = myDatas[i];
+            myDatas[i] = myDatas[j];
+            myDatas[j] = data;
+        }
+    }
+
+    protected FlatAst myAst;
+
+    // the stack of work: node, step and data
+    private int[] myNodes = new int[64];
+    private int[] mySteps = new int[64];
+    private Object[] myDatas = new Object[64];
+    private int myTop;
+    private int myNode;
+    private int myStep;
+    private Object myData;
+}
@@ -0,0 +1,281 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * FusedChecker
+ *
+ * Name analysis fused with type checking: a single walk of the tree in
+ * which each expression is resolved and type checked in the same visit,
+ * while its nodes are still in the cache.  Gibberish declares every name
+ * before its uses, so the names of an expression are resolved by the time
+ * its type is needed.
+ *
+ * The globals, structs and function signatures are processed first, in
+ * order; the function bodies are then processed in parallel, one task per
+ * function.  Each body sees the globals declared before its function
+ * only (see SymTable.view).  A task reports its name errors to the child
+ * Diagnostics of its function, and keeps its type errors apart: they are
+ * only reported if name analysis found no errors (see typeDiags).
+ * Merging the children in order then gives the messages of NameAnalyzer
+ * and TypeChecker.  The current thread must have a Diagnostics (see
+ * ErrMsg).
+ */
+class FusedChecker extends TypeChecker {
+    // the step of a call once its unchecked args have been walked
+    private static final int SKIPPED = ARG + 1;
+
+    public FusedChecker() {
+        this(new NameAnalyzer(), null);
+    }
+
+    private FusedChecker(NameAnalyzer names, Diagnostics typeDiags) {
+        myNames = names;
+        myTypeDiags = typeDiags;
+    }
+
+    /**
+     * Return the type errors found by run, in order, or none if name
+     * analysis found errors.
+     */
+    public Diagnostics typeDiags() {
+        Diagnostics typeDiags = new Diagnostics(0);
+        if (!ErrMsg.getDiagnostics().hasErrors()) {
+            for (Diagnostics d : myFnTypeDiags) {
+                typeDiags.merge(d);
+            }
+        }
+        return typeDiags;
+    }
+
+    /**
+     * Type errors go to the Diagnostics of the function, unless the
+     * expression is not to be checked.
+     */
+    protected void error(int lineNum, int charNum, String msg) {
+        if (myUnchecked == 0) {
+            myTypeDiags.fatal(lineNum, charNum, msg);
+        }
+    }
+
+    // **********************************************************************
+    // lists and other internal nodes
+    // **********************************************************************
+    public Void visit(ProgramNode node) {
+        final Diagnostics diags = ErrMsg.getDiagnostics();
+        List<Diagnostics> nameDiags = new ArrayList<Diagnostics>();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        myFnTypeDiags = new ArrayList<Diagnostics>();
+        try {
+            for (DeclNode decl : node.declList().decls()) {
+                Diagnostics d = diags.child();
+                nameDiags.add(d);
+                ErrMsg.setDiagnostics(d);
+                if (decl instanceof FnDeclNode) {
+                    tasks.add(signature((FnDeclNode)decl, d));
+                } else if (decl instanceof VarDeclNode) {
+                    TSym sym = myNames.varDecl((VarDeclNode)decl,
+                                               myNames.symTab(), myNames.symTab());
+                    if (sym != null) {
+                        sym.setOffset(1);
+                    }
+                } else {
+                    myNames.walkTree(decl);
+                }
+            }
+        } catch (TooManyErrorsException ex) {
+            // the Diagnostics of the decl is full; the merge stops there
+        } finally {
+            ErrMsg.setDiagnostics(diags);
+        }
+
+        try {
+            for (Future<Void> f : Workers.pool().invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            System.err.println("unexpected InterruptedException in FusedChecker.visit(ProgramNode)");
+            System.exit(-1);
+        } catch (ExecutionException ex) {
+            System.err.println("unexpected exception in FusedChecker.visit(ProgramNode): " +
+                               ex.getCause());
+            System.exit(-1);
+        }
+
+        for (Diagnostics d : nameDiags) {
+            diags.merge(d);
+        }
+        if (myNames.noMain()) {
+            ErrMsg.fatal(0, 0, "No main function");
+        }
+        return null;
+    }
+
+    /**
+     * Process the name and the formals of a function decl, and return the
+     * task checking its body; the name errors go to d.
+     */
+    private Callable<Void> signature(final FnDeclNode node, final Diagnostics d) {
+        final FnSym sym = myNames.declareFunction(node);
+        final NameAnalyzer names = new NameAnalyzer(myNames.symTab().view());
+        final Diagnostics typeDiags = new Diagnostics(0);
+        myFnTypeDiags.add(typeDiags);
+        names.enterFunction(node, sym);
+        return new Callable<Void>() {
+            public Void call() {
+                Diagnostics prev = ErrMsg.getDiagnostics();
+                ErrMsg.setDiagnostics(d);
+                try {
+                    new FusedChecker(names, typeDiags).function(node, sym);
+                } catch (TooManyErrorsException ex) {
+                    // d is full; the merge stops there
+                } finally {
+                    ErrMsg.setDiagnostics(prev);
+                }
+                return null;
+            }
+        };
+    }
+
+    // check the body of the function node, whose FnSym is sym
+    private void function(FnDeclNode node, FnSym sym) {
+        int temp = myNames.symTab().getOffset();
+        walkTree(node);
+        myNames.endFunction(sym, temp);
+    }
+
+    public Void visit(FnBodyNode node) {
+        if (step() == 0) {
+            myNames.enterBody(node);
+            walk(node.stmtList());
+            resume(1);
+        } else {
+            myNames.leaveBody(node);
+        }
+        return null;
+    }
+
+    // **********************************************************************
+    // statements: the names of a nested body are in a scope of its own
+    // **********************************************************************
+    public Void visit(IfStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            condition(node.exp(), node.exp().type(), "an if condition");
+            block(node.declList(), node.stmtList());
+            break;
+        default:
+            myNames.removeScope("IfStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(IfElseStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            condition(node.exp(), node.exp().type(), "an if condition");
+            block(node.thenDeclList(), node.thenStmtList());
+            break;
+        case 2:
+            myNames.removeScope("IfElseStmtNode");
+            myNames.enterBlock(node.elseDeclList());
+            walk(node.elseStmtList());
+            resume(3);
+            break;
+        default:
+            myNames.removeScope("IfElseStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(WhileStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            condition(node.exp(), node.exp().type(), "a while condition");
+            block(node.declList(), node.stmtList());
+            break;
+        default:
+            myNames.removeScope("WhileStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(RepeatStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            repeat(node.exp(), node.exp().type());
+            block(node.declList(), node.stmtList());
+            break;
+        default:
+            myNames.removeScope("RepeatStmtNode");
+        }
+        return null;
+    }
+
+    // enter the scope of a body, walk its stmts and leave it at step 2
+    private void block(DeclListNode decls, StmtListNode stmts) {
+        myNames.enterBlock(decls);
+        walk(stmts);
+        resume(2);
+    }
+
+    // **********************************************************************
+    // expressions: an unresolved name is of the error type
+    // **********************************************************************
+    public Void visit(IdNode node) {
+        myNames.walkTree(node);
+        node.setType(node.sym() == null ? Type.ERROR : node.sym().getType());
+        return null;
+    }
+
+    /**
+     * The LHS of a dot-access is not type checked, so all of it is
+     * resolved by name analysis; the type is that of the RHS.
+     */
+    public Void visit(DotAccessExpNode node) {
+        myNames.walkTree(node);
+        IdNode id = node.id();
+        Type type = id.sym() == null ? Type.ERROR : id.sym().getType();
+        id.setType(type);
+        node.setType(type);
+        return null;
+    }
+
+    public Void visit(CallExpNode node) {
+        if (step() == SKIPPED) {
+            myUnchecked--;
+            return null;
+        }
+        return super.visit(node);
+    }
+
+    /**
+     * The args of a call of a non-function, or with the wrong number of
+     * args, are resolved but not type checked.
+     */
+    protected void skipArgs(CallExpNode node) {
+        myUnchecked++;
+        walk(node.args());
+        resume(SKIPPED);
+    }
+
+    private NameAnalyzer myNames;           // for the current scope
+    private Diagnostics myTypeDiags;        // of the current function
+    private int myUnchecked;                // calls whose args are skipped
+    private List<Diagnostics> myFnTypeDiags;    // of each function, in order
+}
@@ -0,0 +1,756 @@
+import java.io.*;
+import java.util.*;
+
+// **********************************************************************
+// The intermediate representation (IR) that sits between type checking
+// and code generation.
+//
+// Each function body is lowered (see AstLower and FlatLower) into
+// a control-flow graph of basic blocks holding three-address
+// instructions over an unbounded set of virtual registers.  Parameters
+// and locals are virtual registers; globals live in memory and are
+// accessed with explicit loads and stores.  Backends (MipsBackend,
+// X86Backend) consume this representation.
+//
+//     IrProgram      globals, IrFunctions
+//     IrFunction     parameter registers, IrBlocks (the first is the entry)
+//     IrBlock        IrInstrs, the last one being a terminator
+//                    (JUMP, BRANCH or RETURN)
+//     IrInstr        IrOp, destination IrReg, source IrValues
+//     IrValue:
+//       IrReg        virtual register     %n
+//       IrConst      integer constant     n
+//       IrStr        string literal       "..."
+//
+// The form is not required to be SSA; Ssa converts a function into SSA
+// form (with PHI instructions at join points) and back.
+// **********************************************************************
+
+// **********************************************************************
+// IrValue and its subclasses
+// **********************************************************************
+
+abstract class IrValue {
+    public boolean isReg() {
+        return false;
+    }
+
+    public boolean isConst() {
+        return false;
+    }
+}
+
+class IrReg extends IrValue {
+    public IrReg(int num) {
+        myNum = num;
+    }
+
+    public int num() {
+        return myNum;
+    }
+
+    public boolean isReg() {
+        return true;
+    }
+
+    public boolean equals(Object o) {
+        return o instanceof IrReg && ((IrReg)o).myNum == myNum;
+    }
+
+    public int hashCode() {
+        return myNum;
+    }
+
+    public String toString() {
+        return "%" + myNum;
+    }
+
+    private int myNum;
+}
+
+class IrConst extends IrValue {
+    public IrConst(int value) {
+        myValue = value;
+    }
+
+    public int value() {
+        return myValue;
+    }
+
+    public boolean isConst() {
+        return true;
+    }
+
+    public boolean equals(Object o) {
+        return o instanceof IrConst && ((IrConst)o).myValue == myValue;
+    }
+
+    public int hashCode() {
+        return myValue;
+    }
+
+    public String toString() {
+        return Integer.toString(myValue);
+    }
+
+    private int myValue;
+}
+
+class IrStr extends IrValue {
+    public IrStr(String lit) {
+        myLit = lit;
+    }
+
+    /**
+     * Return the literal as written in the source, including its quotes
+     * and escapes.
+     */
+    public String literal() {
+        return myLit;
+    }
+
+    public String toString() {
+        return myLit;
+    }
+
+    private String myLit;
+}
+
+// **********************************************************************
+// IrOp
+// **********************************************************************
+
+enum IrOp {
+    COPY("copy"),          // dst = src0
+    ADD("add"),            // dst = src0 op src1
+    SUB("sub"),
+    MUL("mul"),
+    DIV("div"),
+    EQ("eq"),              // dst = (src0 op src1) ? 1 : 0
+    NE("ne"),
+    LT("lt"),
+    GT("gt"),
+    LE("le"),
+    GE("ge"),
+    NEG("neg"),            // dst = -src0
+    NOT("not"),            // dst = !src0 (src0 is 0 or 1)
+    LOADG("loadg"),        // dst = word offset of global name
+    STOREG("storeg"),      // word offset of global name = src0
+    CALL("call"),          // [dst =] name(src0, src1, ...)
+    READ("read"),          // dst = int read from the console
+    WRITEINT("writeint"),  // write int or bool src0 to the console
+    WRITESTR("writestr"),  // write string src0 to the console
+    PHI("phi"),            // dst = phi(src_i from i-th predecessor)
+    JUMP("jump"),          // goto target0
+    BRANCH("branch"),      // if (src0 != 0) goto target0 else goto target1
+    RETURN("return");      // return [src0]
+
+    IrOp(String name) {
+        myName = name;
+    }
+
+    public boolean isTerminator() {
+        return this == JUMP || this == BRANCH || this == RETURN;
+    }
+
+    public boolean isBinary() {
+        return compareTo(ADD) >= 0 && compareTo(GE) <= 0;
+    }
+
+    public boolean isCompare() {
+        return compareTo(EQ) >= 0 && compareTo(GE) <= 0;
+    }
+
+    /**
+     * Return whether the instruction can only be executed for its result,
+     * i.e., it may be removed or moved when its result is not needed.
+     */
+    public boolean isPure() {
+        return compareTo(COPY) >= 0 && compareTo(NOT) <= 0;
+    }
+
+    public String toString() {
+        return myName;
+    }
+
+    private String myName;
+}
+
+// **********************************************************************
+// IrInstr
+// **********************************************************************
+
+class IrInstr {
+    public IrInstr(IrOp op, IrReg dst, IrValue... srcs) {
+        myOp = op;
+        myDst = dst;
+        mySrcs = srcs;
+        myTargets = new IrBlock[0];
+    }
+
+    public IrOp op() {
+        return myOp;
+    }
+
+    public void setOp(IrOp op) {
+        myOp = op;
+    }
+
+    public IrReg dst() {
+        return myDst;
+    }
+
+    public void setDst(IrReg dst) {
+        myDst = dst;
+    }
+
+    public int numSrcs() {
+        return mySrcs.length;
+    }
+
+    public IrValue src(int k) {
+        return mySrcs[k];
+    }
+
+    public void setSrc(int k, IrValue v) {
+        mySrcs[k] = v;
+    }
+
+    public void setSrcs(IrValue... srcs) {
+        mySrcs = srcs;
+    }
+
+    /**
+     * Return the name of the global (LOADG, STOREG) or of the function
+     * (CALL) this instruction refers to.
+     */
+    public String name() {
+        return myName;
+    }
+
+    public void setName(String name) {
+        myName = name;
+    }
+
+    /**
+     * Return the offset, in words, of the word of the global a LOADG or
+     * STOREG accesses: 0 for an int or bool, the offset of the field for
+     * a field of a struct.
+     */
+    public int offset() {
+        return myOffset;
+    }
+
+    public void setOffset(int offset) {
+        myOffset = offset;
+    }
+
+    /**
+     * Return the word a LOADG or STOREG accesses, as name or name+offset.
+     */
+    public String location() {
+        return myOffset == 0 ? myName : myName + "+" + myOffset;
+    }
+
+    public int numTargets() {
+        return myTargets.length;
+    }
+
+    public IrBlock target(int k) {
+        return myTargets[k];
+    }
+
+    public void setTarget(int k, IrBlock b) {
+        myTargets[k] = b;
+    }
+
+    public void setTargets(IrBlock... targets) {
+        myTargets = targets;
+    }
+
+    /**
+     * Return the registers read by this instruction.
+     */
+    public List<IrReg> uses() {
+        List<IrReg> list = new ArrayList<IrReg>(mySrcs.length);
+        for (IrValue v : mySrcs) {
+            if (v != null && v.isReg()) {
+                list.add((IrReg)v);
+            }
+        }
+        return list;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (myDst != null) {
+            sb.append(myDst).append(" = ");
+        }
+        sb.append(myOp);
+        if (myName != null) {
+            sb.append(" ").append(location());
+        }
+        for (int k = 0; k < mySrcs.length; k++) {
+            sb.append(k == 0 ? " " : ", ").append(mySrcs[k]);
+        }
+        for (int k = 0; k < myTargets.length; k++) {
+            sb.append(k == 0 && mySrcs.length == 0 ? " " : ", ");
+            sb.append(myTargets[k].label());
+        }
+        return sb.toString();
+    }
+
+    private IrOp myOp;
+    private IrReg myDst;         // null if no result
+    private IrValue[] mySrcs;
+    private String myName;
+    private int myOffset;        // in words, for LOADG and STOREG
+    private IrBlock[] myTargets;
+}
+
+// **********************************************************************
+// IrBlock
+// **********************************************************************
+
+class IrBlock {
+    public IrBlock(int id) {
+        myId = id;
+        myInstrs = new ArrayList<IrInstr>();
+        myPreds = new ArrayList<IrBlock>();
+        mySuccs = new ArrayList<IrBlock>();
+    }
+
+    public int id() {
+        return myId;
+    }
+
+    public String label() {
+        return "B" + myId;
+    }
+
+    public List<IrInstr> instrs() {
+        return myInstrs;
+    }
+
+    /**
+     * Return the terminator of this block, or null if the block is still
+     * being built.
+     */
+    public IrInstr terminator() {
+        if (myInstrs.isEmpty()) {
+            return null;
+        }
+        IrInstr last = myInstrs.get(myInstrs.size() - 1);
+        return last.op().isTerminator() ? last : null;
+    }
+
+    /**
+     * Insert the given instruction right before the terminator.
+     */
+    public void insertBeforeTerminator(IrInstr instr) {
+        int k = myInstrs.size();
+        if (terminator() != null) {
+            k--;
+        }
+        myInstrs.add(k, instr);
+    }
+
+    /**
+     * Predecessors and successors, valid after IrFunction.computeCfg.
+     */
+    public List<IrBlock> preds() {
+        return myPreds;
+    }
+
+    public List<IrBlock> succs() {
+        return mySuccs;
+    }
+
+    private int myId;
+    private List<IrInstr> myInstrs;
+    private List<IrBlock> myPreds;
+    private List<IrBlock> mySuccs;
+}
+
+// **********************************************************************
+// IrFunction
+// **********************************************************************
+
+class IrFunction {
+    public IrFunction(String name, boolean isMain) {
+        myName = name;
+        myIsMain = isMain;
+        myParams = new ArrayList<IrReg>();
+        myBlocks = new ArrayList<IrBlock>();
+    }
+
+    public String name() {
+        return myName;
+    }
+
+    public boolean isMain() {
+        return myIsMain;
+    }
+
+    public List<IrReg> params() {
+        return myParams;
+    }
+
+    /**
+     * Blocks in layout order; the first one is the entry block.
+     */
+    public List<IrBlock> blocks() {
+        return myBlocks;
+    }
+
+    public IrBlock entry() {
+        return myBlocks.get(0);
+    }
+
+    public IrReg newReg() {
+        return new IrReg(myNumRegs++);
+    }
+
+    /**
+     * Return one more than the highest register number in use.
+     */
+    public int numRegs() {
+        return myNumRegs;
+    }
+
+    public IrBlock newBlock() {
+        return new IrBlock(myNumBlocks++);
+    }
+
+    /**
+     * Return the blocks that need a label, in layout order: those that a
+     * terminator targets other than by falling through from the block
+     * laid out right before them.  The backends number the labels in this
+     * order, so that the output is the same on every run.
+     */
+    public Set<IrBlock> jumpTargets() {
+        Set<IrBlock> targets = new HashSet<IrBlock>();
+        for (int k = 0; k < myBlocks.size(); k++) {
+            IrBlock next = k + 1 < myBlocks.size() ? myBlocks.get(k + 1) : null;
+            IrInstr term = myBlocks.get(k).terminator();
+            for (int j = 0; j < term.numTargets(); j++) {
+                if (term.target(j) != next) {
+                    targets.add(term.target(j));
+                }
+            }
+        }
+        Set<IrBlock> ordered = new LinkedHashSet<IrBlock>();
+        for (IrBlock b : myBlocks) {
+            if (targets.contains(b)) {
+                ordered.add(b);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Recompute predecessor and successor lists from the terminators and
+     * drop the blocks that cannot be reached from the entry.
+     */
+    public void computeCfg() {
+        Set<IrBlock> reached = new HashSet<IrBlock>();
+        Deque<IrBlock> work = new ArrayDeque<IrBlock>();
+        reached.add(entry());
+        work.push(entry());
+        while (!work.isEmpty()) {
+            IrInstr term = work.pop().terminator();
+            for (int k = 0; k < term.numTargets(); k++) {
+                if (reached.add(term.target(k))) {
+                    work.push(term.target(k));
+                }
+            }
+        }
+
+        for (IrBlock b : myBlocks) {
+            if (!reached.contains(b)) {
+                for (IrBlock s : b.succs()) {
+                    removePhiOperand(s, b);
+                }
+            }
+        }
+        myBlocks.retainAll(reached);
+
+        Map<IrBlock, List<IrBlock>> oldPreds = new HashMap<IrBlock, List<IrBlock>>();
+        for (IrBlock b : myBlocks) {
+            oldPreds.put(b, new ArrayList<IrBlock>(b.preds()));
+            b.preds().clear();
+            b.succs().clear();
+        }
+        for (IrBlock b : myBlocks) {
+            IrInstr term = b.terminator();
+            for (int k = 0; k < term.numTargets(); k++) {
+                IrBlock s = term.target(k);
+                if (!b.succs().contains(s)) {
+                    b.succs().add(s);
+                    s.preds().add(b);
+                }
+            }
+        }
+
+        // keep phi operands lined up with the (possibly reordered) preds
+        for (IrBlock b : myBlocks) {
+            List<IrBlock> old = oldPreds.get(b);
+            for (IrInstr instr : b.instrs()) {
+                if (instr.op() != IrOp.PHI) {
+                    break;
+                }
+                IrValue[] srcs = new IrValue[b.preds().size()];
+                for (int k = 0; k < srcs.length; k++) {
+                    srcs[k] = instr.src(old.indexOf(b.preds().get(k)));
+                }
+                instr.setSrcs(srcs);
+            }
+        }
+    }
+
+    private void removePhiOperand(IrBlock b, IrBlock pred) {
+        int k = b.preds().indexOf(pred);
+        if (k < 0) {
+            return;
+        }
+        for (IrInstr instr : b.instrs()) {
+            if (instr.op() != IrOp.PHI) {
+                break;
+            }
+            IrValue[] srcs = new IrValue[instr.numSrcs() - 1];
+            for (int j = 0, i = 0; j < instr.numSrcs(); j++) {
+                if (j != k) {
+                    srcs[i++] = instr.src(j);
+                }
+            }
+            instr.setSrcs(srcs);
+        }
+        b.preds().remove(k);
+    }
+
+    public void print(PrintWriter p) {
+        p.print("function " + myName + "(");
+        for (int k = 0; k < myParams.size(); k++) {
+            p.print((k == 0 ? "" : ", ") + myParams.get(k));
+        }
+        p.println(")");
+        for (IrBlock b : myBlocks) {
+            p.println(b.label() + ":");
+            for (IrInstr instr : b.instrs()) {
+                p.println("\t" + instr);
+            }
+        }
+        p.println();
+    }
+
+    private String myName;
+    private boolean myIsMain;
+    private List<IrReg> myParams;
+    private List<IrBlock> myBlocks;
+    private int myNumRegs = 0;
+    private int myNumBlocks = 0;
+}
+
+// **********************************************************************
+// IrProgram
+// **********************************************************************
+
+class IrProgram {
+    public IrProgram() {
+        myGlobals = new ArrayList<String>();
+        myGlobalWords = new HashMap<String, Integer>();
+        myFunctions = new ArrayList<IrFunction>();
+    }
+
+    public List<String> globals() {
+        return myGlobals;
+    }
+
+    /**
+     * Add the global name, of the given size in words.
+     */
+    public void addGlobal(String name, int words) {
+        myGlobals.add(name);
+        myGlobalWords.put(name, words);
+    }
+
+    /**
+     * Return the size, in words, of the global name.
+     */
+    public int globalWords(String name) {
+        return myGlobalWords.get(name);
+    }
+
+    public List<IrFunction> functions() {
+        return myFunctions;
+    }
+
+    /**
+     * Return the string pool: the distinct string literals used by the
+     * program, in order of first use.  Backends emit each one once and
+     * refer to it by its index.  The pool is made by the first call; P6
+     * makes it before optimizing, so that it is the same whichever
+     * functions are optimized (see P6 -cache).
+     */
+    public Map<String, Integer> strings() {
+        if (myStrings != null) {
+            return myStrings;
+        }
+        Map<String, Integer> pool = new LinkedHashMap<String, Integer>();
+        for (IrFunction fn : myFunctions) {
+            for (IrBlock b : fn.blocks()) {
+                for (IrInstr instr : b.instrs()) {
+                    for (int k = 0; k < instr.numSrcs(); k++) {
+                        IrValue v = instr.src(k);
+                        if (v instanceof IrStr
+                            && !pool.containsKey(((IrStr)v).literal())) {
+                            pool.put(((IrStr)v).literal(), pool.size());
+                        }
+                    }
+                }
+            }
+        }
+        myStrings = pool;
+        return pool;
+    }
+
+    public void print(PrintWriter p) {
+        for (String name : myGlobals) {
+            int words = globalWords(name);
+            p.println("global " + name + (words == 1 ? "" : "[" + words + "]"));
+        }
+        p.println();
+        for (IrFunction fn : myFunctions) {
+            fn.print(p);
+        }
+    }
+
+    private List<String> myGlobals;
+    private Map<String, Integer> myGlobalWords;
+    private List<IrFunction> myFunctions;
+    private Map<String, Integer> myStrings;     // set by strings()
+}
+
+// **********************************************************************
+// IrBuilder
+//
+// Used by AstLower and FlatLower to append instructions to the
+// function being lowered.  Instructions are emitted into the current
+// block; placing a block appends it to the function (so blocks are laid
+// out in the order they are placed) and makes it the current block.
+// **********************************************************************
+
+class IrBuilder {
+    public IrBuilder(IrFunction fn) {
+        myFn = fn;
+        myVars = new HashMap<TSym, IrReg>();
+        myFields = new HashMap<TSym, IrReg[]>();
+        place(fn.newBlock());
+    }
+
+    public IrFunction function() {
+        return myFn;
+    }
+
+    /**
+     * Return the register holding the given parameter or local.
+     */
+    public IrReg var(TSym sym) {
+        IrReg reg = myVars.get(sym);
+        if (reg == null) {
+            reg = myFn.newReg();
+            myVars.put(sym, reg);
+        }
+        return reg;
+    }
+
+    /**
+     * Return the register holding the word at the given offset of a local
+     * struct.  A struct variable cannot be assigned, passed or returned
+     * as a whole, so each word of a local one is a variable of its own.
+     */
+    public IrReg field(TSym sym, int offset) {
+        IrReg[] regs = myFields.get(sym);
+        if (regs == null) {
+            regs = new IrReg[StructDefSym.sizeOf(sym)];
+            myFields.put(sym, regs);
+        }
+        if (regs[offset] == null) {
+            regs[offset] = myFn.newReg();
+        }
+        return regs[offset];
+    }
+
+    public IrReg newReg() {
+        return myFn.newReg();
+    }
+
+    public IrBlock newBlock() {
+        return myFn.newBlock();
+    }
+
+    /**
+     * Make b the current block, falling through from the current block
+     * if that one was left unterminated.
+     */
+    public void place(IrBlock b) {
+        if (myBlock != null && myBlock.terminator() == null) {
+            jump(b);
+        }
+        myFn.blocks().add(b);
+        myBlock = b;
+    }
+
+    /**
+     * Append the given instruction to the current block.  Code following
+     * a terminator (e.g., statements after a return) goes to a new,
+     * unreachable block.
+     */
+    public IrInstr emit(IrInstr instr) {
+        if (myBlock.terminator() != null) {
+            place(newBlock());
+        }
+        myBlock.instrs().add(instr);
+        return instr;
+    }
+
+    /**
+     * Emit dst = op srcs into a new register and return that register.
+     */
+    public IrReg emit(IrOp op, IrValue... srcs) {
+        IrReg dst = newReg();
+        emit(new IrInstr(op, dst, srcs));
+        return dst;
+    }
+
+    public void copy(IrReg dst, IrValue src) {
+        emit(new IrInstr(IrOp.COPY, dst, src));
+    }
+
+    public void jump(IrBlock target) {
+        IrInstr instr = emit(new IrInstr(IrOp.JUMP, null));
+        instr.setTargets(target);
+    }
+
+    public void branch(IrValue cond, IrBlock ifTrue, IrBlock ifFalse) {
+        IrInstr instr = emit(new IrInstr(IrOp.BRANCH, null, cond));
+        instr.setTargets(ifTrue, ifFalse);
+    }
+
+    /**
+     * Terminate the function being built: the current block returns (no
+     * value) if it is still open, and the CFG is computed.
+     */
+    public IrFunction finish() {
+        if (myBlock.terminator() == null) {
+            emit(new IrInstr(IrOp.RETURN, null));
+        }
+        myFn.computeCfg();
+        return myFn;
+    }
+
+    private IrFunction myFn;
+    private IrBlock myBlock;
+    private HashMap<TSym, IrReg> myVars;
+    private HashMap<TSym, IrReg[]> myFields;    // words of local structs
+}
@@ -0,0 +1,89 @@
+import java.util.*;
+
+/**
+ * Live virtual registers at the entry and exit of every block of an
+ * IrFunction, computed by backward iterative data-flow analysis.  The CFG
+ * must be up to date (IrFunction.computeCfg).
+ *
+ * A PHI's operands are live at the end of the corresponding predecessor,
+ * not at the start of the PHI's block; its result is live-in.
+ */
+class Liveness {
+    public Liveness(IrFunction fn) {
+        myIn = new HashMap<IrBlock, BitSet>();
+        myOut = new HashMap<IrBlock, BitSet>();
+        Map<IrBlock, BitSet> use = new HashMap<IrBlock, BitSet>();
+        Map<IrBlock, BitSet> def = new HashMap<IrBlock, BitSet>();
+
+        for (IrBlock b : fn.blocks()) {
+            BitSet u = new BitSet();
+            BitSet d = new BitSet();
+            for (IrInstr instr : b.instrs()) {
+                if (instr.op() != IrOp.PHI) {
+                    for (IrReg r : instr.uses()) {
+                        if (!d.get(r.num())) {
+                            u.set(r.num());
+                        }
+                    }
+                }
+                if (instr.dst() != null) {
+                    d.set(instr.dst().num());
+                }
+            }
+            use.put(b, u);
+            def.put(b, d);
+            myIn.put(b, new BitSet());
+            myOut.put(b, new BitSet());
+        }
+
+        List<IrBlock> order = Dominators.reversePostorder(fn);
+        Collections.reverse(order);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (IrBlock b : order) {
+                BitSet out = new BitSet();
+                for (IrBlock s : b.succs()) {
+                    BitSet in = (BitSet)myIn.get(s).clone();
+                    int k = s.preds().indexOf(b);
+                    for (IrInstr instr : s.instrs()) {
+                        if (instr.op() != IrOp.PHI) {
+                            break;
+                        }
+                        in.clear(instr.dst().num());
+                        IrValue v = instr.src(k);
+                        if (v.isReg()) {
+                            in.set(((IrReg)v).num());
+                        }
+                    }
+                    out.or(in);
+                }
+                BitSet in = (BitSet)out.clone();
+                in.andNot(def.get(b));
+                in.or(use.get(b));
+                for (IrInstr instr : b.instrs()) {
+                    if (instr.op() != IrOp.PHI) {
+                        break;
+                    }
+                    in.set(instr.dst().num());
+                }
+                if (!out.equals(myOut.get(b)) || !in.equals(myIn.get(b))) {
+                    myOut.put(b, out);
+                    myIn.put(b, in);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    public BitSet liveIn(IrBlock b) {
+        return myIn.get(b);
+    }
+
+    public BitSet liveOut(IrBlock b) {
+        return myOut.get(b);
+    }
+
+    private Map<IrBlock, BitSet> myIn;
+    private Map<IrBlock, BitSet> myOut;
+}
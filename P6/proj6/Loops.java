@@ -0,0 +1,316 @@
+import java.util.*;
+
+/**
+ * Loop optimizations on an IrFunction that is not in SSA form: loop
+ * invariant code motion and strength reduction of multiplications by
+ * induction variables.
+ *
+ * Natural loops (one per header, the target of one or more back edges)
+ * are processed innermost first, so that code hoisted out of an inner
+ * loop can then be hoisted out of the enclosing one.  Each loop gets a
+ * preheader, a block through which every entry into the loop passes,
+ * that receives the hoisted code.
+ *
+ * An instruction is hoisted if it is pure (or a load of a global that the
+ * loop neither stores nor may change through a call), its operands are
+ * not defined in the loop, its result is defined only there and is not
+ * live on entry to the loop.  Divisions are only hoisted when the
+ * divisor is a constant other than 0 and -1, as they may trap.
+ *
+ * A basic induction variable is a register whose only definition in the
+ * loop adds a constant to it (i = i + c, or t = i + c; i = t).  Each
+ * multiplication of one by a loop invariant k is replaced by a register
+ * that is set to i * k in the preheader and incremented by c * k right
+ * after i is.
+ */
+class Loops {
+    public static void run(IrFunction fn) {
+        Dominators dom = new Dominators(fn);
+        final Map<IrBlock, Integer> size = new HashMap<IrBlock, Integer>();
+        List<IrBlock> headers = new ArrayList<IrBlock>();
+        for (IrBlock h : dom.rpo()) {
+            Set<IrBlock> body = body(h, dom);
+            if (body != null) {
+                headers.add(h);
+                size.put(h, body.size());
+            }
+        }
+        Collections.sort(headers, new Comparator<IrBlock>() {
+            public int compare(IrBlock a, IrBlock b) {
+                return Integer.compare(size.get(a), size.get(b));
+            }
+        });
+
+        for (IrBlock h : headers) {
+            if (h == fn.entry() || h.instrs().get(0).op() == IrOp.PHI) {
+                continue;
+            }
+            Set<IrBlock> body = body(h, new Dominators(fn));
+            IrBlock pre = preheader(fn, h, body);
+            Loops loop = new Loops(fn, h, pre, body);
+            loop.hoist();
+            loop.reduce();
+        }
+    }
+
+    /**
+     * Return the blocks of the natural loop with header h, or null if h is
+     * not the target of a back edge.
+     */
+    private static Set<IrBlock> body(IrBlock h, Dominators dom) {
+        Set<IrBlock> body = new LinkedHashSet<IrBlock>();
+        Deque<IrBlock> work = new ArrayDeque<IrBlock>();
+        body.add(h);
+        for (IrBlock p : h.preds()) {
+            if (dom.dominates(h, p) && body.add(p)) {
+                work.push(p);
+            }
+        }
+        if (body.size() == 1 && !h.preds().contains(h)) {
+            return null;
+        }
+        while (!work.isEmpty()) {
+            for (IrBlock p : work.pop().preds()) {
+                if (body.add(p)) {
+                    work.push(p);
+                }
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Return the preheader of the loop, creating it if needed.
+     */
+    private static IrBlock preheader(IrFunction fn, IrBlock h, Set<IrBlock> body) {
+        List<IrBlock> outside = new ArrayList<IrBlock>();
+        for (IrBlock p : h.preds()) {
+            if (!body.contains(p)) {
+                outside.add(p);
+            }
+        }
+        if (outside.size() == 1 && outside.get(0).succs().size() == 1) {
+            return outside.get(0);
+        }
+
+        IrBlock pre = fn.newBlock();
+        IrInstr jump = new IrInstr(IrOp.JUMP, null);
+        jump.setTargets(h);
+        pre.instrs().add(jump);
+        for (IrBlock p : outside) {
+            IrInstr term = p.terminator();
+            for (int k = 0; k < term.numTargets(); k++) {
+                if (term.target(k) == h) {
+                    term.setTarget(k, pre);
+                }
+            }
+        }
+        fn.blocks().add(fn.blocks().indexOf(h), pre);
+        fn.computeCfg();
+        return pre;
+    }
+
+    private Loops(IrFunction fn, IrBlock header, IrBlock pre,
+                  Set<IrBlock> body) {
+        myFn = fn;
+        myHeader = header;
+        myPre = pre;
+        myBody = new ArrayList<IrBlock>();
+        for (IrBlock b : fn.blocks()) {     // in layout order
+            if (body.contains(b)) {
+                myBody.add(b);
+            }
+        }
+
+        myDefs = new int[fn.numRegs()];
+        myStored = new HashSet<String>();
+        for (IrBlock b : myBody) {
+            for (IrInstr instr : b.instrs()) {
+                if (instr.dst() != null) {
+                    myDefs[instr.dst().num()]++;
+                }
+                if (instr.op() == IrOp.STOREG) {
+                    myStored.add(instr.location());
+                } else if (instr.op() == IrOp.CALL) {
+                    myHasCall = true;
+                }
+            }
+        }
+    }
+
+    // **********************************************************************
+    // loop invariant code motion
+    // **********************************************************************
+    private void hoist() {
+        BitSet liveIn = new Liveness(myFn).liveIn(myHeader);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (IrBlock b : myBody) {
+                Iterator<IrInstr> it = b.instrs().iterator();
+                while (it.hasNext()) {
+                    IrInstr instr = it.next();
+                    if (isInvariant(instr) && !liveIn.get(instr.dst().num())) {
+                        it.remove();
+                        myPre.insertBeforeTerminator(instr);
+                        myDefs[instr.dst().num()] = 0;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isInvariant(IrInstr instr) {
+        IrOp op = instr.op();
+        if (op == IrOp.LOADG) {
+            if (myHasCall || myStored.contains(instr.location())) {
+                return false;
+            }
+        } else if (!op.isPure()) {
+            return false;
+        } else if (op == IrOp.DIV) {
+            // a divisor of -1 traps when the dividend is the least int
+            IrValue d = instr.src(1);
+            if (!d.isConst() || ((IrConst)d).value() == 0
+                || ((IrConst)d).value() == -1) {
+                return false;
+            }
+        }
+        if (myDefs[instr.dst().num()] != 1) {
+            return false;
+        }
+        for (IrReg r : instr.uses()) {
+            if (myDefs[r.num()] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // **********************************************************************
+    // strength reduction
+    // **********************************************************************
+    private void reduce() {
+        // basic induction variables: register -> its step, and the
+        // instruction after which it has been updated
+        Map<Integer, Integer> step = new HashMap<Integer, Integer>();
+        Map<Integer, IrInstr> update = new HashMap<Integer, IrInstr>();
+        for (IrBlock b : myBody) {
+            List<IrInstr> instrs = b.instrs();
+            for (int k = 0; k < instrs.size(); k++) {
+                IrInstr instr = instrs.get(k);
+                IrReg dst = instr.dst();
+                if (dst == null || myDefs[dst.num()] != 1) {
+                    continue;
+                }
+                IrInstr inc = instr;
+                if (instr.op() == IrOp.COPY && instr.src(0).isReg()) {
+                    IrReg t = (IrReg)instr.src(0);
+                    inc = null;
+                    for (int j = k - 1; j >= 0; j--) {
+                        if (t.equals(instrs.get(j).dst())) {
+                            inc = instrs.get(j);
+                            break;
+                        }
+                    }
+                    if (inc == null || myDefs[t.num()] != 1) {
+                        continue;
+                    }
+                }
+                Integer c = increment(inc, dst);
+                if (c != null) {
+                    step.put(dst.num(), c);
+                    update.put(dst.num(), instr);
+                }
+            }
+        }
+        if (step.isEmpty()) {
+            return;
+        }
+
+        // replace i * k by a register r that tracks it
+        List<IrInstr> muls = new ArrayList<IrInstr>();
+        for (IrBlock b : myBody) {
+            for (IrInstr instr : b.instrs()) {
+                if (instr.op() == IrOp.MUL) {
+                    muls.add(instr);
+                }
+            }
+        }
+        Map<String, IrReg> reduced = new HashMap<String, IrReg>();
+        for (IrInstr instr : muls) {
+            for (int k = 0; k < 2; k++) {
+                IrValue iv = instr.src(k);
+                IrValue factor = instr.src(1 - k);
+                if (!iv.isReg() || !step.containsKey(((IrReg)iv).num())
+                    || (factor.isReg() && myDefs[((IrReg)factor).num()] != 0)) {
+                    continue;
+                }
+                IrReg i = (IrReg)iv;
+                String key = i + "*" + factor;
+                IrReg r = reduced.get(key);
+                if (r == null) {
+                    r = track(i, factor, step.get(i.num()), update.get(i.num()));
+                    reduced.put(key, r);
+                }
+                instr.setOp(IrOp.COPY);
+                instr.setSrcs(r);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Return c if instr is i = i + c or i = i - c (or the same computing a
+     * temporary from i), else null.
+     */
+    private static Integer increment(IrInstr instr, IrReg i) {
+        IrOp op = instr.op();
+        if (op != IrOp.ADD && op != IrOp.SUB) {
+            return null;
+        }
+        IrValue a = instr.src(0);
+        IrValue b = instr.src(1);
+        if (i.equals(a) && b.isConst()) {
+            int c = ((IrConst)b).value();
+            return op == IrOp.ADD ? c : -c;
+        }
+        if (op == IrOp.ADD && i.equals(b) && a.isConst()) {
+            return ((IrConst)a).value();
+        }
+        return null;
+    }
+
+    /**
+     * Return a new register equal to i * factor throughout the loop.
+     */
+    private IrReg track(IrReg i, IrValue factor, int c, IrInstr after) {
+        IrReg r = myFn.newReg();
+        myPre.insertBeforeTerminator(new IrInstr(IrOp.MUL, r, i, factor));
+        IrValue inc;
+        if (factor.isConst()) {
+            inc = new IrConst(c * ((IrConst)factor).value());
+        } else {
+            inc = myFn.newReg();
+            myPre.insertBeforeTerminator(
+                new IrInstr(IrOp.MUL, (IrReg)inc, factor, new IrConst(c)));
+        }
+        for (IrBlock b : myBody) {
+            int k = b.instrs().indexOf(after);
+            if (k >= 0) {
+                b.instrs().add(k + 1, new IrInstr(IrOp.ADD, r, r, inc));
+                break;
+            }
+        }
+        return r;
+    }
+
+    private IrFunction myFn;
+    private IrBlock myHeader;
+    private IrBlock myPre;
+    private List<IrBlock> myBody;
+    private int[] myDefs;          // definitions of each register in the loop
+    private Set<String> myStored;  // global words stored in the loop
+    private boolean myHasCall;
+}
@@ -0,0 +1,230 @@
+import java.util.*;
+
+/**
+ * Local value numbering of the blocks of an IrFunction.
+ *
+ * Every value computed in a block gets a number; instructions recomputing
+ * a known value (same operation on operands with the same numbers, or a
+ * load of a global whose value is known) become copies of a register that
+ * still holds it, and operations on constants are folded.  Operands are
+ * replaced by the constant or the earliest register holding their value,
+ * so that the copies become dead (see Dce).
+ *
+ * Registers may be redefined (the IR need not be in SSA form), so a value
+ * is only reused from a register that has not been redefined since.  A
+ * store to a global makes its value known; a call forgets every global.
+ */
+class Lvn {
+    public static void run(IrFunction fn) {
+        for (IrBlock b : fn.blocks()) {
+            new Lvn().run(b);
+        }
+    }
+
+    private Lvn() {
+        myRegVn = new HashMap<Integer, Integer>();
+        myConstVn = new HashMap<Integer, Integer>();
+        myExprVn = new HashMap<String, Integer>();
+        myGlobalVn = new HashMap<String, Integer>();
+        myHolders = new ArrayList<List<IrReg>>();
+        myConst = new ArrayList<Integer>();
+    }
+
+    private void run(IrBlock b) {
+        for (IrInstr instr : b.instrs()) {
+            IrOp op = instr.op();
+            if (op == IrOp.PHI) {
+                define(instr.dst(), newVn(null));
+                continue;
+            }
+
+            // replace operands by constants or their earliest holder
+            int[] vns = new int[instr.numSrcs()];
+            for (int k = 0; k < instr.numSrcs(); k++) {
+                IrValue v = instr.src(k);
+                if (v instanceof IrStr) {
+                    vns[k] = -1;
+                    continue;
+                }
+                vns[k] = vn(v);
+                instr.setSrc(k, best(vns[k], v));
+            }
+
+            if (op.isPure()) {
+                int vn = value(instr, vns);
+                IrValue known = best(vn, null);
+                if (known != null && !known.equals(instr.dst())) {
+                    instr.setOp(IrOp.COPY);
+                    instr.setSrcs(known);
+                }
+                define(instr.dst(), vn);
+            } else if (op == IrOp.LOADG) {
+                Integer vn = myGlobalVn.get(instr.location());
+                if (vn != null && best(vn, null) != null) {
+                    instr.setOp(IrOp.COPY);
+                    instr.setSrcs(best(vn, null));
+                } else {
+                    vn = newVn(null);
+                    myGlobalVn.put(instr.location(), vn);
+                }
+                define(instr.dst(), vn);
+            } else if (op == IrOp.STOREG) {
+                if (vns[0] >= 0) {
+                    myGlobalVn.put(instr.location(), vns[0]);
+                } else {
+                    myGlobalVn.remove(instr.location());
+                }
+            } else {
+                if (op == IrOp.CALL) {
+                    myGlobalVn.clear();
+                }
+                if (instr.dst() != null) {
+                    define(instr.dst(), newVn(null));
+                }
+            }
+        }
+    }
+
+    // **********************************************************************
+    // value of a pure instruction, folding constant operands
+    // **********************************************************************
+    private int value(IrInstr instr, int[] vns) {
+        IrOp op = instr.op();
+        for (int vn : vns) {
+            if (vn < 0) {       // string address
+                return newVn(null);
+            }
+        }
+        if (op == IrOp.COPY) {
+            return vns[0];
+        }
+
+        Integer c0 = myConst.get(vns[0]);
+        Integer c1 = vns.length > 1 ? myConst.get(vns[1]) : null;
+        if (c0 != null && (vns.length == 1 || c1 != null)) {
+            Integer folded = fold(op, c0, vns.length > 1 ? c1 : 0);
+            if (folded != null) {
+                return constVn(folded);
+            }
+        }
+
+        // algebraic identities
+        if (c1 != null && c1 == 0 && (op == IrOp.ADD || op == IrOp.SUB)) {
+            return vns[0];
+        }
+        if (c1 != null && c1 == 1 && (op == IrOp.MUL || op == IrOp.DIV)) {
+            return vns[0];
+        }
+        if (c0 != null && c0 == 0 && op == IrOp.ADD) {
+            return vns[1];
+        }
+        if (c0 != null && c0 == 1 && op == IrOp.MUL) {
+            return vns[1];
+        }
+        if (op == IrOp.MUL && ((c0 != null && c0 == 0) || (c1 != null && c1 == 0))) {
+            return constVn(0);
+        }
+
+        int a = vns[0];
+        int b = vns.length > 1 ? vns[1] : -1;
+        if ((op == IrOp.ADD || op == IrOp.MUL || op == IrOp.EQ || op == IrOp.NE)
+            && a > b) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        String key = op + " " + a + " " + b;
+        Integer vn = myExprVn.get(key);
+        if (vn == null) {
+            vn = newVn(null);
+            myExprVn.put(key, vn);
+        }
+        return vn;
+    }
+
+    /**
+     * Return the value of op applied to constants, or null if it cannot be
+     * computed at compile time (division by zero).
+     */
+    public static Integer fold(IrOp op, int a, int b) {
+        switch (op) {
+        case ADD:  return a + b;
+        case SUB:  return a - b;
+        case MUL:  return a * b;
+        case DIV:  return b == 0 ? null : Integer.valueOf(a / b);
+        case EQ:   return a == b ? 1 : 0;
+        case NE:   return a != b ? 1 : 0;
+        case LT:   return a < b ? 1 : 0;
+        case GT:   return a > b ? 1 : 0;
+        case LE:   return a <= b ? 1 : 0;
+        case GE:   return a >= b ? 1 : 0;
+        case NEG:  return -a;
+        case NOT:  return a ^ 1;
+        default:   return null;
+        }
+    }
+
+    // **********************************************************************
+    // value numbers
+    // **********************************************************************
+    private int newVn(Integer constant) {
+        myHolders.add(new ArrayList<IrReg>());
+        myConst.add(constant);
+        return myConst.size() - 1;
+    }
+
+    private int constVn(int c) {
+        Integer vn = myConstVn.get(c);
+        if (vn == null) {
+            vn = newVn(c);
+            myConstVn.put(c, vn);
+        }
+        return vn;
+    }
+
+    // the value number of an operand
+    private int vn(IrValue v) {
+        if (v.isConst()) {
+            return constVn(((IrConst)v).value());
+        }
+        IrReg r = (IrReg)v;
+        Integer vn = myRegVn.get(r.num());
+        if (vn == null) {   // defined before the block
+            vn = newVn(null);
+            define(r, vn);
+        }
+        return vn;
+    }
+
+    // the constant, or register, holding value number vn (else dflt)
+    private IrValue best(int vn, IrValue dflt) {
+        if (myConst.get(vn) != null) {
+            return new IrConst(myConst.get(vn));
+        }
+        List<IrReg> holders = myHolders.get(vn);
+        return holders.isEmpty() ? dflt : holders.get(0);
+    }
+
+    // record that r now holds value number vn
+    private void define(IrReg r, int vn) {
+        Integer old = myRegVn.get(r.num());
+        if (old != null) {
+            List<IrReg> holders = myHolders.get(old);
+            for (int k = 0; k < holders.size(); k++) {
+                if (holders.get(k).num() == r.num()) {
+                    holders.remove(k);
+                    break;
+                }
+            }
+        }
+        myRegVn.put(r.num(), vn);
+        myHolders.get(vn).add(r);
+    }
+
+    private Map<Integer, Integer> myRegVn;      // register -> value number
+    private Map<Integer, Integer> myConstVn;    // constant -> value number
+    private Map<String, Integer> myExprVn;      // "op vn vn" -> value number
+    private Map<String, Integer> myGlobalVn;    // global word -> value number
+    private List<List<IrReg>> myHolders;        // registers holding each value
+    private List<Integer> myConst;              // constant value, or null
+}
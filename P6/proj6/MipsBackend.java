@@ -0,0 +1,521 @@
+import java.io.*;
+import java.util.*;
+
+// **********************************************************************
+// The MipsBackend class generates MIPS code (for SPIM) from an IrProgram,
+// using the operations of Codegen.
+//
+// Virtual registers are given machine registers by RegAlloc; values live
+// across a call get one of the callee-saved $s registers, others one of
+// $t2 - $t9.  Spilled registers are kept in the frame.  $t0, $t1, $v0 and
+// $a0 are scratch registers.
+//
+// Frame layout (offsets from $fp):
+//     4(k+1)    argument k, stored by the caller
+//     0         return address
+//     -4        caller's frame pointer
+//     -8, ...   saved $s registers, then spill slots
+// **********************************************************************
+
+class MipsBackend {
+    private static final String[] REGS = {
+        "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7",
+        "$t2", "$t3", "$t4", "$t5", "$t6", "$t7", "$t8", "$t9"
+    };
+    private static final int NUM_CALLEE_SAVED = 8;
+
+    public MipsBackend() {
+    }
+
+    // a backend for one function, writing through cg
+    private MipsBackend(Map<String, Integer> strings, Codegen cg) {
+        myStrings = strings;
+        myCg = cg;
+    }
+
+    public void generate(IrProgram prog, PrintWriter p) {
+        generate(prog, p, new ArrayList<String>(
+                     Collections.nCopies(prog.functions().size(), (String)null)));
+    }
+
+    /**
+     * Generate code for prog to p.  Element k of code, if not null, is
+     * the code for the k-th function, generated earlier; the others are
+     * set to the code generated for their function.
+     */
+    public void generate(IrProgram prog, PrintWriter p, List<String> code) {
+        for (String name : prog.globals()) {
+            p.print(String.format("\t.data\n\t.align 2\n_%s:\t.space %d\n",
+                                  name, 4 * prog.globalWords(name)));
+        }
+
+        // functions are generated in parallel, each into its own buffer
+        // and with labels of its own (.L<name>_<n>, which do not depend on
+        // the other functions), and written in source order
+        myStrings = prog.strings();
+        final Map<String, Integer> strings = myStrings;
+        new ParallelGen() {
+            protected String generate(IrFunction fn, int index) {
+                StringWriter buf = new StringWriter();
+                PrintWriter out = new PrintWriter(buf);
+                String prefix = ".L" + fn.name() + "_";
+                new MipsBackend(strings, new Codegen(out, prefix)).generate(fn);
+                out.flush();
+                return buf.toString();
+            }
+        }.fill(prog.functions(), code);
+        for (String s : code) {
+            p.print(s);
+        }
+
+        // string pool
+        if (!myStrings.isEmpty()) {
+            p.print("\t.data\n");
+        }
+        for (Map.Entry<String, Integer> e : myStrings.entrySet()) {
+            p.print(String.format("%s:\t.asciiz %s\n", stringLabel(e.getValue()),
+                                  e.getKey()));
+        }
+    }
+
+    // label of the string with the given index in the pool
+    private static String stringLabel(int index) {
+        return ".S" + index;
+    }
+
+    // address of the word a LOADG or STOREG accesses: one word of a
+    // global, at a constant offset for a field of a struct
+    private static String global(IrInstr instr) {
+        int offset = 4 * instr.offset();
+        return "_" + instr.name() + (offset == 0 ? "" : "+" + offset);
+    }
+
+    // **********************************************************************
+    // generate one function
+    // **********************************************************************
+    private void generate(IrFunction fn) {
+        myAlloc = new RegAlloc(fn, NUM_CALLEE_SAVED,
+                               REGS.length - NUM_CALLEE_SAVED,
+                               EnumSet.of(IrOp.CALL));
+        mySlots = new HashMap<Integer, Integer>();
+        myLabels = new HashMap<IrBlock, String>();
+        for (IrBlock b : fn.jumpTargets()) {
+            myLabels.put(b, myCg.nextLabel());
+        }
+        myExitLbl = myCg.nextLabel();
+
+        // frame slots
+        int offset = -8;
+        List<Integer> saved = new ArrayList<Integer>();
+        BitSet used = myAlloc.usedRegs();
+        for (int r = used.nextSetBit(0); r >= 0; r = used.nextSetBit(r + 1)) {
+            if (myAlloc.isCalleeSaved(r)) {
+                saved.add(r);
+                offset -= 4;
+            }
+        }
+        List<IrReg> params = fn.params();
+        for (int k = 0; k < params.size(); k++) {
+            mySlots.put(params.get(k).num(), 4 * (k + 1));
+        }
+        for (int v = 0; v < fn.numRegs(); v++) {
+            if (myAlloc.isSpilled(new IrReg(v)) && !mySlots.containsKey(v)) {
+                mySlots.put(v, offset);
+                offset -= 4;
+            }
+        }
+
+        // prologue
+        if (fn.isMain()) {
+            myCg.p.print("\t.text\n\t.globl main\nmain:\t\t# METHOD ENTRY\n");
+            myCg.genLabel("__start", "");
+        } else {
+            myCg.p.print(String.format("\t.text\n_%s:\t# METHOD ENTRY\n",
+                                          fn.name()));
+        }
+        myCg.generateIndexed("sw", Codegen.RA, Codegen.SP, 0);
+        myCg.generateIndexed("sw", Codegen.FP, Codegen.SP, -4);
+        myCg.generate("move", Codegen.FP, Codegen.SP);
+        myCg.generate("subu", Codegen.SP, Codegen.SP, -offset);
+        for (int k = 0; k < saved.size(); k++) {
+            myCg.generateIndexed("sw", REGS[saved.get(k)], Codegen.FP,
+                                    -8 - 4 * k);
+        }
+        for (IrReg r : params) {
+            if (myAlloc.reg(r) >= 0) {
+                myCg.generateIndexed("lw", reg(r), Codegen.FP,
+                                        mySlots.get(r.num()));
+            }
+        }
+
+        // a block only gets a label if it is jumped to, and a jump to the
+        // block laid out next is left out
+        List<IrBlock> blocks = fn.blocks();
+        for (int k = 0; k < blocks.size(); k++) {
+            IrBlock b = blocks.get(k);
+            myNext = k + 1 < blocks.size() ? blocks.get(k + 1) : null;
+            if (myLabels.containsKey(b)) {
+                myCg.genLabel(myLabels.get(b));
+            }
+            for (IrInstr instr : b.instrs()) {
+                generate(instr);
+            }
+        }
+
+        // epilogue
+        myCg.genLabel(myExitLbl, "FUNCTION EXIT");
+        for (int k = 0; k < saved.size(); k++) {
+            myCg.generateIndexed("lw", REGS[saved.get(k)], Codegen.FP,
+                                    -8 - 4 * k);
+        }
+        myCg.generateIndexed("lw", Codegen.RA, Codegen.FP, 0);
+        myCg.generate("move", Codegen.T0, Codegen.FP);
+        myCg.generateIndexed("lw", Codegen.FP, Codegen.FP, -4);
+        myCg.generate("move", Codegen.SP, Codegen.T0);
+        if (fn.isMain()) {
+            myCg.generate("li", Codegen.V0, "10");
+            myCg.generate("syscall");
+        } else {
+            myCg.generate("jr", Codegen.RA);
+        }
+    }
+
+    // **********************************************************************
+    // generate one instruction
+    // **********************************************************************
+    private void generate(IrInstr instr) {
+        IrReg dst = instr.dst();
+        switch (instr.op()) {
+        case COPY:
+            if (dst != null && myAlloc.reg(dst) >= 0 && instr.src(0).isConst()) {
+                myCg.generate("li", reg(dst),
+                                 "" + ((IrConst)instr.src(0)).value());
+            } else {
+                move(dst, use(instr.src(0), Codegen.T0));
+            }
+            break;
+
+        case ADD:
+        case SUB:
+        case MUL:
+        case DIV:
+        case EQ:
+        case NE:
+        case LT:
+        case GT:
+        case LE:
+        case GE:
+            if (!generateImmediate(instr)) {
+                String a = use(instr.src(0), Codegen.T0);
+                String b = use(instr.src(1), Codegen.T1);
+                String d = def(dst);
+                if (instr.op() == IrOp.MUL || instr.op() == IrOp.DIV) {
+                    myCg.generate(instr.op() == IrOp.MUL ? "mult" : "div",
+                                     a, b);
+                    myCg.generate("mflo", d);
+                } else {
+                    myCg.generate(OPCODE.get(instr.op()), d, a, b);
+                }
+                store(dst, d);
+            }
+            break;
+
+        case NEG: {
+            String a = use(instr.src(0), Codegen.T0);
+            String d = def(dst);
+            myCg.generate("subu", d, "$zero", a);
+            store(dst, d);
+            break;
+        }
+
+        case NOT: {
+            String a = use(instr.src(0), Codegen.T0);
+            String d = def(dst);
+            myCg.generate("xori", d, a, 1);
+            store(dst, d);
+            break;
+        }
+
+        case LOADG: {
+            String d = def(dst);
+            myCg.generate("lw", d, global(instr));
+            store(dst, d);
+            break;
+        }
+
+        case STOREG:
+            myCg.generate("sw", use(instr.src(0), Codegen.T0),
+                             global(instr));
+            break;
+
+        case CALL: {
+            int n = instr.numSrcs();
+            if (n > 0) {
+                myCg.generate("subu", Codegen.SP, Codegen.SP, 4 * n);
+            }
+            for (int k = 0; k < n; k++) {
+                myCg.generateIndexed("sw", use(instr.src(k), Codegen.T0),
+                                        Codegen.SP, 4 * (k + 1));
+            }
+            myCg.generate("jal", "_" + instr.name());
+            if (n > 0) {
+                myCg.generate("addu", Codegen.SP, Codegen.SP, 4 * n);
+            }
+            if (dst != null) {
+                move(dst, Codegen.V0);
+            }
+            break;
+        }
+
+        case READ:
+            myCg.generate("li", Codegen.V0, "5");
+            myCg.generate("syscall");
+            move(dst, Codegen.V0);
+            break;
+
+        case WRITEINT:
+        case WRITESTR:
+            loadInto(Codegen.A0, instr.src(0));
+            myCg.generate("li", Codegen.V0,
+                             instr.op() == IrOp.WRITEINT ? "1" : "4");
+            myCg.generate("syscall");
+            break;
+
+        case JUMP:
+            jump(instr.target(0));
+            break;
+
+        case BRANCH: {
+            IrBlock ifTrue = instr.target(0);
+            IrBlock ifFalse = instr.target(1);
+            if (ifTrue == ifFalse) {
+                jump(ifTrue);
+            } else if (ifTrue == myNext) {
+                myCg.generate("beqz", use(instr.src(0), Codegen.T0),
+                                 myLabels.get(ifFalse));
+            } else {
+                myCg.generate("bnez", use(instr.src(0), Codegen.T0),
+                                 myLabels.get(ifTrue));
+                jump(ifFalse);
+            }
+            break;
+        }
+
+        case RETURN:
+            if (instr.numSrcs() > 0) {
+                loadInto(Codegen.V0, instr.src(0));
+            }
+            if (myNext != null) {
+                myCg.generate("b", myExitLbl);
+            }
+            break;
+
+        default:
+            System.err.println("unexpected " + instr.op() +
+                               " in MipsBackend.generate");
+            System.exit(-1);
+        }
+    }
+
+    // **********************************************************************
+    // generateImmediate
+    //    generate a binary instruction with a constant operand using the
+    //    immediate forms (addiu, slti, sll, sra); return false if there is
+    //    no such form for it
+    // **********************************************************************
+    private boolean generateImmediate(IrInstr instr) {
+        IrOp op = instr.op();
+        IrValue a = instr.src(0);
+        IrValue b = instr.src(1);
+        if (a.isConst() && !b.isConst() && SWAPPED.containsKey(op)) {
+            a = instr.src(1);
+            b = instr.src(0);
+            op = SWAPPED.get(op);
+        }
+        if (!b.isConst()) {
+            return false;
+        }
+        int c = ((IrConst)b).value();
+        int shift = Integer.numberOfTrailingZeros(c);
+        boolean pow2 = c > 1 && Integer.bitCount(c) == 1;
+
+        String src;
+        String d;
+        switch (op) {
+        case ADD:
+        case SUB:
+            if (op == IrOp.SUB) {
+                c = -c;
+            }
+            if (!fits(c)) {
+                return false;
+            }
+            src = use(a, Codegen.T0);
+            d = def(instr.dst());
+            myCg.generate("addiu", d, src, c);
+            break;
+
+        case MUL:
+            if (!pow2) {
+                return false;
+            }
+            src = use(a, Codegen.T0);
+            d = def(instr.dst());
+            myCg.generate("sll", d, src, shift);
+            break;
+
+        case DIV:
+            // sra rounds toward minus infinity; add c - 1 to negative
+            // dividends first so that the quotient rounds toward zero
+            if (!pow2) {
+                return false;
+            }
+            src = use(a, Codegen.T0);
+            d = def(instr.dst());
+            myCg.generate("sra", Codegen.T1, src, 31);
+            myCg.generate("srl", Codegen.T1, Codegen.T1, 32 - shift);
+            myCg.generate("addu", Codegen.T1, src, Codegen.T1);
+            myCg.generate("sra", d, Codegen.T1, shift);
+            break;
+
+        case LT:
+        case GE:
+            // a >= c is !(a < c)
+            if (!fits(c)) {
+                return false;
+            }
+            src = use(a, Codegen.T0);
+            d = def(instr.dst());
+            myCg.generate("slti", d, src, c);
+            if (op == IrOp.GE) {
+                myCg.generate("xori", d, d, 1);
+            }
+            break;
+
+        case LE:
+        case GT:
+            // a <= c is a < c + 1, and a > c is !(a < c + 1)
+            if (c == Integer.MAX_VALUE || !fits(c + 1)) {
+                return false;
+            }
+            src = use(a, Codegen.T0);
+            d = def(instr.dst());
+            myCg.generate("slti", d, src, c + 1);
+            if (op == IrOp.GT) {
+                myCg.generate("xori", d, d, 1);
+            }
+            break;
+
+        default:
+            return false;
+        }
+        store(instr.dst(), d);
+        return true;
+    }
+
+    // whether c fits in the 16-bit signed immediate field
+    private static boolean fits(int c) {
+        return c >= -32768 && c <= 32767;
+    }
+
+    // the operation obtained by swapping the operands
+    private static final Map<IrOp, IrOp> SWAPPED =
+        new EnumMap<IrOp, IrOp>(IrOp.class);
+    static {
+        SWAPPED.put(IrOp.ADD, IrOp.ADD);
+        SWAPPED.put(IrOp.MUL, IrOp.MUL);
+        SWAPPED.put(IrOp.EQ, IrOp.EQ);
+        SWAPPED.put(IrOp.NE, IrOp.NE);
+        SWAPPED.put(IrOp.LT, IrOp.GT);
+        SWAPPED.put(IrOp.GT, IrOp.LT);
+        SWAPPED.put(IrOp.LE, IrOp.GE);
+        SWAPPED.put(IrOp.GE, IrOp.LE);
+    }
+
+    private static final Map<IrOp, String> OPCODE =
+        new EnumMap<IrOp, String>(IrOp.class);
+    static {
+        OPCODE.put(IrOp.ADD, "addu");
+        OPCODE.put(IrOp.SUB, "subu");
+        OPCODE.put(IrOp.EQ, "seq");
+        OPCODE.put(IrOp.NE, "sne");
+        OPCODE.put(IrOp.LT, "slt");
+        OPCODE.put(IrOp.GT, "sgt");
+        OPCODE.put(IrOp.LE, "sle");
+        OPCODE.put(IrOp.GE, "sge");
+    }
+
+    // **********************************************************************
+    // operands
+    // **********************************************************************
+
+    // the machine register allocated to r
+    private String reg(IrReg r) {
+        return REGS[myAlloc.reg(r)];
+    }
+
+    // return a register holding v, loading it into scratch if needed
+    private String use(IrValue v, String scratch) {
+        if (v.isConst() && ((IrConst)v).value() == 0) {
+            return "$zero";
+        }
+        if (v.isReg() && myAlloc.reg((IrReg)v) >= 0) {
+            return reg((IrReg)v);
+        }
+        loadInto(scratch, v);
+        return scratch;
+    }
+
+    // load v into the register target
+    private void loadInto(String target, IrValue v) {
+        if (v.isConst()) {
+            myCg.generate("li", target, "" + ((IrConst)v).value());
+        } else if (v instanceof IrStr) {
+            myCg.generate("la", target,
+                             stringLabel(myStrings.get(((IrStr)v).literal())));
+        } else if (myAlloc.reg((IrReg)v) >= 0) {
+            myCg.generate("move", target, reg((IrReg)v));
+        } else {
+            myCg.generateIndexed("lw", target, Codegen.FP,
+                                    mySlots.get(((IrReg)v).num()));
+        }
+    }
+
+    // jump to target, unless it is the next block
+    private void jump(IrBlock target) {
+        if (target != myNext) {
+            myCg.generate("b", myLabels.get(target));
+        }
+    }
+
+    // return the register in which to compute r
+    private String def(IrReg r) {
+        return myAlloc.reg(r) >= 0 ? reg(r) : Codegen.T0;
+    }
+
+    // store r, computed in the register d, if it was spilled
+    private void store(IrReg r, String d) {
+        if (myAlloc.reg(r) < 0) {
+            myCg.generateIndexed("sw", d, Codegen.FP, mySlots.get(r.num()));
+        }
+    }
+
+    // copy the register src into r
+    private void move(IrReg r, String src) {
+        if (myAlloc.reg(r) >= 0) {
+            if (!reg(r).equals(src)) {
+                myCg.generate("move", reg(r), src);
+            }
+        } else {
+            store(r, src);
+        }
+    }
+
+    private Map<String, Integer> myStrings;    // string pool
+    private Codegen myCg;
+    private RegAlloc myAlloc;
+    private Map<Integer, Integer> mySlots;     // spilled register -> offset
+    private Map<IrBlock, String> myLabels;     // blocks that are jumped to
+    private String myExitLbl;
+    private IrBlock myNext;                    // block laid out next
+}
@@ -0,0 +1,880 @@
+import java.util.*;
+
+/**
+ * NameAnalyzer
+ *
+ * Name analysis of a program: each ID is linked to the TSym of its
+ * declaration, and undeclared names, multiply declared names and bad
+ * declarations are reported.  Each variable also gets its offset: 1 for
+ * a global, and decreasing from -8 for the locals of a function, in the
+ * order of their declarations; formals are at 4, 8, ...
+ *
+ * The symbol table of the current scope is mySymTab.  Walking a
+ * statement or an expression analyzes the names in it; walking a
+ * declaration adds it to mySymTab.  A nested body is entered and left in
+ * steps of its statement (see AstWalker), so that it takes no recursion.
+ */
+class NameAnalyzer extends AstWalker {
+    public NameAnalyzer() {
+        this(new SymTable());
+    }
+
+    /**
+     * A name analyzer whose outermost scope is that of symTab.
+     */
+    public NameAnalyzer(SymTable symTab) {
+        mySymTab = symTab;
+        myOffsetLoc = 1;
+    }
+
+    /**
+     * Analyze the names of the program root.
+     */
+    public void run(ProgramNode root) {
+        walkTree(root);
+    }
+
+    /**
+     * Return the symbol table of the current scope.
+     */
+    public SymTable symTab() {
+        return mySymTab;
+    }
+
+    /**
+     * Has no function main been declared?
+     */
+    public boolean noMain() {
+        return myNoMain;
+    }
+
+    // **********************************************************************
+    // lists and other internal nodes
+    // **********************************************************************
+
+    /**
+     * Process all of the globals, struct definitions and functions of the
+     * program in the outermost scope.
+     */
+    public Void visit(ProgramNode node) {
+        if (step() == 0) {
+            myOffsetLoc = 1;
+            walk(node.declList());
+            resume(1);
+        } else if (myNoMain) {
+            ErrMsg.fatal(0, 0, "No main function");
+        }
+        return null;
+    }
+
+    /**
+     * Process the decls of the list in the current scope, in order.
+     * Variables get offsets from myOffsetLoc on; the other decls are
+     * walked in turn, step k resuming with decl k and the offset of the
+     * next variable as data.
+     */
+    public Void visit(DeclListNode node) {
+        List<DeclNode> decls = node.decls();
+        int offsetLoc = step() == 0 ? myOffsetLoc : (Integer)data();
+        for (int k = step(); k < decls.size(); k++) {
+            DeclNode decl = decls.get(k);
+            if (decl instanceof VarDeclNode) {
+                offsetLoc = variable((VarDeclNode)decl, mySymTab, mySymTab,
+                                     offsetLoc);
+            } else {
+                walk(decl);
+                resume(k + 1, offsetLoc);
+                return null;
+            }
+        }
+        myOffsetLoc = offsetLoc;
+        return null;
+    }
+
+    /**
+     * Process the field decls of a struct, adding them to symTab; their
+     * struct types are looked up in globalTab.  Fields get offsets from
+     * myOffsetLoc on.
+     */
+    protected void decls(DeclListNode list, SymTable symTab, SymTable globalTab) {
+        int offsetLoc = myOffsetLoc;
+        for (DeclNode node : list.decls()) {
+            offsetLoc = variable((VarDeclNode)node, symTab, globalTab, offsetLoc);
+        }
+        myOffsetLoc = offsetLoc;
+    }
+
+    // process the variable decl node (see varDecl), giving it offset
+    // offsetLoc, and return the offset of the next variable
+    private int variable(VarDeclNode node, SymTable symTab, SymTable globalTab,
+                         int offsetLoc) {
+        TSym sym = varDecl(node, symTab, globalTab);
+        if (sym == null) {      // bad decl
+            return offsetLoc;
+        }
+        sym.setOffset(offsetLoc);
+        if (offsetLoc != 1) {
+            offsetLoc -= 4 * StructDefSym.sizeOf(sym);
+        }
+        return offsetLoc;
+    }
+
+    /**
+     * Process each formal decl in the list.
+     */
+    public Void visit(FormalsListNode node) {
+        formals(node);
+        return null;
+    }
+
+    /**
+     * Process each formal decl in the list, giving the good ones offsets
+     * 4, 8, ..., and return the types of those.
+     */
+    protected List<Type> formals(FormalsListNode list) {
+        List<Type> typeList = new ArrayList<Type>(list.length());
+        int offsetLoc = 4;
+        for (FormalDeclNode node : list.formals()) {
+            TSym sym = formal(node);
+            if (sym != null) {
+                typeList.add(sym.getType());
+                sym.setOffset(offsetLoc);
+                offsetLoc += 4;
+            }
+        }
+        list.setParamSize(offsetLoc - 4);
+        return typeList;
+    }
+
+    public Void visit(FnBodyNode node) {
+        if (step() == 0) {
+            enterBody(node);
+            walk(node.stmtList());
+            resume(1);
+        } else {
+            leaveBody(node);
+        }
+        return null;
+    }
+
+    /**
+     * Process the declarations of a function body, before its statements.
+     */
+    protected void enterBody(FnBodyNode node) {
+        myOffsetLoc = -8;
+        walkTree(node.declList());
+    }
+
+    /**
+     * Finish a function body, after its statements.
+     */
+    protected void leaveBody(FnBodyNode node) {
+        node.setLocalSize((myOffsetLoc + 8) * (-1));
+    }
+
+    public Void visit(StmtListNode node) {
+        for (StmtNode stmt : node.stmts()) {
+            walk(stmt);
+        }
+        return null;
+    }
+
+    public Void visit(ExpListNode node) {
+        for (ExpNode exp : node.exps()) {
+            walk(exp);
+        }
+        return null;
+    }
+
+    // **********************************************************************
+    // declarations
+    // **********************************************************************
+
+    public Void visit(VarDeclNode node) {
+        varDecl(node, mySymTab, mySymTab);
+        return null;
+    }
+
+    /**
+     * Process a variable decl:
+     * if the name is declared void, then error
+     * else if the declaration is of a struct type,
+     *     lookup type name (in globalTab)
+     *     if type name doesn't exist, then error
+     * if no errors so far,
+     *     if name has already been declared in symTab, then error
+     *     else add name to symTab
+     * Return the new TSym, or null for a bad decl.
+     */
+    protected TSym varDecl(VarDeclNode node, SymTable symTab, SymTable globalTab) {
+        TypeNode type = node.typeNode();
+        IdNode id = node.id();
+        boolean badDecl = false;
+        String name = id.name();
+        TSym sym = null;
+        IdNode structId = null;
+
+        if (type instanceof VoidNode) {  // check for void type
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Non-function declared void");
+            badDecl = true;
+        }
+
+        else if (type instanceof StructNode) {
+            structId = ((StructNode)type).idNode();
+
+            try {
+                sym = globalTab.lookupGlobal(structId.name());
+            } catch (EmptySymTableException ex) {
+                System.err.println("Unexpected EmptySymTableException " +
+                                   " in NameAnalyzer.varDecl");
+            }
+
+            // if the name for the struct type is not found,
+            // or is not a struct type
+            if (sym == null || !(sym instanceof StructDefSym)) {
+                ErrMsg.fatal(structId.lineNum(), structId.charNum(),
+                             "Invalid name of struct type");
+                badDecl = true;
+            }
+            else {
+                structId.link(sym);
+            }
+        }
+
+        TSym symCheckMul = null;
+
+        try {
+            symCheckMul = symTab.lookupLocal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.varDecl");
+        }
+
+        if (symCheckMul != null) {
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Multiply declared identifier");
+            badDecl = true;
+        }
+
+        if (badDecl) {
+            return null;
+        }
+
+        try {   // insert into symbol table
+            if (type instanceof StructNode) {
+                sym = new StructSym(structId);
+            }
+            else {
+                sym = new TSym(type.type());
+                if (!globalTab.isGlobalScope()) {
+                    int offset = globalTab.getOffset();
+                    sym.setOffset(offset);
+                    globalTab.setOffset(offset - 4); // everything is int or bool
+                } else {
+                    sym.setOffset(1);
+                }
+            }
+            symTab.addDecl(name, sym);
+            id.link(sym);
+        } catch (DuplicateSymException ex) {
+            System.err.println("Unexpected DuplicateSymException " +
+                               " in NameAnalyzer.varDecl");
+            System.exit(-1);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.varDecl");
+            System.exit(-1);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unexpected IllegalArgumentException " +
+                               " in NameAnalyzer.varDecl");
+            System.exit(-1);
+        }
+        return sym;
+    }
+
+    /**
+     * Process a function decl:
+     * if this name has already been declared in this scope, then error
+     * else add name to the symbol table
+     * in any case, do the following:
+     *     enter new scope
+     *     process the formals
+     *     if this function is not multiply declared,
+     *         update symbol table entry with types of formals
+     *     process the body of the function
+     *     exit scope
+     */
+    public Void visit(FnDeclNode node) {
+        if (step() == 0) {
+            FnSym sym = declareFunction(node);
+            enterFunction(node, sym);
+            walk(node.body());
+            resume(1, mySymTab.getOffset());
+        } else {
+            // the ID is only linked if the function is declared here
+            endFunction((FnSym)node.id().sym(), (Integer)data());
+        }
+        return null;
+    }
+
+    /**
+     * Add the name of a function decl to the current scope and return its
+     * FnSym, or null if the function is multiply declared.
+     */
+    protected FnSym declareFunction(FnDeclNode node) {
+        IdNode id = node.id();
+        String name = id.name();
+        FnSym sym = null;
+        TSym symCheckMul = null;
+
+        try {
+            symCheckMul = mySymTab.lookupLocal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.declareFunction");
+        }
+
+        if (symCheckMul != null) {
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Multiply declared identifier");
+        }
+
+        else { // add function name to local symbol table
+            if (name.equals("main")) {
+                myNoMain = false;
+            }
+            try {
+                sym = new FnSym(node.typeNode().type(),
+                                node.formalsList().length());
+                mySymTab.addDecl(name, sym);
+                id.link(sym);
+            } catch (DuplicateSymException ex) {
+                System.err.println("Unexpected DuplicateSymException " +
+                                   " in NameAnalyzer.declareFunction");
+                System.exit(-1);
+            } catch (EmptySymTableException ex) {
+                System.err.println("Unexpected EmptySymTableException " +
+                                   " in NameAnalyzer.declareFunction");
+                System.exit(-1);
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Unexpected IllegalArgumentException " +
+                                   " in NameAnalyzer.declareFunction");
+                System.exit(-1);
+            }
+        }
+        return sym;
+    }
+
+    /**
+     * Enter the scope of the body of a function decl, whose FnSym is sym
+     * (null if it is multiply declared), and process its formals.
+     */
+    protected void enterFunction(FnDeclNode node, FnSym sym) {
+        mySymTab.setGlobalScope(false);
+        mySymTab.setOffset(0);
+        mySymTab.addScope();  // add a new scope for locals and params
+
+        // process the formals
+        List<Type> typeList = formals(node.formalsList());
+        if (sym != null) {
+            sym.addFormals(typeList);
+            sym.setParamSize(-1 * mySymTab.getOffset());
+        }
+
+        mySymTab.setOffset(mySymTab.getOffset() - 8);
+    }
+
+    /**
+     * Leave the scope of the body of the function whose FnSym is sym,
+     * where the offset of the symbol table was temp before the body.
+     */
+    protected void endFunction(FnSym sym, int temp) {
+        if (sym != null) {
+            sym.setLocalSize(-1 * (mySymTab.getOffset() - temp));
+        }
+        mySymTab.setGlobalScope(true);
+        removeScope("FnDeclNode");
+    }
+
+    public Void visit(FormalDeclNode node) {
+        formal(node);
+        return null;
+    }
+
+    /**
+     * Process a formal decl:
+     * if this formal is declared void, then error
+     * else if this formal is already in the local symbol table,
+     *     then issue multiply declared error message and return null
+     * else add a new entry to the symbol table and return that TSym
+     */
+    protected TSym formal(FormalDeclNode node) {
+        IdNode id = node.id();
+        String name = id.name();
+        boolean badDecl = false;
+        TSym sym = null;
+
+        if (node.typeNode() instanceof VoidNode) {
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Non-function declared void");
+            badDecl = true;
+        }
+
+        TSym symCheckMul = null;
+
+        try {
+            symCheckMul = mySymTab.lookupLocal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.formal");
+        }
+
+        if (symCheckMul != null) {
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Multiply declared identifier");
+            badDecl = true;
+        }
+
+        if (badDecl) {
+            return null;
+        }
+
+        try {   // insert into symbol table
+            int offset = mySymTab.getOffset();
+            sym = new TSym(node.typeNode().type());
+            sym.setOffset(offset);
+            mySymTab.setOffset(offset - 4); // only int and bool formals
+            mySymTab.addDecl(name, sym);
+            id.link(sym);
+        } catch (DuplicateSymException ex) {
+            System.err.println("Unexpected DuplicateSymException " +
+                               " in NameAnalyzer.formal");
+            System.exit(-1);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.formal");
+            System.exit(-1);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unexpected IllegalArgumentException " +
+                               " in NameAnalyzer.formal");
+            System.exit(-1);
+        }
+        return sym;
+    }
+
+    /**
+     * Process a struct decl:
+     * if this name is already in the symbol table,
+     *     then multiply declared error (don't add to symbol table)
+     * create a new symbol table for this struct definition
+     * process the decl list
+     * if no errors
+     *     add a new entry to symbol table for this struct
+     */
+    public Void visit(StructDeclNode node) {
+        IdNode id = node.id();
+        String name = id.name();
+        TSym symCheckMul = null;
+
+        try {
+            symCheckMul = mySymTab.lookupLocal(name);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.visit(StructDeclNode)");
+        }
+
+        if (symCheckMul != null) {
+            ErrMsg.fatal(id.lineNum(), id.charNum(),
+                         "Multiply declared identifier");
+            return null;
+        }
+
+        try {   // add entry to symbol table
+            SymTable structSymTab = new SymTable();
+            decls(node.declList(), structSymTab, mySymTab);
+            StructDefSym sym = new StructDefSym(structSymTab, name);
+            node.declList().layout(sym);
+            mySymTab.addDecl(name, sym);
+            id.link(sym);
+        } catch (DuplicateSymException ex) {
+            System.err.println("Unexpected DuplicateSymException " +
+                               " in NameAnalyzer.visit(StructDeclNode)");
+            System.exit(-1);
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.visit(StructDeclNode)");
+            System.exit(-1);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unexpected IllegalArgumentException " +
+                               " in NameAnalyzer.visit(StructDeclNode)");
+            System.exit(-1);
+        }
+        return null;
+    }
+
+    // **********************************************************************
+    // types: their names are processed by the decls
+    // **********************************************************************
+    public Void visit(IntNode node) { return null; }
+    public Void visit(BoolNode node) { return null; }
+    public Void visit(VoidNode node) { return null; }
+    public Void visit(StructNode node) { return null; }
+
+    // **********************************************************************
+    // statements
+    // **********************************************************************
+    public Void visit(AssignStmtNode node) {
+        walk(node.assign());
+        return null;
+    }
+
+    public Void visit(PostIncStmtNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    public Void visit(PostDecStmtNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    public Void visit(ReadStmtNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    public Void visit(WriteStmtNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    /**
+     * Process the condition, then the decls and stmts in a new scope.
+     */
+    public Void visit(IfStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            enterBlock(node.declList());
+            walk(node.stmtList());
+            resume(2);
+            break;
+        default:
+            removeScope("IfStmtNode");
+        }
+        return null;
+    }
+
+    /**
+     * Process the condition, then the decls and stmts of each branch in a
+     * new scope.
+     */
+    public Void visit(IfElseStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            enterBlock(node.thenDeclList());
+            walk(node.thenStmtList());
+            resume(2);
+            break;
+        case 2:
+            removeScope("IfElseStmtNode");
+            enterBlock(node.elseDeclList());
+            walk(node.elseStmtList());
+            resume(3);
+            break;
+        default:
+            removeScope("IfElseStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(WhileStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            enterBlock(node.declList());
+            walk(node.stmtList());
+            resume(2);
+            break;
+        default:
+            removeScope("WhileStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(RepeatStmtNode node) {
+        switch (step()) {
+        case 0:
+            walk(node.exp());
+            resume(1);
+            break;
+        case 1:
+            enterBlock(node.declList());
+            walk(node.stmtList());
+            resume(2);
+            break;
+        default:
+            removeScope("RepeatStmtNode");
+        }
+        return null;
+    }
+
+    public Void visit(CallStmtNode node) {
+        walk(node.call());
+        return null;
+    }
+
+    public Void visit(ReturnStmtNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    /**
+     * Enter a new scope, that of a nested body, and process its decls;
+     * its stmts are to be walked next, and the scope then left with
+     * removeScope.
+     */
+    protected void enterBlock(DeclListNode decls) {
+        mySymTab.addScope();
+        walkTree(decls);
+    }
+
+    /**
+     * Leave the innermost scope, that of the body of a where.
+     */
+    protected void removeScope(String where) {
+        try {
+            mySymTab.removeScope();
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in " + where + " name analysis");
+            System.exit(-1);
+        }
+    }
+
+    // **********************************************************************
+    // expressions
+    // **********************************************************************
+    public Void visit(IntLitNode node) { return null; }
+    public Void visit(StringLitNode node) { return null; }
+    public Void visit(TrueNode node) { return null; }
+    public Void visit(FalseNode node) { return null; }
+
+    /**
+     * Check for use of undeclared name; if ok, link to symbol table entry.
+     */
+    public Void visit(IdNode node) {
+        TSym sym = null;
+
+        try {
+            sym = mySymTab.lookupGlobal(node.name());
+        } catch (EmptySymTableException ex) {
+            System.err.println("Unexpected EmptySymTableException " +
+                               " in NameAnalyzer.visit(IdNode)");
+            System.exit(-1);
+        }
+
+        if (sym == null) {
+            ErrMsg.fatal(node.lineNum(), node.charNum(), "Undeclared identifier");
+        } else {
+            node.link(sym);
+        }
+        return null;
+    }
+
+    /**
+     * Process the LHS of the dot-access, then its RHS in the symbol table
+     * of the struct of the LHS.  If the RHS is of a struct type, link the
+     * dot-access to the StructDefSym of that type, so that a dot-access
+     * "higher up" in the AST can look up its RHS there.
+     */
+    public Void visit(DotAccessExpNode node) {
+        if (step() == 0) {
+            walk(node.loc());   // do name analysis on LHS
+            resume(1);
+            return null;
+        }
+
+        ExpNode loc = node.loc();
+        IdNode rhs = node.id();
+        boolean badAccess = false;
+        SymTable structSymTab = null; // to lookup RHS of dot-access
+        TSym sym = null;
+
+        // if loc is really an ID, then sym will be a link to the ID's symbol
+        if (loc instanceof IdNode) {
+            IdNode id = (IdNode)loc;
+            sym = id.sym();
+
+            // check ID has been declared to be of a struct type
+
+            if (sym == null) { // ID was undeclared
+                badAccess = true;
+            }
+            else if (sym instanceof StructSym) {
+                // get symbol table for struct type
+                TSym tempSym = ((StructSym)sym).getStructType().sym();
+                structSymTab = ((StructDefSym)tempSym).getSymTable();
+            }
+            else {  // LHS is not a struct type
+                ErrMsg.fatal(id.lineNum(), id.charNum(),
+                             "Dot-access of non-struct type");
+                badAccess = true;
+            }
+        }
+
+        // if loc is really a dot-access (i.e., loc was of the form
+        // LHSloc.RHSid), then sym will either be
+        // null - indicating RHSid is not of a struct type, or
+        // a link to the TSym for the struct type RHSid was declared to be
+        else if (loc instanceof DotAccessExpNode) {
+            DotAccessExpNode dot = (DotAccessExpNode)loc;
+
+            if (dot.isBadAccess()) {  // if errors in processing loc
+                badAccess = true; // don't continue proccessing this dot-access
+            }
+            else { //  no errors in processing loc
+                sym = dot.sym();
+
+                if (sym == null) {  // no struct in which to look up RHS
+                    ErrMsg.fatal(dot.lineNum(), dot.charNum(),
+                                 "Dot-access of non-struct type");
+                    badAccess = true;
+                }
+                else {  // get the struct's symbol table in which to lookup RHS
+                    if (sym instanceof StructDefSym) {
+                        structSymTab = ((StructDefSym)sym).getSymTable();
+                    }
+                    else {
+                        System.err.println("Unexpected Sym type in DotAccessExpNode");
+                        System.exit(-1);
+                    }
+                }
+            }
+        }
+
+        else { // don't know what kind of thing loc is
+            System.err.println("Unexpected node type in LHS of dot-access");
+            System.exit(-1);
+        }
+
+        // do name analysis on RHS of dot-access in the struct's symbol table
+        if (!badAccess) {
+            try {
+                sym = structSymTab.lookupGlobal(rhs.name()); // lookup
+            } catch (EmptySymTableException ex) {
+                System.err.println("Unexpected EmptySymTableException " +
+                                   " in NameAnalyzer.visit(DotAccessExpNode)");
+            }
+
+            if (sym == null) { // not found - RHS is not a valid field name
+                ErrMsg.fatal(rhs.lineNum(), rhs.charNum(),
+                             "Invalid struct field name");
+                badAccess = true;
+            } else {
+                rhs.link(sym);  // link the symbol
+                // if RHS is itself as struct type, link the symbol for its struct
+                // type to this dot-access node (to allow chained dot-access)
+                if (sym instanceof StructSym) {
+                    node.link(((StructSym)sym).getStructType().sym());
+                }
+            }
+        }
+        node.setBadAccess(badAccess);
+        return null;
+    }
+
+    public Void visit(AssignNode node) {
+        walk(node.lhs());
+        walk(node.exp());
+        return null;
+    }
+
+    public Void visit(CallExpNode node) {
+        walk(node.id());
+        walk(node.args());
+        return null;
+    }
+
+    public Void visit(UnaryMinusNode node) {
+        return unary(node);
+    }
+
+    public Void visit(NotNode node) {
+        return unary(node);
+    }
+
+    public Void visit(PlusNode node) {
+        return binary(node);
+    }
+
+    public Void visit(MinusNode node) {
+        return binary(node);
+    }
+
+    public Void visit(TimesNode node) {
+        return binary(node);
+    }
+
+    public Void visit(DivideNode node) {
+        return binary(node);
+    }
+
+    public Void visit(AndNode node) {
+        return binary(node);
+    }
+
+    public Void visit(OrNode node) {
+        return binary(node);
+    }
+
+    public Void visit(EqualsNode node) {
+        return binary(node);
+    }
+
+    public Void visit(NotEqualsNode node) {
+        return binary(node);
+    }
+
+    public Void visit(LessNode node) {
+        return binary(node);
+    }
+
+    public Void visit(GreaterNode node) {
+        return binary(node);
+    }
+
+    public Void visit(LessEqNode node) {
+        return binary(node);
+    }
+
+    public Void visit(GreaterEqNode node) {
+        return binary(node);
+    }
+
+    private Void unary(UnaryExpNode node) {
+        walk(node.exp());
+        return null;
+    }
+
+    private Void binary(BinaryExpNode node) {
+        walk(node.exp1());
+        walk(node.exp2());
+        return null;
+    }
+
+    protected SymTable mySymTab;    // table of the current scope
+    protected int myOffsetLoc;      // offset of the next local variable
+    private boolean myNoMain = true;
+}
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.util.*;
 
 import java_cup.runtime.*;
 
@@ -7,12 +8,35 @@ import java_cup.runtime.*;
  *
  * There should be 2 command-line arguments:
  *    1. the file to be parsed
- *    2. the MIPS output file
+ *    2. the assembly output file
+ * optionally preceded by options:
+ *    -mips   generate MIPS code (the default)
+ *    -x86    generate x86-64 GNU assembly for Linux
+ *    -ssa    put the intermediate representation in SSA form before
+ *            generating code
+ *    -ir     write the intermediate representation instead of assembly
+ *    -O0     do not optimize the intermediate representation
+ *    -rd     parse with the recursive-descent parser (RdParser) instead
+ *            of the one generated by CUP
+ *    -flat   parse into a FlatAst and check and lower it with FlatChecker
+ *            and FlatLower, which take much less memory for large inputs
+ *    -fuse   resolve and type check each expression in the same visit, in
+ *            one walk of the tree (see FusedChecker)
+ *    -save FILE  write the checked AST to FILE (see AstWriter)
+ *    -load   read the input file as a checked AST written by -save
+ *            instead of as source
+ *    -maxerrs N  stop a phase after N errors (default 100, 0 for no limit)
+ *    -cache DIR  reuse the result of an earlier compilation of the same
+ *            source with the same options, kept in the directory DIR
+ *            (see CompileCache); otherwise, or with -save, reuse the
+ *            code of each function whose IR is unchanged
  *
  * The program opens the two files, creates a scanner and a parser, and
  * calls the parser.  If the parse is successful, then it will call name
  * analysis and type checking routines. If there is no error at the end,
- * it will generate MIPS code to the output file.
+ * it will translate the program into the intermediate representation
+ * (see Ir.java) and generate code for the selected target from it to the
+ * output file.
  */
 public class P6 {
 	FileReader inFile;
@@ -25,6 +49,31 @@ public class P6 {
 	public static final int RESULT_NAME_ANALYSIS_ERROR = 3;
 	public static final int RESULT_OTHER_ERROR = -1;
 
+	public static final int TARGET_MIPS = 0;
+	public static final int TARGET_X86 = 1;
+
+	public static final int DEFAULT_MAX_ERRORS = 100;
+	public static final long DEFAULT_CACHE_SIZE = 256L << 20;
+
+	// part of the key of cached compilations: change it whenever the
+	// output for some input changes
+	public static final String VERSION = "6";
+
+	private int target = TARGET_MIPS;
+	private boolean ssa = false;
+	private boolean emitIr = false;
+	private boolean optimize = true;
+	private int maxErrors = DEFAULT_MAX_ERRORS;
+	private boolean rdParser = false;
+	private boolean flat = false;
+	private boolean fuse = false;
+	private String savePath = null;
+	private boolean load = false;
+	private String inPath;
+	private File cacheDir = null;
+	private Diagnostics diags;
+	private IrProgram ir;		// result of the front end
+
 	/**
 	 * P6 constructor for client programs and testers. Note that
 	 * users MUST invoke {@link setInfile} and {@link setOutfile}
@@ -37,19 +86,56 @@ public class P6 {
 	 * is the command line to use. It shouldn't be invoked from
 	 * outside the class (hence the private constructor) because
 	 * it
-	 * @param args command line args array for [<infile> <outfile>]
+	 * @param args command line args array for [-mips|-x86] [-ssa] [-ir] [-O0] [-rd] [-flat] [-fuse] [-save FILE] [-load] [-maxerrs N] [-cache DIR] <infile> <outfile>
 	 */
 	private P6(String[] args) {
+		//Parse options
+		int argc = 0;
+		while (argc < args.length && args[argc].startsWith("-")) {
+			if (args[argc].equals("-mips")) {
+				setTarget(TARGET_MIPS);
+			} else if (args[argc].equals("-x86")) {
+				setTarget(TARGET_X86);
+			} else if (args[argc].equals("-ssa")) {
+				setSsa(true);
+			} else if (args[argc].equals("-ir")) {
+				setEmitIr(true);
+			} else if (args[argc].equals("-O0")) {
+				setOptimize(false);
+			} else if (args[argc].equals("-rd")) {
+				setRdParser(true);
+			} else if (args[argc].equals("-flat")) {
+				setFlat(true);
+			} else if (args[argc].equals("-fuse")) {
+				setFuse(true);
+			} else if (args[argc].equals("-save") && argc + 1 < args.length) {
+				setSavePath(args[++argc]);
+			} else if (args[argc].equals("-load")) {
+				setLoad(true);
+			} else if (args[argc].equals("-cache") && argc + 1 < args.length) {
+				setCacheDir(args[++argc]);
+			} else if (args[argc].equals("-maxerrs") && argc + 1 < args.length) {
+				try {
+					setMaxErrors(Integer.parseInt(args[++argc]));
+				} catch (NumberFormatException e) {
+					pukeAndDie("bad number of errors " + args[argc]);
+				}
+			} else {
+				pukeAndDie("unknown option " + args[argc]);
+			}
+			argc++;
+		}
+
 		//Parse arguments
-		if (args.length < 2) {
+		if (args.length - argc < 2) {
 			String msg = "please supply name of the input file "
 				+ "and name of file for assembly output.";
 			pukeAndDie(msg);
 		}
 
 		try {
-			setInfile(args[0]);
-			setOutfile(args[1]);
+			setInfile(args[argc]);
+			setOutfile(args[argc + 1]);
 		} catch(BadInfileException e) {
 			pukeAndDie(e.getMessage());
 		} catch(BadOutfileException e) {
@@ -64,6 +150,7 @@ public class P6 {
 	public void setInfile(String filename) throws BadInfileException{
 		try {
 			inFile = new FileReader(filename);
+			inPath = filename;
 		} catch (FileNotFoundException ex) {
 			throw new BadInfileException(ex, filename);
 		}
@@ -81,6 +168,119 @@ public class P6 {
 		}
 	}
 
+	/**
+	 * Target architecture of the generated code
+	 * @param target TARGET_MIPS or TARGET_X86
+	 */
+	public void setTarget(int target) {
+		this.target = target;
+	}
+
+	/**
+	 * Whether to go through SSA form before generating code
+	 * @param ssa true to construct (and then destruct) SSA form
+	 */
+	public void setSsa(boolean ssa) {
+		this.ssa = ssa;
+	}
+
+	/**
+	 * Whether to write the intermediate representation instead of assembly
+	 * @param emitIr true to write the IR
+	 */
+	public void setEmitIr(boolean emitIr) {
+		this.emitIr = emitIr;
+	}
+
+	/**
+	 * Whether to optimize the intermediate representation
+	 * @param optimize false to generate code for the IR as lowered
+	 */
+	public void setOptimize(boolean optimize) {
+		this.optimize = optimize;
+	}
+
+	/**
+	 * Whether to use the recursive-descent parser
+	 * @param rdParser true for RdParser, false for the CUP parser
+	 */
+	public void setRdParser(boolean rdParser) {
+		this.rdParser = rdParser;
+	}
+
+	/**
+	 * Whether to use the flat representation of the AST
+	 * @param flat true for FlatAst, false for the ASTnode classes
+	 */
+	public void setFlat(boolean flat) {
+		this.flat = flat;
+	}
+
+	/**
+	 * Whether to fuse name analysis and type checking
+	 * @param fuse true for FusedChecker, false for NameAnalyzer and then
+	 *        TypeChecker
+	 */
+	public void setFuse(boolean fuse) {
+		this.fuse = fuse;
+	}
+
+	/**
+	 * File to write the checked AST to
+	 * @param path path to the file, or null not to write it
+	 */
+	public void setSavePath(String path) {
+		this.savePath = path;
+	}
+
+	/**
+	 * Whether the input file is a checked AST rather than source
+	 * @param load true to read the input with AstReader
+	 */
+	public void setLoad(boolean load) {
+		this.load = load;
+	}
+
+	/**
+	 * Number of errors after which a phase stops
+	 * @param maxErrors maximum number of errors, 0 for no limit
+	 */
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Directory of the compile cache
+	 * @param dir path to the directory, created if needed, or null for
+	 *            no cache
+	 */
+	public void setCacheDir(String dir) {
+		this.cacheDir = dir == null ? null : new File(dir);
+	}
+
+	/**
+	 * Diagnostics of the last call to {@link process}
+	 * @return the warnings and errors reported
+	 */
+	public Diagnostics getDiagnostics() {
+		return diags;
+	}
+
+	/**
+	 * Run the IR optimization passes on fn
+	 * @param fn function to optimize
+	 */
+	private void optimize(IrFunction fn) {
+		TailCalls.run(fn);
+		Lvn.run(fn);
+		Dce.run(fn);
+		Loops.run(fn);
+		Lvn.run(fn);
+		Dce.run(fn);
+		Branches.run(fn);
+		Dce.run(fn);
+	}
+
 	/**
 	 * Perform cleanup at the end of parsing. This should be called
 	 * after both good and bad input so that the files are all in a
@@ -125,38 +325,296 @@ public class P6 {
 
 	/** the parser will return a Symbol whose value
 	 * field is the translation of the root nonterminal
-	 * (i.e., of the nonterminal "program")
-	 * @return root of the CFG
+	 * (i.e., of the nonterminal "program"); RdParser returns
+	 * the translation itself
+	 * @return root of the AST, or null if the parse failed
 	 */
-	private Symbol parseCFG() {
+	private ProgramNode parseCFG() {
 		try {
-			parser P = new parser(new Yylex(inFile));
-			return P.parse();
+			Yylex scanner = new Yylex(inFile);
+			if (rdParser) {
+				return new RdParser(scanner).parse();
+			}
+			parser P = new parser(scanner);
+			Symbol root = P.parse();
+			return root == null ? null : (ProgramNode)root.value;
 		} catch (Exception e) {
 			return null;
 		}
 	}
 
+	/**
+	 * Compile the input file. The messages of the compilation are
+	 * collected in a new Diagnostics and printed once at the end.
+	 * @return RESULT_CORRECT or the error code of the failing phase
+	 */
 	public int process() {
-		Symbol cfgRoot = parseCFG();
+		diags = new Diagnostics(maxErrors);
+		ErrMsg.setDiagnostics(diags);
+		try {
+			// a cached result would not write the AST for -save
+			return cacheDir == null || savePath != null ? compile()
+				: compileCached();
+		} finally {
+			ErrMsg.setDiagnostics(null);
+			diags.flush(outStream);
+		}
+	}
+
+	/**
+	 * Compile the input file unless the cache has the result of an
+	 * identical compilation, and store the result otherwise
+	 * @return RESULT_CORRECT or the error code of the failing phase
+	 */
+	private int compileCached() {
+		byte[] source;
+		try {
+			source = java.nio.file.Files.readAllBytes(new File(inPath).toPath());
+		} catch (IOException e) {
+			return compile();
+		}
+		String options = "target=" + target + " ssa=" + ssa + " ir=" + emitIr
+			+ " opt=" + optimize + " maxerrs=" + maxErrors
+			+ " rd=" + rdParser + " flat=" + flat + " fuse=" + fuse
+			+ " load=" + load;
+		CompileCache cache = new CompileCache(cacheDir, DEFAULT_CACHE_SIZE);
+		String key = CompileCache.key(source, options);
+
+		CompileCache.Entry hit = cache.get(key);
+		if (hit != null) {
+			try {
+				for (Diagnostics.Entry e : hit.diagnostics()) {
+					diags.add(e);
+				}
+			} catch (TooManyErrorsException e) {
+				// the limit was reached by the last entry, as before
+			}
+			outFile.print(hit.output());
+			return hit.result();
+		}
 
-		ProgramNode astRoot = (ProgramNode)cfgRoot.value;
-		if (ErrMsg.getErr()) {
+		PrintWriter out = outFile;
+		StringWriter text = new StringWriter();
+		outFile = new PrintWriter(text);
+		int result;
+		try {
+			result = compile();
+		} finally {
+			outFile.flush();
+			outFile = out;
+		}
+		outFile.print(text);
+		cache.put(key, new CompileCache.Entry(result, diags.entries(),
+											  text.toString()));
+		return result;
+	}
+
+	/**
+	 * Key of the code for fn in the compile cache.  The IR of fn before
+	 * optimization shows all that its code depends on: the signatures of
+	 * the functions it calls (a void call has no result), the globals it
+	 * uses, and the strings it writes, whose labels are their indices in
+	 * the pool.
+	 * @param fn function, as lowered
+	 * @param pool string pool of the program
+	 * @return the key
+	 */
+	private String codeKey(IrFunction fn, Map<String, Integer> pool) {
+		StringWriter text = new StringWriter();
+		PrintWriter p = new PrintWriter(text);
+		fn.print(p);
+		for (IrBlock b : fn.blocks()) {
+			for (IrInstr instr : b.instrs()) {
+				for (int k = 0; k < instr.numSrcs(); k++) {
+					if (instr.src(k) instanceof IrStr) {
+						p.print(pool.get(((IrStr)instr.src(k)).literal()) + " ");
+					}
+				}
+			}
+		}
+		p.flush();
+		String options = "code target=" + target + " ssa=" + ssa
+			+ " opt=" + optimize;
+		return CompileCache.key(
+			text.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8),
+			options);
+	}
+
+	/**
+	 * Parse, check and lower the input with the ASTnode classes
+	 * @return RESULT_CORRECT or the error code of the failing phase
+	 */
+	private int frontEnd() {
+		if (load) {
+			try {
+				ir = new AstLower().lower(AstReader.load(inPath));
+				return P6.RESULT_CORRECT;
+			} catch (EOFException e) {
+				outStream.println("Could not load " + inPath
+								  + ": file is truncated or corrupt");
+				return P6.RESULT_OTHER_ERROR;
+			} catch (IOException e) {
+				outStream.println("Could not load " + inPath + ": "
+								  + e.getMessage());
+				return P6.RESULT_OTHER_ERROR;
+			}
+		}
+
+		ProgramNode astRoot = parseCFG();
+		if (astRoot == null || diags.hasErrors()) {
 			return P6.RESULT_SYNTAX_ERROR;
 		}
 
-		astRoot.nameAnalysis();	 // perform name analysis
-		if (ErrMsg.getErr()) {
+		FusedChecker checker = null;
+		try {
+			if (fuse) {
+				checker = new FusedChecker();
+				checker.run(astRoot);
+			} else {
+				new NameAnalyzer().run(astRoot);	// perform name analysis
+			}
+		} catch (TooManyErrorsException e) {
+			return P6.RESULT_NAME_ANALYSIS_ERROR;
+		}
+		if (diags.hasErrors()) {
 			return P6.RESULT_NAME_ANALYSIS_ERROR;
 		}
 
-		astRoot.typeCheck();
-		if (ErrMsg.getErr()) {
+		try {
+			if (fuse) {
+				diags.merge(checker.typeDiags());
+			} else {
+				new TypeChecker().run(astRoot);
+			}
+		} catch (TooManyErrorsException e) {
 			return P6.RESULT_TYPE_ERROR;
 		}
+		if (diags.hasErrors()) {
+			return P6.RESULT_TYPE_ERROR;
+		}
+
+		if (savePath != null) {
+			try {
+				AstWriter.save(astRoot, savePath);
+			} catch (IOException e) {
+				outStream.println("Could not write " + savePath);
+			}
+		}
+		ir = new AstLower().lower(astRoot);
+		return P6.RESULT_CORRECT;
+	}
+
+	/**
+	 * Parse, check and lower the input with FlatAst
+	 * @return RESULT_CORRECT or the error code of the failing phase
+	 */
+	private int flatFrontEnd() {
+		FlatAst ast;
+		try {
+			ast = new FlatParser(new Yylex(inFile)).parse();
+		} catch (Exception e) {
+			return P6.RESULT_SYNTAX_ERROR;
+		}
+		if (ast == null || diags.hasErrors()) {
+			return P6.RESULT_SYNTAX_ERROR;
+		}
+
+		FlatChecker checker = new FlatChecker(ast);
+		try {
+			checker.nameAnalysis();
+		} catch (TooManyErrorsException e) {
+			return P6.RESULT_NAME_ANALYSIS_ERROR;
+		}
+		if (diags.hasErrors()) {
+			return P6.RESULT_NAME_ANALYSIS_ERROR;
+		}
+
+		try {
+			checker.typeCheck();
+		} catch (TooManyErrorsException e) {
+			return P6.RESULT_TYPE_ERROR;
+		}
+		if (diags.hasErrors()) {
+			return P6.RESULT_TYPE_ERROR;
+		}
+
+		ir = new FlatLower(ast, checker).lower();
+		return P6.RESULT_CORRECT;
+	}
+
+	private int compile() {
+		// -save and -load work on the ASTnode classes only
+		int result = flat && savePath == null && !load ? flatFrontEnd()
+			: frontEnd();
+		if (result != P6.RESULT_CORRECT) {
+			return result;
+		}
 
 		//////////////////////////
-		astRoot.codeGen(this.outFile);
+		// with a cache, functions whose code is in it are neither
+		// optimized nor generated again; the string pool is made first,
+		// so that it does not depend on which functions are optimized
+		ir.strings();
+		List<IrFunction> fns = ir.functions();
+		List<String> code = new ArrayList<String>(
+			Collections.nCopies(fns.size(), (String)null));
+		List<String> keys = null;
+		CompileCache cache = null;
+		if (cacheDir != null && !emitIr) {
+			cache = new CompileCache(cacheDir, DEFAULT_CACHE_SIZE);
+			keys = new ArrayList<String>(fns.size());
+			for (int k = 0; k < fns.size(); k++) {
+				keys.add(codeKey(fns.get(k), ir.strings()));
+				CompileCache.Entry hit = cache.get(keys.get(k));
+				if (hit != null) {
+					code.set(k, hit.output());
+				}
+			}
+		}
+
+		for (int k = 0; k < fns.size(); k++) {
+			if (code.get(k) == null) {
+				if (optimize) {
+					optimize(fns.get(k));
+				}
+				if (ssa) {
+					Ssa.construct(fns.get(k));
+				}
+			}
+		}
+		if (emitIr) {
+			ir.print(this.outFile);
+			return P6.RESULT_CORRECT;
+		}
+		if (ssa) {
+			for (int k = 0; k < fns.size(); k++) {
+				if (code.get(k) == null) {
+					Ssa.destruct(fns.get(k));
+				}
+			}
+		}
+
+		BitSet missed = new BitSet();
+		for (int k = 0; k < fns.size(); k++) {
+			if (code.get(k) == null) {
+				missed.set(k);
+			}
+		}
+		if (target == TARGET_X86) {
+			new X86Backend().generate(ir, this.outFile, code);
+		} else {
+			new MipsBackend().generate(ir, this.outFile, code);
+		}
+		if (cache != null) {
+			Map<String, CompileCache.Entry> generated =
+				new HashMap<String, CompileCache.Entry>();
+			for (int k = missed.nextSetBit(0); k >= 0; k = missed.nextSetBit(k + 1)) {
+				generated.put(keys.get(k), new CompileCache.Entry(
+					P6.RESULT_CORRECT, new ArrayList<Diagnostics.Entry>(),
+					code.get(k)));
+			}
+			cache.putAll(generated);
+		}
 		//////////////////////////
 
 		return P6.RESULT_CORRECT;
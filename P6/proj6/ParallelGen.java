@@ -0,0 +1,68 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates code for the functions of a program concurrently, one task
+ * per function on the pool of Workers.  Each task writes into its
+ * own buffer; the buffers are returned in the order of the functions, so
+ * the output does not depend on how the tasks were scheduled.
+ */
+abstract class ParallelGen {
+    /**
+     * Return the code for fn, the index-th function of the program.
+     */
+    abstract protected String generate(IrFunction fn, int index);
+
+    public List<String> run(List<IrFunction> fns) {
+        List<String> code = new ArrayList<String>(fns.size());
+        for (int k = 0; k < fns.size(); k++) {
+            code.add(null);
+        }
+        fill(fns, code);
+        return code;
+    }
+
+    /**
+     * Set each null element k of code to the code for fns.get(k); the
+     * others are code generated earlier (see P6 -cache).
+     */
+    public void fill(List<IrFunction> fns, final List<String> code) {
+        List<Integer> todo = new ArrayList<Integer>();
+        for (int k = 0; k < fns.size(); k++) {
+            if (code.get(k) == null) {
+                todo.add(k);
+            }
+        }
+        if (todo.size() < 2) {
+            for (int k : todo) {
+                code.set(k, generate(fns.get(k), k));
+            }
+            return;
+        }
+
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        for (int k : todo) {
+            final IrFunction fn = fns.get(k);
+            final int index = k;
+            tasks.add(new Callable<String>() {
+                public String call() {
+                    return generate(fn, index);
+                }
+            });
+        }
+        try {
+            List<Future<String>> results =
+                Workers.pool().invokeAll(tasks);
+            for (int j = 0; j < todo.size(); j++) {
+                code.set(todo.get(j), results.get(j).get());
+            }
+        } catch (InterruptedException ex) {
+            System.err.println("unexpected InterruptedException in ParallelGen.fill");
+            System.exit(-1);
+        } catch (ExecutionException ex) {
+            System.err.println("unexpected exception in ParallelGen.fill: " +
+                               ex.getCause());
+            System.exit(-1);
+        }
+    }
+}
@@ -0,0 +1,695 @@
+import java.util.*;
+
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * RdParser
+ *
+ * A hand-written recursive-descent parser for Gibberish, an alternative to
+ * the table-driven parser that CUP generates from Gibberish.cup (P6 -rd
+ * selects it).  It reads the same tokens and builds the same ProgramNode.
+ * Expressions are parsed by precedence climbing (Pratt style), with the
+ * precedences and associativities declared in Gibberish.cup:
+ *
+ *     =                  right, lowest
+ *     ||                 left
+ *     &&                 left
+ *     == != < > <= >=    nonassoc
+ *     + -                left
+ *     * /                left
+ *     !                  right, highest (unary minus applies to a term)
+ *
+ * An assignment is an expression whose left side is a location, and its
+ * right side extends as far as possible: a + b = c * d is a + (b = c * d).
+ *
+ * The procedures for nested blocks and expressions do not call each other
+ * recursively: the blocks being parsed and the pending parts of an
+ * expression are kept on stacks of the parser (see fnBody and exp), so
+ * that however deeply a program nests, the Java stack does not grow.
+ *
+ * Syntax errors are reported and recovered from as by the CUP parser.
+ * CUP recovers in the innermost statement list on its stack (with
+ * stmt ::= error SEMICOLON) or else in the list of declarations (with
+ * decl ::= error SEMICOLON | error RCURLY), and then skips to the ';' (or
+ * '}') that ends the error.  Its stack still has the list of a block it
+ * finds an error in, even after the '}' of the block, until the token
+ * after the '}' shows that the block is complete (see follows); it does
+ * not have the list before the first statement of the block (see open),
+ * nor before the first declaration of the file, where CUP gives up.  CUP
+ * then parses the ';' and the 2 tokens after it ahead on a copy of its
+ * stack, and skips on to the next ';' if they have an error; this parser
+ * instead reports no error until those 3 tokens have been read, and
+ * recovers from it in its innermost block.  That comes to the same, as
+ * the tokens are too few to open a block, and an error after a '}' among
+ * them is found (by follows) before the block is closed.
+ */
+class RdParser {
+    private static final int ASSIGN_PREC = 0;
+    private static final int CMP_PREC = 3;
+    private static final int NOT_PREC = 6;
+    private static final int ERROR_SYNC_SIZE = 3;
+
+    // the kind of the block of a function body (see Block)
+    private static final int FN_BODY = -1;
+
+    // continuations of the expression parser (see exp)
+    private static final int LOOP = 0;          // the loop of exp(minPrec)
+    private static final int RIGHT = 1;         // right operand of an operator
+    private static final int NOT_OPERAND = 2;
+    private static final int NEG_OPERAND = 3;
+    private static final int ASSIGN_RIGHT = 4;  // right side of an =
+    private static final int PAREN = 5;         // expression in ( )
+    private static final int ARG = 6;           // arg of a call
+
+    /**
+     * Thrown to unwind to the enclosing statement or declaration after a
+     * syntax error has been reported.
+     */
+    private static class SyntaxError extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public RdParser(Scanner scanner) {
+        myScanner = scanner;
+    }
+
+    /**
+     * Parse the whole input and return its AST.
+     */
+    public ProgramNode parse() throws Exception {
+        advance();
+        if (!isType(myTok.sym) && myTok.sym != sym.STRUCT
+            && myTok.sym != sym.EOF) {
+            throw error();      // CUP cannot recover before the first decl
+        }
+        ArrayList<DeclNode> decls = new ArrayList<DeclNode>();
+        while (myTok.sym != sym.EOF) {
+            DeclNode d = decl();
+            if (d != null) {
+                decls.add(d);
+            }
+        }
+        return new ProgramNode(new DeclListNode(decls));
+    }
+
+    // **********************************************************************
+    // declarations
+    // **********************************************************************
+    private DeclNode decl() throws Exception {
+        try {
+            if (myTok.sym == sym.STRUCT) {
+                advance();
+                IdNode name = id();
+                if (myTok.sym == sym.LCURLY) {
+                    advance();
+                    ArrayList<DeclNode> body = new ArrayList<DeclNode>();
+                    do {
+                        body.add(varDecl());
+                    } while (myTok.sym != sym.RCURLY);
+                    advance();
+                    expect(sym.SEMICOLON);
+                    return new StructDeclNode(name, new DeclListNode(body));
+                }
+                IdNode i = id();
+                expect(sym.SEMICOLON);
+                return new VarDeclNode(new StructNode(name), i, 0);
+            }
+
+            TypeNode t = type();
+            IdNode i = id();
+            if (myTok.sym == sym.SEMICOLON) {
+                advance();
+                return new VarDeclNode(t, i, VarDeclNode.NOT_STRUCT);
+            }
+            ArrayList<FormalDeclNode> formals = formals();
+            FnBodyNode body = fnBody();
+            return new FnDeclNode(t, i, new FormalsListNode(formals), body);
+        } catch (SyntaxError ex) {
+            skipPast(sym.SEMICOLON, sym.RCURLY);
+            return null;
+        }
+    }
+
+    private VarDeclNode varDecl() throws Exception {
+        if (myTok.sym == sym.STRUCT) {
+            advance();
+            IdNode t = id();
+            IdNode i = id();
+            expect(sym.SEMICOLON);
+            return new VarDeclNode(new StructNode(t), i, 0);
+        }
+        TypeNode t = type();
+        IdNode i = id();
+        expect(sym.SEMICOLON);
+        return new VarDeclNode(t, i, VarDeclNode.NOT_STRUCT);
+    }
+
+    private ArrayList<DeclNode> varDeclList() throws Exception {
+        ArrayList<DeclNode> list = new ArrayList<DeclNode>();
+        while (isType(myTok.sym) || myTok.sym == sym.STRUCT) {
+            list.add(varDecl());
+        }
+        return list;
+    }
+
+    private ArrayList<FormalDeclNode> formals() throws Exception {
+        expect(sym.LPAREN);
+        ArrayList<FormalDeclNode> list = new ArrayList<FormalDeclNode>();
+        if (myTok.sym != sym.RPAREN) {
+            list.add(new FormalDeclNode(type(), id()));
+            while (myTok.sym == sym.COMMA) {
+                advance();
+                list.add(new FormalDeclNode(type(), id()));
+            }
+        }
+        expect(sym.RPAREN);
+        return list;
+    }
+
+    private static boolean isType(int kind) {
+        return kind == sym.INT || kind == sym.BOOL || kind == sym.VOID;
+    }
+
+    private static boolean isStmtStart(int kind) {
+        return kind == sym.CIN || kind == sym.COUT || kind == sym.IF
+            || kind == sym.WHILE || kind == sym.REPEAT || kind == sym.RETURN
+            || kind == sym.ID;
+    }
+
+    private TypeNode type() throws Exception {
+        switch (myTok.sym) {
+        case sym.INT:   advance(); return new IntNode();
+        case sym.BOOL:  advance(); return new BoolNode();
+        case sym.VOID:  advance(); return new VoidNode();
+        default:        throw error();
+        }
+    }
+
+    // **********************************************************************
+    // statements
+    // **********************************************************************
+
+    /**
+     * Parse the body of a function, from its '{'.  The blocks nested in
+     * it are not parsed recursively: each block being parsed is on the
+     * stack myBlocks, with the statements parsed so far, and its '}' pops
+     * it off as a statement of the enclosing block.  A syntax error in a
+     * statement is recovered from in the innermost block (see recover).
+     */
+    private FnBodyNode fnBody() throws Exception {
+        myBlocks.clear();
+        myBlocks.add(open(FN_BODY, null));
+        while (true) {
+            Block b = myBlocks.get(myBlocks.size() - 1);
+            try {
+                if (myTok.sym != sym.RCURLY) {
+                    stmt(b);
+                    continue;
+                }
+                advance();
+                if (!follows(b)) {
+                    throw error();
+                }
+                if (b.kind == sym.IF && myTok.sym == sym.ELSE) {
+                    // an error before the first statement of the else
+                    // is recovered from in the then part, which CUP
+                    // still has on its stack
+                    advance();
+                    Block e = open(sym.ELSE, b.exp);
+                    e.thenDecls = b.decls;
+                    e.thenStmts = b.stmts;
+                    myBlocks.set(myBlocks.size() - 1, e);
+                    continue;
+                }
+                myBlocks.remove(myBlocks.size() - 1);
+                if (b.kind == FN_BODY) {
+                    return new FnBodyNode(new DeclListNode(b.decls),
+                                          new StmtListNode(b.stmts));
+                } else {
+                    myBlocks.get(myBlocks.size() - 1).stmts.add(b.stmt());
+                }
+            } catch (SyntaxError ex) {
+                recover();
+            }
+        }
+    }
+
+    // a block being parsed: the body of a function or of a statement
+    private static class Block {
+        public Block(int kind, ExpNode exp, ArrayList<DeclNode> decls) {
+            this.kind = kind;
+            this.exp = exp;
+            this.decls = decls;
+            this.stmts = new ArrayList<StmtNode>();
+        }
+
+        // the statement of the block, once it is complete
+        public StmtNode stmt() {
+            switch (kind) {
+            case sym.IF:
+                return new IfStmtNode(exp, new DeclListNode(decls),
+                                      new StmtListNode(stmts));
+            case sym.ELSE:
+                return new IfElseStmtNode(exp,
+                                new DeclListNode(thenDecls), new StmtListNode(thenStmts),
+                                new DeclListNode(decls), new StmtListNode(stmts));
+            case sym.WHILE:
+                return new WhileStmtNode(exp, new DeclListNode(decls),
+                                         new StmtListNode(stmts));
+            default:
+                return new RepeatStmtNode(exp, new DeclListNode(decls),
+                                          new StmtListNode(stmts));
+            }
+        }
+
+        public final int kind;      // FN_BODY, or IF, ELSE, WHILE or REPEAT
+        public final ExpNode exp;   // the condition
+        public final ArrayList<DeclNode> decls;
+        public final ArrayList<StmtNode> stmts;
+        public ArrayList<DeclNode> thenDecls;   // of an if with an else
+        public ArrayList<StmtNode> thenStmts;
+    }
+
+    // { varDeclList, which opens a block of kind with condition exp; as
+    // with CUP, a syntax error before the first statement of the block is
+    // recovered from in the enclosing one
+    private Block open(int kind, ExpNode exp) throws Exception {
+        expect(sym.LCURLY);
+        Block b = new Block(kind, exp, varDeclList());
+        if (!isStmtStart(myTok.sym) && myTok.sym != sym.RCURLY) {
+            throw error();
+        }
+        return b;
+    }
+
+    // whether the token after the '}' of block b may follow it; if not,
+    // CUP finds the error before it reduces the block, and so recovers
+    // from it in the block, as though the '}' were a part of the error
+    private boolean follows(Block b) {
+        int kind = myTok.sym;
+        if (b.kind == FN_BODY) {
+            return isType(kind) || kind == sym.STRUCT || kind == sym.EOF;
+        }
+        return isStmtStart(kind) || kind == sym.RCURLY
+            || (b.kind == sym.IF && kind == sym.ELSE);
+    }
+
+    // recover from a syntax error in a statement of the innermost block,
+    // as CUP does with stmt ::= error SEMICOLON; at the end of the file,
+    // give up on the function
+    private void recover() throws Exception {
+        skipPast(sym.SEMICOLON, sym.SEMICOLON);
+        if (myTok.sym == sym.EOF) {
+            throw new SyntaxError();
+        }
+    }
+
+    // parse a statement of block b: a simple statement is added to b, and
+    // a compound one opens a block of its own
+    private void stmt(Block b) throws Exception {
+        ExpNode e;
+        StmtNode s;
+        switch (myTok.sym) {
+        case sym.CIN:
+            advance();
+            expect(sym.READ);
+            s = new ReadStmtNode(loc(id()));
+            break;
+
+        case sym.COUT:
+            advance();
+            expect(sym.WRITE);
+            s = new WriteStmtNode(exp());
+            break;
+
+        case sym.IF:
+        case sym.WHILE:
+        case sym.REPEAT:
+            int kind = myTok.sym;
+            advance();
+            e = condition();
+            myBlocks.add(open(kind, e));
+            return;
+
+        case sym.RETURN:
+            advance();
+            e = null;
+            if (myTok.sym != sym.SEMICOLON) {
+                e = exp();
+            }
+            s = new ReturnStmtNode(e);
+            break;
+
+        case sym.ID: {
+            IdNode i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                s = new CallStmtNode((CallExpNode)exp(i));
+                break;
+            }
+            ExpNode lc = loc(i);
+            if (myTok.sym == sym.PLUSPLUS) {
+                advance();
+                s = new PostIncStmtNode(lc);
+            } else if (myTok.sym == sym.MINUSMINUS) {
+                advance();
+                s = new PostDecStmtNode(lc);
+            } else {
+                expect(sym.ASSIGN);
+                s = new AssignStmtNode(new AssignNode(lc, exp()));
+            }
+            break;
+        }
+
+        default:
+            throw error();
+        }
+        expect(sym.SEMICOLON);
+        b.stmts.add(s);
+    }
+
+    // ( exp )
+    private ExpNode condition() throws Exception {
+        expect(sym.LPAREN);
+        ExpNode e = exp();
+        expect(sym.RPAREN);
+        return e;
+    }
+
+    // **********************************************************************
+    // expressions
+    // **********************************************************************
+
+    /**
+     * Parse an expression by precedence climbing.  The procedures of the
+     * climb (exp(minPrec), prefix and term) do not call each other: where
+     * one would parse a nested expression, it pushes what it does with the
+     * result (one of the continuations below, with its arguments) on
+     * myConts and returns null; the loop here then parses the nested
+     * expression and passes its result to the continuation on top.  The
+     * operands waiting for their operator are kept on myValues.
+     */
+    private ExpNode exp() throws Exception {
+        return exp(null);
+    }
+
+    // the expression, or the call of fn if it is not null (after its '(')
+    private ExpNode exp(IdNode fn) throws Exception {
+        myContTop = 0;
+        myValues.clear();
+        ExpNode e;
+        if (fn == null) {
+            pushCont(LOOP, ASSIGN_PREC, 0);
+            e = prefix();
+        } else {
+            e = args(fn);
+        }
+        while (true) {
+            if (e == null) {
+                e = prefix();
+                continue;
+            }
+            if (myContTop == 0) {
+                return e;
+            }
+            myContTop -= 3;
+            int arg1 = myConts[myContTop + 1];
+            int arg2 = myConts[myContTop + 2];
+            switch (myConts[myContTop]) {
+            case LOOP:              // exp(arg1), with compared = arg2 == 1
+                int kind = myTok.sym;
+                int prec = precedence(kind);
+                if (prec < 0 || prec < arg1) {
+                    break;
+                }
+                if (prec == CMP_PREC && arg2 == 1) {
+                    throw error();  // comparisons are nonassociative
+                }
+                advance();
+                myValues.add(e);
+                pushCont(RIGHT, kind, arg1);
+                pushCont(LOOP, prec + 1, 0);
+                e = null;
+                break;
+
+            case RIGHT:             // of operator arg1 in exp(arg2)
+                e = binary(arg1, popValue(), e);
+                pushCont(LOOP, arg2, precedence(arg1) == CMP_PREC ? 1 : 0);
+                break;
+
+            case NOT_OPERAND:
+                e = new NotNode(e);
+                break;
+
+            case NEG_OPERAND:
+                e = new UnaryMinusNode(e);
+                break;
+
+            case ASSIGN_RIGHT:
+                e = new AssignNode(popValue(), e);
+                break;
+
+            case PAREN:
+                expect(sym.RPAREN);
+                break;
+
+            case ARG:               // arg arg1 of the call
+                myValues.add(e);
+                e = null;
+                if (myTok.sym == sym.COMMA) {
+                    advance();
+                    pushCont(ARG, arg1 + 1, 0);
+                    pushCont(LOOP, ASSIGN_PREC, 0);
+                    break;
+                }
+                expect(sym.RPAREN);
+                List<ExpNode> args =
+                    myValues.subList(myValues.size() - arg1 - 1, myValues.size());
+                ArrayList<ExpNode> list = new ArrayList<ExpNode>(args);
+                args.clear();
+                e = new CallExpNode((IdNode)popValue(), new ExpListNode(list));
+                break;
+            }
+        }
+    }
+
+    // an operand of a binary operator: a term, possibly with a unary
+    // operator, or an assignment
+    private ExpNode prefix() throws Exception {
+        switch (myTok.sym) {
+        case sym.NOT:
+            advance();
+            pushCont(NOT_OPERAND, 0, 0);
+            pushCont(LOOP, NOT_PREC, 0);
+            return null;
+
+        case sym.MINUS:
+            advance();
+            pushCont(NEG_OPERAND, 0, 0);
+            return term();
+
+        case sym.ID: {
+            IdNode i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                return args(i);
+            }
+            ExpNode lc = loc(i);
+            if (myTok.sym == sym.ASSIGN) {
+                advance();
+                myValues.add(lc);
+                pushCont(ASSIGN_RIGHT, 0, 0);
+                pushCont(LOOP, ASSIGN_PREC, 0);
+                return null;
+            }
+            return lc;
+        }
+
+        default:
+            return term();
+        }
+    }
+
+    private ExpNode term() throws Exception {
+        Symbol tok = myTok;
+        switch (tok.sym) {
+        case sym.INTLITERAL: {
+            advance();
+            IntLitTokenVal v = (IntLitTokenVal)tok.value;
+            return new IntLitNode(v.linenum, v.charnum, v.intVal);
+        }
+
+        case sym.STRINGLITERAL: {
+            advance();
+            StrLitTokenVal v = (StrLitTokenVal)tok.value;
+            return new StringLitNode(v.linenum, v.charnum, v.strVal);
+        }
+
+        case sym.TRUE: {
+            advance();
+            TokenVal v = (TokenVal)tok.value;
+            return new TrueNode(v.linenum, v.charnum);
+        }
+
+        case sym.FALSE: {
+            advance();
+            TokenVal v = (TokenVal)tok.value;
+            return new FalseNode(v.linenum, v.charnum);
+        }
+
+        case sym.LPAREN:
+            advance();
+            pushCont(PAREN, 0, 0);
+            pushCont(LOOP, ASSIGN_PREC, 0);
+            return null;
+
+        case sym.ID: {
+            IdNode i = id();
+            if (myTok.sym == sym.LPAREN) {
+                advance();
+                return args(i);
+            }
+            return loc(i);
+        }
+
+        default:
+            throw error();
+        }
+    }
+
+    // the args of a call of i, after the '('
+    private ExpNode args(IdNode i) throws Exception {
+        if (myTok.sym == sym.RPAREN) {
+            advance();
+            return new CallExpNode(i, new ExpListNode(new ArrayList<ExpNode>()));
+        }
+        myValues.add(i);
+        pushCont(ARG, 0, 0);
+        pushCont(LOOP, ASSIGN_PREC, 0);
+        return null;
+    }
+
+    private void pushCont(int cont, int arg1, int arg2) {
+        if (myContTop + 3 > myConts.length) {
+            myConts = Arrays.copyOf(myConts, 2 * myConts.length);
+        }
+        myConts[myContTop++] = cont;
+        myConts[myContTop++] = arg1;
+        myConts[myContTop++] = arg2;
+    }
+
+    private ExpNode popValue() {
+        return myValues.remove(myValues.size() - 1);
+    }
+
+    // the location starting with i
+    private ExpNode loc(IdNode i) throws Exception {
+        ExpNode lc = i;
+        while (myTok.sym == sym.DOT) {
+            advance();
+            lc = new DotAccessExpNode(lc, id());
+        }
+        return lc;
+    }
+
+    private IdNode id() throws Exception {
+        Symbol tok = expect(sym.ID);
+        IdTokenVal v = (IdTokenVal)tok.value;
+        return new IdNode(v.linenum, v.charnum, v.idVal);
+    }
+
+    // precedence of a binary operator, or -1
+    private static int precedence(int kind) {
+        switch (kind) {
+        case sym.OR:            return 1;
+        case sym.AND:           return 2;
+        case sym.EQUALS:
+        case sym.NOTEQUALS:
+        case sym.LESS:
+        case sym.GREATER:
+        case sym.LESSEQ:
+        case sym.GREATEREQ:     return CMP_PREC;
+        case sym.PLUS:
+        case sym.MINUS:         return 4;
+        case sym.TIMES:
+        case sym.DIVIDE:        return 5;
+        default:                return -1;
+        }
+    }
+
+    private static ExpNode binary(int kind, ExpNode e1, ExpNode e2) {
+        switch (kind) {
+        case sym.OR:            return new OrNode(e1, e2);
+        case sym.AND:           return new AndNode(e1, e2);
+        case sym.EQUALS:        return new EqualsNode(e1, e2);
+        case sym.NOTEQUALS:     return new NotEqualsNode(e1, e2);
+        case sym.LESS:          return new LessNode(e1, e2);
+        case sym.GREATER:       return new GreaterNode(e1, e2);
+        case sym.LESSEQ:        return new LessEqNode(e1, e2);
+        case sym.GREATEREQ:     return new GreaterEqNode(e1, e2);
+        case sym.PLUS:          return new PlusNode(e1, e2);
+        case sym.MINUS:         return new MinusNode(e1, e2);
+        case sym.TIMES:         return new TimesNode(e1, e2);
+        case sym.DIVIDE:        return new DivideNode(e1, e2);
+        default:
+            System.err.println("unexpected operator in RdParser.binary");
+            System.exit(-1);
+            return null;
+        }
+    }
+
+    // **********************************************************************
+    // tokens and errors
+    // **********************************************************************
+    private void advance() throws Exception {
+        myTok = myScanner.next_token();
+        if (myQuiet > 0) {
+            myQuiet--;
+        }
+    }
+
+    private Symbol expect(int kind) throws Exception {
+        if (myTok.sym != kind) {
+            throw error();
+        }
+        Symbol tok = myTok;
+        advance();
+        return tok;
+    }
+
+    // report a syntax error at the current token
+    private SyntaxError error() {
+        if (myQuiet == 0) {
+            if (myTok.value == null) {
+                ErrMsg.fatal(0,0, "Syntax error at end of file");
+            } else {
+                ErrMsg.fatal(((TokenVal)myTok.value).linenum,
+                             ((TokenVal)myTok.value).charnum,
+                             "Syntax error");
+            }
+        }
+        return new SyntaxError();
+    }
+
+    // skip the tokens up to and including the next one of kind end1 or
+    // end2 (or up to the end of the file)
+    private void skipPast(int end1, int end2) throws Exception {
+        while (myTok.sym != end1 && myTok.sym != end2
+               && myTok.sym != sym.EOF) {
+            advance();
+        }
+        if (myTok.sym != sym.EOF) {
+            advance();
+        }
+        myQuiet = ERROR_SYNC_SIZE - 1;  // with the token skipped past
+    }
+
+    private Scanner myScanner;
+    private Symbol myTok;       // current token
+    private int myQuiet;        // tokens to read before reporting errors
+    private ArrayList<Block> myBlocks = new ArrayList<Block>();
+    private int[] myConts = new int[48];    // continuations and their args
+    private int myContTop;
+    private ArrayList<ExpNode> myValues = new ArrayList<ExpNode>();
+}
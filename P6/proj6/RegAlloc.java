@@ -0,0 +1,175 @@
+import java.util.*;
+
+/**
+ * Linear-scan register allocation (Poletto and Sarkar) of the virtual
+ * registers of an IrFunction that is not in SSA form.
+ *
+ * The backend provides two pools of machine registers, numbered
+ * 0 .. numCalleeSaved-1 (preserved across calls) and numCalleeSaved ..
+ * numCalleeSaved+numCallerSaved-1 (clobbered by the instructions in
+ * clobbers).  Each virtual register gets a single live range covering
+ * every point where it is live, in block layout order.  Ranges that
+ * contain a clobbering instruction may only use callee-saved registers.
+ * When no register is free, the range ending last is spilled; the backend
+ * keeps spilled registers in the frame.
+ *
+ * A range ending at an instruction may share its register with a range
+ * starting there: backends read all the operands of an instruction before
+ * writing its result.
+ */
+class RegAlloc {
+    public RegAlloc(IrFunction fn, int numCalleeSaved, int numCallerSaved,
+                    EnumSet<IrOp> clobbers) {
+        myNumCalleeSaved = numCalleeSaved;
+        int n = fn.numRegs();
+        int[] start = new int[n];
+        int[] end = new int[n];
+        Arrays.fill(start, Integer.MAX_VALUE);
+        Arrays.fill(end, -1);
+        myReg = new int[n];
+        Arrays.fill(myReg, -1);
+        mySpilled = new BitSet();
+        myUsed = new BitSet();
+
+        // live ranges
+        Liveness live = new Liveness(fn);
+        List<Integer> calls = new ArrayList<Integer>();
+        int pos = 0;
+        for (IrBlock b : fn.blocks()) {
+            // values live across the block boundary are live at the odd
+            // positions just before its first and after its last instruction
+            int from = pos - 1;
+            int to = pos + 2 * b.instrs().size() - 1;
+            BitSet in = live.liveIn(b);
+            for (int v = in.nextSetBit(0); v >= 0; v = in.nextSetBit(v + 1)) {
+                start[v] = Math.min(start[v], from);
+                end[v] = Math.max(end[v], from);
+            }
+            BitSet out = live.liveOut(b);
+            for (int v = out.nextSetBit(0); v >= 0; v = out.nextSetBit(v + 1)) {
+                start[v] = Math.min(start[v], to);
+                end[v] = Math.max(end[v], to);
+            }
+            for (IrInstr instr : b.instrs()) {
+                for (IrReg r : instr.uses()) {
+                    start[r.num()] = Math.min(start[r.num()], pos);
+                    end[r.num()] = Math.max(end[r.num()], pos);
+                }
+                if (instr.dst() != null) {
+                    int v = instr.dst().num();
+                    start[v] = Math.min(start[v], pos);
+                    end[v] = Math.max(end[v], pos);
+                }
+                if (clobbers.contains(instr.op())) {
+                    calls.add(pos);
+                }
+                pos += 2;
+            }
+        }
+        for (IrReg r : fn.params()) {   // defined on entry
+            if (end[r.num()] >= 0) {
+                start[r.num()] = -2;
+            }
+        }
+
+        // scan ranges by increasing start
+        List<Integer> order = new ArrayList<Integer>();
+        for (int v = 0; v < n; v++) {
+            if (start[v] != Integer.MAX_VALUE) {
+                order.add(v);
+            }
+        }
+        final int[] s = start;
+        Collections.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return s[a] != s[b] ? Integer.compare(s[a], s[b])
+                                    : Integer.compare(a, b);
+            }
+        });
+
+        int numRegs = numCalleeSaved + numCallerSaved;
+        int[] owner = new int[numRegs];
+        Arrays.fill(owner, -1);
+        List<Integer> active = new ArrayList<Integer>();
+        for (int v : order) {
+            for (Iterator<Integer> it = active.iterator(); it.hasNext(); ) {
+                int a = it.next();
+                if (end[a] <= start[v]) {
+                    owner[myReg[a]] = -1;
+                    it.remove();
+                }
+            }
+
+            boolean crosses = false;
+            for (int c : calls) {
+                if (start[v] < c && c < end[v]) {
+                    crosses = true;
+                    break;
+                }
+            }
+            int limit = crosses ? numCalleeSaved : numRegs;
+
+            int reg = -1;
+            for (int k = numCalleeSaved; k < limit && reg < 0; k++) {
+                if (owner[k] < 0) {
+                    reg = k;
+                }
+            }
+            for (int k = 0; k < numCalleeSaved && reg < 0; k++) {
+                if (owner[k] < 0) {
+                    reg = k;
+                }
+            }
+
+            if (reg < 0) {
+                int victim = -1;
+                for (int a : active) {
+                    if (myReg[a] < limit && (victim < 0 || end[a] > end[victim])) {
+                        victim = a;
+                    }
+                }
+                if (victim < 0 || end[victim] <= end[v]) {
+                    mySpilled.set(v);
+                    continue;
+                }
+                reg = myReg[victim];
+                myReg[victim] = -1;
+                mySpilled.set(victim);
+                active.remove(Integer.valueOf(victim));
+            }
+
+            myReg[v] = reg;
+            owner[reg] = v;
+            myUsed.set(reg);
+            active.add(v);
+        }
+    }
+
+    /**
+     * Return the machine register assigned to r, or -1 if r was spilled
+     * (or is never used).
+     */
+    public int reg(IrReg r) {
+        return myReg[r.num()];
+    }
+
+    public boolean isSpilled(IrReg r) {
+        return mySpilled.get(r.num());
+    }
+
+    public boolean isCalleeSaved(int reg) {
+        return reg < myNumCalleeSaved;
+    }
+
+    /**
+     * Return the machine registers assigned to at least one range.
+     */
+    public BitSet usedRegs() {
+        return myUsed;
+    }
+
+    private int myNumCalleeSaved;
+    private int[] myReg;
+    private BitSet mySpilled;
+    private BitSet myUsed;
+}
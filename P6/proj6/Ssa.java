@@ -0,0 +1,171 @@
+import java.util.*;
+
+/**
+ * Conversion of an IrFunction into and out of (pruned) SSA form.
+ *
+ * construct places PHI instructions at the iterated dominance frontier of
+ * every register's definitions, wherever the register is live, and then
+ * renames every definition to a fresh register while walking the
+ * dominator tree (Cytron et al.).  Uses with no reaching definition (an
+ * uninitialized local) are replaced by 0.
+ *
+ * destruct replaces each PHI with copies at the end of its predecessors,
+ * after splitting critical edges.  Each PHI goes through its own fresh
+ * register, so the result is correct even after optimizations have
+ * coalesced SSA registers.
+ */
+class Ssa {
+    public static void construct(IrFunction fn) {
+        Dominators dom = new Dominators(fn);
+        Liveness live = new Liveness(fn);
+        Map<IrBlock, Set<IrBlock>> df = dom.frontiers();
+        int numVars = fn.numRegs();
+
+        // blocks defining each register; parameters are defined on entry
+        List<Set<IrBlock>> defSites = new ArrayList<Set<IrBlock>>(numVars);
+        for (int k = 0; k < numVars; k++) {
+            defSites.add(new LinkedHashSet<IrBlock>());
+        }
+        for (IrReg r : fn.params()) {
+            defSites.get(r.num()).add(fn.entry());
+        }
+        for (IrBlock b : fn.blocks()) {
+            for (IrInstr instr : b.instrs()) {
+                if (instr.dst() != null) {
+                    defSites.get(instr.dst().num()).add(b);
+                }
+            }
+        }
+
+        // place phis
+        Map<IrInstr, Integer> phiVar = new HashMap<IrInstr, Integer>();
+        for (int v = 0; v < numVars; v++) {
+            Set<IrBlock> hasPhi = new HashSet<IrBlock>();
+            Deque<IrBlock> work = new ArrayDeque<IrBlock>(defSites.get(v));
+            while (!work.isEmpty()) {
+                IrBlock d = work.pop();
+                for (IrBlock f : df.get(d)) {
+                    if (hasPhi.contains(f) || !live.liveIn(f).get(v)) {
+                        continue;
+                    }
+                    IrValue[] srcs = new IrValue[f.preds().size()];
+                    Arrays.fill(srcs, new IrReg(v));
+                    IrInstr phi = new IrInstr(IrOp.PHI, new IrReg(v), srcs);
+                    f.instrs().add(0, phi);
+                    phiVar.put(phi, v);
+                    hasPhi.add(f);
+                    if (!defSites.get(v).contains(f)) {
+                        work.push(f);
+                    }
+                }
+            }
+        }
+
+        // rename, walking the dominator tree with an explicit stack
+        List<Deque<IrValue>> names = new ArrayList<Deque<IrValue>>(numVars);
+        for (int k = 0; k < numVars; k++) {
+            names.add(new ArrayDeque<IrValue>());
+        }
+        for (IrReg r : fn.params()) {
+            names.get(r.num()).push(r);
+        }
+
+        Deque<IrBlock> stack = new LinkedList<IrBlock>();   // allows null
+        Deque<List<Integer>> pushed = new ArrayDeque<List<Integer>>();
+        stack.push(fn.entry());
+        while (!stack.isEmpty()) {
+            IrBlock b = stack.pop();
+            if (b == null) {    // all of the block's subtree is done
+                for (int v : pushed.pop()) {
+                    names.get(v).pop();
+                }
+                continue;
+            }
+
+            List<Integer> defs = new ArrayList<Integer>();
+            for (IrInstr instr : b.instrs()) {
+                if (instr.op() != IrOp.PHI) {
+                    for (int k = 0; k < instr.numSrcs(); k++) {
+                        IrValue v = instr.src(k);
+                        if (v.isReg()) {
+                            instr.setSrc(k, current(names, ((IrReg)v).num()));
+                        }
+                    }
+                }
+                if (instr.dst() != null) {
+                    int v = instr.dst().num();
+                    IrReg r = fn.newReg();
+                    instr.setDst(r);
+                    names.get(v).push(r);
+                    defs.add(v);
+                }
+            }
+            for (IrBlock s : b.succs()) {
+                int k = s.preds().indexOf(b);
+                for (IrInstr instr : s.instrs()) {
+                    if (instr.op() != IrOp.PHI) {
+                        break;
+                    }
+                    instr.setSrc(k, current(names, phiVar.get(instr)));
+                }
+            }
+
+            pushed.push(defs);
+            stack.push(null);
+            for (IrBlock c : dom.children(b)) {
+                stack.push(c);
+            }
+        }
+    }
+
+    private static IrValue current(List<Deque<IrValue>> names, int v) {
+        IrValue top = names.get(v).peek();
+        return top != null ? top : new IrConst(0);
+    }
+
+    public static void destruct(IrFunction fn) {
+        // split the critical edges leading to blocks with phis
+        List<IrBlock> blocks = new ArrayList<IrBlock>(fn.blocks());
+        for (IrBlock b : blocks) {
+            if (b.instrs().get(0).op() != IrOp.PHI) {
+                continue;
+            }
+            for (int k = 0; k < b.preds().size(); k++) {
+                IrBlock p = b.preds().get(k);
+                if (p.succs().size() < 2) {
+                    continue;
+                }
+                IrBlock mid = fn.newBlock();
+                IrInstr jump = new IrInstr(IrOp.JUMP, null);
+                jump.setTargets(b);
+                mid.instrs().add(jump);
+                IrInstr term = p.terminator();
+                for (int j = 0; j < term.numTargets(); j++) {
+                    if (term.target(j) == b) {
+                        term.setTarget(j, mid);
+                    }
+                }
+                fn.blocks().add(fn.blocks().indexOf(p) + 1, mid);
+                p.succs().set(p.succs().indexOf(b), mid);
+                mid.preds().add(p);
+                mid.succs().add(b);
+                b.preds().set(k, mid);
+            }
+        }
+
+        // replace phis with copies
+        for (IrBlock b : fn.blocks()) {
+            List<IrInstr> instrs = b.instrs();
+            for (int i = 0; i < instrs.size() && instrs.get(i).op() == IrOp.PHI; i++) {
+                IrInstr phi = instrs.get(i);
+                IrReg tmp = fn.newReg();
+                for (int k = 0; k < b.preds().size(); k++) {
+                    b.preds().get(k).insertBeforeTerminator(
+                        new IrInstr(IrOp.COPY, tmp, phi.src(k)));
+                }
+                instrs.set(i, new IrInstr(IrOp.COPY, phi.dst(), tmp));
+            }
+        }
+        fn.computeCfg();
+    }
+}
@@ -4,12 +4,31 @@ public class SymTable {
     private List<HashMap<String, TSym>> list;
 	private int currOffset;
 	private boolean globalScope;
+    private HashMap<String, Integer> order;  // of the names in the outermost scope
+    private int numVisible;                  // of those, for a view; -1 for all
     
     public SymTable() {
         list = new LinkedList<HashMap<String, TSym>>();
         list.add(new HashMap<String, TSym>());
 		currOffset = 0;
 		globalScope = true;
+        order = new HashMap<String, Integer>();
+        numVisible = -1;
+    }
+
+    /**
+     * Return a table whose outermost scope is that of this one, with only
+     * the names declared in it so far visible, and no other scope.  The
+     * scope is shared rather than copied, so that a view can be made for
+     * each function of a program; the view may be used by another thread
+     * once no more names are added to this table.
+     */
+    public SymTable view() {
+        SymTable view = new SymTable();
+        view.list.set(0, list.get(list.size() - 1));
+        view.order = order;
+        view.numVisible = order.size();
+        return view;
     }
     
 	public void setGlobalScope(boolean value) {
@@ -47,6 +66,12 @@ public class SymTable {
         if (symTab.containsKey(name)) {
           throw new DuplicateSymException();
         } else {
+          if (list.size() == 1) {
+            if (numVisible >= 0) {
+              throw new IllegalArgumentException();   // shared scope
+            }
+            order.put(name, order.size());
+          }
           symTab.put(name, sym);
         }
      }
@@ -60,7 +85,7 @@ public class SymTable {
           throw new EmptySymTableException();
        }
 
-       if (list.get(0).containsKey(name)){
+       if (list.get(0).containsKey(name) && isVisible(0, name)){
           return list.get(0).get(name);
        } else {
           return null;
@@ -72,14 +97,22 @@ public class SymTable {
          throw new EmptySymTableException();
        }
 
+       int k = 0;
        for (HashMap<String, TSym> symTab : list) {
-         if (symTab.containsKey(name)){
+         if (symTab.containsKey(name) && isVisible(k, name)){
             return symTab.get(name);
          }
+         k++;
        }
        return null;
     }
 
+    // is name, declared in the k-th scope, visible in this table?
+    private boolean isVisible(int k, String name) {
+       return numVisible < 0 || k < list.size() - 1
+          || order.get(name) < numVisible;
+    }
+
     public void removeScope() throws EmptySymTableException {
        if (list.isEmpty()) {
          throw new EmptySymTableException();
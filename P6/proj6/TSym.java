@@ -6,7 +6,6 @@ import java.util.*;
  */
 public class TSym {
     private Type type;
-    private static int localInitOffset = -8;
     private int offset;
 
     public TSym(Type type) {
@@ -38,14 +37,6 @@ public class TSym {
     public void setOffset(int offset) {
         this.offset = offset;
     }
-
-    public static int getOffsetLoc() {
-        return TSym.localInitOffset;
-    }
-
-    public static void setOffsetLoc(int offset) {
-        TSym.localInitOffset = offset;
-    }
 }
 
 /**
@@ -62,7 +53,7 @@ class FnSym extends TSym {
     private int myLocalSize = 0;
 
     public FnSym(Type type, int numparams) {
-        super(new FnType());
+        super(Type.FN);
         returnType = type;
         numParams = numparams;
     }
@@ -127,8 +118,9 @@ class StructSym extends TSym {
     // new fields
     private IdNode structType; // name of the struct type
 
+    // id is linked to the StructDefSym of the struct type
     public StructSym(IdNode id) {
-        super(new StructType(id));
+        super(((StructDefSym)id.sym()).getStructType());
         structType = id;
     }
 
@@ -141,18 +133,63 @@ class StructSym extends TSym {
  * The StructDefSym class is a subclass of the TSym class just for the
  * definition of a struct type.
  * Each StructDefSym contains a symbol table to hold information about its
- * fields.
+ * fields, and the layout of its variables: the offset of each field and
+ * the total size, in words.  An int or bool field takes one word and a
+ * struct field the size of its struct; every field is word-aligned, so
+ * the fields are laid out in order with no padding.
  */
 class StructDefSym extends TSym {
     // new fields
     private SymTable symTab;
+    private StructType structType;  // type of the variables of this struct
+    private Map<String, Integer> fieldOffsets = new HashMap<String, Integer>();
+    private int size = 0;           // in words
 
-    public StructDefSym(SymTable table) {
-        super(new StructDefType());
+    public StructDefSym(SymTable table, String name) {
+        super(Type.STRUCT_DEF);
         symTab = table;
+        structType = new StructType(name);
+    }
+
+    /**
+     * Add the field name, of the given size in words, after the fields
+     * added so far.
+     */
+    public void addField(String name, int words) {
+        fieldOffsets.put(name, size);
+        size += words;
+    }
+
+    /**
+     * Return the offset, in words, of the field name.
+     */
+    public int getFieldOffset(String name) {
+        return fieldOffsets.get(name);
+    }
+
+    /**
+     * Return the size, in words, of a variable of this struct.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Return the size, in words, of a variable with symbol sym.
+     */
+    public static int sizeOf(TSym sym) {
+        if (sym instanceof StructSym) {
+            return ((StructDefSym)((StructSym)sym).getStructType().sym())
+                .getSize();
+        }
+        return 1;
     }
 
     public SymTable getSymTable() {
         return symTab;
     }
+
+    public StructType getStructType() {
+        return structType;
+    }
 }
@@ -0,0 +1,88 @@
+import java.util.*;
+
+/**
+ * Tail call elimination for self-recursive functions.
+ *
+ * A call of a function to itself whose result (if any) is returned right
+ * away, as in return f(a, b), is replaced by copies of the arguments into
+ * the parameters followed by a jump back to the start of the body, so
+ * that the recursion runs in the frame of the first call.  The arguments
+ * are first copied into new registers, as an argument may read a
+ * parameter assigned by an earlier copy (e.g., f(b, a)).
+ *
+ * The jump goes to the original entry block; a new, empty entry block is
+ * put in front of it, so that the entry still has no predecessors and
+ * the loop gets a preheader.
+ */
+class TailCalls {
+    public static void run(IrFunction fn) {
+        if (fn.isMain()) {
+            return;
+        }
+        IrBlock start = fn.entry();
+        boolean changed = false;
+        for (IrBlock b : fn.blocks()) {
+            List<IrInstr> instrs = b.instrs();
+            int k = instrs.size() - 2;
+            if (k < 0 || !isTailCall(fn, instrs.get(k), b.terminator())) {
+                continue;
+            }
+            IrInstr call = instrs.remove(k);
+            instrs.remove(k);
+            List<IrReg> params = fn.params();
+            IrValue[] args = new IrValue[params.size()];
+            for (int j = 0; j < args.length; j++) {
+                args[j] = call.src(j);
+                if (args[j].isReg()) {
+                    IrReg t = fn.newReg();
+                    instrs.add(new IrInstr(IrOp.COPY, t, args[j]));
+                    args[j] = t;
+                }
+            }
+            for (int j = 0; j < args.length; j++) {
+                instrs.add(new IrInstr(IrOp.COPY, params.get(j), args[j]));
+            }
+            IrInstr jump = new IrInstr(IrOp.JUMP, null);
+            jump.setTargets(start);
+            instrs.add(jump);
+            changed = true;
+        }
+        if (changed) {
+            IrBlock entry = fn.newBlock();
+            IrInstr jump = new IrInstr(IrOp.JUMP, null);
+            jump.setTargets(start);
+            entry.instrs().add(jump);
+            fn.blocks().add(0, entry);
+            fn.computeCfg();
+        }
+    }
+
+    /**
+     * Return whether call, followed by the terminator term, is a call of
+     * fn to itself in tail position: term returns the result of the call,
+     * or returns nothing and the call has no result.  A jump counts as the
+     * return it leads to through blocks that only jump, as after a call
+     * at the end of nested ifs.
+     */
+    private static boolean isTailCall(IrFunction fn, IrInstr call,
+                                      IrInstr term) {
+        if (call.op() != IrOp.CALL || !call.name().equals(fn.name())) {
+            return false;
+        }
+        Set<IrBlock> passed = new HashSet<IrBlock>();
+        while (term.op() == IrOp.JUMP) {
+            IrBlock next = term.target(0);
+            if (next.instrs().size() != 1 || !passed.add(next)) {
+                return false;
+            }
+            term = next.terminator();
+        }
+        if (term.op() != IrOp.RETURN) {
+            return false;
+        }
+        if (call.dst() == null) {
+            return term.numSrcs() == 0;
+        }
+        return term.numSrcs() == 1 && call.dst().equals(term.src(0));
+    }
+}
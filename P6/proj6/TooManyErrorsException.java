@@ -0,0 +1,6 @@
+/**
+ * Thrown by Diagnostics when the maximum number of errors is reached.
+ */
+public class TooManyErrorsException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+}
@@ -1,8 +1,19 @@
 /**
  * Type class and its subclasses: 
  * ErrorType, IntType, BoolType, VoidType, StringType, FnType, StructType,
+ *
+ * There is one instance of each type: the constants below, and the
+ * StructType of each struct definition (see StructDefSym), so types are
+ * compared by identity.
  */
 abstract public class Type {
+    public static final Type ERROR = new ErrorType();
+    public static final Type INT = new IntType();
+    public static final Type BOOL = new BoolType();
+    public static final Type VOID = new VoidType();
+    public static final Type STRING = new StringType();
+    public static final Type FN = new FnType();
+    public static final Type STRUCT_DEF = new StructDefType();
 
     /**
      * default constructor
@@ -11,10 +22,9 @@ abstract public class Type {
     }
 
     /**
-     * every subclass must provide a toString method and an equals method
+     * every subclass must provide a toString method
      */
     abstract public String toString();
-    abstract public boolean equals(Type t);
 
     /**
      * default methods for "isXXXType"
@@ -61,10 +71,6 @@ class ErrorType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isErrorType();
-    }
-
     public String toString() {
         return "error";
     }
@@ -79,10 +85,6 @@ class IntType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isIntType();
-    }
-
     public String toString() {
         return "int";
     }
@@ -97,10 +99,6 @@ class BoolType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isBoolType();
-    }
-
     public String toString() {
         return "bool";
     }
@@ -115,10 +113,6 @@ class VoidType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isVoidType();
-    }
-
     public String toString() {
         return "void";
     }
@@ -133,10 +127,6 @@ class StringType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isStringType();
-    }
-
     public String toString() {
         return "String";
     }
@@ -151,10 +141,6 @@ class FnType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isFnType();
-    }
-
     public String toString() {
         return "function";
     }
@@ -164,22 +150,18 @@ class FnType extends Type {
 // StructType
 // **********************************************************************
 class StructType extends Type {
-    private IdNode myId;
-    
-    public StructType(IdNode id) {
-        myId = id;
+    private String myName;
+
+    public StructType(String name) {
+        myName = name;
     }
     
     public boolean isStructType() {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isStructType();
-    }
-
     public String toString() {
-        return myId.name();
+        return myName;
     }
 }
 
@@ -192,10 +174,6 @@ class StructDefType extends Type {
         return true;
     }
 
-    public boolean equals(Type t) {
-        return t.isStructDefType();
-    }
-
     public String toString() {
         return "struct";
     }
@@ -0,0 +1,681 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * TypeChecker
+ *
+ * Type checking of a program after name analysis.  Walking an
+ * expression checks it and records its type in the node, where its
+ * parent finds it in a later step (see AstWalker) and the later passes
+ * too (see ExpNode.type); walking a statement checks it against the
+ * return type of its function.
+ *
+ * Function bodies only read the symbols linked by name analysis, so
+ * they are checked in parallel, one task per function, each with a
+ * TypeChecker of its own.  Each task reports to its own Diagnostics, and
+ * these are merged in source order.
+ */
+class TypeChecker extends AstWalker {
+    // the step of a call once its arg whose index is the data is checked
+    protected static final int ARG = 2;
+
+    /**
+     * Type check the program root.
+     */
+    public void run(ProgramNode root) {
+        walkTree(root);
+    }
+
+    /**
+     * Report an error at the given position.
+     */
+    protected void error(int lineNum, int charNum, String msg) {
+        ErrMsg.fatal(lineNum, charNum, msg);
+    }
+
+    /**
+     * At step 0, walk exps and resume the current node at step 1.  Return
+     * whether their types have been recorded: from step 1 on, they have.
+     */
+    protected boolean checked(ExpNode... exps) {
+        if (step() > 0) {
+            return true;
+        }
+        for (ExpNode exp : exps) {
+            walk(exp);
+        }
+        resume(1);
+        return false;
+    }
+
+    // **********************************************************************
+    // lists and other internal nodes
+    // **********************************************************************
+    public Void visit(ProgramNode node) {
+        final Diagnostics diags = ErrMsg.getDiagnostics();
+        List<Callable<Diagnostics>> tasks = new ArrayList<Callable<Diagnostics>>();
+        for (final DeclNode decl : node.declList().decls()) {
+            tasks.add(new Callable<Diagnostics>() {
+                public Diagnostics call() {
+                    Diagnostics d = diags == null ? new Diagnostics(0) : diags.child();
+                    Diagnostics prev = ErrMsg.getDiagnostics();
+                    ErrMsg.setDiagnostics(d);
+                    try {
+                        new TypeChecker().walkTree(decl);
+                    } catch (TooManyErrorsException ex) {
+                        // d is full; the merge stops there
+                    } finally {
+                        ErrMsg.setDiagnostics(prev);
+                    }
+                    return d;
+                }
+            });
+        }
+        try {
+            for (Future<Diagnostics> f : Workers.pool().invokeAll(tasks)) {
+                if (diags == null) {
+                    f.get().flush(System.err);
+                } else {
+                    diags.merge(f.get());
+                }
+            }
+        } catch (InterruptedException ex) {
+            System.err.println("unexpected InterruptedException in TypeChecker.visit(ProgramNode)");
+            System.exit(-1);
+        } catch (ExecutionException ex) {
+            System.err.println("unexpected exception in TypeChecker.visit(ProgramNode): " +
+                               ex.getCause());
+            System.exit(-1);
+        }
+        return null;
+    }
+
+    // decls other than functions have nothing to check
+    public Void visit(DeclListNode node) {
+        return null;
+    }
+
+    public Void visit(FormalsListNode node) {
+        return null;
+    }
+
+    public Void visit(FnBodyNode node) {
+        walk(node.stmtList());
+        return null;
+    }
+
+    public Void visit(StmtListNode node) {
+        for (StmtNode stmt : node.stmts()) {
+            walk(stmt);
+        }
+        return null;
+    }
+
+    /**
+     * Check each expression of the list; the types of the actuals of a
+     * call are checked against those of the formals by arg.
+     */
+    public Void visit(ExpListNode node) {
+        for (ExpNode exp : node.exps()) {
+            walk(exp);
+        }
+        return null;
+    }
+
+    /**
+     * Check the actual node, arg k of a call, whose type has been
+     * recorded, against the type of the formal in typeList.
+     */
+    protected void arg(ExpNode node, int k, List<Type> typeList) {
+        Type actualType = node.type();      // actual type of arg
+
+        if (!actualType.isErrorType()) {        // if this is not an error
+            Type formalType = typeList.get(k);  // get the formal type
+            if (formalType != actualType) {
+                error(node.lineNum(), node.charNum(),
+                      "Type of actual does not match type of formal");
+            }
+        }
+    }
+
+    // **********************************************************************
+    // declarations
+    // **********************************************************************
+    public Void visit(VarDeclNode node) {
+        return null;
+    }
+
+    public Void visit(FnDeclNode node) {
+        myRetType = node.typeNode().type();
+        walk(node.body());
+        return null;
+    }
+
+    public Void visit(FormalDeclNode node) {
+        return null;
+    }
+
+    public Void visit(StructDeclNode node) {
+        return null;
+    }
+
+    public Void visit(IntNode node) {
+        return null;
+    }
+
+    public Void visit(BoolNode node) {
+        return null;
+    }
+
+    public Void visit(VoidNode node) {
+        return null;
+    }
+
+    public Void visit(StructNode node) {
+        return null;
+    }
+
+    // **********************************************************************
+    // statements
+    // **********************************************************************
+    public Void visit(AssignStmtNode node) {
+        walk(node.assign());
+        return null;
+    }
+
+    public Void visit(PostIncStmtNode node) {
+        if (checked(node.exp())) {
+            arithmetic(node.exp(), node.exp().type());
+        }
+        return null;
+    }
+
+    public Void visit(PostDecStmtNode node) {
+        if (checked(node.exp())) {
+            arithmetic(node.exp(), node.exp().type());
+        }
+        return null;
+    }
+
+    // the operand exp of ++ or -- is of type type
+    protected void arithmetic(ExpNode exp, Type type) {
+        if (!type.isErrorType() && !type.isIntType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Arithmetic operator applied to non-numeric operand");
+        }
+    }
+
+    public Void visit(ReadStmtNode node) {
+        if (checked(node.exp())) {
+            read(node.exp(), node.exp().type());
+        }
+        return null;
+    }
+
+    // the exp read is of type type
+    protected void read(ExpNode exp, Type type) {
+        if (type.isFnType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to read a function");
+        }
+
+        if (type.isStructDefType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to read a struct name");
+        }
+
+        if (type.isStructType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to read a struct variable");
+        }
+    }
+
+    public Void visit(WriteStmtNode node) {
+        if (checked(node.exp())) {
+            write(node.exp(), node.exp().type());
+        }
+        return null;
+    }
+
+    // the exp written is of type type
+    protected void write(ExpNode exp, Type type) {
+        if (type.isFnType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to write a function");
+        }
+
+        if (type.isStructDefType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to write a struct name");
+        }
+
+        if (type.isStructType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to write a struct variable");
+        }
+
+        if (type.isVoidType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Attempt to write void");
+        }
+    }
+
+    public Void visit(IfStmtNode node) {
+        if (checked(node.exp())) {
+            condition(node.exp(), node.exp().type(), "an if condition");
+            walk(node.stmtList());
+        }
+        return null;
+    }
+
+    public Void visit(IfElseStmtNode node) {
+        if (checked(node.exp())) {
+            condition(node.exp(), node.exp().type(), "an if condition");
+            walk(node.thenStmtList());
+            walk(node.elseStmtList());
+        }
+        return null;
+    }
+
+    public Void visit(WhileStmtNode node) {
+        if (checked(node.exp())) {
+            condition(node.exp(), node.exp().type(), "a while condition");
+            walk(node.stmtList());
+        }
+        return null;
+    }
+
+    // the condition exp, used as what, is of type type
+    protected void condition(ExpNode exp, Type type, String what) {
+        if (!type.isErrorType() && !type.isBoolType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Non-bool expression used as " + what);
+        }
+    }
+
+    public Void visit(RepeatStmtNode node) {
+        if (checked(node.exp())) {
+            repeat(node.exp(), node.exp().type());
+            walk(node.stmtList());
+        }
+        return null;
+    }
+
+    // the count exp of a repeat is of type type
+    protected void repeat(ExpNode exp, Type type) {
+        if (!type.isErrorType() && !type.isIntType()) {
+            error(exp.lineNum(), exp.charNum(),
+                  "Non-integer expression used as a repeat clause");
+        }
+    }
+
+    public Void visit(CallStmtNode node) {
+        walk(node.call());
+        return null;
+    }
+
+    public Void visit(ReturnStmtNode node) {
+        ExpNode exp = node.exp();
+        if (exp != null) {  // return value given
+            if (!checked(exp)) {
+                return null;
+            }
+            Type type = exp.type();
+
+            if (myRetType.isVoidType()) {
+                error(exp.lineNum(), exp.charNum(),
+                      "Return with a value in a void function");
+            }
+
+            else if (!myRetType.isErrorType() && !type.isErrorType()
+                     && myRetType != type) {
+                error(exp.lineNum(), exp.charNum(),
+                      "Bad return value");
+            }
+        }
+
+        else {  // no return value given -- ok if this is a void function
+            if (!myRetType.isVoidType()) {
+                error(0, 0, "Missing return value");
+            }
+        }
+        return null;
+    }
+
+    // **********************************************************************
+    // expressions: each records its type once its kids have theirs
+    // **********************************************************************
+    public Void visit(IntLitNode node) {
+        node.setType(Type.INT);
+        return null;
+    }
+
+    public Void visit(StringLitNode node) {
+        node.setType(Type.STRING);
+        return null;
+    }
+
+    public Void visit(TrueNode node) {
+        node.setType(Type.BOOL);
+        return null;
+    }
+
+    public Void visit(FalseNode node) {
+        node.setType(Type.BOOL);
+        return null;
+    }
+
+    public Void visit(IdNode node) {
+        if (node.sym() == null) {
+            System.err.println("ID with null sym field in TypeChecker.visit(IdNode)");
+            System.exit(-1);
+        }
+        node.setType(node.sym().getType());
+        return null;
+    }
+
+    public Void visit(DotAccessExpNode node) {
+        if (checked(node.id())) {
+            node.setType(node.id().type());
+        }
+        return null;
+    }
+
+    public Void visit(AssignNode node) {
+        if (checked(node.lhs(), node.exp())) {
+            node.setType(assign(node));
+        }
+        return null;
+    }
+
+    private Type assign(AssignNode node) {
+        Type typeLhs = node.lhs().type();
+        Type typeExp = node.exp().type();
+        Type retType = typeLhs;
+        int lineNum = node.lineNum();
+        int charNum = node.charNum();
+
+        if (typeLhs.isFnType() && typeExp.isFnType()) {
+            error(lineNum, charNum, "Function assignment");
+            retType = Type.ERROR;
+        }
+
+        if (typeLhs.isStructDefType() && typeExp.isStructDefType()) {
+            error(lineNum, charNum, "Struct name assignment");
+            retType = Type.ERROR;
+        }
+
+        if (typeLhs.isStructType() && typeExp.isStructType()) {
+            error(lineNum, charNum, "Struct variable assignment");
+            return Type.ERROR;
+        }
+
+        if (typeLhs != typeExp && !typeLhs.isErrorType() && !typeExp.isErrorType()) {
+            error(lineNum, charNum, "Type mismatch");
+            retType = Type.ERROR;
+        }
+
+        if (typeLhs.isErrorType() || typeExp.isErrorType()) {
+            retType = Type.ERROR;
+        }
+
+        return retType;
+    }
+
+    /**
+     * Check the ID, then each arg followed by its comparison with the
+     * formal (at step ARG, with the index of the arg as data).  The args
+     * of a call of a non-function, or with the wrong number of args, are
+     * left to skipArgs.
+     */
+    public Void visit(CallExpNode node) {
+        if (!checked(node.id())) {
+            return null;
+        }
+        if (step() == ARG) {
+            int k = (Integer)data();
+            FnSym fnSym = (FnSym)node.id().sym();
+            arg(node.args().exps().get(k), k, fnSym.getParamTypes());
+            return null;
+        }
+
+        FnSym fnSym = callee(node, node.id().type());
+        if (fnSym == null) {
+            node.setType(Type.ERROR);
+            skipArgs(node);
+            return null;
+        }
+        node.setType(fnSym.getReturnType());
+        if (node.args().size() != fnSym.getNumParams()) {
+            skipArgs(node);
+            return null;
+        }
+        List<ExpNode> args = node.args().exps();
+        for (int k = 0; k < args.size(); k++) {
+            walk(args.get(k));
+            resume(ARG, k);
+        }
+        return null;
+    }
+
+    /**
+     * Do what is done with the args of a call that are not checked: here,
+     * nothing.
+     */
+    protected void skipArgs(CallExpNode node) { }
+
+    /**
+     * Return the FnSym of the function called by node, whose ID is of
+     * type type, or null if it is not a function.  Also reports a call
+     * with the wrong number of args; the args are then not checked.
+     */
+    protected FnSym callee(CallExpNode node, Type type) {
+        IdNode id = node.id();
+        if (!type.isFnType()) {
+            error(id.lineNum(), id.charNum(),
+                  "Attempt to call a non-function");
+            return null;
+        }
+
+        FnSym fnSym = (FnSym)(id.sym());
+
+        if (fnSym == null) {
+            System.err.println("null sym for Id in TypeChecker.callee");
+            System.exit(-1);
+        }
+
+        if (node.args().size() != fnSym.getNumParams()) {
+            error(id.lineNum(), id.charNum(),
+                  "Function call with wrong number of args");
+        }
+        return fnSym;
+    }
+
+    public Void visit(UnaryMinusNode node) {
+        if (!checked(node.exp())) {
+            return null;
+        }
+        Type type = node.exp().type();
+        Type retType = Type.INT;
+
+        if (!type.isErrorType() && !type.isIntType()) {
+            error(node.lineNum(), node.charNum(),
+                  "Arithmetic operator applied to non-numeric operand");
+            retType = Type.ERROR;
+        }
+
+        if (type.isErrorType()) {
+            retType = Type.ERROR;
+        }
+
+        node.setType(retType);
+        return null;
+    }
+
+    public Void visit(NotNode node) {
+        if (!checked(node.exp())) {
+            return null;
+        }
+        Type type = node.exp().type();
+        Type retType = Type.BOOL;
+
+        if (!type.isErrorType() && !type.isBoolType()) {
+            error(node.lineNum(), node.charNum(),
+                  "Logical operator applied to non-bool operand");
+            retType = Type.ERROR;
+        }
+
+        if (type.isErrorType()) {
+            retType = Type.ERROR;
+        }
+
+        node.setType(retType);
+        return null;
+    }
+
+    public Void visit(PlusNode node) {
+        return arithmetic(node);
+    }
+
+    public Void visit(MinusNode node) {
+        return arithmetic(node);
+    }
+
+    public Void visit(TimesNode node) {
+        return arithmetic(node);
+    }
+
+    public Void visit(DivideNode node) {
+        return arithmetic(node);
+    }
+
+    public Void visit(AndNode node) {
+        return logical(node);
+    }
+
+    public Void visit(OrNode node) {
+        return logical(node);
+    }
+
+    public Void visit(EqualsNode node) {
+        if (checked(node.exp1(), node.exp2())) {
+            node.setType(equality(node));
+        }
+        return null;
+    }
+
+    public Void visit(NotEqualsNode node) {
+        if (checked(node.exp1(), node.exp2())) {
+            node.setType(equality(node));
+        }
+        return null;
+    }
+
+    public Void visit(LessNode node) {
+        return relational(node);
+    }
+
+    public Void visit(GreaterNode node) {
+        return relational(node);
+    }
+
+    public Void visit(LessEqNode node) {
+        return relational(node);
+    }
+
+    public Void visit(GreaterEqNode node) {
+        return relational(node);
+    }
+
+    private Void arithmetic(BinaryExpNode node) {
+        return operands(node, "Arithmetic operator applied to non-numeric operand",
+                        Type.INT, Type.INT);
+    }
+
+    private Void logical(BinaryExpNode node) {
+        return operands(node, "Logical operator applied to non-bool operand",
+                        Type.BOOL, Type.BOOL);
+    }
+
+    private Void relational(BinaryExpNode node) {
+        return operands(node, "Relational operator applied to non-numeric operand",
+                        Type.INT, Type.BOOL);
+    }
+
+    // check the operands of node, which must be of type operandType, and
+    // record resultType, or the error type if they are not
+    private Void operands(BinaryExpNode node, String msg, Type operandType,
+                          Type resultType) {
+        ExpNode exp1 = node.exp1();
+        ExpNode exp2 = node.exp2();
+        if (!checked(exp1, exp2)) {
+            return null;
+        }
+        Type type1 = exp1.type();
+        Type type2 = exp2.type();
+        Type retType = resultType;
+
+        if (!type1.isErrorType() && type1 != operandType) {
+            error(exp1.lineNum(), exp1.charNum(), msg);
+            retType = Type.ERROR;
+        }
+
+        if (!type2.isErrorType() && type2 != operandType) {
+            error(exp2.lineNum(), exp2.charNum(), msg);
+            retType = Type.ERROR;
+        }
+
+        if (type1.isErrorType() || type2.isErrorType()) {
+            retType = Type.ERROR;
+        }
+
+        node.setType(retType);
+        return null;
+    }
+
+    private Type equality(BinaryExpNode node) {
+        Type type1 = node.exp1().type();
+        Type type2 = node.exp2().type();
+        Type retType = Type.BOOL;
+        int lineNum = node.lineNum();
+        int charNum = node.charNum();
+
+        if (type1.isVoidType() && type2.isVoidType()) {
+            error(lineNum, charNum,
+                  "Equality operator applied to void functions");
+            retType = Type.ERROR;
+        }
+
+        if (type1.isFnType() && type2.isFnType()) {
+            error(lineNum, charNum,
+                  "Equality operator applied to functions");
+            retType = Type.ERROR;
+        }
+
+        if (type1.isStructDefType() && type2.isStructDefType()) {
+            error(lineNum, charNum,
+                  "Equality operator applied to struct names");
+            retType = Type.ERROR;
+        }
+
+        if (type1.isStructType() && type2.isStructType()) {
+            error(lineNum, charNum,
+                  "Equality operator applied to struct variables");
+            return Type.ERROR;
+        }
+
+        if (type1 != type2 && !type1.isErrorType() && !type2.isErrorType()) {
+            error(lineNum, charNum,
+                  "Type mismatch");
+            retType = Type.ERROR;
+        }
+
+        if (type1.isErrorType() || type2.isErrorType()) {
+            retType = Type.ERROR;
+        }
+
+        return retType;
+    }
+
+    private Type myRetType;     // return type of the current function
+}
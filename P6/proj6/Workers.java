@@ -0,0 +1,33 @@
+import java.util.concurrent.*;
+
+/**
+ * Workers
+ *
+ * The pool of threads that the parallel phases of the compiler (type
+ * checking and code generation) run on.  The passes do not recurse as
+ * deeply as the program nests (see AstWalker and FlatWalker), so the
+ * threads have the default stack size.
+ */
+class Workers {
+    /**
+     * Return the pool for parallel phases (see TypeChecker and
+     * ParallelGen): one daemon thread per processor, so that the pool
+     * does not keep the compiler from exiting.
+     */
+    public static synchronized ExecutorService pool() {
+        if (myPool == null) {
+            myPool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "worker");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        }
+        return myPool;
+    }
+
+    private static ExecutorService myPool;
+}
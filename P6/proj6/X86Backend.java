@@ -0,0 +1,456 @@
+import java.io.*;
+import java.util.*;
+
+// **********************************************************************
+// The X86Backend class generates x86-64 code (GNU as, System V ABI) from
+// an IrProgram, using the operations of X86Codegen.
+//
+// Virtual registers are given machine registers by RegAlloc; values live
+// across a call (including the runtime's I/O calls) get one of the
+// callee-saved registers %rbx, %r12 - %r15, others one of %rsi, %rdi,
+// %r8 - %r11.  Spilled registers are kept in the frame.  %rax, %rcx and
+// %rdx are scratch registers.
+//
+// Frame layout (offsets from %rbp):
+//     16 + 8k   stack argument k (arguments 6, 7, ...)
+//     -8(k+1)   home slot of register argument k (k < 6)
+//     below     saved callee-saved registers, then spill slots
+// **********************************************************************
+
+class X86Backend {
+    private static final String[] REGS = {
+        "%rbx", "%r12", "%r13", "%r14", "%r15",
+        "%rsi", "%rdi", "%r8", "%r9", "%r10", "%r11"
+    };
+    private static final String[] REGS32 = {
+        "%ebx", "%r12d", "%r13d", "%r14d", "%r15d",
+        "%esi", "%edi", "%r8d", "%r9d", "%r10d", "%r11d"
+    };
+    private static final int NUM_CALLEE_SAVED = 5;
+
+    private static final String[] ARG_REGS = X86Codegen.ARG_REGS;
+    private static final int WORD = X86Codegen.WORD;
+
+    public X86Backend() {
+    }
+
+    // a backend for one function, writing through cg
+    private X86Backend(Map<String, Integer> strings, X86Codegen cg) {
+        myStrings = strings;
+        myCg = cg;
+    }
+
+    public void generate(IrProgram prog, PrintWriter p) {
+        generate(prog, p, new ArrayList<String>(
+                     Collections.nCopies(prog.functions().size(), (String)null)));
+    }
+
+    /**
+     * Generate code for prog to p.  Element k of code, if not null, is
+     * the code for the k-th function, generated earlier; the others are
+     * set to the code generated for their function.
+     */
+    public void generate(IrProgram prog, PrintWriter p, List<String> code) {
+        new X86Codegen(p, ".LR").genRuntime();
+        for (String name : prog.globals()) {
+            p.print(String.format("\t.data\n\t.align 8\n%s:\t.zero %d\n",
+                                  X86Codegen.symbol(name),
+                                  8 * prog.globalWords(name)));
+        }
+
+        // functions are generated in parallel, each into its own buffer
+        // and with labels of its own (.L<name>_<n>, which do not depend on
+        // the other functions), and written in source order
+        myStrings = prog.strings();
+        final Map<String, Integer> strings = myStrings;
+        new ParallelGen() {
+            protected String generate(IrFunction fn, int index) {
+                StringWriter buf = new StringWriter();
+                PrintWriter out = new PrintWriter(buf);
+                String prefix = ".L" + fn.name() + "_";
+                new X86Backend(strings, new X86Codegen(out, prefix)).generate(fn);
+                out.flush();
+                return buf.toString();
+            }
+        }.fill(prog.functions(), code);
+        for (String s : code) {
+            p.print(s);
+        }
+
+        // string pool
+        if (!myStrings.isEmpty()) {
+            p.print("\t.section .rodata\n");
+        }
+        for (Map.Entry<String, Integer> e : myStrings.entrySet()) {
+            p.print(String.format("%s:\t.asciz %s\n", stringLabel(e.getValue()),
+                                  X86Codegen.asciz(e.getKey())));
+        }
+    }
+
+    // label of the string with the given index in the pool
+    private static String stringLabel(int index) {
+        return ".LS" + index;
+    }
+
+    // **********************************************************************
+    // generate one function
+    // **********************************************************************
+    private void generate(IrFunction fn) {
+        myAlloc = new RegAlloc(fn, NUM_CALLEE_SAVED,
+                               REGS.length - NUM_CALLEE_SAVED,
+                               EnumSet.of(IrOp.CALL, IrOp.READ,
+                                          IrOp.WRITEINT, IrOp.WRITESTR));
+        mySlots = new HashMap<Integer, Integer>();
+        myLabels = new HashMap<IrBlock, String>();
+        for (IrBlock b : fn.jumpTargets()) {
+            myLabels.put(b, myCg.nextLabel());
+        }
+        myExitLbl = myCg.nextLabel();
+
+        // frame slots
+        List<IrReg> params = fn.params();
+        int inRegs = Math.min(params.size(), ARG_REGS.length);
+        for (int k = 0; k < params.size(); k++) {
+            int offset = k < inRegs ? -WORD * (k + 1)
+                                    : 2 * WORD + WORD * (k - inRegs);
+            mySlots.put(params.get(k).num(), offset);
+        }
+        int offset = -WORD * inRegs;
+        List<Integer> saved = new ArrayList<Integer>();
+        BitSet used = myAlloc.usedRegs();
+        for (int r = used.nextSetBit(0); r >= 0; r = used.nextSetBit(r + 1)) {
+            if (myAlloc.isCalleeSaved(r)) {
+                saved.add(r);
+                offset -= WORD;
+            }
+        }
+        int savedBase = -WORD * inRegs - WORD;
+        for (int v = 0; v < fn.numRegs(); v++) {
+            if (myAlloc.isSpilled(new IrReg(v)) && !mySlots.containsKey(v)) {
+                offset -= WORD;
+                mySlots.put(v, offset);
+            }
+        }
+        int frame = (-offset + 15) / 16 * 16;
+
+        // prologue
+        if (fn.isMain()) {
+            myCg.p.print("\t.text\n\t.globl main\nmain:\t\t# METHOD ENTRY\n");
+        } else {
+            myCg.p.print(String.format("\t.text\n%s:\t# METHOD ENTRY\n",
+                                             X86Codegen.symbol(fn.name())));
+        }
+        myCg.generate("pushq", X86Codegen.RBP);
+        myCg.generate("movq", X86Codegen.RSP, X86Codegen.RBP);
+        if (frame > 0) {
+            myCg.generate("subq", frame, X86Codegen.RSP);
+        }
+        for (int k = 0; k < inRegs; k++) {
+            if (myAlloc.reg(params.get(k)) >= 0
+                || myAlloc.isSpilled(params.get(k))) {
+                myCg.generateIndexed("movq", ARG_REGS[k], X86Codegen.RBP,
+                                           -WORD * (k + 1), true);
+            }
+        }
+        for (int k = 0; k < saved.size(); k++) {
+            myCg.generateIndexed("movq", REGS[saved.get(k)],
+                                       X86Codegen.RBP, savedBase - WORD * k,
+                                       true);
+        }
+        for (IrReg r : params) {
+            if (myAlloc.reg(r) >= 0) {
+                myCg.generateIndexed("movq", reg(r), X86Codegen.RBP,
+                                           mySlots.get(r.num()), false);
+            }
+        }
+
+        // a block only gets a label if it is jumped to, and a jump to the
+        // block laid out next is left out
+        List<IrBlock> blocks = fn.blocks();
+        for (int k = 0; k < blocks.size(); k++) {
+            IrBlock b = blocks.get(k);
+            myNext = k + 1 < blocks.size() ? blocks.get(k + 1) : null;
+            if (myLabels.containsKey(b)) {
+                myCg.genLabel(myLabels.get(b));
+            }
+            for (IrInstr instr : b.instrs()) {
+                generate(instr);
+            }
+        }
+
+        // epilogue
+        myCg.genLabel(myExitLbl, "FUNCTION EXIT");
+        for (int k = 0; k < saved.size(); k++) {
+            myCg.generateIndexed("movq", REGS[saved.get(k)],
+                                       X86Codegen.RBP, savedBase - WORD * k,
+                                       false);
+        }
+        myCg.generate("leave");
+        myCg.generate("ret");
+    }
+
+    // **********************************************************************
+    // generate one instruction
+    // **********************************************************************
+    private void generate(IrInstr instr) {
+        IrReg dst = instr.dst();
+        switch (instr.op()) {
+        case COPY:
+            if (myAlloc.reg(dst) >= 0) {
+                loadInto(reg(dst), instr.src(0));
+            } else if (instr.src(0).isConst()
+                       || (instr.src(0).isReg()
+                           && myAlloc.reg((IrReg)instr.src(0)) >= 0)) {
+                myCg.generate("movq", operand(instr.src(0)), operand(dst));
+            } else {
+                loadInto(X86Codegen.RAX, instr.src(0));
+                store(dst, X86Codegen.RAX);
+            }
+            break;
+
+        case ADD:
+        case SUB:
+        case MUL:
+            loadInto(X86Codegen.RAX, instr.src(0));
+            myCg.generate(OPCODE.get(instr.op()), operand32(instr.src(1)),
+                                X86Codegen.EAX);
+            myCg.generate("cltq");
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case DIV: {
+            String divisor = operand32(instr.src(1));
+            if (instr.src(1).isConst()) {
+                loadInto(X86Codegen.RCX, instr.src(1));
+                divisor = X86Codegen.ECX;
+            }
+            loadInto(X86Codegen.RAX, instr.src(0));
+            myCg.generate("cltd");
+            myCg.generate("idivl", divisor);
+            myCg.generate("cltq");
+            store(dst, X86Codegen.RAX);
+            break;
+        }
+
+        case EQ:
+        case NE:
+        case LT:
+        case GT:
+        case LE:
+        case GE:
+            loadInto(X86Codegen.RAX, instr.src(0));
+            myCg.generate("cmpq", source(instr.src(1)), X86Codegen.RAX);
+            myCg.generate(OPCODE.get(instr.op()), X86Codegen.AL);
+            myCg.generate("movzbq", X86Codegen.AL, X86Codegen.RAX);
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case NEG:
+            loadInto(X86Codegen.RAX, instr.src(0));
+            myCg.generate("negl", X86Codegen.EAX);
+            myCg.generate("cltq");
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case NOT:
+            loadInto(X86Codegen.RAX, instr.src(0));
+            myCg.generate("xorq", X86Codegen.TRUE, X86Codegen.RAX);
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case LOADG:
+            myCg.generate("movq", X86Codegen.global(instr.name(),
+                                                    8 * instr.offset()),
+                                X86Codegen.RAX);
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case STOREG:
+            if (instr.src(0).isConst()
+                || (instr.src(0).isReg()
+                    && myAlloc.reg((IrReg)instr.src(0)) >= 0)) {
+                myCg.generate("movq", operand(instr.src(0)),
+                                    X86Codegen.global(instr.name(),
+                                                      8 * instr.offset()));
+            } else {
+                loadInto(X86Codegen.RAX, instr.src(0));
+                myCg.generate("movq", X86Codegen.RAX,
+                                    X86Codegen.global(instr.name(),
+                                                      8 * instr.offset()));
+            }
+            break;
+
+        case CALL: {
+            // keep %rsp 16-byte aligned at the call
+            int n = instr.numSrcs();
+            int inRegs = Math.min(n, ARG_REGS.length);
+            int onStack = n - inRegs;
+            if (onStack % 2 != 0) {
+                myCg.generate("subq", WORD, X86Codegen.RSP);
+            }
+            for (int k = n - 1; k >= 0; k--) {
+                push(instr.src(k));
+            }
+            for (int k = 0; k < inRegs; k++) {
+                myCg.genPop(ARG_REGS[k]);
+            }
+            myCg.generate("call", X86Codegen.symbol(instr.name()));
+            int words = onStack + onStack % 2;
+            if (words > 0) {
+                myCg.generate("addq", WORD * words, X86Codegen.RSP);
+            }
+            if (dst != null) {
+                store(dst, X86Codegen.RAX);
+            }
+            break;
+        }
+
+        case READ:
+            myCg.generate("call", "_gib_read_int");
+            store(dst, X86Codegen.RAX);
+            break;
+
+        case WRITEINT:
+        case WRITESTR:
+            loadInto(X86Codegen.RDI, instr.src(0));
+            myCg.generate("call", instr.op() == IrOp.WRITEINT
+                                        ? "_gib_write_int" : "_gib_write_str");
+            break;
+
+        case JUMP:
+            jump(instr.target(0));
+            break;
+
+        case BRANCH: {
+            IrBlock ifTrue = instr.target(0);
+            IrBlock ifFalse = instr.target(1);
+            if (ifTrue == ifFalse) {
+                jump(ifTrue);
+                break;
+            }
+            if (instr.src(0).isConst()) {
+                loadInto(X86Codegen.RAX, instr.src(0));
+                myCg.generate("cmpq", X86Codegen.FALSE, X86Codegen.RAX);
+            } else {
+                myCg.generate("cmpq", X86Codegen.FALSE,
+                                    operand(instr.src(0)));
+            }
+            if (ifTrue == myNext) {
+                myCg.generate("je", myLabels.get(ifFalse));
+            } else {
+                myCg.generate("jne", myLabels.get(ifTrue));
+                jump(ifFalse);
+            }
+            break;
+        }
+
+        case RETURN:
+            if (instr.numSrcs() > 0) {
+                loadInto(X86Codegen.RAX, instr.src(0));
+            }
+            if (myNext != null) {
+                myCg.generate("jmp", myExitLbl);
+            }
+            break;
+
+        default:
+            System.err.println("unexpected " + instr.op() +
+                               " in X86Backend.generate");
+            System.exit(-1);
+        }
+    }
+
+    private static final Map<IrOp, String> OPCODE =
+        new EnumMap<IrOp, String>(IrOp.class);
+    static {
+        OPCODE.put(IrOp.ADD, "addl");
+        OPCODE.put(IrOp.SUB, "subl");
+        OPCODE.put(IrOp.MUL, "imull");
+        OPCODE.put(IrOp.EQ, "sete");
+        OPCODE.put(IrOp.NE, "setne");
+        OPCODE.put(IrOp.LT, "setl");
+        OPCODE.put(IrOp.GT, "setg");
+        OPCODE.put(IrOp.LE, "setle");
+        OPCODE.put(IrOp.GE, "setge");
+    }
+
+    // **********************************************************************
+    // operands
+    // **********************************************************************
+
+    // the machine register allocated to r
+    private String reg(IrReg r) {
+        return REGS[myAlloc.reg(r)];
+    }
+
+    // the 64-bit operand (immediate, register or frame slot) holding v
+    private String operand(IrValue v) {
+        if (v.isConst()) {
+            return "$" + ((IrConst)v).value();
+        }
+        IrReg r = (IrReg)v;
+        if (myAlloc.reg(r) >= 0) {
+            return reg(r);
+        }
+        return mySlots.get(r.num()) + "(" + X86Codegen.RBP + ")";
+    }
+
+    // the 64-bit operand holding v, loading a string's address into %rcx
+    private String source(IrValue v) {
+        if (v instanceof IrStr) {
+            loadInto(X86Codegen.RCX, v);
+            return X86Codegen.RCX;
+        }
+        return operand(v);
+    }
+
+    // the 32-bit operand holding the int v
+    private String operand32(IrValue v) {
+        if (v.isReg() && myAlloc.reg((IrReg)v) >= 0) {
+            return REGS32[myAlloc.reg((IrReg)v)];
+        }
+        return operand(v);
+    }
+
+    // load v into the register target
+    private void loadInto(String target, IrValue v) {
+        if (v instanceof IrStr) {
+            String label = stringLabel(myStrings.get(((IrStr)v).literal()));
+            myCg.generate("leaq", label + "(%rip)", target);
+        } else if (!operand(v).equals(target)) {
+            myCg.generate("movq", operand(v), target);
+        }
+    }
+
+    // jump to target, unless it is the next block
+    private void jump(IrBlock target) {
+        if (target != myNext) {
+            myCg.generate("jmp", myLabels.get(target));
+        }
+    }
+
+    // push v onto the stack
+    private void push(IrValue v) {
+        if (v instanceof IrStr) {
+            loadInto(X86Codegen.RAX, v);
+            myCg.genPush(X86Codegen.RAX);
+        } else {
+            myCg.genPush(operand(v));
+        }
+    }
+
+    // copy the register src into r
+    private void store(IrReg r, String src) {
+        if (!operand(r).equals(src)) {
+            myCg.generate("movq", src, operand(r));
+        }
+    }
+
+    private Map<String, Integer> myStrings;    // string pool
+    private X86Codegen myCg;
+    private RegAlloc myAlloc;
+    private Map<Integer, Integer> mySlots;     // spilled register -> offset
+    private Map<IrBlock, String> myLabels;     // blocks that are jumped to
+    private String myExitLbl;
+    private IrBlock myNext;                    // block laid out next
+}
@@ -0,0 +1,401 @@
+import java.io.*;
+
+// **********************************************************************
+// The X86Codegen class provides constants and operations useful for
+// generating x86-64 GNU assembly (AT&T syntax, System V ABI, Linux
+// syscalls for I/O).  It is the x86-64 counterpart of Codegen.
+//
+// The constants are:
+//     Registers: RAX, RBX, RCX, RDX, RSI, RDI, RBP, RSP, R8 - R15
+//     Values: TRUE, FALSE
+//
+// The operations include various "generate" methods to print nicely
+// formatted assembly code:
+//     generate
+//     generateIndexed
+//     genPush
+//     genPop
+//     genLabel
+// methods to map globals and functions to their symbols and memory
+// operands:
+//     symbol
+//     global
+// and a method nextLabel to create and return a new label.
+//
+// The generated file is self-contained: genRuntime emits a _start entry
+// point and the small I/O runtime the generated code calls, so the output
+// assembles and links with plain binutils:
+//     as -o prog.o prog.s && ld -o prog prog.o
+//
+// Every Gibberish value (int, bool, string address) occupies one 8-byte
+// slot.  Ints are computed with 32-bit instructions and kept sign-extended
+// so that results match the 32-bit MIPS target.
+// **********************************************************************
+
+public class X86Codegen {
+    public X86Codegen(PrintWriter p, String labelPrefix) {
+        this.p = p;
+        this.labelPrefix = labelPrefix;
+    }
+
+    // file into which generated code is written
+    public PrintWriter p;
+
+    // values of true and false
+    public static final String TRUE = "$1";
+    public static final String FALSE = "$0";
+
+    // registers
+    public static final String RAX = "%rax";
+    public static final String RBX = "%rbx";
+    public static final String RCX = "%rcx";
+    public static final String RDX = "%rdx";
+    public static final String RSI = "%rsi";
+    public static final String RDI = "%rdi";
+    public static final String RBP = "%rbp";
+    public static final String RSP = "%rsp";
+    public static final String R8 = "%r8";
+    public static final String R9 = "%r9";
+    public static final String R10 = "%r10";
+    public static final String R11 = "%r11";
+    public static final String R12 = "%r12";
+    public static final String R13 = "%r13";
+    public static final String R14 = "%r14";
+    public static final String R15 = "%r15";
+    public static final String EAX = "%eax";
+    public static final String ECX = "%ecx";
+    public static final String AL = "%al";
+
+    // integer argument registers, in System V order
+    public static final String[] ARG_REGS = { RDI, RSI, RDX, RCX, R8, R9 };
+
+    // size of a stack slot
+    public static final int WORD = 8;
+
+    // for pretty printing generated code
+    private static final int MAXLEN = 6;
+
+    // for generating labels
+    private String labelPrefix;
+    private int currLabel = 0;
+
+    // **********************************************************************
+    // **********************************************************************
+    // GENERATE OPERATIONS
+    // **********************************************************************
+    // **********************************************************************
+
+    // **********************************************************************
+    // generate
+    //    given:  op code, and 0 to 2 string args (AT&T order: src, dst)
+    //    do:     write nicely formatted code (ending with new line)
+    // **********************************************************************
+    public void generate(String opcode, String arg1, String arg2) {
+        int space = MAXLEN - opcode.length() + 2;
+
+        p.print("\t" + opcode);
+        if (arg1 != "") {
+            for (int k = 1; k <= space; k++)
+                p.print(" ");
+            p.print(arg1);
+            if (arg2 != "")
+                p.print(", " + arg2);
+        }
+        p.println();
+    }
+
+    public void generate(String opcode, String arg1) {
+        generate(opcode, arg1, "");
+    }
+
+    public void generate(String opcode) {
+        generate(opcode, "", "");
+    }
+
+    // **********************************************************************
+    // generate (one int arg, one string)
+    //    given:  op code and args
+    //    do:     write nicely formatted code (ending with new line):
+    //                 op $xx, R
+    // **********************************************************************
+    public void generate(String opcode, int arg1, String arg2) {
+        generate(opcode, "$" + arg1, arg2);
+    }
+
+    // **********************************************************************
+    // generateIndexed
+    //    given:  op code, register R1 (as string), base register R2
+    //            (as string), offset xx (int), and a flag telling whether
+    //            the memory operand is the destination
+    //    do:     write nicely formatted code (ending with new line):
+    //                 op xx(R2), R1     or     op R1, xx(R2)
+    // **********************************************************************
+    public void generateIndexed(String opcode, String arg1, String arg2,
+                                       int arg3, boolean store) {
+        String mem = arg3 + "(" + arg2 + ")";
+        if (store) {
+            generate(opcode, arg1, mem);
+        } else {
+            generate(opcode, mem, arg1);
+        }
+    }
+
+    // **********************************************************************
+    // genPush
+    //    generate code to push the given register onto the stack
+    // **********************************************************************
+    public void genPush(String s) {
+        generate("pushq", s);
+    }
+
+    // **********************************************************************
+    // genPop
+    //    generate code to pop into the given register
+    // **********************************************************************
+    public void genPop(String s) {
+        generate("popq", s);
+    }
+
+    // **********************************************************************
+    // genLabel
+    //   given:    label L and comment (comment may be empty)
+    //   generate: L:    # comment
+    // **********************************************************************
+    public void genLabel(String label, String comment) {
+        p.print(label + ":");
+        if (comment != "")
+            p.print("\t\t" + "# " + comment);
+        p.println();
+    }
+
+    public void genLabel(String label) {
+        genLabel(label, "");
+    }
+
+    // **********************************************************************
+    // symbol
+    //    return the assembly symbol of the global variable or function with
+    //    the given name.  No identifier contains a '.', so the symbols
+    //    cannot clash with those of the runtime (_start, _gib_...)
+    // **********************************************************************
+    public static String symbol(String name) {
+        return "gib." + name;
+    }
+
+    // **********************************************************************
+    // global
+    //    return the memory operand of the global variable with the given
+    //    name, at the given byte offset (of a field of a struct)
+    // **********************************************************************
+    public static String global(String name, int offset) {
+        return symbol(name) + (offset == 0 ? "" : "+" + offset) + "(%rip)";
+    }
+
+    // **********************************************************************
+    // asciz
+    //    given:  a Gibberish string literal, including its double quotes
+    //    return: the equivalent GNU as string (every escape is rewritten as
+    //            an octal escape so that all of Gibberish's escapes are
+    //            understood by the assembler)
+    // **********************************************************************
+    public static String asciz(String lit) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int k = 1; k < lit.length() - 1; k++) {
+            char c = lit.charAt(k);
+            if (c == '\\') {
+                k++;
+                switch (lit.charAt(k)) {
+                case 'n':  c = '\n'; break;
+                case 't':  c = '\t'; break;
+                default:   c = lit.charAt(k);
+                }
+            }
+            if (c < ' ' || c == '"' || c == '\\' || c > '~') {
+                sb.append(String.format("\\%03o", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append("\"").toString();
+    }
+
+    // **********************************************************************
+    // Return a different label each time:
+    //        <prefix>0 <prefix>1 <prefix>2, etc.
+    // **********************************************************************
+    public String nextLabel() {
+        return labelPrefix + currLabel++;
+    }
+
+    // **********************************************************************
+    // genRuntime
+    //    write the program entry point and the I/O runtime called by the
+    //    generated code.  Output is buffered and flushed before every read
+    //    and at exit; input is read in blocks.
+    //
+    //    _gib_write_int(rdi)   write rdi as a signed decimal
+    //    _gib_write_str(rdi)   write the NUL-terminated string at rdi
+    //    _gib_read_int()       return the next (signed, decimal) int read
+    // **********************************************************************
+    public void genRuntime() {
+        p.print(RUNTIME);
+    }
+
+    private static final String RUNTIME =
+        "\t.text\n" +
+        "\t.globl _start\n" +
+        "_start:\t\t\t# PROGRAM ENTRY\n" +
+        "\txorl    %edi, %edi\n" +
+        "\txorl    %esi, %esi\n" +
+        "\txorl    %edx, %edx\n" +
+        "\txorl    %ecx, %ecx\n" +
+        "\txorl    %r8d, %r8d\n" +
+        "\txorl    %r9d, %r9d\n" +
+        "\tcall    main\n" +
+        "\tcall    _gib_flush\n" +
+        "\tmovl    $60, %eax\n" +
+        "\txorl    %edi, %edi\n" +
+        "\tsyscall\n" +
+        "\n" +
+        "_gib_putc:\t\t# append %dil to the output buffer\n" +
+        "\tmovq    _gib_outlen(%rip), %rax\n" +
+        "\tleaq    _gib_outbuf(%rip), %rdx\n" +
+        "\tmovb    %dil, (%rdx,%rax)\n" +
+        "\tincq    %rax\n" +
+        "\tmovq    %rax, _gib_outlen(%rip)\n" +
+        "\tcmpq    $4096, %rax\n" +
+        "\tjae     _gib_flush\n" +
+        "\tret\n" +
+        "\n" +
+        "_gib_flush:\t\t# write(1, outbuf, outlen)\n" +
+        "\tleaq    _gib_outbuf(%rip), %rsi\n" +
+        "\tmovq    _gib_outlen(%rip), %rdx\n" +
+        ".LXflush:\n" +
+        "\ttestq   %rdx, %rdx\n" +
+        "\tjle     .LXflushed\n" +
+        "\tmovl    $1, %eax\n" +
+        "\tmovl    $1, %edi\n" +
+        "\tsyscall\n" +
+        "\ttestq   %rax, %rax\n" +
+        "\tjle     .LXflushed\n" +
+        "\taddq    %rax, %rsi\n" +
+        "\tsubq    %rax, %rdx\n" +
+        "\tjmp     .LXflush\n" +
+        ".LXflushed:\n" +
+        "\tmovq    $0, _gib_outlen(%rip)\n" +
+        "\tret\n" +
+        "\n" +
+        "_gib_write_str:\n" +
+        "\tpushq   %rbx\n" +
+        "\tmovq    %rdi, %rbx\n" +
+        ".LXstr:\n" +
+        "\tmovzbl  (%rbx), %edi\n" +
+        "\ttestl   %edi, %edi\n" +
+        "\tjz      .LXstrdone\n" +
+        "\tcall    _gib_putc\n" +
+        "\tincq    %rbx\n" +
+        "\tjmp     .LXstr\n" +
+        ".LXstrdone:\n" +
+        "\tpopq    %rbx\n" +
+        "\tret\n" +
+        "\n" +
+        "_gib_write_int:\n" +
+        "\tpushq   %rbx\n" +
+        "\tsubq    $32, %rsp\n" +
+        "\tmovslq  %edi, %rax\n" +
+        "\tleaq    31(%rsp), %rbx\n" +
+        "\tmovb    $0, (%rbx)\n" +
+        "\tmovq    %rax, %rcx\n" +
+        "\ttestq   %rax, %rax\n" +
+        "\tjns     .LXdigit\n" +
+        "\tnegq    %rax\n" +
+        ".LXdigit:\n" +
+        "\txorl    %edx, %edx\n" +
+        "\tmovl    $10, %edi\n" +
+        "\tdivq    %rdi\n" +
+        "\taddb    $48, %dl\n" +
+        "\tdecq    %rbx\n" +
+        "\tmovb    %dl, (%rbx)\n" +
+        "\ttestq   %rax, %rax\n" +
+        "\tjnz     .LXdigit\n" +
+        "\ttestq   %rcx, %rcx\n" +
+        "\tjns     .LXsign\n" +
+        "\tdecq    %rbx\n" +
+        "\tmovb    $45, (%rbx)\n" +
+        ".LXsign:\n" +
+        "\tmovq    %rbx, %rdi\n" +
+        "\tcall    _gib_write_str\n" +
+        "\taddq    $32, %rsp\n" +
+        "\tpopq    %rbx\n" +
+        "\tret\n" +
+        "\n" +
+        "_gib_getc:\t\t# next input byte in %eax, -1 at end of input\n" +
+        "\tmovq    _gib_inpos(%rip), %rax\n" +
+        "\tcmpq    _gib_inlen(%rip), %rax\n" +
+        "\tjb      .LXgot\n" +
+        "\txorl    %eax, %eax\n" +
+        "\txorl    %edi, %edi\n" +
+        "\tleaq    _gib_inbuf(%rip), %rsi\n" +
+        "\tmovl    $4096, %edx\n" +
+        "\tsyscall\n" +
+        "\ttestq   %rax, %rax\n" +
+        "\tjg      .LXfilled\n" +
+        "\tmovl    $-1, %eax\n" +
+        "\tret\n" +
+        ".LXfilled:\n" +
+        "\tmovq    %rax, _gib_inlen(%rip)\n" +
+        "\txorl    %eax, %eax\n" +
+        ".LXgot:\n" +
+        "\tleaq    _gib_inbuf(%rip), %rdx\n" +
+        "\tmovzbl  (%rdx,%rax), %edx\n" +
+        "\tincq    %rax\n" +
+        "\tmovq    %rax, _gib_inpos(%rip)\n" +
+        "\tmovl    %edx, %eax\n" +
+        "\tret\n" +
+        "\n" +
+        "_gib_read_int:\n" +
+        "\tpushq   %rbx\n" +
+        "\tpushq   %r12\n" +
+        "\tcall    _gib_flush\n" +
+        ".LXskip:\n" +
+        "\tcall    _gib_getc\n" +
+        "\tcmpl    $32, %eax\n" +
+        "\tje      .LXskip\n" +
+        "\tcmpl    $9, %eax\n" +
+        "\tjl      .LXnosp\n" +
+        "\tcmpl    $13, %eax\n" +
+        "\tjle     .LXskip\n" +
+        ".LXnosp:\n" +
+        "\txorl    %r12d, %r12d\n" +
+        "\txorl    %ebx, %ebx\n" +
+        "\tcmpl    $45, %eax\n" +
+        "\tjne     .LXnum\n" +
+        "\tmovl    $1, %r12d\n" +
+        "\tcall    _gib_getc\n" +
+        ".LXnum:\n" +
+        "\tsubl    $48, %eax\n" +
+        "\tcmpl    $9, %eax\n" +
+        "\tja      .LXnumdone\n" +
+        "\timull   $10, %ebx, %ebx\n" +
+        "\taddl    %eax, %ebx\n" +
+        "\tcall    _gib_getc\n" +
+        "\tjmp     .LXnum\n" +
+        ".LXnumdone:\n" +
+        "\tmovl    %ebx, %eax\n" +
+        "\ttestl   %r12d, %r12d\n" +
+        "\tjz      .LXpos\n" +
+        "\tnegl    %eax\n" +
+        ".LXpos:\n" +
+        "\tcltq\n" +
+        "\tpopq    %r12\n" +
+        "\tpopq    %rbx\n" +
+        "\tret\n" +
+        "\n" +
+        "\t.bss\n" +
+        "\t.align 8\n" +
+        "_gib_outlen:\t.zero 8\n" +
+        "_gib_inpos:\t.zero 8\n" +
+        "_gib_inlen:\t.zero 8\n" +
+        "_gib_outbuf:\t.zero 4096\n" +
+        "_gib_inbuf:\t.zero 4096\n";
+}
@@ -100,6 +100,11 @@ import java.util.*;
 //        AndNode,         OrNode,          EqualsNode,     NotEqualsNode,
 //        LessNode,        GreaterNode,     LessEqNode,     GreaterEqNode
 //
+// Every node accepts an AstVisitor and has accessors for its kids; the
+// passes over the tree are classes of their own rather than methods in
+// each node class (NameAnalyzer, TypeChecker, FusedChecker, AstLower, and
+// AstWriter, an AstTraversal).
+//
 // **********************************************************************
 
 // **********************************************************************
@@ -110,6 +115,9 @@ abstract class ASTnode {
     // every subclass must provide an unparse operation
     abstract public void unparse(PrintWriter p, int indent);
 
+    // every subclass must accept a visitor (see AstVisitor)
+    abstract public <R> R accept(AstVisitor<R> v);
+
     // this method can be used by the unparse methods to do indenting
     protected void addIndentation(PrintWriter p, int indent) {
         for (int k=0; k<indent; k++) p.print(" ");
@@ -127,32 +135,15 @@ class ProgramNode extends ASTnode {
     }
 
     /**
-     * nameAnalysis
-     * Creates an empty symbol table for the outermost scope, then processes
-     * all of the globals, struct defintions, and functions in the program.
-     */
-    public void nameAnalysis() {
-        SymTable symTab = new SymTable();
-        TSym.setOffsetLoc(1);
-        myDeclList.nameAnalysis(symTab);
-        if (noMain) {
-            ErrMsg.fatal(0, 0, "No main function");
-        }
-    }
-
-    /**
-     * codeGen
+     * accept
      */
-    public void codeGen(PrintWriter p) {
-        Codegen.p = p;
-        myDeclList.codeGen();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck() {
-        myDeclList.typeCheck();
+    // the kids, for visitors
+    public DeclListNode declList() {
+        return myDeclList;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -161,60 +152,37 @@ class ProgramNode extends ASTnode {
 
     // 1 kid
     private DeclListNode myDeclList;
-    public static boolean noMain = true;
 }
 
 class DeclListNode extends ASTnode {
     public DeclListNode(List<DeclNode> S) {
-        myDecls = S;
-    }
-
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, process all of the decls in the list.
-     */
-    public void nameAnalysis(SymTable symTab) {
-        nameAnalysis(symTab, symTab);
+        myDecls = new ArrayList<DeclNode>(S);
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab and a global symbol table globalTab
-     * (for processing struct names in variable decls), process all of the
-     * decls in the list.
+     * layout
+     * Given the symbol def of a struct whose fields are the decls in the
+     * list, lay out the fields in order.
      */
-    public void nameAnalysis(SymTable symTab, SymTable globalTab) {
-        int offsetLoc = TSym.getOffsetLoc();
+    public void layout(StructDefSym def) {
         for (DeclNode node : myDecls) {
-            if (node instanceof VarDeclNode) {
-                ((VarDeclNode)node).nameAnalysis(symTab, globalTab);
-                ((VarDeclNode)node).getTSym().setOffset(offsetLoc);
-                if (offsetLoc != 1) {
-                    offsetLoc -= 4;
-                }
-            } else {
-                node.nameAnalysis(symTab);
+            TSym sym = ((VarDeclNode)node).getTSym();
+            if (sym != null) {      // not a bad decl
+                def.addField(((VarDeclNode)node).name(), StructDefSym.sizeOf(sym));
             }
         }
-        TSym.setOffsetLoc(offsetLoc);
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck() {
-        for (DeclNode node : myDecls) {
-            node.typeCheck();
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen() {
-        for (int i = 0; i < myDecls.size(); i++) {
-            DeclNode node = myDecls.get(i);
-            if (node instanceof VarDeclNode || node instanceof FnDeclNode){
-                node.codeGen();
-            }
-        }
+    // the kids, for visitors
+    public List<DeclNode> decls() {
+        return myDecls;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -230,36 +198,14 @@ class DeclListNode extends ASTnode {
     }
 
     // list of kids (DeclNodes)
-    private List<DeclNode> myDecls;
+    private ArrayList<DeclNode> myDecls;
 }
 
 class FormalsListNode extends ASTnode {
     public FormalsListNode(List<FormalDeclNode> S) {
-        myFormals = S;
+        myFormals = new ArrayList<FormalDeclNode>(S);
     }
 
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * for each formal decl in the list
-     *     process the formal decl
-     *     if there was no error, add type of formal decl to list
-     */
-    public List<Type> nameAnalysis(SymTable symTab) {
-        List<Type> typeList = new LinkedList<Type>();
-        int offsetLoc = 4;
-        for (FormalDeclNode node : myFormals) {
-            TSym sym = node.nameAnalysis(symTab);
-            if (sym != null) {
-                typeList.add(sym.getType());
-                sym.setOffset(offsetLoc);
-                offsetLoc += 4;
-            }
-        }
-        paramSize = offsetLoc - 4;
-        return typeList;
-    }
-    
     public int length() {
         return myFormals.size();
     }
@@ -268,6 +214,22 @@ class FormalsListNode extends ASTnode {
         return paramSize;
     }
 
+    public void setParamSize(int size) {
+        paramSize = size;
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    // the kids, for visitors
+    public List<FormalDeclNode> formals() {
+        return myFormals;
+    }
+
     public void unparse(PrintWriter p, int indent) {
         Iterator<FormalDeclNode> it = myFormals.iterator();
         if (it.hasNext()) { // if there is at least one element
@@ -280,7 +242,7 @@ class FormalsListNode extends ASTnode {
     }
 
     // list of kids (FormalDeclNodes)
-    private List<FormalDeclNode> myFormals;
+    private ArrayList<FormalDeclNode> myFormals;
     private int paramSize;
 }
 
@@ -290,33 +252,28 @@ class FnBodyNode extends ASTnode {
         myStmtList = stmtList;
     }
 
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the declaration list
-     * - process the statement list
-     */
-    public void nameAnalysis(SymTable symTab) {
-        TSym.setOffsetLoc(-8);
-        myDeclList.nameAnalysis(symTab);
-        myStmtList.nameAnalysis(symTab);
-        int offsetLoc = TSym.getOffsetLoc();
-        localSize = (offsetLoc + 8) * (-1);
-    }
-
     public int getLocalSize() {
         return localSize;
     }
 
+    public void setLocalSize(int size) {
+        localSize = size;
+    }
+
     /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        myStmtList.typeCheck(retType);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen(String endLbl) {
-        myStmtList.codeGen(endLbl);
+    // the kids, for visitors
+    public DeclListNode declList() {
+        return myDeclList;
+    }
+
+    public StmtListNode stmtList() {
+        return myStmtList;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -332,32 +289,31 @@ class FnBodyNode extends ASTnode {
 
 class StmtListNode extends ASTnode {
     public StmtListNode(List<StmtNode> S) {
-        myStmts = S;
+        myStmts = new ArrayList<StmtNode>(S);
+        for (StmtNode node : myStmts) {
+            mySize += node.size();
+        }
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, process each statement in the list.
+     * size
+     * Computed as the list is built, from the sizes of its statements, so
+     * that it takes no walk of the nested statements.
      */
-    public void nameAnalysis(SymTable symTab) {
-        for (StmtNode node : myStmts) {
-            node.nameAnalysis(symTab);
-        }
+    public int size() {
+        return mySize;
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        for(StmtNode node : myStmts) {
-            node.typeCheck(retType);
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen(String endLbl) {
-        for(StmtNode s : myStmts) {
-            s.codeGen(endLbl);            
-        }
+    // the kids, for visitors
+    public List<StmtNode> stmts() {
+        return myStmts;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -368,12 +324,13 @@ class StmtListNode extends ASTnode {
     }
 
     // list of kids (StmtNodes)
-    private List<StmtNode> myStmts;
+    private ArrayList<StmtNode> myStmts;
+    private int mySize;
 }
 
 class ExpListNode extends ASTnode {
     public ExpListNode(List<ExpNode> S) {
-        myExps = S;
+        myExps = new ArrayList<ExpNode>(S);
     }
 
     public int size() {
@@ -381,46 +338,17 @@ class ExpListNode extends ASTnode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, process each exp in the list.
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        for (ExpNode node : myExps) {
-            node.nameAnalysis(symTab);
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(List<Type> typeList) {
-        int k = 0;
-        try {
-            for (ExpNode node : myExps) {
-                Type actualType = node.typeCheck();     // actual type of arg
-
-                if (!actualType.isErrorType()) {        // if this is not an error
-                    Type formalType = typeList.get(k);  // get the formal type
-                    if (!formalType.equals(actualType)) {
-                        ErrMsg.fatal(node.lineNum(), node.charNum(),
-                                     "Type of actual does not match type of formal");
-                    }
-                }
-                k++;
-            }
-        } catch (NoSuchElementException e) {
-            System.err.println("unexpected NoSuchElementException in ExpListNode.typeCheck");
-            System.exit(-1);
-        }
+    // the kids, for visitors
+    public List<ExpNode> exps() {
+        return myExps;
     }
 
-    public void codeGen() {
-        for (int i = myExps.size() - 1; i >= 0; i--) {
-            myExps.get(i).codeGenReg();
-            Codegen.genPush(Codegen.T0);
-        }
-    }    
-
     public void unparse(PrintWriter p, int indent) {
         Iterator<ExpNode> it = myExps.iterator();
         if (it.hasNext()) { // if there is at least one element
@@ -433,7 +361,7 @@ class ExpListNode extends ASTnode {
     }
 
     // list of kids (ExpNodes)
-    private List<ExpNode> myExps;
+    private ArrayList<ExpNode> myExps;
 }
 
 // **********************************************************************
@@ -441,15 +369,7 @@ class ExpListNode extends ASTnode {
 // **********************************************************************
 
 abstract class DeclNode extends ASTnode {
-    /**
-     * Note: a formal decl needs to return a sym
-     */
-    abstract public TSym nameAnalysis(SymTable symTab);
 
-    // default version of typeCheck for non-function decls
-    public void typeCheck() { }
-
-    public void codeGen() {};
 }
 
 class VarDeclNode extends DeclNode {
@@ -460,119 +380,23 @@ class VarDeclNode extends DeclNode {
     }
 
     /**
-     * nameAnalysis (overloaded)
-     * Given a symbol table symTab, do:
-     * if this name is declared void, then error
-     * else if the declaration is of a struct type,
-     *     lookup type name (globally)
-     *     if type name doesn't exist, then error
-     * if no errors so far,
-     *     if name has already been declared in this scope, then error
-     *     else add name to local symbol table
-     *
-     * symTab is local symbol table (say, for struct field decls)
-     * globalTab is global symbol table (for struct type names)
-     * symTab and globalTab can be the same
+     * accept
      */
-    public TSym nameAnalysis(SymTable symTab) {
-        return nameAnalysis(symTab, symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public TSym nameAnalysis(SymTable symTab, SymTable globalTab) {
-        boolean badDecl = false;
-        String name = myId.name();
-        TSym sym = null;
-        IdNode structId = null;
-
-        if (myType instanceof VoidNode) {  // check for void type
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Non-function declared void");
-            badDecl = true;
-        }
-
-        else if (myType instanceof StructNode) {
-            structId = ((StructNode)myType).idNode();
-
-            try {
-                sym = globalTab.lookupGlobal(structId.name());
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                   " in VarDeclNode.nameAnalysis");
-            }
-
-            // if the name for the struct type is not found,
-            // or is not a struct type
-            if (sym == null || !(sym instanceof StructDefSym)) {
-                ErrMsg.fatal(structId.lineNum(), structId.charNum(),
-                             "Invalid name of struct type");
-                badDecl = true;
-            }
-            else {
-                structId.link(sym);
-            }
-        }
-
-        TSym symCheckMul = null;
-
-        try {
-            symCheckMul = symTab.lookupLocal(name);
-        } catch (EmptySymTableException ex) {
-                            System.err.println("Unexpected EmptySymTableException " +
-                                   " in VarDeclNode.nameAnalysis");
-        }
-
-        if (symCheckMul != null) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Multiply declared identifier");
-            badDecl = true;
-        }
-
-        if (!badDecl) {  // insert into symbol table
-            try {
-                if (myType instanceof StructNode) {
-                    sym = new StructSym(structId);
-                }
-                else {
-                    sym = new TSym(myType.type());
-		    if (!globalTab.isGlobalScope()) {
-			int offset = globalTab.getOffset();
-			sym.setOffset(offset);
-			globalTab.setOffset(offset - 4); // everything is int or bool
-		    } else {
-		    	sym.setOffset(1);
-	    	    }
-                }
-                symTab.addDecl(name, sym);
-                myId.link(sym);
-            } catch (DuplicateSymException ex) {
-                System.err.println("Unexpected DuplicateSymException " +
-                                   " in VarDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                   " in VarDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (IllegalArgumentException ex) {
-                System.err.println("Unexpected IllegalArgumentException " +
-                                   " in VarDeclNode.nameAnalysis");
-                System.exit(-1);
-            }
-        }
-
-        return sym;
+    // the kids, for visitors
+    public TypeNode typeNode() {
+        return myType;
     }
 
-    public static String setGlobal(String varName) {
-        int varSize = 4;
-        String tmp = String.format("\t.data\n\t.align 2\n_%s:\t.space %d\n", 
-                    varName, varSize);
-        return tmp;
+    public IdNode id() {
+        return myId;
     }
 
-    public void codeGen() {
-        if (myId.sym().getOffset() == 1) {
-            Codegen.p.print(setGlobal(myId.name()));
-        }
+    public int size() {
+        return mySize;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -587,6 +411,10 @@ class VarDeclNode extends DeclNode {
         return myId.sym();
     }
 
+    public String name() {
+        return myId.name();
+    }
+
     // 3 kids
     private TypeNode myType;
     private IdNode myId;
@@ -607,132 +435,27 @@ class FnDeclNode extends DeclNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * if this name has already been declared in this scope, then error
-     * else add name to local symbol table
-     * in any case, do the following:
-     *     enter new scope
-     *     process the formals
-     *     if this function is not multiply declared,
-     *         update symbol table entry with types of formals
-     *     process the body of the function
-     *     exit scope
+     * accept
      */
-    public TSym nameAnalysis(SymTable symTab) {
-        String name = myId.name();
-        FnSym sym = null;
-        TSym symCheckMul = null;
-
-        try {
-            symCheckMul = symTab.lookupLocal(name);
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                         " in FnDeclNode.nameAnalysis");
-        }
-
-        if (symCheckMul != null) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Multiply declared identifier");
-        }
-
-        else { // add function name to local symbol table
-            if (name.equals("main")) ProgramNode.noMain = false;
-            try {
-                sym = new FnSym(myType.type(), myFormalsList.length());
-                symTab.addDecl(name, sym);
-                myId.link(sym);
-            } catch (DuplicateSymException ex) {
-                System.err.println("Unexpected DuplicateSymException " +
-                                   " in FnDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                   " in FnDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (IllegalArgumentException ex) {
-                System.err.println("Unexpected IllegalArgumentException " +
-                                   " in FnDeclNode.nameAnalysis");
-                System.exit(-1);
-            }
-        }
-
-        symTab.setGlobalScope(false);
-	symTab.setOffset(0);
-        symTab.addScope();  // add a new scope for locals and params
-
-        // process the formals
-        List<Type> typeList = myFormalsList.nameAnalysis(symTab);
-        if (sym != null) {
-            sym.addFormals(typeList);
-	    sym.setParamSize(-1*symTab.getOffset());
-        }
-
-        symTab.setOffset(symTab.getOffset() - 8);
-	int temp = symTab.getOffset();
-        myBody.nameAnalysis(symTab); // process the function body
-        if (sym != null) {
-	    sym.setLocalSize(-1*(symTab.getOffset() - temp));
-	}
-	symTab.setGlobalScope(true);
-        
-        try {
-            symTab.removeScope();  // exit scope
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in FnDeclNode.nameAnalysis");
-            System.exit(-1);
-        }
-
-        return null;
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck() {
-        myBody.typeCheck(myType.type());
+    // the kids, for visitors
+    public TypeNode typeNode() {
+        return myType;
     }
 
-    public void codeGen() {
-        String fnName = myId.name();
-        String endLbl = Codegen.nextLabel();
-        
-        if(myId.isMain()) {
-            Codegen.p.print("\t.text\n\t.globl main\nmain:\t\t# METHOD ENTRY\n");
-            Codegen.genLabel("__start", "");
-        } else {
-            Codegen.p.print(String.format("\t.text\n_%s:\t# METHOD ENTRY\n", fnName));
-        }
-
-        int offset = ((FnSym)myId.sym()).getLocalSize();
-
-        Codegen.genPush(Codegen.RA);
-        Codegen.genPush(Codegen.FP);
+    public IdNode id() {
+        return myId;
+    }
 
-        Codegen.generate("addu", Codegen.FP, Codegen.SP, 8);
-        Codegen.generate("subu", Codegen.SP, Codegen.SP, offset);
-        Codegen.generate("\t#WRITE");
-        
-        myBody.codeGen(endLbl);
-        Codegen.generate("\t#FUNCTION EXIT\n");
-        Codegen.genLabel(endLbl);
+    public FormalsListNode formalsList() {
+        return myFormalsList;
+    }
 
-        if(myId.isMain()) {
-           Codegen.genLabel("_main_Exit");
-        }
-        Codegen.generateIndexed("lw", Codegen.RA, Codegen.FP, 0);
-        Codegen.generate("move", Codegen.T0, Codegen.FP);
-        Codegen.generateIndexed("lw", Codegen.FP, Codegen.FP, -4);
-        Codegen.generate("move", Codegen.SP, Codegen.T0);
-        
-        if(myId.isMain()) {
-            Codegen.generate("li", Codegen.V0, "10");
-            Codegen.generate("syscall");
-        }
-        else {
-            Codegen.generate("jr", Codegen.RA);
-        }
+    public FnBodyNode body() {
+        return myBody;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -760,64 +483,24 @@ class FormalDeclNode extends DeclNode {
         myId = id;
     }
 
+    public TSym getTSym() {
+        return myId.sym();
+    }
+
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * if this formal is declared void, then error
-     * else if this formal is already in the local symble table,
-     *     then issue multiply declared error message and return null
-     * else add a new entry to the symbol table and return that TSym
+     * accept
      */
-    public TSym nameAnalysis(SymTable symTab) {
-        String name = myId.name();
-        boolean badDecl = false;
-        TSym sym = null;
-
-        if (myType instanceof VoidNode) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Non-function declared void");
-            badDecl = true;
-        }
-
-        TSym symCheckMul = null;
-
-        try {
-            symCheckMul = symTab.lookupLocal(name);
-        } catch (EmptySymTableException ex) {
-                            System.err.println("Unexpected EmptySymTableException " +
-                                   " in FormalDeclNode.nameAnalysis");
-        }
-
-        if (symCheckMul != null) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Multiply declared identifier");
-            badDecl = true;
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
 
-        if (!badDecl) {  // insert into symbol table
-            try {
-		int offset = symTab.getOffset();
-                sym = new TSym(myType.type());
-                sym.setOffset(offset);
-		symTab.setOffset(offset - 4); // only int and bool formals
-                symTab.addDecl(name, sym);
-                myId.link(sym);
-            } catch (DuplicateSymException ex) {
-                System.err.println("Unexpected DuplicateSymException " +
-                                   " in FormalDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                   " in FormalDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (IllegalArgumentException ex) {
-                System.err.println("Unexpected IllegalArgumentException " +
-                                   " in FormalDeclNode.nameAnalysis");
-                System.exit(-1);
-            }
-       }
+    // the kids, for visitors
+    public TypeNode typeNode() {
+        return myType;
+    }
 
-        return sym;
+    public IdNode id() {
+        return myId;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -838,57 +521,19 @@ class StructDeclNode extends DeclNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * if this name is already in the symbol table,
-     *     then multiply declared error (don't add to symbol table)
-     * create a new symbol table for this struct definition
-     * process the decl list
-     * if no errors
-     *     add a new entry to symbol table for this struct
+     * accept
      */
-    public TSym nameAnalysis(SymTable symTab) {
-        String name = myId.name();
-        boolean badDecl = false;
-
-        TSym symCheckMul = null;
-
-        try {
-            symCheckMul = symTab.lookupLocal(name);
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                           " in StructDeclNode.nameAnalysis");
-        }
-
-        if (symCheckMul != null) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Multiply declared identifier");
-            badDecl = true;
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
 
-        if (!badDecl) {
-            try {   // add entry to symbol table
-                SymTable structSymTab = new SymTable();
-                myDeclList.nameAnalysis(structSymTab, symTab);
-                StructDefSym sym = new StructDefSym(structSymTab);
-                symTab.addDecl(name, sym);
-                myId.link(sym);
-            } catch (DuplicateSymException ex) {
-                System.err.println("Unexpected DuplicateSymException " +
-                                   " in StructDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                   " in StructDeclNode.nameAnalysis");
-                System.exit(-1);
-            } catch (IllegalArgumentException ex) {
-                System.err.println("Unexpected IllegalArgumentException " +
-                                   " in StructDeclNode.nameAnalysis");
-                System.exit(-1);
-            }
-        }
+    // the kids, for visitors
+    public IdNode id() {
+        return myId;
+    }
 
-        return null;
+    public DeclListNode declList() {
+        return myDeclList;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -924,7 +569,14 @@ class IntNode extends TypeNode {
      * type
      */
     public Type type() {
-        return new IntType();
+        return Type.INT;
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -940,7 +592,14 @@ class BoolNode extends TypeNode {
      * type
      */
     public Type type() {
-        return new BoolType();
+        return Type.BOOL;
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -956,7 +615,14 @@ class VoidNode extends TypeNode {
      * type
      */
     public Type type() {
-        return new VoidType();
+        return Type.VOID;
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -975,9 +641,20 @@ class StructNode extends TypeNode {
 
     /**
      * type
+     * The type of the struct myId is linked to, after name analysis.
      */
     public Type type() {
-        return new StructType(myId);
+        if (myId.sym() instanceof StructDefSym) {
+            return ((StructDefSym)myId.sym()).getStructType();
+        }
+        return Type.ERROR;
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -994,9 +671,15 @@ class StructNode extends TypeNode {
 // **********************************************************************
 
 abstract class StmtNode extends ASTnode {
-    abstract public void nameAnalysis(SymTable symTab);
-    abstract public void typeCheck(Type retType);
-    abstract public void codeGen(String exitLbl);
+
+    /**
+     * size
+     * The number of statements lowered for this one, counting nested
+     * statements (see RepeatStmtNode, which bounds unrolling by it).
+     */
+    public int size() {
+        return 1;
+    }
 }
 
 class AssignStmtNode extends StmtNode {
@@ -1005,22 +688,15 @@ class AssignStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
-     */
-    public void nameAnalysis(SymTable symTab) {
-        myAssign.nameAnalysis(symTab);
-    }
-
-    /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        myAssign.typeCheck();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen(String exitLbl) {
-        myAssign.codeGenValue();
+    // the kids, for visitors
+    public AssignNode assign() {
+        return myAssign;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1039,35 +715,16 @@ class PostIncStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
-     */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
-    }
-
-    /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
-
-        if (!type.isErrorType() && !type.isIntType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Arithmetic operator applied to non-numeric operand");
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen(String exitLbl) {
-        assert (myExp instanceof IdNode);
-        IdNode node = (IdNode) myExp;
-        node.codeGenPres();
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("lw", Codegen.T1, "0(" + Codegen.T0 + ")");
-        Codegen.generate("add", Codegen.T1, Codegen.T1, 1);
-        Codegen.generate("sw", Codegen.T1, "0(" + Codegen.T0 + ")");
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
-    
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1085,37 +742,17 @@ class PostDecStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
-
-        if (!type.isErrorType() && !type.isIntType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Arithmetic operator applied to non-numeric operand");
-        }
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
 
-    public void codeGen(String exitLbl) {
-        assert (myExp instanceof IdNode);
-        IdNode node = (IdNode) myExp;
-        node.codeGenPres();
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("lw", Codegen.T1, "0(" + Codegen.T0 + ")");
-        Codegen.generate("sub", Codegen.T1, Codegen.T1, 1);
-        Codegen.genPush(Codegen.T1); 
-        Codegen.generate("sw", Codegen.T1, "0(" + Codegen.T0 + ")");
-    }
-    
-
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
         myExp.unparse(p, 0);
@@ -1132,49 +769,16 @@ class ReadStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
-
-        if (type.isFnType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to read a function");
-        }
-
-        if (type.isStructDefType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to read a struct name");
-        }
-
-        if (type.isStructType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to read a struct variable");
-        }
-    }
-
-    public void codeGen(String exitLbl) {
-        assert (myExp instanceof IdNode);
-    
-        Codegen.generate("li", Codegen.V0, 5);
-        Codegen.generate("syscall");
-    
-        // Load the address of the input variable into T0
-        IdNode node = (IdNode) myExp;
-        node.codeGenPres();
-    
-        // Store the value read from standard input into the input variable
-        Codegen.generateIndexed("sw", Codegen.V0, Codegen.T0, 0);
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
-    
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1193,58 +797,16 @@ class WriteStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
-	    myType = type;
-
-        if (type.isFnType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to write a function");
-        }
-
-        if (type.isStructDefType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to write a struct name");
-        }
-
-        if (type.isStructType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to write a struct variable");
-        }
-
-        if (type.isVoidType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Attempt to write void");
-        }
-    }
-
-    public void codeGen(String fnExitLabel) {
-        myExp.codeGenValue();
-        Type expType = myExp.typeCheck();
-        Codegen.genPop(Codegen.T0);
-        if(expType.isStringType()) {
-            // print a string
-            Codegen.generate("li", Codegen.V0, 4);
-            Codegen.generate("move", Codegen.A0, Codegen.T0);
-            Codegen.generate("syscall");
-        } else {
-            // print an integer or boolean
-            Codegen.generate("li", Codegen.V0, 1);
-            Codegen.generate("move", Codegen.A0, Codegen.T0);
-            Codegen.generate("syscall");
-        }
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
-    
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1255,7 +817,6 @@ class WriteStmtNode extends StmtNode {
 
     // 1 kid
     private ExpNode myExp;
-    private Type myType;
 }
 
 class IfStmtNode extends StmtNode {
@@ -1266,50 +827,31 @@ class IfStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the condition
-     * - enter a new scope
-     * - process the decls and stmts
-     * - exit the scope
+     * size
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
-        symTab.addScope();
-        myDeclList.nameAnalysis(symTab);
-        myStmtList.nameAnalysis(symTab);
-        try {
-            symTab.removeScope();
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in IfStmtNode.nameAnalysis");
-            System.exit(-1);
-        }
+    public int size() {
+        return 1 + myStmtList.size();
     }
 
-     /**
-     * typeCheck
+    /**
+     * accept
      */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
 
-        if (!type.isErrorType() && !type.isBoolType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Non-bool expression used as an if condition");
-        }
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
+    }
 
-        myStmtList.typeCheck(retType);
+    public DeclListNode declList() {
+        return myDeclList;
     }
 
-    public void codeGen(String exitLbl) {
-        String ifFalseLabel = Codegen.nextLabel();
-        myExp.codeGenValue();
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, ifFalseLabel);
-        myStmtList.codeGen(exitLbl);
-        Codegen.genLabel(ifFalseLabel);
+    public StmtListNode stmtList() {
+        return myStmtList;
     }
-    
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1340,65 +882,38 @@ class IfElseStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the condition
-     * - enter a new scope
-     * - process the decls and stmts of then
-     * - exit the scope
-     * - enter a new scope
-     * - process the decls and stmts of else
-     * - exit the scope
+     * size
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
-        symTab.addScope();
-        myThenDeclList.nameAnalysis(symTab);
-        myThenStmtList.nameAnalysis(symTab);
-        try {
-            symTab.removeScope();
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in IfElseStmtNode.nameAnalysis");
-            System.exit(-1);
-        }
-        symTab.addScope();
-        myElseDeclList.nameAnalysis(symTab);
-        myElseStmtList.nameAnalysis(symTab);
-        try {
-            symTab.removeScope();
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in IfElseStmtNode.nameAnalysis");
-            System.exit(-1);
-        }
+    public int size() {
+        return 1 + myThenStmtList.size() + myElseStmtList.size();
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
 
-        if (!type.isErrorType() && !type.isBoolType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Non-bool expression used as an if condition");
-        }
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
+    }
+
+    public DeclListNode thenDeclList() {
+        return myThenDeclList;
+    }
+
+    public StmtListNode thenStmtList() {
+        return myThenStmtList;
+    }
 
-        myThenStmtList.typeCheck(retType);
-        myElseStmtList.typeCheck(retType);
+    public DeclListNode elseDeclList() {
+        return myElseDeclList;
     }
 
-    public void codeGen(String exitLbl) {
-        String elseLbl = Codegen.nextLabel();
-        String endLbl = Codegen.nextLabel();
-        myExp.codeGenLink(elseLbl, endLbl);
-        Codegen.genLabel(elseLbl);
-        myThenStmtList.codeGen(exitLbl);
-        Codegen.generate("b", endLbl);
-        // Generate code for the "else" block
-        Codegen.genLabel(endLbl);
-        myElseStmtList.codeGen(exitLbl);
+    public StmtListNode elseStmtList() {
+        return myElseStmtList;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1434,60 +949,31 @@ class WhileStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the condition
-     * - enter a new scope
-     * - process the decls and stmts
-     * - exit the scope
+     * size
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
-        symTab.addScope();
-        myDeclList.nameAnalysis(symTab);
-        myStmtList.nameAnalysis(symTab);
-        try {
-            symTab.removeScope();
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in WhileStmtNode.nameAnalysis");
-            System.exit(-1);
-        }
+    public int size() {
+        return 1 + myStmtList.size();
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
 
-        if (!type.isErrorType() && !type.isBoolType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Non-bool expression used as a while condition");
-        }
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
+    }
 
-        myStmtList.typeCheck(retType);
-    }
-
-    public void codeGen(String exitLbl) {
-        // Generate labels for the condition, body, and after loop.
-        String condLabel = Codegen.nextLabel();
-        String bodyLabel = Codegen.nextLabel();
-        String afterLabel = Codegen.nextLabel();
-    
-        // Generate code for the loop condition.
-        Codegen.genLabel(condLabel);
-        myExp.codeGenLink(bodyLabel, afterLabel);
-    
-        // Generate code for the loop body.
-        Codegen.genLabel(bodyLabel);
-        myStmtList.codeGen(exitLbl);
-        Codegen.generate("j", condLabel);
-    
-        // Generate code for after the loop.
-        Codegen.genLabel(afterLabel);
-    }
-    
+    public DeclListNode declList() {
+        return myDeclList;
+    }
+
+    public StmtListNode stmtList() {
+        return myStmtList;
+    }
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1514,42 +1000,58 @@ class RepeatStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the condition
-     * - enter a new scope
-     * - process the decls and stmts
-     * - exit the scope
+     * Return the number of times the body is unrolled: the count, if it
+     * is a constant of at most MAX_UNROLL and the unrolled body has at
+     * most MAX_UNROLL_SIZE statements, or -1 if it is not unrolled.
      */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
-        symTab.addScope();
-        myDeclList.nameAnalysis(symTab);
-        myStmtList.nameAnalysis(symTab);
-        try {
-            symTab.removeScope();
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in RepeatStmtNode.nameAnalysis");
-            System.exit(-1);
+    public static int unrollCount(int count, int bodySize) {
+        if (count <= 0) {
+            return 0;
+        }
+        if (count <= MAX_UNROLL && count * bodySize <= MAX_UNROLL_SIZE) {
+            return count;
         }
+        return -1;
     }
 
     /**
-     * typeCheck
+     * unrollCount
+     * The number of times this loop is unrolled, or -1 if it is not.
      */
-    public void typeCheck(Type retType) {
-        Type type = myExp.typeCheck();
-
-        if (!type.isErrorType() && !type.isIntType()) {
-            ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                         "Non-integer expression used as a repeat clause");
+    public int unrollCount() {
+        if (!(myExp instanceof IntLitNode)) {
+            return -1;
         }
+        return unrollCount(((IntLitNode)myExp).value(), myStmtList.size());
+    }
 
-        myStmtList.typeCheck(retType);
+    /**
+     * size
+     */
+    public int size() {
+        int n = unrollCount();
+        return n >= 0 ? n * myStmtList.size() : 1 + myStmtList.size();
+    }
+
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGen(String exitLbl) {}
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
+    }
+
+    public DeclListNode declList() {
+        return myDeclList;
+    }
+
+    public StmtListNode stmtList() {
+        return myStmtList;
+    }
 
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
@@ -1566,6 +1068,9 @@ class RepeatStmtNode extends StmtNode {
     private ExpNode myExp;
     private DeclListNode myDeclList;
     private StmtListNode myStmtList;
+
+    public static final int MAX_UNROLL = 8;         // iterations
+    public static final int MAX_UNROLL_SIZE = 16;   // statements
 }
 
 
@@ -1575,22 +1080,15 @@ class CallStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myCall.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(Type retType) {
-        myCall.typeCheck();
-    }
-
-    public void codeGen(String exitLbl) {
-        myCall.codeGenReg();
+    // the kids, for visitors
+    public CallExpNode call() {
+        return myCall;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1609,52 +1107,17 @@ class ReturnStmtNode extends StmtNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child,
-     * if it has one
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        if (myExp != null) {
-            myExp.nameAnalysis(symTab);
-        }
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public void typeCheck(Type retType) {
-        if (myExp != null) {  // return value given
-            Type type = myExp.typeCheck();
-
-            if (retType.isVoidType()) {
-                ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                             "Return with a value in a void function");
-            }
-
-            else if (!retType.isErrorType() && !type.isErrorType() && !retType.equals(type)){
-                ErrMsg.fatal(myExp.lineNum(), myExp.charNum(),
-                             "Bad return value");
-            }
-        }
-
-        else {  // no return value given -- ok if this is a void function
-            if (!retType.isVoidType()) {
-                ErrMsg.fatal(0, 0, "Missing return value");
-            }
-        }
-
+    // the kids, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
 
-    public void codeGen(String endLbl) {
-        if (myExp != null) {
-            myExp.codeGenValue();
-            Codegen.genPop(Codegen.V0);
-            Codegen.generate("b", endLbl);
-        } else {
-            Codegen.generate("j", endLbl);
-        }
-    }
-    
     public void unparse(PrintWriter p, int indent) {
         addIndentation(p, indent);
         p.print("return");
@@ -1674,21 +1137,27 @@ class ReturnStmtNode extends StmtNode {
 // **********************************************************************
 
 abstract class ExpNode extends ASTnode {
+    abstract public int lineNum();
+    abstract public int charNum();
+
     /**
-     * Default version for nodes with no names
+     * type
+     * The type of this expression, once it has been type checked.
      */
-    public void nameAnalysis(SymTable symTab) { }
+    public Type type() {
+        return myType;
+    }
 
-    abstract public Type typeCheck();
-    abstract public int lineNum();
-    abstract public int charNum();
+    /**
+     * setType
+     * Records the type found by TypeChecker, or restores it (see
+     * AstReader).
+     */
+    public void setType(Type type) {
+        myType = type;
+    }
 
-    public void codeGenValue(){
-        this.codeGenReg();
-        Codegen.genPush(Codegen.T0);
-    };
-    abstract protected void codeGenReg();
-    public void codeGenLink(String lblTrue, String lblFalse) {}
+    private Type myType;        // set by setType
 }
 
 class IntLitNode extends ExpNode {
@@ -1713,14 +1182,17 @@ class IntLitNode extends ExpNode {
     }
 
     /**
-     * typeCheck
+     * Return the value of this literal.
      */
-    public Type typeCheck() {
-        return new IntType();
+    public int value() {
+        return myIntVal;
     }
 
-    protected void codeGenReg() {
-        Codegen.generate("li", Codegen.T0, String.valueOf(myIntVal));
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1758,20 +1230,16 @@ class StringLitNode extends ExpNode {
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        return new StringType();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    protected void codeGenReg() {
-        String myLabel = Codegen.nextLabel();
-        Codegen.p.print("\t.data\n");
-        Codegen.p.print(String.format("%s:\t.asciiz %s\n", myLabel, myStrVal));
-        Codegen.p.print("\t.text\n");
-    
-        Codegen.generate("la", Codegen.T0, myLabel);
-    }    
+    // the kids, for visitors
+    public String str() {
+        return myStrVal;
+    }
 
     public void unparse(PrintWriter p, int indent) {
         p.print(myStrVal);
@@ -1803,20 +1271,10 @@ class TrueNode extends ExpNode {
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        return new BoolType();
-    }
-
-    protected void codeGenReg() {
-        String boolValue = Codegen.TRUE;
-        Codegen.generate("li", Codegen.T0, boolValue);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("b", lblTrue);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1848,20 +1306,10 @@ class FalseNode extends ExpNode {
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        return new BoolType();
-    }
-
-    protected void codeGenReg() {
-        String boolValue = Codegen.FALSE;
-        Codegen.generate("li", Codegen.T0, boolValue);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("b", lblFalse);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -1936,78 +1384,6 @@ class IdNode extends ExpNode {
         return ((FnSym)mySym).getParamSize();
     }
 
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - check for use of undeclared name
-     * - if ok, link to symbol table entry
-     */
-    public void nameAnalysis(SymTable symTab) {
-        TSym sym = null;
-
-        try {
-          sym = symTab.lookupGlobal(myStrVal);
-        } catch (EmptySymTableException ex) {
-            System.err.println("Unexpected EmptySymTableException " +
-                               " in IdNode.nameAnalysis");
-            System.exit(-1);
-        }
-
-        if (sym == null) {
-            ErrMsg.fatal(myLineNum, myCharNum, "Undeclared identifier");
-        } else {
-            link(sym);
-        }
-    }
-
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        if (mySym != null) {
-            return mySym.getType();
-        }
-        else {
-            System.err.println("ID with null sym field in IdNode.typeCheck");
-            System.exit(-1);
-        }
-        return null;
-    }
-
-    private void codeGen(String command) {
-        if (mySym.isGlobal()) {
-            Codegen.generate(command, Codegen.T0, "_" + myStrVal);
-        } else {
-            Codegen.generateIndexed(command, Codegen.T0, Codegen.FP, mySym.getOffset());
-        }
-    }    
-
-    protected void codeGenReg() {
-        codeGen("lw");
-    }
-
-    public void codeGenPres() {
-        if (mySym.isGlobal()) {
-            Codegen.generate("la", Codegen.T0, "_" + myStrVal);
-            Codegen.generate("addiu", Codegen.T0, Codegen.T0, "0");
-        } else {
-            Codegen.generate("addiu", Codegen.T0, Codegen.FP, mySym.getOffset());
-        }
-        Codegen.genPush(Codegen.T0);
-    }
-    
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        if (mySym.isGlobal()) {
-            Codegen.generate("lw", Codegen.T0, "_" + myStrVal);
-        } else {
-            Codegen.generateIndexed("lw", Codegen.T0, Codegen.FP, mySym.getOffset());
-        }
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
-    }
-    
-    
-
     /**
      * Is this function main?
      * HINT: This may be useful during code generation.
@@ -2016,6 +1392,13 @@ class IdNode extends ExpNode {
 		return (myStrVal.equals("main"));
     }
 
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
+    }
+
     public void unparse(PrintWriter p, int indent) {
         p.print(myStrVal);
         if (mySym != null) {
@@ -2043,6 +1426,26 @@ class DotAccessExpNode extends ExpNode {
         return mySym;
     }
 
+    /**
+     * Link the given symbol, the struct definition of the RHS if it is of
+     * a struct type, to this dot-access node.
+     */
+    public void link(TSym sym) {
+        mySym = sym;
+    }
+
+    /**
+     * Did name analysis of this dot-access find an error?  A dot-access
+     * "higher up" in the AST then reports no more errors.
+     */
+    public boolean isBadAccess() {
+        return badAccess;
+    }
+
+    public void setBadAccess(boolean bad) {
+        badAccess = bad;
+    }
+
     /**
      * Return the line number for this dot-access node.
      * The line number is the one corresponding to the RHS of the dot-access.
@@ -2060,110 +1463,48 @@ class DotAccessExpNode extends ExpNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, do:
-     * - process the LHS of the dot-access
-     * - process the RHS of the dot-access
-     * - if the RHS is of a struct type, set the sym for this node so that
-     *   a dot-access "higher up" in the AST can get access to the symbol
-     *   table for the appropriate struct definition
+     * Return the ID at the root of this chain of dot-accesses.
      */
-    public void nameAnalysis(SymTable symTab) {
-        badAccess = false;
-        SymTable structSymTab = null; // to lookup RHS of dot-access
-        TSym sym = null;
-
-        myLoc.nameAnalysis(symTab);  // do name analysis on LHS
-
-        // if myLoc is really an ID, then sym will be a link to the ID's symbol
-        if (myLoc instanceof IdNode) {
-            IdNode id = (IdNode)myLoc;
-            sym = id.sym();
-
-            // check ID has been declared to be of a struct type
-
-            if (sym == null) { // ID was undeclared
-                badAccess = true;
-            }
-            else if (sym instanceof StructSym) {
-                // get symbol table for struct type
-                TSym tempSym = ((StructSym)sym).getStructType().sym();
-                structSymTab = ((StructDefSym)tempSym).getSymTable();
-            }
-            else {  // LHS is not a struct type
-                ErrMsg.fatal(id.lineNum(), id.charNum(),
-                             "Dot-access of non-struct type");
-                badAccess = true;
-            }
-        }
-
-        // if myLoc is really a dot-access (i.e., myLoc was of the form
-        // LHSloc.RHSid), then sym will either be
-        // null - indicating RHSid is not of a struct type, or
-        // a link to the TSym for the struct type RHSid was declared to be
-        else if (myLoc instanceof DotAccessExpNode) {
-            DotAccessExpNode loc = (DotAccessExpNode)myLoc;
-
-            if (loc.badAccess) {  // if errors in processing myLoc
-                badAccess = true; // don't continue proccessing this dot-access
-            }
-            else { //  no errors in processing myLoc
-                sym = loc.sym();
-
-                if (sym == null) {  // no struct in which to look up RHS
-                    ErrMsg.fatal(loc.lineNum(), loc.charNum(),
-                                 "Dot-access of non-struct type");
-                    badAccess = true;
-                }
-                else {  // get the struct's symbol table in which to lookup RHS
-                    if (sym instanceof StructDefSym) {
-                        structSymTab = ((StructDefSym)sym).getSymTable();
-                    }
-                    else {
-                        System.err.println("Unexpected Sym type in DotAccessExpNode");
-                        System.exit(-1);
-                    }
-                }
-            }
-        }
-
-        else { // don't know what kind of thing myLoc is
-            System.err.println("Unexpected node type in LHS of dot-access");
-            System.exit(-1);
+    public IdNode base() {
+        ExpNode loc = myLoc;
+        while (loc instanceof DotAccessExpNode) {
+            loc = ((DotAccessExpNode)loc).myLoc;
         }
+        return (IdNode)loc;
+    }
 
-        // do name analysis on RHS of dot-access in the struct's symbol table
-        if (!badAccess) {
-            try {
-                sym = structSymTab.lookupGlobal(myId.name()); // lookup
-            } catch (EmptySymTableException ex) {
-                System.err.println("Unexpected EmptySymTableException " +
-                                 " in DotAccessExpNode.nameAnalysis");
-            }
-
-            if (sym == null) { // not found - RHS is not a valid field name
-                ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                             "Invalid struct field name");
-                badAccess = true;
-            } else {
-                myId.link(sym);  // link the symbol
-                // if RHS is itself as struct type, link the symbol for its struct
-                // type to this dot-access node (to allow chained dot-access)
-                if (sym instanceof StructSym) {
-                    mySym = ((StructSym)sym).getStructType().sym();
-                }
-            }
+    /**
+     * Return the offset, in words, of this field in the variable at the
+     * root of the chain (see StructDefSym for the layout).  a.b.c is at
+     * the offset of b in a plus the offset of c in b.
+     */
+    public int offset() {
+        int offset = 0;
+        DotAccessExpNode dot = this;
+        while (dot.myLoc instanceof DotAccessExpNode) {
+            DotAccessExpNode loc = (DotAccessExpNode)dot.myLoc;
+            offset += ((StructDefSym)loc.sym()).getFieldOffset(dot.myId.name());
+            dot = loc;
         }
+        StructSym sym = (StructSym)((IdNode)dot.myLoc).sym();
+        StructDefSym def = (StructDefSym)sym.getStructType().sym();
+        return offset + def.getFieldOffset(dot.myId.name());
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        return myId.typeCheck();
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    protected void codeGenReg() {
+    // the kids, for visitors
+    public ExpNode loc() {
+        return myLoc;
+    }
+
+    public IdNode id() {
+        return myId;
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2202,78 +1543,20 @@ class AssignNode extends ExpNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's
-     * two children
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myLhs.nameAnalysis(symTab);
-        myExp.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        Type typeLhs = myLhs.typeCheck();
-        Type typeExp = myExp.typeCheck();
-        Type retType = typeLhs;
-
-        if (typeLhs.isFnType() && typeExp.isFnType()) {
-            ErrMsg.fatal(lineNum(), charNum(), "Function assignment");
-            retType = new ErrorType();
-        }
-
-        if (typeLhs.isStructDefType() && typeExp.isStructDefType()) {
-            ErrMsg.fatal(lineNum(), charNum(), "Struct name assignment");
-            retType = new ErrorType();
-        }
-
-        if (typeLhs.isStructType() && typeExp.isStructType()) {
-            ErrMsg.fatal(lineNum(), charNum(), "Struct variable assignment");
-            retType = new ErrorType();
-        }
-
-        if (!typeLhs.equals(typeExp) && !typeLhs.isErrorType() && !typeExp.isErrorType()) {
-            ErrMsg.fatal(lineNum(), charNum(), "Type mismatch");
-            retType = new ErrorType();
-        }
-
-        if (typeLhs.isErrorType() || typeExp.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
-
-    protected void codeGenReg() {
-        // Generate code for the right-hand side expression
-        myExp.codeGenValue();
-    
-        // Generate code to compute the address of the left-hand side expression
-        if (myLhs instanceof IdNode) {
-            IdNode id = (IdNode) myLhs;
-            TSym sym = id.sym();
-            if (sym.isGlobal()) {
-                Codegen.generate("la", Codegen.T1, "_" + id.name());
-            } else {
-                Codegen.generate("addiu", Codegen.T1, Codegen.FP, sym.getOffset());
-            }
-        } else {
-            return;
-        }
-    
-        Codegen.genPop(Codegen.T0);
-        Codegen.generateIndexed("sw", Codegen.T0, Codegen.T1, 0);
+    // the kids, for visitors
+    public ExpNode lhs() {
+        return myLhs;
     }
 
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("seq", Codegen.T1, Codegen.T0, Codegen.FALSE);
-        Codegen.generate("bne", Codegen.T1, Codegen.FALSE, lblTrue);
-        Codegen.generate("b", lblFalse);
+    public ExpNode exp() {
+        return myExp;
     }
-    
 
     public void unparse(PrintWriter p, int indent) {
         if (indent != -1)  p.print("(");
@@ -2296,7 +1579,7 @@ class CallExpNode extends ExpNode {
 
     public CallExpNode(IdNode name) {
         myId = name;
-        myExpList = new ExpListNode(new LinkedList<ExpNode>());
+        myExpList = new ExpListNode(new ArrayList<ExpNode>(0));
     }
 
     /**
@@ -2316,65 +1599,21 @@ class CallExpNode extends ExpNode {
     }
 
     /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's
-     * two children
+     * accept
      */
-    public void nameAnalysis(SymTable symTab) {
-        myId.nameAnalysis(symTab);
-        myExpList.nameAnalysis(symTab);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        if (!myId.typeCheck().isFnType()) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Attempt to call a non-function");
-            return new ErrorType();
-        }
-
-        FnSym fnSym = (FnSym)(myId.sym());
-
-        if (fnSym == null) {
-            System.err.println("null sym for Id in CallExpNode.typeCheck");
-            System.exit(-1);
-        }
-
-        if (myExpList.size() != fnSym.getNumParams()) {
-            ErrMsg.fatal(myId.lineNum(), myId.charNum(),
-                         "Function call with wrong number of args");
-            return fnSym.getReturnType();
-        }
-
-        myExpList.typeCheck(fnSym.getParamTypes());
-        return fnSym.getReturnType();
+    // the kids, for visitors
+    public IdNode id() {
+        return myId;
     }
 
-    protected void codeGenReg() {
-        myExpList.codeGen();
-        String jumpLabel;
-        if (!(myId.isMain())) {
-            jumpLabel = "_" + myId.name();
-        } else {
-            jumpLabel = "main";
-        }
-        callFunction(jumpLabel, ((FnSym) myId.sym()).getParamSize(), ((FnSym) myId.sym()).getReturnType());
-    }
-    
-    private void callFunction(String jumpLabel, int paramSize, Type returnType) {
-        Codegen.generate("jal", jumpLabel);
-        Codegen.generate("add", Codegen.SP, paramSize);
-        if (!returnType.isVoidType()) {
-            Codegen.genPush(Codegen.V0);
-        }
+    public ExpListNode args() {
+        return myExpList;
     }
 
-    public void codeGenValue() {
-        codeGenReg();
-    } 
-
     // ** unparse **
     public void unparse(PrintWriter p, int indent) {
         myId.unparse(p, 0);
@@ -2393,14 +1632,17 @@ class CallExpNode extends ExpNode {
 abstract class UnaryExpNode extends ExpNode {
     public UnaryExpNode(ExpNode exp) {
         myExp = exp;
+        myLineNum = exp.lineNum();
+        myCharNum = exp.charNum();
     }
 
     /**
      * Return the line number for this unary expression node.
-     * The line number is the one corresponding to the  operand.
+     * The line number is the one corresponding to the  operand, kept
+     * here so that a long chain of operators is not walked to find it.
      */
     public int lineNum() {
-        return myExp.lineNum();
+        return myLineNum;
     }
 
     /**
@@ -2408,33 +1650,35 @@ abstract class UnaryExpNode extends ExpNode {
      * The char number is the one corresponding to the  operand.
      */
     public int charNum() {
-        return myExp.charNum();
+        return myCharNum;
     }
 
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's child
-     */
-    public void nameAnalysis(SymTable symTab) {
-        myExp.nameAnalysis(symTab);
+    // the kid, for visitors
+    public ExpNode exp() {
+        return myExp;
     }
 
     // one child
     protected ExpNode myExp;
+    private int myLineNum;
+    private int myCharNum;
 }
 
 abstract class BinaryExpNode extends ExpNode {
     public BinaryExpNode(ExpNode exp1, ExpNode exp2) {
         myExp1 = exp1;
         myExp2 = exp2;
+        myLineNum = exp1.lineNum();
+        myCharNum = exp1.charNum();
     }
 
     /**
      * Return the line number for this binary expression node.
-     * The line number is the one corresponding to the left operand.
+     * The line number is the one corresponding to the left operand, kept
+     * here so that a long chain of operators is not walked to find it.
      */
     public int lineNum() {
-        return myExp1.lineNum();
+        return myLineNum;
     }
 
     /**
@@ -2442,23 +1686,23 @@ abstract class BinaryExpNode extends ExpNode {
      * The char number is the one corresponding to the left operand.
      */
     public int charNum() {
-        return myExp1.charNum();
+        return myCharNum;
     }
 
-    /**
-     * nameAnalysis
-     * Given a symbol table symTab, perform name analysis on this node's
-     * two children
-     */
-    public void nameAnalysis(SymTable symTab) {
-        myExp1.nameAnalysis(symTab);
-        myExp2.nameAnalysis(symTab);
+    // the kids, for visitors
+    public ExpNode exp1() {
+        return myExp1;
     }
 
+    public ExpNode exp2() {
+        return myExp2;
+    }
 
     // two kids
     protected ExpNode myExp1;
     protected ExpNode myExp2;
+    private int myLineNum;
+    private int myCharNum;
 }
 
 // **********************************************************************
@@ -2471,31 +1715,12 @@ class UnaryMinusNode extends UnaryExpNode {
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        Type type = myExp.typeCheck();
-        Type retType = new IntType();
-
-        if (!type.isErrorType() && !type.isIntType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Arithmetic operator applied to non-numeric operand");
-            retType = new ErrorType();
-        }
-
-        if (type.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    protected void codeGenReg() {
-        myExp.codeGenValue();
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sub", Codegen.T0, "$zero", Codegen.T0);
-    }    
-
     public void unparse(PrintWriter p, int indent) {
         p.print("(-");
         myExp.unparse(p, 0);
@@ -2509,38 +1734,11 @@ class NotNode extends UnaryExpNode {
     }
 
     /**
-     * typeCheck
+     * accept
      */
-    public Type typeCheck() {
-        Type type = myExp.typeCheck();
-        Type retType = new BoolType();
-
-        if (!type.isErrorType() && !type.isBoolType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Logical operator applied to non-bool operand");
-            retType = new ErrorType();
-        }
-
-        if (type.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
-
-    protected void codeGenReg() {
-        myExp.codeGenValue();
-        String trueLabel = Codegen.nextLabel();
-        String endLabel = Codegen.nextLabel();
-        Codegen.generate("beq", Codegen.T0, Codegen.TRUE, trueLabel);
-        Codegen.generate("li", Codegen.T0, Codegen.TRUE);
-        Codegen.generate("j", endLabel);
-        Codegen.genLabel(trueLabel);
-        Codegen.generate("li", Codegen.T0, Codegen.FALSE);
-        Codegen.genLabel(endLabel);
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
-    
-    public void codeGenLink(String lblTrue, String lblFalse) {}
 
     public void unparse(PrintWriter p, int indent) {
         p.print("(!");
@@ -2558,32 +1756,6 @@ abstract class ArithmeticExpNode extends BinaryExpNode {
         super(exp1, exp2);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        Type type1 = myExp1.typeCheck();
-        Type type2 = myExp2.typeCheck();
-        Type retType = new IntType();
-
-        if (!type1.isErrorType() && !type1.isIntType()) {
-            ErrMsg.fatal(myExp1.lineNum(), myExp1.charNum(),
-                         "Arithmetic operator applied to non-numeric operand");
-            retType = new ErrorType();
-        }
-
-        if (!type2.isErrorType() && !type2.isIntType()) {
-            ErrMsg.fatal(myExp2.lineNum(), myExp2.charNum(),
-                         "Arithmetic operator applied to non-numeric operand");
-            retType = new ErrorType();
-        }
-
-        if (type1.isErrorType() || type2.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
 }
 
 abstract class LogicalExpNode extends BinaryExpNode {
@@ -2591,32 +1763,6 @@ abstract class LogicalExpNode extends BinaryExpNode {
         super(exp1, exp2);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        Type type1 = myExp1.typeCheck();
-        Type type2 = myExp2.typeCheck();
-        Type retType = new BoolType();
-
-        if (!type1.isErrorType() && !type1.isBoolType()) {
-            ErrMsg.fatal(myExp1.lineNum(), myExp1.charNum(),
-                         "Logical operator applied to non-bool operand");
-            retType = new ErrorType();
-        }
-
-        if (!type2.isErrorType() && !type2.isBoolType()) {
-            ErrMsg.fatal(myExp2.lineNum(), myExp2.charNum(),
-                         "Logical operator applied to non-bool operand");
-            retType = new ErrorType();
-        }
-
-        if (type1.isErrorType() || type2.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
 }
 
 abstract class EqualityExpNode extends BinaryExpNode {
@@ -2624,50 +1770,6 @@ abstract class EqualityExpNode extends BinaryExpNode {
         super(exp1, exp2);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        Type type1 = myExp1.typeCheck();
-        Type type2 = myExp2.typeCheck();
-        Type retType = new BoolType();
-
-        if (type1.isVoidType() && type2.isVoidType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Equality operator applied to void functions");
-            retType = new ErrorType();
-        }
-
-        if (type1.isFnType() && type2.isFnType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Equality operator applied to functions");
-            retType = new ErrorType();
-        }
-
-        if (type1.isStructDefType() && type2.isStructDefType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Equality operator applied to struct names");
-            retType = new ErrorType();
-        }
-
-        if (type1.isStructType() && type2.isStructType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Equality operator applied to struct variables");
-            retType = new ErrorType();
-        }
-
-        if (!type1.equals(type2) && !type1.isErrorType() && !type2.isErrorType()) {
-            ErrMsg.fatal(lineNum(), charNum(),
-                         "Type mismatch");
-            retType = new ErrorType();
-        }
-
-        if (type1.isErrorType() || type2.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
 }
 
 abstract class RelationalExpNode extends BinaryExpNode {
@@ -2675,32 +1777,6 @@ abstract class RelationalExpNode extends BinaryExpNode {
         super(exp1, exp2);
     }
 
-    /**
-     * typeCheck
-     */
-    public Type typeCheck() {
-        Type type1 = myExp1.typeCheck();
-        Type type2 = myExp2.typeCheck();
-        Type retType = new BoolType();
-
-        if (!type1.isErrorType() && !type1.isIntType()) {
-            ErrMsg.fatal(myExp1.lineNum(), myExp1.charNum(),
-                         "Relational operator applied to non-numeric operand");
-            retType = new ErrorType();
-        }
-
-        if (!type2.isErrorType() && !type2.isIntType()) {
-            ErrMsg.fatal(myExp2.lineNum(), myExp2.charNum(),
-                         "Relational operator applied to non-numeric operand");
-            retType = new ErrorType();
-        }
-
-        if (type1.isErrorType() || type2.isErrorType()) {
-            retType = new ErrorType();
-        }
-
-        return retType;
-    }
 }
 
 class PlusNode extends ArithmeticExpNode {
@@ -2708,13 +1784,11 @@ class PlusNode extends ArithmeticExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("add", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.genPush(Codegen.T0);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2731,13 +1805,11 @@ class MinusNode extends ArithmeticExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sub", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.genPush(Codegen.T0);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2754,14 +1826,11 @@ class TimesNode extends ArithmeticExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("mult", Codegen.T0, Codegen.T1);
-        Codegen.generate("mflo", Codegen.T0);
-        Codegen.genPush(Codegen.T0);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2778,14 +1847,11 @@ class DivideNode extends ArithmeticExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("div", Codegen.T0, Codegen.T1);
-        Codegen.generate("mflo", Codegen.T0);
-        Codegen.genPush(Codegen.T0);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2802,21 +1868,12 @@ class AndNode extends LogicalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenReg();         
-        Codegen.genPush(Codegen.T0); 
-        myExp2.codeGenReg();         
-        Codegen.genPop(Codegen.T1);  
-        Codegen.generate("and", Codegen.V0, Codegen.T1, Codegen.T0); 
-        Codegen.genPush(Codegen.V0); 
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
-    
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        myExp1.codeGenLink(lblTrue, lblFalse);
-        myExp2.codeGenLink(lblFalse, lblFalse);
-        Codegen.genLabel(lblTrue);
-    }    
 
     public void unparse(PrintWriter p, int indent) {
         p.print("(");
@@ -2832,24 +1889,13 @@ class OrNode extends LogicalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenReg();
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("beq", Codegen.T0, Codegen.TRUE, "or_true");
-        myExp2.codeGenReg();
-        Codegen.generate("j", "or_end");
-        Codegen.genLabel("or_true");
-        Codegen.generate("li", Codegen.V0, Codegen.TRUE);
-        Codegen.genPush(Codegen.V0);
-        Codegen.genLabel("or_end");
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        myExp1.codeGenLink(lblTrue, lblFalse);
-        myExp2.codeGenLink(lblFalse, lblFalse);
-        Codegen.genLabel(lblTrue);
-    }    
-
     public void unparse(PrintWriter p, int indent) {
         p.print("(");
         myExp1.unparse(p, 0);
@@ -2864,20 +1910,11 @@ class EqualsNode extends EqualityExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("seq", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.genPush(Codegen.T0);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("seq", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2894,20 +1931,11 @@ class NotEqualsNode extends EqualityExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sne", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.genPush(Codegen.T0);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("seq", Codegen.T0, Codegen.T0, Codegen.T1);
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2924,18 +1952,11 @@ class LessNode extends RelationalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("slt", Codegen.T0, Codegen.T0, Codegen.T1);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2952,18 +1973,11 @@ class GreaterNode extends RelationalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sgt", Codegen.T0, Codegen.T0, Codegen.T1);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -2980,18 +1994,11 @@ class LessEqNode extends RelationalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sle", Codegen.T0, Codegen.T0, Codegen.T1);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
@@ -3008,18 +2015,11 @@ class GreaterEqNode extends RelationalExpNode {
         super(exp1, exp2);
     }
 
-    protected void codeGenReg() {
-        myExp1.codeGenValue();
-        myExp2.codeGenValue();
-        Codegen.genPop(Codegen.T1);
-        Codegen.genPop(Codegen.T0);
-        Codegen.generate("sge", Codegen.T0, Codegen.T0, Codegen.T1);
-    }
-
-    public void codeGenLink(String lblTrue, String lblFalse) {
-        codeGenReg();
-        Codegen.generate("beq", Codegen.T0, Codegen.FALSE, lblFalse);
-        Codegen.generate("b", lblTrue);
+    /**
+     * accept
+     */
+    public <R> R accept(AstVisitor<R> v) {
+        return v.visit(this);
     }
 
     public void unparse(PrintWriter p, int indent) {
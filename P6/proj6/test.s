@@ -9,917 +9,192 @@ _sum:	.space 4
 _btest:	.space 4
 	.text
 _testIfArithExpr:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 36
-		#WRITE
-	.data
-.L1:	.asciiz "\n//arithmetic ops \n"
-	.text
-	la    $t0, .L1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	la    $a0, .S0
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 2
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -12
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sub   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	add   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	div   $t0, $t1
-	mflo  $t0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	mult  $t0, $t1
-	mflo  $t0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	add   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	la    $t1, _sum
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L2:	.asciiz "var1 = 4/2 * 2: "
-	.text
-	la    $t0, .L2
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $t0, 6
+	sw    $t0, _sum
+	la    $a0, .S1
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 4
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L3:	.asciiz "\n"
-	.text
-	la    $t0, .L3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L4:	.asciiz "\n// test (<, >, <=, >=) \n"
-	.text
-	la    $t0, .L4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S3
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L5:	.asciiz "5 >= 3: "
-	.text
-	la    $t0, .L5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S4
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sge   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 1
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L6:	.asciiz "\n"
-	.text
-	la    $t0, .L6
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L7:	.asciiz "1 <= 2: "
-	.text
-	la    $t0, .L7
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S5
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 2
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sle   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 1
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L8:	.asciiz "\n"
-	.text
-	la    $t0, .L8
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L9:	.asciiz "7 < 4: "
-	.text
-	la    $t0, .L9
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S6
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 7
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	slt   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 0
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L10:	.asciiz "\n"
-	.text
-	la    $t0, .L10
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L11:	.asciiz "6 > 9: "
-	.text
-	la    $t0, .L11
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S7
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 6
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 9
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sgt   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 0
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L12:	.asciiz "\n"
-	.text
-	la    $t0, .L12
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L13:	.asciiz "\n// test PostInc and PostDec \n"
-	.text
-	la    $t0, .L13
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S8
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 4
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	addiu $t0, $fp, -8
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t1, 0($t0)
-	add   $t1, $t1, 1
-	sw    $t1, 0($t0)
-	.data
-.L14:	.asciiz "\nvar1++: "
-	.text
-	la    $t0, .L14
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S9
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 5
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L15:	.asciiz "\n"
-	.text
-	la    $t0, .L15
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L16:	.asciiz "\nvar2--: "
-	.text
-	la    $t0, .L16
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S10
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	addiu $t0, $fp, -12
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t1, 0($t0)
-	sub   $t1, $t1, 1
-	sw    $t1, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t1, 0($t0)
-	lw    $t0, -12($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 1
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L17:	.asciiz "\n"
-	.text
-	la    $t0, .L17
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L18:	.asciiz "\n// test AND \n"
-	.text
-	la    $t0, .L18
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S11
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -24
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -24($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 1
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	and   $v0, $t1, $t0
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -28
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L19:	.asciiz "c && true: "
-	.text
-	la    $t0, .L19
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $t4, 1
+	la    $a0, .S12
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -28($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	move  $a0, $t4
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L20:	.asciiz "\n"
-	.text
-	la    $t0, .L20
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L21:	.asciiz "c && false: "
-	.text
-	la    $t0, .L21
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S13
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -24($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 0
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	and   $v0, $t1, $t0
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $t4, 0
+	move  $a0, $t4
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L22:	.asciiz "\n"
-	.text
-	la    $t0, .L22
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L23:	.asciiz "false && false: "
-	.text
-	la    $t0, .L23
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S14
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 0
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	and   $v0, $t1, $t0
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $t4, 0
+	move  $a0, $t4
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L24:	.asciiz "\n"
-	.text
-	la    $t0, .L24
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L25:	.asciiz "\n// test NOT \n"
-	.text
-	la    $t0, .L25
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S15
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L26:	.asciiz "\nbool type (b1 != b2): "
-	.text
-	la    $t0, .L26
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S16
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -32($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -36($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sne   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sne   $t2, $t2, $t3
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L27:	.asciiz "\nstring type(\"hello\" != \"world\"): "
-	.text
-	la    $t0, .L27
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S17
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L28:	.asciiz "hello"
-	.text
-	la    $t0, .L28
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L29:	.asciiz "world: "
-	.text
-	la    $t0, .L29
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sne   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $t0, .S18
+	la    $t1, .S19
+	sne   $t2, $t0, $t1
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L30:	.asciiz "\n"
-	.text
-	la    $t0, .L30
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L31:	.asciiz "\n// test OR \n"
-	.text
-	la    $t0, .L31
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S20
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -24
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -28
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -28($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 1
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L32:	.asciiz "\n"
-	.text
-	la    $t0, .L32
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -40
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -40($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $t2, 0
+	li    $a0, 0
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	lw    $t0, -24($fp)
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	beq   $t0, 1, or_true
-	lw    $t0, -40($fp)
-	j     or_end
-or_true:
+	beqz  $t2, .LtestIfArithExpr_0
+	li    $t2, 1
+	b     .LtestIfArithExpr_1
+.LtestIfArithExpr_0:
+	li    $t2, 0
+.LtestIfArithExpr_1:
+	move  $a0, $t2
 	li    $v0, 1
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-or_end:
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L33:	.asciiz "\n"
-	.text
-	la    $t0, .L33
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L34:	.asciiz "\n// test equality \n"
-	.text
-	la    $t0, .L34
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S21
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -16
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 10
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -20
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L35:	.asciiz "x == y: "
-	.text
-	la    $t0, .L35
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S22
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -16($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -20($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	seq   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 0
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L36:	.asciiz "\n"
-	.text
-	la    $t0, .L36
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -32
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -36
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L37:	.asciiz "b1 == b2: "
-	.text
-	la    $t0, .L37
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S23
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	lw    $t0, -32($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, -36($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	seq   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $a0, 0
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L38:	.asciiz "\n"
-	.text
-	la    $t0, .L38
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	j     .L0
-		#FUNCTION EXIT
-
-.L0:
+.LtestIfArithExpr_2:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -927,58 +202,22 @@ or_end:
 	jr    $ra
 	.text
 _testIf:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sne   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	beq   $t0, 0, .L40
-	.data
-.L41:	.asciiz "not equal!\n"
-	.text
-	la    $t0, .L41
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	li    $v0, 4
-	move  $a0, $t0
-	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L39
-.L40:
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L39
-		#FUNCTION EXIT
-
-.L39:
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	lw    $t3, 8($fp)
+	sne   $t2, $t2, $t3
+	beqz  $t2, .LtestIf_0
+	la    $a0, .S24
+	li    $v0, 4
+	syscall
+	li    $v0, 0
+	b     .LtestIf_1
+.LtestIf_0:
+	li    $v0, 1
+.LtestIf_1:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -986,80 +225,30 @@ _testIf:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testIfAndWhile:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-.L43:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 10
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	slt   $t0, $t0, $t1
-	beq   $t0, 0, .L45
-	b     .L44
-.L44:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	slt   $t0, $t0, $t1
-	beq   $t0, 0, .L47
-	b     .L46
-.L46:
-	.data
-.L48:	.asciiz "j is less than 5\n"
-	.text
-	la    $t0, .L48
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	li    $v0, 4
-	move  $a0, $t0
-	syscall
-	b     .L47
-.L47:
-	.data
-.L49:	.asciiz "j is greater than or equal to 5\n"
-	.text
-	la    $t0, .L49
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	li    $v0, 4
-	move  $a0, $t0
-	syscall
-	addiu $t0, $fp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t1, 0($t0)
-	add   $t1, $t1, 1
-	sw    $t1, 0($t0)
-	j     .L43
-.L45:
-	j     .L42
-		#FUNCTION EXIT
-
-.L42:
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+.LtestIfAndWhile_0:
+	slti  $t3, $t2, 10
+	beqz  $t3, .LtestIfAndWhile_3
+	slti  $t3, $t2, 5
+	beqz  $t3, .LtestIfAndWhile_1
+	la    $a0, .S25
+	li    $v0, 4
+	syscall
+	b     .LtestIfAndWhile_2
+.LtestIfAndWhile_1:
+	la    $a0, .S26
+	li    $v0, 4
+	syscall
+.LtestIfAndWhile_2:
+	addiu $t3, $t2, 1
+	move  $t2, $t3
+	b     .LtestIfAndWhile_0
+.LtestIfAndWhile_3:
+.LtestIfAndWhile_4:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1067,74 +256,28 @@ _testIfAndWhile:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testIfElseAndLargNum:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 999
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sge   $t0, $t0, $t1
-	beq   $t0, 0, .L52
-	b     .L51
-.L51:
-	.data
-.L53:	.asciiz " >= 999: true\n"
-	.text
-	la    $t0, .L53
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	slti  $t2, $t2, 999
+	xori  $t2, $t2, 1
+	beqz  $t2, .LtestIfElseAndLargNum_0
+	la    $a0, .S27
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L50
-	b     .L52
-.L52:
-	.data
-.L54:	.asciiz " >= 999: false\n"
-	.text
-	la    $t0, .L54
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	li    $v0, 1
+	b     .LtestIfElseAndLargNum_1
+.LtestIfElseAndLargNum_0:
+	la    $a0, .S28
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L50
-		#FUNCTION EXIT
-
-.L50:
+	li    $v0, 0
+.LtestIfElseAndLargNum_1:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1142,71 +285,28 @@ _testIfElseAndLargNum:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testWhile:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-.L56:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sle   $t0, $t0, $t1
-	beq   $t0, 0, .L58
-	b     .L57
-.L57:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+.LtestWhile_0:
+	slti  $t3, $t2, 6
+	beqz  $t3, .LtestWhile_1
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L59:	.asciiz "\n"
-	.text
-	la    $t0, .L59
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	addiu $t0, $fp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t1, 0($t0)
-	add   $t1, $t1, 1
-	sw    $t1, 0($t0)
-	j     .L56
-.L58:
-	.data
-.L60:	.asciiz "Done!\n"
-	.text
-	la    $t0, .L60
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	addiu $t3, $t2, 1
+	move  $t2, $t3
+	b     .LtestWhile_0
+.LtestWhile_1:
+	la    $a0, .S29
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-		#FUNCTION EXIT
-
-.L55:
+.LtestWhile_2:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1214,81 +314,30 @@ _testWhile:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testNestedCondStmts:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sgt   $t0, $t0, $t1
-	beq   $t0, 0, .L63
-	b     .L62
-.L62:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 5
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	slt   $t0, $t0, $t1
-	beq   $t0, 0, .L65
-	b     .L64
-.L64:
-	.data
-.L66:	.asciiz "Number is less than 5\n"
-	.text
-	la    $t0, .L66
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	slti  $t3, $t2, 1
+	xori  $t3, $t3, 1
+	beqz  $t3, .LtestNestedCondStmts_1
+	slti  $t2, $t2, 5
+	beqz  $t2, .LtestNestedCondStmts_0
+	la    $a0, .S30
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	b     .L65
-.L65:
-	.data
-.L67:	.asciiz "Number is greater than or equal to 5\n"
-	.text
-	la    $t0, .L67
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	b     .LtestNestedCondStmts_2
+.LtestNestedCondStmts_0:
+	la    $a0, .S31
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	b     .L63
-.L63:
-	.data
-.L68:	.asciiz "Number is negative\n"
-	.text
-	la    $t0, .L68
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	b     .LtestNestedCondStmts_2
+.LtestNestedCondStmts_1:
+	la    $a0, .S32
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-		#FUNCTION EXIT
-
-.L61:
+.LtestNestedCondStmts_2:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1296,69 +345,26 @@ _testNestedCondStmts:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testBigLoop:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 4
-		#WRITE
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addiu $t1, $fp, -8
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sw    $t0, 0($t1)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-.L70:
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	slt   $t0, $t0, $t1
-	beq   $t0, 0, .L72
-	b     .L71
-.L71:
-	addiu $t0, $fp, -8
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t1, 0($t0)
-	add   $t1, $t1, 1
-	sw    $t1, 0($t0)
-	j     .L70
-.L72:
-	.data
-.L73:	.asciiz "sum = "
-	.text
-	la    $t0, .L73
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	li    $v0, 4
-	move  $a0, $t0
-	syscall
-	lw    $t0, -8($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	li    $t3, 0
+.LtestBigLoop_0:
+	slt   $t4, $t3, $t2
+	beqz  $t4, .LtestBigLoop_1
+	addiu $t4, $t3, 1
+	move  $t3, $t4
+	b     .LtestBigLoop_0
+.LtestBigLoop_1:
+	la    $a0, .S33
+	li    $v0, 4
+	syscall
+	move  $a0, $t3
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-		#FUNCTION EXIT
-
-.L69:
+.LtestBigLoop_2:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1366,34 +372,14 @@ _testBigLoop:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testReturnInt:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	add   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L74
-		#FUNCTION EXIT
-
-.L74:
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	addiu $t2, $t2, 3
+	move  $v0, $t2
+.LtestReturnInt_0:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1401,30 +387,14 @@ _testReturnInt:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testReturnBool:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	beq   $t0, 1, .L76
-	li    $t0, 1
-	j     .L77
-.L76:
-	li    $t0, 0
-.L77:
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L75
-		#FUNCTION EXIT
-
-.L75:
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	lw    $t2, 4($fp)
+	xori  $t2, $t2, 1
+	move  $v0, $t2
+.LtestReturnBool_0:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1432,74 +402,28 @@ _testReturnBool:	# METHOD ENTRY
 	jr    $ra
 	.text
 _testRecursive:	# METHOD ENTRY
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sle   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	beq   $t0, 0, .L79
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	b     .L78
-.L79:
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($fp)
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	sub   $t0, $t0, $t1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 12
+	sw    $s0, -8($fp)
+	lw    $s0, 4($fp)
+	slti  $t2, $s0, 1
+	beqz  $t2, .LtestRecursive_0
+	move  $v0, $s0
+	b     .LtestRecursive_1
+.LtestRecursive_0:
+	addiu $t2, $s0, -1
+	subu  $sp, $sp, 4
+	sw    $t2, 4($sp)
 	jal   _testRecursive
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t1, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
-	mult  $t0, $t1
-	mflo  $t0
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $v0, 4($sp)	#POP
 	addu  $sp, $sp, 4
-	b     .L78
-		#FUNCTION EXIT
-
-.L78:
+	move  $t2, $v0
+	mult  $s0, $t2
+	mflo  $t2
+	move  $v0, $t2
+.LtestRecursive_1:		# FUNCTION EXIT
+	lw    $s0, -8($fp)
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
@@ -1509,543 +433,281 @@ _testRecursive:	# METHOD ENTRY
 	.globl main
 main:		# METHOD ENTRY
 __start:
-	sw    $ra, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	sw    $fp, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	addu  $fp, $sp, 8
-	subu  $sp, $sp, 0
-		#WRITE
-	.data
-.L81:	.asciiz "\n"
-	.text
-	la    $t0, .L81
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	sw    $ra, 0($sp)
+	sw    $fp, -4($sp)
+	move  $fp, $sp
+	subu  $sp, $sp, 8
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L82:	.asciiz "// test arithmetic \n"
-	.text
-	la    $t0, .L82
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S34
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
 	jal   _testIfArithExpr
-	add   $sp, 0
-	.data
-.L83:	.asciiz "\n"
-	.text
-	la    $t0, .L83
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L84:	.asciiz "// test if \n"
-	.text
-	la    $t0, .L84
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S35
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	subu  $sp, $sp, 8
 	li    $t0, 25
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	sw    $t0, 4($sp)
+	li    $t0, 3
+	sw    $t0, 8($sp)
 	jal   _testIf
-	add   $sp, 8
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	addu  $sp, $sp, 8
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L85:	.asciiz "\n"
-	.text
-	la    $t0, .L85
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
+	subu  $sp, $sp, 8
 	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	sw    $t0, 4($sp)
 	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	sw    $t0, 8($sp)
 	jal   _testIf
-	add   $sp, 8
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	addu  $sp, $sp, 8
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L86:	.asciiz "\n"
-	.text
-	la    $t0, .L86
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L87:	.asciiz "\n"
-	.text
-	la    $t0, .L87
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L88:	.asciiz "// test if and while \n"
-	.text
-	la    $t0, .L88
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S36
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 7
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 7
+	sw    $t0, 4($sp)
 	jal   _testIfAndWhile
-	add   $sp, 4
-	.data
-.L89:	.asciiz "\n"
-	.text
-	la    $t0, .L89
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L90:	.asciiz "// test if else \n"
-	.text
-	la    $t0, .L90
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S37
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1200
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 1200
+	sw    $t0, 4($sp)
 	jal   _testIfElseAndLargNum
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
+	addu  $sp, $sp, 4
+	move  $t2, $v0
 	subu  $sp, $sp, 4
 	li    $t0, 900
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
+	sw    $t0, 4($sp)
 	jal   _testIfElseAndLargNum
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	.data
-.L91:	.asciiz "\n"
-	.text
-	la    $t0, .L91
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L92:	.asciiz "// test while \n"
-	.text
-	la    $t0, .L92
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S38
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 2
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 2
+	sw    $t0, 4($sp)
 	jal   _testWhile
-	add   $sp, 4
-	.data
-.L93:	.asciiz "\n"
-	.text
-	la    $t0, .L93
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L94:	.asciiz "// test nested conditional stmts \n"
-	.text
-	la    $t0, .L94
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S39
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 6
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 6
+	sw    $t0, 4($sp)
 	jal   _testNestedCondStmts
-	add   $sp, 4
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
-	sub   $t0, $zero, $t0
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, -1
+	sw    $t0, 4($sp)
 	jal   _testNestedCondStmts
-	add   $sp, 4
-	.data
-.L95:	.asciiz "\n"
-	.text
-	la    $t0, .L95
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L96:	.asciiz "// test big loop \n"
-	.text
-	la    $t0, .L96
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S40
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 100
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 100
+	sw    $t0, 4($sp)
 	jal   _testBigLoop
-	add   $sp, 4
-	.data
-.L97:	.asciiz "\n"
-	.text
-	la    $t0, .L97
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L98:	.asciiz "\n// test int return \n"
-	.text
-	la    $t0, .L98
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S41
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L99:	.asciiz "2 + 3: "
-	.text
-	la    $t0, .L99
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S42
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 2
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 2
+	sw    $t0, 4($sp)
 	jal   _testReturnInt
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L100:	.asciiz "\n"
-	.text
-	la    $t0, .L100
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L101:	.asciiz "\n// test bool return \n"
-	.text
-	la    $t0, .L101
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S43
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L102:	.asciiz "!val (val == true): "
-	.text
-	la    $t0, .L102
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S44
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 1
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 1
+	sw    $t0, 4($sp)
 	jal   _testReturnBool
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L103:	.asciiz "\n"
-	.text
-	la    $t0, .L103
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L104:	.asciiz "\n// test recursive function \n"
-	.text
-	la    $t0, .L104
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S45
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L105:	.asciiz "testRecursive(0): "
-	.text
-	la    $t0, .L105
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S46
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 0
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	sw    $zero, 4($sp)
 	jal   _testRecursive
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L106:	.asciiz "\n"
-	.text
-	la    $t0, .L106
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L107:	.asciiz "testRecursive(2): "
-	.text
-	la    $t0, .L107
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S47
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 2
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 2
+	sw    $t0, 4($sp)
 	jal   _testRecursive
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L108:	.asciiz "\n"
-	.text
-	la    $t0, .L108
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L109:	.asciiz "testRecursive(3): "
-	.text
-	la    $t0, .L109
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S48
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 3
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 3
+	sw    $t0, 4($sp)
 	jal   _testRecursive
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L110:	.asciiz "\n"
-	.text
-	la    $t0, .L110
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L111:	.asciiz "testRecursive(4): "
-	.text
-	la    $t0, .L111
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S49
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	li    $t0, 4
-	sw    $t0, 0($sp)	#PUSH
 	subu  $sp, $sp, 4
+	li    $t0, 4
+	sw    $t0, 4($sp)
 	jal   _testRecursive
-	add   $sp, 4
-	sw    $v0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
 	addu  $sp, $sp, 4
+	move  $t2, $v0
+	move  $a0, $t2
 	li    $v0, 1
-	move  $a0, $t0
 	syscall
-	.data
-.L112:	.asciiz "\n"
-	.text
-	la    $t0, .L112
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L113:	.asciiz "Hello world!"
-	.text
-	la    $t0, .L113
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S50
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	.data
-.L114:	.asciiz "\n"
-	.text
-	la    $t0, .L114
-	sw    $t0, 0($sp)	#PUSH
-	subu  $sp, $sp, 4
-	lw    $t0, 4($sp)	#POP
-	addu  $sp, $sp, 4
+	la    $a0, .S2
 	li    $v0, 4
-	move  $a0, $t0
 	syscall
-	j     .L80
-		#FUNCTION EXIT
-
-.L80:
-_main_Exit:
+.Lmain_0:		# FUNCTION EXIT
 	lw    $ra, 0($fp)
 	move  $t0, $fp
 	lw    $fp, -4($fp)
 	move  $sp, $t0
 	li    $v0, 10
 	syscall
+	.data
+.S0:	.asciiz "\n//arithmetic ops \n"
+.S1:	.asciiz "var1 = 4/2 * 2: "
+.S2:	.asciiz "\n"
+.S3:	.asciiz "\n// test (<, >, <=, >=) \n"
+.S4:	.asciiz "5 >= 3: "
+.S5:	.asciiz "1 <= 2: "
+.S6:	.asciiz "7 < 4: "
+.S7:	.asciiz "6 > 9: "
+.S8:	.asciiz "\n// test PostInc and PostDec \n"
+.S9:	.asciiz "\nvar1++: "
+.S10:	.asciiz "\nvar2--: "
+.S11:	.asciiz "\n// test AND \n"
+.S12:	.asciiz "c && true: "
+.S13:	.asciiz "c && false: "
+.S14:	.asciiz "false && false: "
+.S15:	.asciiz "\n// test NOT \n"
+.S16:	.asciiz "\nbool type (b1 != b2): "
+.S17:	.asciiz "\nstring type(\"hello\" != \"world\"): "
+.S18:	.asciiz "hello"
+.S19:	.asciiz "world: "
+.S20:	.asciiz "\n// test OR \n"
+.S21:	.asciiz "\n// test equality \n"
+.S22:	.asciiz "x == y: "
+.S23:	.asciiz "b1 == b2: "
+.S24:	.asciiz "not equal!\n"
+.S25:	.asciiz "j is less than 5\n"
+.S26:	.asciiz "j is greater than or equal to 5\n"
+.S27:	.asciiz " >= 999: true\n"
+.S28:	.asciiz " >= 999: false\n"
+.S29:	.asciiz "Done!\n"
+.S30:	.asciiz "Number is less than 5\n"
+.S31:	.asciiz "Number is greater than or equal to 5\n"
+.S32:	.asciiz "Number is negative\n"
+.S33:	.asciiz "sum = "
+.S34:	.asciiz "// test arithmetic \n"
+.S35:	.asciiz "// test if \n"
+.S36:	.asciiz "// test if and while \n"
+.S37:	.asciiz "// test if else \n"
+.S38:	.asciiz "// test while \n"
+.S39:	.asciiz "// test nested conditional stmts \n"
+.S40:	.asciiz "// test big loop \n"
+.S41:	.asciiz "\n// test int return \n"
+.S42:	.asciiz "2 + 3: "
+.S43:	.asciiz "\n// test bool return \n"
+.S44:	.asciiz "!val (val == true): "
+.S45:	.asciiz "\n// test recursive function \n"
+.S46:	.asciiz "testRecursive(0): "
+.S47:	.asciiz "testRecursive(2): "
+.S48:	.asciiz "testRecursive(3): "
+.S49:	.asciiz "testRecursive(4): "
+.S50:	.asciiz "Hello world!"